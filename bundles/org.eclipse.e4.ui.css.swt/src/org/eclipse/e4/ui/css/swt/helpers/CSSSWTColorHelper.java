@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2015 Angelo Zerr and others.
+ * Copyright (c) 2008, 2016 Angelo Zerr and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -25,6 +25,7 @@ import org.eclipse.e4.ui.css.core.css2.CSS2ColorHelper;
 import org.eclipse.e4.ui.css.core.css2.CSS2RGBColorImpl;
 import org.eclipse.e4.ui.css.core.dom.properties.Gradient;
 import org.eclipse.e4.ui.css.core.engine.CSSEngine;
+import org.eclipse.e4.ui.css.swt.resources.SWTResourcesRegistry;
 import org.eclipse.e4.ui.internal.css.swt.CSSActivator;
 import org.eclipse.e4.ui.internal.css.swt.definition.IColorAndFontProvider;
 import org.eclipse.swt.SWT;
@@ -54,13 +55,26 @@ public class CSSSWTColorHelper {
 	}
 
 	public static Color getSWTColor(CSSValue value, Display display) {
+		return getSWTColor(value, display, null);
+	}
+
+	/**
+	 * Returns the color of the value, allocated through the registry if it is
+	 * not <code>null</code> so that it is shared with the other users of the
+	 * color on the display.
+	 */
+	public static Color getSWTColor(CSSValue value, Display display, SWTResourcesRegistry registry) {
 		if (value.getCssValueType() != CSSValue.CSS_PRIMITIVE_VALUE) {
 			return null;
 		}
 		Color color = display.getSystemColor(SWT.COLOR_BLACK);
 		RGBA rgba = getRGBA((CSSPrimitiveValue) value, display);
 		if (rgba != null) {
-			color = new Color(display, rgba.rgb.red, rgba.rgb.green, rgba.rgb.blue, rgba.alpha);
+			if (registry != null) {
+				color = registry.createColor(display, rgba);
+			} else {
+				color = new Color(display, rgba.rgb.red, rgba.rgb.green, rgba.rgb.blue, rgba.alpha);
+			}
 		}
 		return color;
 	}
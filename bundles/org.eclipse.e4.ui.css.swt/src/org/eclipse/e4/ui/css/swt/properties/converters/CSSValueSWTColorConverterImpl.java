@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2014 Angelo Zerr and others.
+ * Copyright (c) 2008, 2016 Angelo Zerr and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -17,7 +17,9 @@ import org.eclipse.e4.ui.css.core.dom.properties.converters.ICSSValueConverter;
 import org.eclipse.e4.ui.css.core.dom.properties.converters.ICSSValueConverterConfig;
 import org.eclipse.e4.ui.css.core.engine.CSSEngine;
 import org.eclipse.e4.ui.css.core.exceptions.DOMExceptionImpl;
+import org.eclipse.e4.ui.css.core.resources.IResourcesRegistry;
 import org.eclipse.e4.ui.css.swt.helpers.CSSSWTColorHelper;
+import org.eclipse.e4.ui.css.swt.resources.SWTResourcesRegistry;
 import org.eclipse.swt.graphics.Color;
 import org.eclipse.swt.widgets.Display;
 import org.w3c.dom.DOMException;
@@ -43,7 +45,9 @@ public class CSSValueSWTColorConverterImpl extends AbstractCSSValueConverter {
 	public Color convert(CSSValue value, CSSEngine engine, Object context)
 			throws DOMException {
 		Display display = (Display) context;
-		Color color = CSSSWTColorHelper.getSWTColor(value, display);
+		IResourcesRegistry registry = engine != null ? engine.getResourcesRegistry() : null;
+		Color color = CSSSWTColorHelper.getSWTColor(value, display,
+				registry instanceof SWTResourcesRegistry ? (SWTResourcesRegistry) registry : null);
 		if (color == null)
 			throw new DOMExceptionImpl(DOMException.INVALID_ACCESS_ERR,
 					DOMExceptionImpl.RGBCOLOR_ERROR);
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2014 Angelo Zerr and others.
+ * Copyright (c) 2008, 2016 Angelo Zerr and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,7 +13,9 @@ package org.eclipse.e4.ui.css.swt.properties.converters;
 import org.eclipse.e4.ui.css.core.dom.properties.converters.ICSSValueConverter;
 import org.eclipse.e4.ui.css.core.dom.properties.converters.ICSSValueConverterConfig;
 import org.eclipse.e4.ui.css.core.engine.CSSEngine;
+import org.eclipse.e4.ui.css.core.resources.IResourcesRegistry;
 import org.eclipse.e4.ui.css.swt.helpers.CSSSWTFontHelper;
+import org.eclipse.e4.ui.css.swt.resources.SWTResourcesRegistry;
 import org.eclipse.swt.graphics.Font;
 import org.eclipse.swt.graphics.FontData;
 import org.eclipse.swt.widgets.Display;
@@ -34,6 +36,10 @@ public class CSSValueSWTFontConverterImpl extends
 		FontData fontData = (FontData) super.convert(value, engine, context);
 		if (fontData != null) {
 			Display display = super.getDisplay(context);
+			IResourcesRegistry registry = engine != null ? engine.getResourcesRegistry() : null;
+			if (registry instanceof SWTResourcesRegistry) {
+				return ((SWTResourcesRegistry) registry).createFont(display, fontData);
+			}
 			return new Font(display, fontData);
 		}
 		return null;
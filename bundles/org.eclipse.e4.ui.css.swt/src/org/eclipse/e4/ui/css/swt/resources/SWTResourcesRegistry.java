@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2015 Angelo Zerr and others.
+ * Copyright (c) 2008, 2016 Angelo Zerr and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,15 +12,25 @@
 package org.eclipse.e4.ui.css.swt.resources;
 
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import org.eclipse.e4.ui.css.core.resources.AbstractResourcesRegistry;
+import org.eclipse.jface.resource.ColorDescriptor;
+import org.eclipse.jface.resource.DeviceResourceDescriptor;
+import org.eclipse.jface.resource.FontDescriptor;
+import org.eclipse.jface.resource.JFaceResources;
+import org.eclipse.jface.resource.LocalResourceManager;
+import org.eclipse.jface.resource.ResourceManager;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.graphics.Color;
 import org.eclipse.swt.graphics.Cursor;
 import org.eclipse.swt.graphics.Font;
+import org.eclipse.swt.graphics.FontData;
 import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.RGBA;
 import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Event;
 import org.eclipse.swt.widgets.Listener;
@@ -28,21 +38,146 @@ import org.eclipse.swt.widgets.Listener;
 /**
  * SWT Resources Registry to cache SWT Resource like Color, Cursor and Font and
  * dispose it.
+ * <p>
+ * Colors and fonts created with {@link #createColor(Display, RGBA)} and
+ * {@link #createFont(Display, FontData)} are allocated through the shared,
+ * reference counted JFace resource manager of the display, so the CSS engines
+ * and the parts using JFace resource managers create an identical color or
+ * font only once per display. Those resources are released rather than
+ * disposed.
+ * </p>
  */
 public class SWTResourcesRegistry extends AbstractResourcesRegistry {
 
+	private Display display;
+
+	/**
+	 * The references of this registry to the shared resources of the display.
+	 * (null without display)
+	 */
+	private LocalResourceManager resourceManager;
+
+	/**
+	 * The descriptors of the shared resources created by this registry.
+	 */
+	private final Map<Object, DeviceResourceDescriptor> sharedResources = new IdentityHashMap<>();
+
+	private int avoidedDuplicates;
+
+	private boolean displayDisposed;
+
 	public SWTResourcesRegistry(Display display) {
 		if (display == null) {
 			return;
 		}
+		this.display = display;
 		// When SWT Display will dispose, all SWT resources stored
 		// into cache will be dispose it too.
 		display.addListener(SWT.Dispose, new Listener() {
 			@Override
 			public void handleEvent(Event event) {
+				displayDisposed = true;
 				dispose();
 			}
 		});
+		resourceManager = new LocalResourceManager(JFaceResources.getResources(display));
+	}
+
+	/**
+	 * Returns a color for the given value, shared with the other users of the
+	 * color on the display if possible. The color is released when it is
+	 * disposed by this registry.
+	 *
+	 * @param device
+	 *            the display of the color
+	 * @param rgba
+	 *            the value of the color
+	 * @return the color
+	 */
+	public Color createColor(Display device, RGBA rgba) {
+		if (resourceManager == null || device != display || rgba.alpha != 255) {
+			return new Color(device, rgba);
+		}
+		return (Color) createShared(ColorDescriptor.createFrom(rgba.rgb));
+	}
+
+	/**
+	 * Returns a font for the given font data, shared with the other users of
+	 * the font on the display if possible. The font is released when it is
+	 * disposed by this registry.
+	 *
+	 * @param device
+	 *            the display of the font
+	 * @param fontData
+	 *            the font data
+	 * @return the font
+	 */
+	public Font createFont(Display device, FontData fontData) {
+		if (resourceManager == null || device != display) {
+			return new Font(device, fontData);
+		}
+		return (Font) createShared(FontDescriptor.createFrom(fontData));
+	}
+
+	private Object createShared(DeviceResourceDescriptor descriptor) {
+		ResourceManager sharedManager = JFaceResources.getResources(display);
+		if (resourceManager.find(descriptor) != null || sharedManager.find(descriptor) != null) {
+			avoidedDuplicates++;
+		}
+		Object resource = resourceManager.create(descriptor);
+		sharedResources.put(resource, descriptor);
+		return resource;
+	}
+
+	/**
+	 * Releases a reference to a shared resource.
+	 *
+	 * @return <code>true</code> if the resource is shared, <code>false</code>
+	 *         if it has to be disposed
+	 */
+	private boolean releaseShared(Object resource) {
+		DeviceResourceDescriptor descriptor = sharedResources.get(resource);
+		if (descriptor == null) {
+			return false;
+		}
+		if (resourceManager != null) {
+			resourceManager.destroy(descriptor);
+			if (resourceManager.find(descriptor) == null) {
+				sharedResources.remove(resource);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns how many colors and fonts created by this registry already
+	 * existed on the display, i.e. how many duplicate native resources were
+	 * avoided by sharing them.
+	 *
+	 * @return the number of avoided duplicates
+	 */
+	public int getAvoidedDuplicates() {
+		return avoidedDuplicates;
+	}
+
+	/**
+	 * Disposes the registered resources and releases the references to the
+	 * shared ones. The engines dispose the registry on every reset of the
+	 * styles, so the registry keeps sharing afterwards unless the display is
+	 * disposed.
+	 */
+	@Override
+	public void dispose() {
+		super.dispose();
+		// release the references that were never registered
+		if (resourceManager != null) {
+			resourceManager.dispose();
+			resourceManager = null;
+			if (!displayDisposed && !display.isDisposed()) {
+				resourceManager = new LocalResourceManager(JFaceResources.getResources(display));
+			}
+		}
+		sharedResources.clear();
 	}
 
 	@Override
@@ -87,6 +222,9 @@ public class SWTResourcesRegistry extends AbstractResourcesRegistry {
 
 	@Override
 	public void disposeResource(Object type, Object key, Object resource) {
+		if (releaseShared(resource)) {
+			return;
+		}
 		// Dispose SWT Resource
 		if (resource instanceof Color) {
 			((Color)resource).dispose();
@@ -127,18 +265,43 @@ public class SWTResourcesRegistry extends AbstractResourcesRegistry {
 		return false;
 	}
 
+	/**
+	 * Removes the resources of the given types whose keys are of the given key
+	 * type. The removed resources that are not shared are returned, so that
+	 * the caller can dispose them once they are not used anymore; the shared
+	 * ones are released after the pending events, e.g. a reapply of the
+	 * styles, were handled.
+	 *
+	 * @param keyType
+	 *            the type of the keys
+	 * @param types
+	 *            the types of the resources
+	 * @return the removed resources to dispose
+	 */
 	public List<Object> removeResourcesByKeyTypeAndType(Class<?> keyType, Class<?>... types) {
 		List<Object> removedResources = new ArrayList<Object>();
+		final List<Object> removedSharedResources = new ArrayList<Object>();
 		for (Class<?> cls : types) {
 			Iterator<Entry<Object, Object>> iter = getCacheByType(cls).entrySet().iterator();
 			while (iter.hasNext()) {
 				Entry<Object, Object> entry = iter.next();
 				if (keyType.isAssignableFrom(entry.getKey().getClass())) {
-					removedResources.add(entry.getValue());
+					if (sharedResources.containsKey(entry.getValue())) {
+						removedSharedResources.add(entry.getValue());
+					} else {
+						removedResources.add(entry.getValue());
+					}
 					iter.remove();
 				}
 			}
 		}
+		if (!removedSharedResources.isEmpty() && !display.isDisposed()) {
+			display.asyncExec(() -> {
+				for (Object resource : removedSharedResources) {
+					releaseShared(resource);
+				}
+			});
+		}
 		return removedResources;
 	}
 }
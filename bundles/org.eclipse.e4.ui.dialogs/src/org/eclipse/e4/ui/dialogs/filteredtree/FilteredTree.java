@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2014, 2015 vogella GmbH and others.
+ * Copyright (c) 2014, 2016 vogella GmbH and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,6 +11,11 @@
 package org.eclipse.e4.ui.dialogs.filteredtree;
 
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 import org.eclipse.core.runtime.FileLocator;
 import org.eclipse.core.runtime.IPath;
@@ -26,7 +31,10 @@ import org.eclipse.jface.resource.LocalResourceManager;
 import org.eclipse.jface.resource.ResourceManager;
 import org.eclipse.jface.viewers.IContentProvider;
 import org.eclipse.jface.viewers.ISelection;
+import org.eclipse.jface.viewers.ITreeContentProvider;
 import org.eclipse.jface.viewers.TreeViewer;
+import org.eclipse.jface.viewers.Viewer;
+import org.eclipse.jface.viewers.ViewerFilter;
 import org.eclipse.osgi.util.NLS;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.accessibility.ACC;
@@ -115,6 +123,26 @@ public class FilteredTree extends Composite {
 	 */
 	private Job refreshJob;
 
+	/**
+	 * Whether the filter text is matched in a background job.
+	 *
+	 * @see #setAsyncFiltering(boolean)
+	 */
+	private boolean asyncFiltering = false;
+
+	/**
+	 * The filter showing the elements found by the background job.
+	 */
+	private final MatchingFilter matchingFilter = new MatchingFilter();
+
+	private LabelSnapshot labelSnapshot;
+
+	private Job matchJob;
+
+	private int matchGeneration;
+
+	private boolean refreshingFilter;
+
 	/**
 	 * Whether or not to show the filter controls (text and clear button). The
 	 * default is to show these controls.
@@ -315,12 +343,13 @@ public class FilteredTree extends Composite {
 			@Override
 			public void widgetDisposed(DisposeEvent e) {
 				refreshJob.cancel();
+				cancelMatching();
 			}
 		});
 		if (treeViewer instanceof NotifyingTreeViewer) {
 			patternFilter.setUseCache(true);
 		}
-		treeViewer.addFilter(patternFilter);
+		treeViewer.addFilter(isMatchingInBackground() ? matchingFilter : patternFilter);
 		return treeViewer.getControl();
 	}
 
@@ -396,102 +425,191 @@ public class FilteredTree extends Composite {
 					patternFilter.setPattern(text);
 				}
 
-				Control redrawFalseControl = treeComposite != null ? treeComposite : treeViewer.getControl();
-				try {
-					// don't want the user to see updates that will be made to
-					// the tree
-					// we are setting redraw(false) on the composite to avoid
-					// dancing scrollbar
-					redrawFalseControl.setRedraw(false);
-					if (!narrowingDown) {
-						// collapse all
-						TreeItem[] is = treeViewer.getTree().getItems();
-						for (TreeItem item : is) {
-							if (item.getExpanded()) {
-								treeViewer.setExpandedState(item.getData(), false);
-							}
-						}
+				if (isMatchingInBackground() && !initial && text.length() > 0) {
+					scheduleMatchJob(text);
+					return Status.OK_STATUS;
+				}
+				matchingFilter.setMatches(null);
+				return updateTree(text, initial, monitor);
+			}
+		};
+	}
+
+	/**
+	 * Refresh the tree with the current filter and expand the matching
+	 * elements.
+	 */
+	private IStatus updateTree(String text, boolean initial, IProgressMonitor monitor) {
+		Control redrawFalseControl = treeComposite != null ? treeComposite : treeViewer.getControl();
+		try {
+			// don't want the user to see updates that will be made to
+			// the tree
+			// we are setting redraw(false) on the composite to avoid
+			// dancing scrollbar
+			redrawFalseControl.setRedraw(false);
+			if (!narrowingDown) {
+				// collapse all
+				TreeItem[] is = treeViewer.getTree().getItems();
+				for (TreeItem item : is) {
+					if (item.getExpanded()) {
+						treeViewer.setExpandedState(item.getData(), false);
 					}
-					treeViewer.refresh(true);
-
-					if (text.length() > 0 && !initial) {
-						/*
-						 * Expand elements one at a time. After each is
-						 * expanded, check to see if the filter text has been
-						 * modified. If it has, then cancel the refresh job so
-						 * the user doesn't have to endure expansion of all the
-						 * nodes.
-						 */
-						TreeItem[] items = getViewer().getTree().getItems();
-						int treeHeight = getViewer().getTree().getBounds().height;
-						int numVisibleItems = treeHeight / getViewer().getTree().getItemHeight();
-						long stopTime = SOFT_MAX_EXPAND_TIME + System.currentTimeMillis();
-						boolean cancel = false;
-						if (items.length > 0
-								&& recursiveExpand(items, monitor, stopTime, new int[] { numVisibleItems })) {
-							cancel = true;
-						}
+				}
+			}
+			refreshingFilter = true;
+			try {
+				treeViewer.refresh(true);
+			} finally {
+				refreshingFilter = false;
+			}
 
-						// enabled toolbar - there is text to clear
-						// and the list is currently being filtered
-						updateToolbar(true);
+			if (text.length() > 0 && !initial) {
+				/*
+				 * Expand elements one at a time. After each is
+				 * expanded, check to see if the filter text has been
+				 * modified. If it has, then cancel the refresh job so
+				 * the user doesn't have to endure expansion of all the
+				 * nodes.
+				 */
+				TreeItem[] items = getViewer().getTree().getItems();
+				int treeHeight = getViewer().getTree().getBounds().height;
+				int numVisibleItems = treeHeight / getViewer().getTree().getItemHeight();
+				long stopTime = SOFT_MAX_EXPAND_TIME + System.currentTimeMillis();
+				boolean cancel = false;
+				if (items.length > 0
+						&& recursiveExpand(items, monitor, stopTime, new int[] { numVisibleItems })) {
+					cancel = true;
+				}
 
-						if (cancel) {
-							return Status.CANCEL_STATUS;
-						}
-					} else {
-						// disabled toolbar - there is no text to clear
-						// and the list is currently not filtered
-						updateToolbar(false);
+				// enabled toolbar - there is text to clear
+				// and the list is currently being filtered
+				updateToolbar(true);
+
+				if (cancel) {
+					return Status.CANCEL_STATUS;
+				}
+			} else {
+				// disabled toolbar - there is no text to clear
+				// and the list is currently not filtered
+				updateToolbar(false);
+			}
+		} finally {
+			// done updating the tree - set redraw back to true
+			TreeItem[] items = getViewer().getTree().getItems();
+			if (items.length > 0 && getViewer().getTree().getSelectionCount() == 0) {
+				treeViewer.getTree().setTopItem(items[0]);
+			}
+			redrawFalseControl.setRedraw(true);
+		}
+		return Status.OK_STATUS;
+	}
+
+	/**
+	 * Returns true if the job should be canceled (because of timeout or
+	 * actual cancellation).
+	 *
+	 * @param items
+	 * @param monitor
+	 * @param cancelTime
+	 * @param numItemsLeft
+	 * @return true if canceled
+	 */
+	private boolean recursiveExpand(TreeItem[] items, IProgressMonitor monitor, long cancelTime,
+			int[] numItemsLeft) {
+		boolean canceled = false;
+		for (int i = 0; !canceled && i < items.length; i++) {
+			TreeItem item = items[i];
+			boolean visible = numItemsLeft[0]-- >= 0;
+			if (monitor.isCanceled() || (!visible && System.currentTimeMillis() > cancelTime)) {
+				canceled = true;
+			} else {
+				Object itemData = item.getData();
+				if (itemData != null) {
+					if (!item.getExpanded()) {
+						// do the expansion through the viewer so that
+						// it can refresh children appropriately.
+						treeViewer.setExpandedState(itemData, true);
 					}
-				} finally {
-					// done updating the tree - set redraw back to true
-					TreeItem[] items = getViewer().getTree().getItems();
-					if (items.length > 0 && getViewer().getTree().getSelectionCount() == 0) {
-						treeViewer.getTree().setTopItem(items[0]);
+					TreeItem[] children = item.getItems();
+					if (items.length > 0) {
+						canceled = recursiveExpand(children, monitor, cancelTime, numItemsLeft);
 					}
-					redrawFalseControl.setRedraw(true);
 				}
-				return Status.OK_STATUS;
 			}
+		}
+		return canceled;
+	}
 
-			/**
-			 * Returns true if the job should be canceled (because of timeout or
-			 * actual cancellation).
-			 *
-			 * @param items
-			 * @param monitor
-			 * @param cancelTime
-			 * @param numItemsLeft
-			 * @return true if canceled
-			 */
-			private boolean recursiveExpand(TreeItem[] items, IProgressMonitor monitor, long cancelTime,
-					int[] numItemsLeft) {
-				boolean canceled = false;
-				for (int i = 0; !canceled && i < items.length; i++) {
-					TreeItem item = items[i];
-					boolean visible = numItemsLeft[0]-- >= 0;
-					if (monitor.isCanceled() || (!visible && System.currentTimeMillis() > cancelTime)) {
-						canceled = true;
-					} else {
-						Object itemData = item.getData();
-						if (itemData != null) {
-							if (!item.getExpanded()) {
-								// do the expansion through the viewer so that
-								// it can refresh children appropriately.
-								treeViewer.setExpandedState(itemData, true);
-							}
-							TreeItem[] children = item.getItems();
-							if (items.length > 0) {
-								canceled = recursiveExpand(children, monitor, cancelTime, numItemsLeft);
-							}
+	/**
+	 * Match the filter text against a snapshot of the labels of the tree in a
+	 * background job and push the matching elements to the viewer once done.
+	 *
+	 * @param text
+	 *            the filter text
+	 */
+	private void scheduleMatchJob(final String text) {
+		cancelMatching();
+		final int generation = matchGeneration;
+		if (labelSnapshot == null) {
+			labelSnapshot = new LabelSnapshot(treeViewer, patternFilter, matchingFilter);
+		}
+		final LabelSnapshot snapshot = labelSnapshot;
+		if (!(treeViewer instanceof NotifyingTreeViewer)) {
+			// changes of the tree are not reported, take a new snapshot next
+			// time
+			labelSnapshot = null;
+		}
+		matchJob = new Job("Match Filter") { //$NON-NLS-1$
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				final Set<Object> matches = snapshot.match(patternFilter, monitor);
+				if (matches == null) {
+					return Status.CANCEL_STATUS;
+				}
+				Job applyJob = new BasicUIJob("Apply Filter", getDisplay()) { //$NON-NLS-1$
+					@Override
+					public IStatus runInUIThread(IProgressMonitor uiMonitor) {
+						if (generation != matchGeneration || treeViewer.getControl().isDisposed()) {
+							return Status.CANCEL_STATUS;
 						}
+						matchingFilter.setMatches(matches);
+						return updateTree(text, false, uiMonitor);
 					}
-				}
-				return canceled;
+				};
+				applyJob.setSystem(true);
+				applyJob.schedule();
+				return Status.OK_STATUS;
 			}
-
 		};
+		matchJob.setSystem(true);
+		matchJob.schedule();
+	}
+
+	/**
+	 * Cancel the matching in progress; its result will not be pushed to the
+	 * viewer.
+	 */
+	private void cancelMatching() {
+		matchGeneration++;
+		if (matchJob != null) {
+			matchJob.cancel();
+			matchJob = null;
+		}
+	}
+
+	/**
+	 * Clear the caches after the content of the tree changed, unless the change
+	 * is the refresh for a new filter text.
+	 */
+	private void clearCaches() {
+		patternFilter.clearCaches();
+		if (isMatchingInBackground() && !refreshingFilter) {
+			labelSnapshot = null;
+			if (matchingFilter.isFiltering() && refreshJob != null) {
+				// match the new content
+				refreshJob.schedule(getRefreshJobDelay());
+			}
+		}
 	}
 
 	protected void updateToolbar(boolean visible) {
@@ -681,6 +799,7 @@ public class FilteredTree extends Composite {
 				|| previousFilterText.equals(E4DialogMessages.FilteredTree_FilterMessage)
 				|| getFilterString().startsWith(previousFilterText);
 		previousFilterText = getFilterString();
+		cancelMatching();
 		// cancel currently running job first, to prevent unnecessary redraw
 		refreshJob.cancel();
 		refreshJob.schedule(getRefreshJobDelay());
@@ -957,6 +1076,91 @@ public class FilteredTree extends Composite {
 		return null;
 	}
 
+	/**
+	 * Sets whether the filter text is matched in the background. In this mode
+	 * the labels of the tree are taken once in the UI thread, and each filter
+	 * text is matched against them by a job that is cancelled by the next
+	 * change of the text. Only the matching elements are then pushed to the
+	 * viewer.
+	 * <p>
+	 * The labels are matched with {@link PatternFilter#wordMatches(String)},
+	 * which must be thread safe, taking the other filters of the viewer into
+	 * account. If the pattern filter overrides
+	 * {@link PatternFilter#isElementVisible(org.eclipse.jface.viewers.Viewer, Object)},
+	 * {@link PatternFilter#isParentMatch(org.eclipse.jface.viewers.Viewer, Object)}
+	 * or
+	 * {@link PatternFilter#isLeafMatch(org.eclipse.jface.viewers.Viewer, Object)},
+	 * which need the viewer, the filter text is still matched synchronously.
+	 * </p>
+	 * <p>
+	 * By default, this is set to <code>false</code>.
+	 * </p>
+	 *
+	 * @param enabled
+	 *            <code>true</code> if the filter text should be matched in
+	 *            the background, <code>false</code> otherwise
+	 */
+	public void setAsyncFiltering(boolean enabled) {
+		boolean wasMatchingInBackground = isMatchingInBackground();
+		asyncFiltering = enabled;
+		if (wasMatchingInBackground == isMatchingInBackground()) {
+			return;
+		}
+		cancelMatching();
+		labelSnapshot = null;
+		matchingFilter.setMatches(null);
+		if (treeViewer == null) {
+			// the filter is added when the tree is created
+			return;
+		}
+		if (wasMatchingInBackground) {
+			treeViewer.removeFilter(matchingFilter);
+			treeViewer.addFilter(patternFilter);
+		} else {
+			treeViewer.removeFilter(patternFilter);
+			treeViewer.addFilter(matchingFilter);
+		}
+		if (filterText != null) {
+			textChanged();
+		}
+	}
+
+	/**
+	 * Returns whether the filter text is matched in the background, i.e.
+	 * whether it was requested and the pattern filter does not override the
+	 * methods that need the viewer.
+	 */
+	private boolean isMatchingInBackground() {
+		return asyncFiltering && patternFilter != null && !overridesViewerMatching(patternFilter.getClass());
+	}
+
+	private static boolean overridesViewerMatching(Class<?> filterClass) {
+		for (Class<?> c = filterClass; c != PatternFilter.class && c != null; c = c.getSuperclass()) {
+			for (String name : new String[] { "isElementVisible", "isParentMatch", "isLeafMatch" }) { //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				try {
+					c.getDeclaredMethod(name, Viewer.class, Object.class);
+					return true;
+				} catch (NoSuchMethodException e) {
+					// not overridden here
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns whether the filter text is matched in the background.
+	 *
+	 * @return <code>true</code> if the filter text is matched in the
+	 *         background, <code>false</code> if it is matched synchronously,
+	 *         also when the pattern filter does not support the background
+	 *         matching
+	 * @see #setAsyncFiltering(boolean)
+	 */
+	public boolean isAsyncFiltering() {
+		return isMatchingInBackground();
+	}
+
 	public boolean isShowFilterControls() {
 		return showFilterControls;
 	}
@@ -975,6 +1179,118 @@ public class FilteredTree extends Composite {
 		}
 	}
 
+	/**
+	 * The labels of all the elements of the tree, taken in the UI thread so
+	 * that the filter text can be matched against them in the background.
+	 */
+	private static class LabelSnapshot {
+
+		private final List<Object> elements = new ArrayList<>();
+
+		private final List<String> labels = new ArrayList<>();
+
+		private int[] parents = new int[64];
+
+		/**
+		 * The other filters of the viewer, which hide elements whatever the
+		 * filter text.
+		 */
+		private final List<ViewerFilter> otherFilters = new ArrayList<>();
+
+		LabelSnapshot(TreeViewer viewer, PatternFilter filter, ViewerFilter matchingFilter) {
+			for (ViewerFilter other : viewer.getFilters()) {
+				if (other != matchingFilter && other != filter) {
+					otherFilters.add(other);
+				}
+			}
+			ITreeContentProvider contentProvider = (ITreeContentProvider) viewer.getContentProvider();
+			Object input = viewer.getInput();
+			if (contentProvider != null && input != null) {
+				add(viewer, filter, contentProvider, input, contentProvider.getElements(input), -1);
+			}
+		}
+
+		private boolean isFilteredOut(TreeViewer viewer, Object parentElement, Object element) {
+			for (ViewerFilter other : otherFilters) {
+				if (!other.select(viewer, parentElement, element)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private void add(TreeViewer viewer, PatternFilter filter, ITreeContentProvider contentProvider,
+				Object parentElement, Object[] children, int parent) {
+			if (children == null) {
+				return;
+			}
+			for (Object child : children) {
+				if (isFilteredOut(viewer, parentElement, child)) {
+					continue;
+				}
+				int index = elements.size();
+				elements.add(child);
+				labels.add(filter.getLabelText(viewer, child));
+				if (index == parents.length) {
+					parents = Arrays.copyOf(parents, index * 2);
+				}
+				parents[index] = parent;
+				add(viewer, filter, contentProvider, child, contentProvider.getChildren(child), index);
+			}
+		}
+
+		/**
+		 * Returns the elements whose label matches the filter or that have a
+		 * matching descendant, like
+		 * {@link PatternFilter#isElementVisible(org.eclipse.jface.viewers.Viewer, Object)}.
+		 *
+		 * @param filter
+		 *            the filter with the pattern to match
+		 * @param monitor
+		 * @return the visible elements or <code>null</code> if the monitor was
+		 *         cancelled
+		 */
+		Set<Object> match(PatternFilter filter, IProgressMonitor monitor) {
+			int size = elements.size();
+			boolean[] visible = new boolean[size];
+			Set<Object> matches = new HashSet<>();
+			// the children come after their parent
+			for (int i = size - 1; i >= 0; i--) {
+				if (i % 256 == 0 && monitor.isCanceled()) {
+					return null;
+				}
+				if (visible[i] || filter.wordMatches(labels.get(i))) {
+					matches.add(elements.get(i));
+					if (parents[i] >= 0) {
+						visible[parents[i]] = true;
+					}
+				}
+			}
+			return matches;
+		}
+	}
+
+	/**
+	 * Selects the elements found by the background matching.
+	 */
+	private static class MatchingFilter extends ViewerFilter {
+
+		private Set<Object> matches;
+
+		void setMatches(Set<Object> matches) {
+			this.matches = matches;
+		}
+
+		boolean isFiltering() {
+			return matches != null;
+		}
+
+		@Override
+		public boolean select(Viewer viewer, Object parentElement, Object element) {
+			return matches == null || matches.contains(element);
+		}
+	}
+
 	/**
 	 * Custom tree viewer subclass that clears the caches in patternFilter on
 	 * any change to the tree. See bug 187200.
@@ -994,91 +1310,91 @@ public class FilteredTree extends Composite {
 
 		@Override
 		public void add(Object parentElementOrTreePath, Object childElement) {
-			getPatternFilter().clearCaches();
+			clearCaches();
 			super.add(parentElementOrTreePath, childElement);
 		}
 
 		@Override
 		public void add(Object parentElementOrTreePath, Object[] childElements) {
-			getPatternFilter().clearCaches();
+			clearCaches();
 			super.add(parentElementOrTreePath, childElements);
 		}
 
 		@Override
 		protected void inputChanged(Object input, Object oldInput) {
-			getPatternFilter().clearCaches();
+			clearCaches();
 			super.inputChanged(input, oldInput);
 		}
 
 		@Override
 		public void insert(Object parentElementOrTreePath, Object element, int position) {
-			getPatternFilter().clearCaches();
+			clearCaches();
 			super.insert(parentElementOrTreePath, element, position);
 		}
 
 		@Override
 		public void refresh() {
-			getPatternFilter().clearCaches();
+			clearCaches();
 			super.refresh();
 		}
 
 		@Override
 		public void refresh(boolean updateLabels) {
-			getPatternFilter().clearCaches();
+			clearCaches();
 			super.refresh(updateLabels);
 		}
 
 		@Override
 		public void refresh(Object element) {
-			getPatternFilter().clearCaches();
+			clearCaches();
 			super.refresh(element);
 		}
 
 		@Override
 		public void refresh(Object element, boolean updateLabels) {
-			getPatternFilter().clearCaches();
+			clearCaches();
 			super.refresh(element, updateLabels);
 		}
 
 		@Override
 		public void remove(Object elementsOrTreePaths) {
-			getPatternFilter().clearCaches();
+			clearCaches();
 			super.remove(elementsOrTreePaths);
 		}
 
 		@Override
 		public void remove(Object parent, Object[] elements) {
-			getPatternFilter().clearCaches();
+			clearCaches();
 			super.remove(parent, elements);
 		}
 
 		@Override
 		public void remove(Object[] elementsOrTreePaths) {
-			getPatternFilter().clearCaches();
+			clearCaches();
 			super.remove(elementsOrTreePaths);
 		}
 
 		@Override
 		public void replace(Object parentElementOrTreePath, int index, Object element) {
-			getPatternFilter().clearCaches();
+			clearCaches();
 			super.replace(parentElementOrTreePath, index, element);
 		}
 
 		@Override
 		public void setChildCount(Object elementOrTreePath, int count) {
-			getPatternFilter().clearCaches();
+			clearCaches();
 			super.setChildCount(elementOrTreePath, count);
 		}
 
 		@Override
 		public void setContentProvider(IContentProvider provider) {
-			getPatternFilter().clearCaches();
+			clearCaches();
 			super.setContentProvider(provider);
 		}
 
 		@Override
 		public void setHasChildren(Object elementOrTreePath, boolean hasChildren) {
-			getPatternFilter().clearCaches();
+			clearCaches();
 			super.setHasChildren(elementOrTreePath, hasChildren);
 		}
 
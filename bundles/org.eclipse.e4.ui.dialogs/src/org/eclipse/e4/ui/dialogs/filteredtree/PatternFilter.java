@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2015 IBM Corporation and others.
+ * Copyright (c) 2004, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -296,6 +296,20 @@ public class PatternFilter extends ViewerFilter {
 	 * @return true if the given element's label matches the filter text
 	 */
 	protected boolean isLeafMatch(Viewer viewer, Object element) {
+		return wordMatches(getLabelText(viewer, element));
+	}
+
+	/**
+	 * Returns the label of the element that is matched by
+	 * {@link #isLeafMatch(Viewer, Object)}.
+	 *
+	 * @param viewer
+	 *            the viewer that contains the element
+	 * @param element
+	 *            the tree element
+	 * @return the label or <code>null</code>
+	 */
+	/* package */ String getLabelText(Viewer viewer, Object element) {
 		// check for CellLabelProvider, which are also ILabelProvider,
 		// e.g., ColumnLabelProvider
 		CellLabelProvider cellLabelProvider = null;
@@ -308,7 +322,7 @@ public class PatternFilter extends ViewerFilter {
 			IBaseLabelProvider baseLabelProvider = ((StructuredViewer) viewer).getLabelProvider();
 			labelText = getTextFromLabelProvider(baseLabelProvider, element);
 		}
-		return wordMatches(labelText);
+		return labelText;
 	}
 
 	private String getTextFromLabelProvider(IBaseLabelProvider baseLabelProvider, Object element) {
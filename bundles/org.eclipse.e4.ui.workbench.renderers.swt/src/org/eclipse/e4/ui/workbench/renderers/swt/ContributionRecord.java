@@ -16,9 +16,11 @@ package org.eclipse.e4.ui.workbench.renderers.swt;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import org.eclipse.core.expressions.Expression;
 import org.eclipse.core.expressions.ExpressionInfo;
 import org.eclipse.core.internal.expressions.OrExpression;
@@ -89,14 +91,25 @@ public class ContributionRecord {
 	 * @param context
 	 */
 	public void updateVisibility(IEclipseContext context) {
-		ExpressionContext exprContext = new ExpressionContext(context);
-		updateIsVisible(exprContext);
+		updateVisibility(new ExpressionContext(context),
+				new HashMap<Expression, Boolean>());
+	}
+
+	/**
+	 * @param exprContext
+	 * @param resultCache
+	 *            the results of the visibleWhen expressions evaluated so far
+	 *            against <code>exprContext</code>
+	 */
+	void updateVisibility(ExpressionContext exprContext,
+			Map<Expression, Boolean> resultCache) {
+		updateIsVisible(exprContext, resultCache);
 		HashSet<ContributionRecord> recentlyUpdated = new HashSet<>();
 		recentlyUpdated.add(this);
 		boolean changed = false;
 		for (MMenuElement item : generatedElements) {
 			boolean currentVisibility = computeVisibility(recentlyUpdated,
-					item, exprContext);
+					item, exprContext, resultCache);
 			if (item.isVisible() != currentVisibility) {
 				changed = true;
 				item.setVisible(currentVisibility);
@@ -104,7 +117,7 @@ public class ContributionRecord {
 		}
 		for (MMenuElement item : sharedElements) {
 			boolean currentVisibility = computeVisibility(recentlyUpdated,
-					item, exprContext);
+					item, exprContext, resultCache);
 			if (item.isVisible() != currentVisibility) {
 				changed = true;
 				item.setVisible(currentVisibility);
@@ -131,13 +144,25 @@ public class ContributionRecord {
 	}
 
 	public void updateIsVisible(ExpressionContext exprContext) {
+		updateIsVisible(exprContext, null);
+	}
+
+	private void updateIsVisible(ExpressionContext exprContext,
+			Map<Expression, Boolean> resultCache) {
 		isVisible = ContributionsAnalyzer.isVisible(menuContribution,
-				exprContext);
+				exprContext, resultCache);
 	}
 
 	public boolean computeVisibility(
 			HashSet<ContributionRecord> recentlyUpdated, MMenuElement item,
 			ExpressionContext exprContext) {
+		return computeVisibility(recentlyUpdated, item, exprContext, null);
+	}
+
+	private boolean computeVisibility(
+			HashSet<ContributionRecord> recentlyUpdated, MMenuElement item,
+			ExpressionContext exprContext,
+			Map<Expression, Boolean> resultCache) {
 		boolean currentVisibility = isVisible;
 		if (item instanceof MMenu || item instanceof MMenuSeparator) {
 			ArrayList<ContributionRecord> list = renderer.getList(item);
@@ -146,7 +171,7 @@ public class ContributionRecord {
 				while (!currentVisibility && cr.hasNext()) {
 					ContributionRecord rec = cr.next();
 					if (!recentlyUpdated.contains(rec)) {
-						rec.updateIsVisible(exprContext);
+						rec.updateIsVisible(exprContext, resultCache);
 						recentlyUpdated.add(rec);
 					}
 					currentVisibility |= rec.isVisible;
@@ -166,7 +191,8 @@ public class ContributionRecord {
 		if (currentVisibility
 				&& item.getVisibleWhen() instanceof MCoreExpression) {
 			boolean val = ContributionsAnalyzer.isVisible(
-					(MCoreExpression) item.getVisibleWhen(), exprContext);
+					(MCoreExpression) item.getVisibleWhen(), exprContext,
+					resultCache);
 			currentVisibility = val;
 		}
 		return currentVisibility;
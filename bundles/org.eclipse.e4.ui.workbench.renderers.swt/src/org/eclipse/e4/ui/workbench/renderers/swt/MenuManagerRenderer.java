@@ -32,6 +32,7 @@ import java.util.Map.Entry;
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import javax.inject.Inject;
+import org.eclipse.core.expressions.Expression;
 import org.eclipse.e4.core.commands.ExpressionContext;
 import org.eclipse.e4.core.contexts.ContextInjectionFactory;
 import org.eclipse.e4.core.contexts.IContextFunction;
@@ -42,6 +43,7 @@ import org.eclipse.e4.core.services.events.IEventBroker;
 import org.eclipse.e4.core.services.log.Logger;
 import org.eclipse.e4.ui.di.UIEventTopic;
 import org.eclipse.e4.ui.internal.workbench.ContributionsAnalyzer;
+import org.eclipse.e4.ui.internal.workbench.MenuContributionIndex;
 import org.eclipse.e4.ui.internal.workbench.OpaqueElementUtil;
 import org.eclipse.e4.ui.internal.workbench.RenderedElementUtil;
 import org.eclipse.e4.ui.model.application.MApplication;
@@ -283,8 +285,11 @@ public class MenuManagerRenderer extends SWTPartRenderer {
 
 	private MenuManagerRendererFilter rendererFilter;
 
+	private MenuContributionIndex contributionIndex;
+
 	@PostConstruct
 	public void init() {
+		contributionIndex = new MenuContributionIndex(application);
 		eventBroker.subscribe(UIEvents.UILabel.TOPIC_ALL, itemUpdater);
 		eventBroker.subscribe(UIEvents.UILabel.TOPIC_ALL, labelUpdater);
 		eventBroker.subscribe(UIEvents.Item.TOPIC_SELECTED, selectionUpdater);
@@ -320,6 +325,23 @@ public class MenuManagerRenderer extends SWTPartRenderer {
 		}
 	}
 
+	@Inject
+	@Optional
+	private void subscribeTopicMenuContributions(
+			@UIEventTopic(UIEvents.MenuContributions.TOPIC_MENUCONTRIBUTIONS) Event event) {
+		if (contributionIndex != null) {
+			contributionIndex.invalidate();
+		}
+	}
+
+	@Inject
+	@Optional
+	private void subscribeTopicParentId(@UIEventTopic(UIEvents.MenuContribution.TOPIC_PARENTID) Event event) {
+		if (contributionIndex != null) {
+			contributionIndex.invalidate();
+		}
+	}
+
 	@PreDestroy
 	public void contextDisposed() {
 		eventBroker.unsubscribe(itemUpdater);
@@ -486,8 +508,9 @@ public class MenuManagerRenderer extends SWTPartRenderer {
 			return;
 		}
 		final ArrayList<MMenuContribution> toContribute = new ArrayList<>();
-		ContributionsAnalyzer.XXXgatherMenuContributions(menuModel, application.getMenuContributions(), elementId,
-				toContribute, null, isPopup);
+		ContributionsAnalyzer.XXXgatherMenuContributions(menuModel,
+				contributionIndex.getCandidates(menuModel, elementId, isPopup), elementId, toContribute, null,
+				isPopup);
 		generateContributions(menuModel, toContribute, isMenuBar);
 		for (MMenuElement element : menuModel.getChildren()) {
 			if (element instanceof MMenu) {
@@ -1081,6 +1104,19 @@ public class MenuManagerRenderer extends SWTPartRenderer {
 	 * @param evalContext
 	 */
 	public static void updateVisibility(MenuManager menuManager, MMenuElement element, ExpressionContext evalContext) {
+		updateVisibility(menuManager, element, evalContext, null);
+	}
+
+	/**
+	 * @param menuManager
+	 * @param element
+	 * @param evalContext
+	 * @param resultCache
+	 *            the results of the visibleWhen expressions evaluated so far
+	 *            against <code>evalContext</code>, or <code>null</code>
+	 */
+	static void updateVisibility(MenuManager menuManager, MMenuElement element, ExpressionContext evalContext,
+			Map<Expression, Boolean> resultCache) {
 		boolean current = element.isVisible();
 		boolean visible = true;
 		boolean evaluated = false;
@@ -1094,7 +1130,8 @@ public class MenuManagerRenderer extends SWTPartRenderer {
 		}
 		if (visible && (element.getVisibleWhen() instanceof MCoreExpression)) {
 			evaluated = true;
-			visible = ContributionsAnalyzer.isVisible((MCoreExpression) element.getVisibleWhen(), evalContext);
+			visible = ContributionsAnalyzer.isVisible((MCoreExpression) element.getVisibleWhen(), evalContext,
+					resultCache);
 		}
 		if (evaluated && visible != current) {
 			element.setVisible(visible);
@@ -14,8 +14,10 @@ package org.eclipse.e4.ui.workbench.renderers.swt;
 
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import javax.inject.Inject;
 import org.eclipse.core.commands.ParameterizedCommand;
+import org.eclipse.core.expressions.Expression;
 import org.eclipse.core.expressions.ExpressionInfo;
 import org.eclipse.core.runtime.ISafeRunnable;
 import org.eclipse.core.runtime.SafeRunner;
@@ -180,17 +182,31 @@ public class MenuManagerRendererFilter implements Listener {
 			MenuManagerRenderer renderer, MenuManager menuManager,
 			final IEclipseContext evalContext, final int recurseLevel,
 			boolean updateEnablement) {
-		final ExpressionContext exprContext = new ExpressionContext(evalContext);
+		// the context does not change while the menu is being updated, so the
+		// visibleWhen expressions shared by several elements are only
+		// evaluated once
+		updateElementVisibility(menuModel, renderer, menuManager,
+				evalContext, new ExpressionContext(evalContext),
+				new HashMap<Expression, Boolean>(), recurseLevel,
+				updateEnablement);
+	}
+
+	private static void updateElementVisibility(final MMenu menuModel,
+			MenuManagerRenderer renderer, MenuManager menuManager,
+			final IEclipseContext evalContext,
+			final ExpressionContext exprContext,
+			final Map<Expression, Boolean> resultCache,
+			final int recurseLevel, boolean updateEnablement) {
 		HashSet<ContributionRecord> records = new HashSet<>();
 		for (MMenuElement element : menuModel.getChildren()) {
 			ContributionRecord record = renderer.getContributionRecord(element);
 			if (record != null) {
 				if (records.add(record)) {
-					record.updateVisibility(evalContext);
+					record.updateVisibility(exprContext, resultCache);
 				}
 			} else {
 				MenuManagerRenderer.updateVisibility(menuManager, element,
-						exprContext);
+						exprContext, resultCache);
 			}
 			if (recurseLevel > 0 && element.isVisible()
 					&& element instanceof MMenu) {
@@ -198,7 +214,8 @@ public class MenuManagerRendererFilter implements Listener {
 				MenuManager childManager = renderer.getManager(childMenu);
 				if (childManager != null) {
 					updateElementVisibility(childMenu, renderer, childManager,
-							evalContext, recurseLevel - 1, false);
+							evalContext, exprContext, resultCache,
+							recurseLevel - 1, false);
 				}
 			}
 
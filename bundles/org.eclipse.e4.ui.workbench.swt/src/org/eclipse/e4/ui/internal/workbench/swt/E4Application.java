@@ -58,6 +58,7 @@ import org.eclipse.e4.ui.internal.workbench.ReflectionContributionFactory;
 import org.eclipse.e4.ui.internal.workbench.ResourceHandler;
 import org.eclipse.e4.ui.internal.workbench.SelectionAggregator;
 import org.eclipse.e4.ui.internal.workbench.SelectionServiceImpl;
+import org.eclipse.e4.ui.internal.workbench.StartupTracer;
 import org.eclipse.e4.ui.internal.workbench.URIHelper;
 import org.eclipse.e4.ui.internal.workbench.WorkbenchLogger;
 import org.eclipse.e4.ui.model.application.MAddon;
@@ -250,7 +251,9 @@ public class E4Application implements IApplication {
 		}
 
 		// Create the app model and its context
+		long start = StartupTracer.start();
 		MApplication appModel = loadApplicationModel(applicationContext, appContext);
+		StartupTracer.end("model", "Load application model", start); //$NON-NLS-1$ //$NON-NLS-2$
 		appModel.setContext(appContext);
 
 		boolean isRtl = ((Window.getDefaultOrientation() & SWT.RIGHT_TO_LEFT) != 0);
@@ -267,21 +270,29 @@ public class E4Application implements IApplication {
 		appContext.set(MApplication.class, appModel);
 
 		// adds basic services to the contexts
+		start = StartupTracer.start();
 		initializeServices(appModel);
+		StartupTracer.end("services", "Initialize services", start); //$NON-NLS-1$ //$NON-NLS-2$
 
 		// let the life cycle manager add to the model
 		if (lcManager != null) {
+			start = StartupTracer.start();
 			ContextInjectionFactory.invoke(lcManager, ProcessAdditions.class, appContext, null);
 			ContextInjectionFactory.invoke(lcManager, ProcessRemovals.class, appContext, null);
+			StartupTracer.end("model", "Life cycle manager additions and removals", start); //$NON-NLS-1$ //$NON-NLS-2$
 		}
 
 		// Create the addons
+		long addonsStart = StartupTracer.start();
 		IEclipseContext addonStaticContext = EclipseContextFactory.create();
 		for (MAddon addon : appModel.getAddons()) {
+			start = StartupTracer.start();
 			addonStaticContext.set(MAddon.class, addon);
 			Object obj = factory.create(addon.getContributionURI(), appContext, addonStaticContext);
 			addon.setObject(obj);
+			StartupTracer.end("addon", addon.getContributionURI(), start); //$NON-NLS-1$
 		}
+		StartupTracer.end("addon", "Create addons", addonsStart); //$NON-NLS-1$ //$NON-NLS-2$
 
 		// Parse out parameters from both the command line and/or the product
 		// definition (if any) and put them in the context
@@ -57,6 +57,7 @@ import org.eclipse.e4.ui.di.PersistState;
 import org.eclipse.e4.ui.internal.workbench.Activator;
 import org.eclipse.e4.ui.internal.workbench.E4Workbench;
 import org.eclipse.e4.ui.internal.workbench.Policy;
+import org.eclipse.e4.ui.internal.workbench.StartupTracer;
 import org.eclipse.e4.ui.model.application.MApplication;
 import org.eclipse.e4.ui.model.application.MApplicationElement;
 import org.eclipse.e4.ui.model.application.MContribution;
@@ -1054,13 +1055,14 @@ public class PartRenderingEngine implements IPresentationEngine {
 					display.addFilter(SWT.Deactivate, shellDialogListener);
 					spinOnce = false; // loop until the app closes
 					theApp = (MApplication) uiRoot;
-					// long startTime = System.currentTimeMillis();
+					long renderStart = StartupTracer.start();
 					for (MWindow window : theApp.getChildren()) {
+						long start = StartupTracer.start();
 						createGui(window);
+						StartupTracer.end("render", "Render window " + window.getElementId(), start); //$NON-NLS-1$ //$NON-NLS-2$
 					}
+					StartupTracer.end("render", "Render application", renderStart); //$NON-NLS-1$ //$NON-NLS-2$
 
-					// long endTime = System.currentTimeMillis();
-					// System.out.println("Render: " + (endTime - startTime));
 					// tell the app context we are starting so the splash is
 					// torn down
 					IApplicationContext ac = appContext.get(IApplicationContext.class);
@@ -1085,8 +1087,11 @@ public class PartRenderingEngine implements IPresentationEngine {
 				// allow any early startup extensions to run
 				Runnable earlyStartup = (Runnable) runContext.get(EARLY_STARTUP_HOOK);
 				if (earlyStartup != null) {
+					long start = StartupTracer.start();
 					earlyStartup.run();
+					StartupTracer.end("startup", "Early startup hook", start); //$NON-NLS-1$ //$NON-NLS-2$
 				}
+				StartupTracer.write();
 
 				TestableObject testableObject = runContext.get(TestableObject.class);
 				if (testableObject instanceof E4Testable) {
@@ -18,6 +18,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import org.eclipse.core.expressions.EvaluationResult;
 import org.eclipse.core.expressions.Expression;
 import org.eclipse.core.expressions.ExpressionInfo;
@@ -217,10 +218,31 @@ public final class ContributionsAnalyzer {
 	}
 
 	public static boolean isVisible(MMenuContribution menuContribution, ExpressionContext eContext) {
+		return isVisible(menuContribution, eContext, null);
+	}
+
+	/**
+	 * Returns whether the given menu contribution is visible, reusing the
+	 * result of an equal expression from <code>resultCache</code> if there is
+	 * one.
+	 *
+	 * @param menuContribution
+	 *            the contribution
+	 * @param eContext
+	 *            the context to evaluate the visibleWhen expression in
+	 * @param resultCache
+	 *            the results of the expressions evaluated so far against the
+	 *            same, unchanged context, or <code>null</code> to always
+	 *            evaluate
+	 * @return whether the contribution is visible
+	 * @see #isVisible(MCoreExpression, ExpressionContext, Map)
+	 */
+	public static boolean isVisible(MMenuContribution menuContribution, ExpressionContext eContext,
+			Map<Expression, Boolean> resultCache) {
 		if (menuContribution.getVisibleWhen() == null) {
 			return true;
 		}
-		return isVisible((MCoreExpression) menuContribution.getVisibleWhen(), eContext);
+		return isVisible((MCoreExpression) menuContribution.getVisibleWhen(), eContext, resultCache);
 	}
 
 	public static boolean isVisible(MToolBarContribution contribution, ExpressionContext eContext) {
@@ -238,6 +260,32 @@ public final class ContributionsAnalyzer {
 	}
 
 	public static boolean isVisible(MCoreExpression exp, final ExpressionContext eContext) {
+		return isVisible(exp, eContext, null);
+	}
+
+	/**
+	 * Returns whether the given expression evaluates to something other than
+	 * {@link EvaluationResult#FALSE}.
+	 * <p>
+	 * Many contributions share equal visibleWhen expressions. When evaluating
+	 * several of them against the same state, callers can pass a
+	 * <code>resultCache</code> so that each distinct expression is only
+	 * evaluated once. The cache is only valid as long as the state seen
+	 * through <code>eContext</code> does not change; callers must use a new
+	 * cache for each evaluation pass.
+	 * </p>
+	 *
+	 * @param exp
+	 *            the expression
+	 * @param eContext
+	 *            the context to evaluate the expression in
+	 * @param resultCache
+	 *            the results of the expressions evaluated so far in this
+	 *            pass, or <code>null</code> to always evaluate
+	 * @return whether the expression is visible
+	 */
+	public static boolean isVisible(MCoreExpression exp, final ExpressionContext eContext,
+			Map<Expression, Boolean> resultCache) {
 		final Expression ref;
 		if (exp.getCoreExpression() instanceof Expression) {
 			ref = (Expression) exp.getCoreExpression();
@@ -245,6 +293,12 @@ public final class ContributionsAnalyzer {
 			ref = new ReferenceExpression(exp.getCoreExpressionId());
 			exp.setCoreExpression(ref);
 		}
+		if (resultCache != null) {
+			Boolean cached = resultCache.get(ref);
+			if (cached != null) {
+				return cached.booleanValue();
+			}
+		}
 		// Creates dependency on a predefined value that can be "poked" by the evaluation
 		// service
 		ExpressionInfo info = ref.computeExpressionInfo();
@@ -258,6 +312,9 @@ public final class ContributionsAnalyzer {
 		} catch (Exception e) {
 			trace("isVisible exception", e); //$NON-NLS-1$
 		}
+		if (resultCache != null) {
+			resultCache.put(ref, Boolean.valueOf(ret));
+		}
 		return ret;
 	}
 
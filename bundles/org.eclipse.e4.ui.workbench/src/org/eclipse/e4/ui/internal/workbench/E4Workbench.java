@@ -144,7 +144,9 @@ public class E4Workbench implements IWorkbench {
 	 */
 	public void createAndRunUI(MApplicationElement uiRoot) {
 		// Has someone already created one ?
+		long start = StartupTracer.start();
 		instantiateRenderer();
+		StartupTracer.end("render", "Instantiate presentation engine", start); //$NON-NLS-1$ //$NON-NLS-2$
 
 		if (renderer != null) {
 			renderer.run(uiRoot, appContext);
@@ -0,0 +1,166 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.e4.ui.internal.workbench;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.eclipse.e4.ui.model.application.MApplication;
+import org.eclipse.e4.ui.model.application.ui.menu.MMenu;
+import org.eclipse.e4.ui.model.application.ui.menu.MMenuContribution;
+import org.eclipse.e4.ui.model.application.ui.menu.MPopupMenu;
+
+/**
+ * An index of the application's menu contributions by their parent id.
+ * <p>
+ * Looking up the contributions for a menu through this index avoids scanning
+ * all the menu contributions of the application each time a menu is shown.
+ * The index is built lazily and must be invalidated through
+ * {@link #invalidate()} whenever the application's menu contributions or
+ * their parent ids change.
+ * </p>
+ * <p>
+ * This class is not thread safe and is meant to be used from the UI thread
+ * only.
+ * </p>
+ */
+public final class MenuContributionIndex {
+
+	private final MApplication application;
+
+	/**
+	 * The menu contributions by parent id, in the order they appear in the
+	 * application. <code>null</code> if the index must be rebuilt.
+	 */
+	private Map<String, List<MMenuContribution>> contributionsByParentId;
+
+	/**
+	 * The position of each indexed contribution in the application's list of
+	 * menu contributions. Used to merge the contributions for several parent
+	 * ids in their original order.
+	 */
+	private Map<MMenuContribution, Integer> positions;
+
+	private final Comparator<MMenuContribution> positionComparator = new Comparator<MMenuContribution>() {
+		@Override
+		public int compare(MMenuContribution o1, MMenuContribution o2) {
+			return positions.get(o1).compareTo(positions.get(o2));
+		}
+	};
+
+	/**
+	 * @param application
+	 *            the application whose menu contributions are indexed; must
+	 *            not be <code>null</code>.
+	 */
+	public MenuContributionIndex(MApplication application) {
+		this.application = application;
+	}
+
+	/**
+	 * Discards the index. It will be rebuilt on the next lookup.
+	 */
+	public void invalidate() {
+		contributionsByParentId = null;
+		positions = null;
+	}
+
+	private void ensureIndex() {
+		if (contributionsByParentId != null) {
+			return;
+		}
+		List<MMenuContribution> contributions = application.getMenuContributions();
+		contributionsByParentId = new HashMap<>();
+		positions = new HashMap<>(contributions.size());
+		int position = 0;
+		for (MMenuContribution contribution : contributions) {
+			positions.put(contribution, Integer.valueOf(position++));
+			String parentId = contribution.getParentId();
+			if (parentId == null) {
+				// it doesn't make sense for this to be null, see bug 320790
+				continue;
+			}
+			List<MMenuContribution> list = contributionsByParentId.get(parentId);
+			if (list == null) {
+				list = new ArrayList<>(2);
+				contributionsByParentId.put(parentId, list);
+			}
+			list.add(contribution);
+		}
+	}
+
+	/**
+	 * Returns the menu contributions whose parent id is the given id, in the
+	 * order they appear in the application.
+	 *
+	 * @param parentId
+	 *            the parent id
+	 * @return the contributions; never <code>null</code>.
+	 */
+	public List<MMenuContribution> getContributions(String parentId) {
+		ensureIndex();
+		List<MMenuContribution> list = contributionsByParentId.get(parentId);
+		if (list == null) {
+			return Collections.emptyList();
+		}
+		return Collections.unmodifiableList(list);
+	}
+
+	/**
+	 * Returns the candidate menu contributions for the given menu, in the
+	 * order they appear in the application. This is the subset of the
+	 * application's menu contributions that
+	 * {@link ContributionsAnalyzer#XXXgatherMenuContributions} could select for
+	 * the menu, so passing it instead of all the contributions produces the
+	 * same result.
+	 *
+	 * @param menuModel
+	 *            the menu
+	 * @param id
+	 *            the id to gather contributions for
+	 * @param includePopups
+	 *            whether popup contributions are included
+	 * @return the candidate contributions; never <code>null</code>.
+	 */
+	public List<MMenuContribution> getCandidates(MMenu menuModel, String id, boolean includePopups) {
+		if (id == null || id.length() == 0) {
+			return Collections.emptyList();
+		}
+		Set<String> parentIds = new LinkedHashSet<>();
+		parentIds.add(id);
+		if (includePopups) {
+			for (String tag : menuModel.getTags()) {
+				if (tag.startsWith("popup:")) { //$NON-NLS-1$
+					parentIds.add(tag.substring("popup:".length())); //$NON-NLS-1$
+				}
+			}
+			if (menuModel instanceof MPopupMenu) {
+				parentIds.add(ContributionsAnalyzer.POPUP_PARENT_ID);
+			}
+		}
+		if (parentIds.size() == 1) {
+			return getContributions(id);
+		}
+
+		List<MMenuContribution> candidates = new ArrayList<>();
+		for (String parentId : parentIds) {
+			candidates.addAll(getContributions(parentId));
+		}
+		Collections.sort(candidates, positionComparator);
+		return candidates;
+	}
+}
@@ -15,10 +15,20 @@
 
 package org.eclipse.e4.ui.internal.workbench;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import javax.inject.Inject;
 import org.eclipse.core.runtime.IConfigurationElement;
 import org.eclipse.core.runtime.IContributor;
@@ -45,6 +55,7 @@ import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.EStructuralFeature;
 import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
 import org.eclipse.emf.ecore.util.Diagnostician;
 import org.eclipse.emf.ecore.util.EContentsEList;
 import org.eclipse.emf.ecore.util.EcoreUtil;
@@ -91,11 +102,17 @@ public class ModelAssembler {
 		IExtension[] extensions = new ExtensionsSort().sort(extPoint.getExtensions());
 
 		// run processors which are marked to run before fragments
+		long start = StartupTracer.start();
 		runProcessors(extensions, initial, false);
+		StartupTracer.end("model", "Run processors before fragments", start); //$NON-NLS-1$ //$NON-NLS-2$
 		// process fragments (and resolve imports)
+		start = StartupTracer.start();
 		processFragments(extensions, initial);
+		StartupTracer.end("model", "Process fragments", start); //$NON-NLS-1$ //$NON-NLS-2$
 		// run processors which are marked to run after fragments
+		start = StartupTracer.start();
 		runProcessors(extensions, initial, true);
+		StartupTracer.end("model", "Run processors after fragments", start); //$NON-NLS-1$ //$NON-NLS-2$
 	}
 
 	/**
@@ -110,15 +127,144 @@ public class ModelAssembler {
 	 *
 	 */
 	private void processFragments(IExtension[] extensions, boolean initial) {
+		List<IConfigurationElement> fragmentElements = new ArrayList<>();
 		for (IExtension extension : extensions) {
 			IConfigurationElement[] ces = extension.getConfigurationElements();
 			for (IConfigurationElement ce : ces) {
 				if ("fragment".equals(ce.getName()) && (initial || !INITIAL.equals(ce.getAttribute("apply")))) { //$NON-NLS-1$ //$NON-NLS-2$
-					boolean checkExist = !initial && NOTEXISTS.equals(ce.getAttribute("apply")); //$NON-NLS-1$
-					processFragmentConfigurationElement(ce, checkExist);
+					fragmentElements.add(ce);
 				}
 			}
 		}
+
+		long start = StartupTracer.start();
+		preloadFragments(fragmentElements);
+		StartupTracer.end("model", "Preload fragments", start); //$NON-NLS-1$ //$NON-NLS-2$
+
+		for (IConfigurationElement ce : fragmentElements) {
+			boolean checkExist = !initial && NOTEXISTS.equals(ce.getAttribute("apply")); //$NON-NLS-1$
+			start = StartupTracer.start();
+			processFragmentConfigurationElement(ce, checkExist);
+			StartupTracer.end("fragment", "Merge fragment of " + ce.getContributor().getName(), start); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+
+	/**
+	 * Parses the fragment resources of the given configuration elements in
+	 * parallel and adds them to the application's resource set, so that
+	 * merging the fragments afterwards does not have to parse them one after
+	 * the other.
+	 * <p>
+	 * Each resource is loaded in its own resource set, sharing the
+	 * application resource set's factories, packages and URI converter, since
+	 * a resource set must not be modified concurrently. The loaded resources
+	 * are then moved to the application's resource set in the original
+	 * order. Resources that fail to load are left alone; the error is
+	 * reported when the fragment is processed.
+	 * </p>
+	 *
+	 * @param fragmentElements
+	 *            the fragment configuration elements that are about to be
+	 *            processed
+	 */
+	private void preloadFragments(List<IConfigurationElement> fragmentElements) {
+		final ResourceSet resourceSet = ((EObject) application).eResource().getResourceSet();
+		Map<URI, IConfigurationElement> toLoad = new LinkedHashMap<>();
+		for (IConfigurationElement ce : fragmentElements) {
+			URI uri = getFragmentURI(ce, false);
+			if (uri != null && !toLoad.containsKey(uri) && resourceSet.getResource(uri, false) == null) {
+				toLoad.put(uri, ce);
+			}
+		}
+		int threads = Math.min(toLoad.size(), Runtime.getRuntime().availableProcessors());
+		if (threads < 2) {
+			// nothing to gain, let the resources be loaded on demand
+			return;
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			Map<URI, Future<Resource>> futures = new LinkedHashMap<>();
+			for (final URI uri : toLoad.keySet()) {
+				futures.put(uri, executor.submit(new Callable<Resource>() {
+					@Override
+					public Resource call() throws IOException {
+						long start = StartupTracer.start();
+						try {
+							return load();
+						} finally {
+							StartupTracer.end("fragment", "Load " + uri, start); //$NON-NLS-1$ //$NON-NLS-2$
+						}
+					}
+
+					private Resource load() throws IOException {
+						ResourceSetImpl loadSet = new ResourceSetImpl();
+						loadSet.setResourceFactoryRegistry(resourceSet.getResourceFactoryRegistry());
+						loadSet.setPackageRegistry(resourceSet.getPackageRegistry());
+						loadSet.setURIConverter(resourceSet.getURIConverter());
+						loadSet.getLoadOptions().putAll(resourceSet.getLoadOptions());
+						Resource resource = loadSet.createResource(uri);
+						if (resource == null) {
+							return null;
+						}
+						resource.load(loadSet.getLoadOptions());
+						return resource;
+					}
+				}));
+			}
+			for (Entry<URI, Future<Resource>> entry : futures.entrySet()) {
+				try {
+					Resource resource = entry.getValue().get();
+					if (resource != null) {
+						// moves the resource to the application's resource set
+						resourceSet.getResources().add(resource);
+					}
+				} catch (ExecutionException e) {
+					logger.debug(e.getCause(), "Unable to preload model extension from \"" + entry.getKey() //$NON-NLS-1$
+							+ "\" of \"" + toLoad.get(entry.getKey()).getContributor().getName() + "\""); //$NON-NLS-1$ //$NON-NLS-2$
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Returns the location of the fragment contributed by the given
+	 * configuration element.
+	 *
+	 * @param ce
+	 *            the fragment configuration element
+	 * @param log
+	 *            whether problems should be logged
+	 * @return the location or <code>null</code> if it cannot be determined
+	 */
+	private URI getFragmentURI(IConfigurationElement ce, boolean log) {
+		IContributor contributor = ce.getContributor();
+		String attrURI = ce.getAttribute("uri"); //$NON-NLS-1$
+		String bundleName = contributor.getName();
+		if (attrURI == null) {
+			if (log) {
+				logger.warn("Unable to find location for the model extension \"{0}\"", bundleName); //$NON-NLS-1$
+			}
+			return null;
+		}
+
+		try {
+			// check if the attrURI is already a platform URI
+			if (URIHelper.isPlatformURI(attrURI)) {
+				return URI.createURI(attrURI);
+			}
+			String path = bundleName + '/' + attrURI;
+			return URI.createPlatformPluginURI(path, false);
+		} catch (RuntimeException e) {
+			if (log) {
+				logger.warn(e, "Invalid location \"" + attrURI + "\" of model extension \"" + bundleName + "\""); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			}
+			return null;
+		}
 	}
 
 	/**
@@ -176,25 +322,9 @@ public class ModelAssembler {
 	private MModelFragments getFragmentsContainer(IConfigurationElement ce) {
 		E4XMIResource applicationResource = (E4XMIResource) ((EObject) application).eResource();
 		ResourceSet resourceSet = applicationResource.getResourceSet();
-		IContributor contributor = ce.getContributor();
-		String attrURI = ce.getAttribute("uri"); //$NON-NLS-1$
-		String bundleName = contributor.getName();
-		if (attrURI == null) {
-			logger.warn("Unable to find location for the model extension \"{0}\"", bundleName); //$NON-NLS-1$
-			return null;
-		}
-
-		URI uri;
-		try {
-			// check if the attrURI is already a platform URI
-			if (URIHelper.isPlatformURI(attrURI)) {
-				uri = URI.createURI(attrURI);
-			} else {
-				String path = bundleName + '/' + attrURI;
-				uri = URI.createPlatformPluginURI(path, false);
-			}
-		} catch (RuntimeException e) {
-			logger.warn(e, "Invalid location \"" + attrURI + "\" of model extension \"" + bundleName + "\""); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		String bundleName = ce.getContributor().getName();
+		URI uri = getFragmentURI(ce, true);
+		if (uri == null) {
 			return null;
 		}
 
@@ -294,7 +424,9 @@ public class ModelAssembler {
 				boolean parseBoolean = Boolean.parseBoolean(ce.getAttribute("beforefragment")); //$NON-NLS-1$
 				if ("processor".equals(ce.getName()) && afterFragments != parseBoolean) { //$NON-NLS-1$
 					if (initial || !INITIAL.equals(ce.getAttribute("apply"))) { //$NON-NLS-1$
+						long start = StartupTracer.start();
 						runProcessor(ce);
+						StartupTracer.end("processor", ce.getAttribute("class"), start); //$NON-NLS-1$ //$NON-NLS-2$
 					}
 				}
 			}
@@ -354,9 +486,14 @@ public class ModelAssembler {
 		if (imports.isEmpty())
 			return;
 		// now that we have all components loaded, resolve imports
+		Set<String> importedIds = new HashSet<>();
+		for (MApplicationElement importedElement : imports) {
+			importedIds.add(importedElement.getElementId());
+		}
+		Map<String, MApplicationElement> elementsById = findElementsById(importedIds);
 		Map<MApplicationElement, MApplicationElement> importMaps = new HashMap<>();
 		for (MApplicationElement importedElement : imports) {
-			MApplicationElement realElement = ModelUtils.findElementById(application, importedElement.getElementId());
+			MApplicationElement realElement = elementsById.get(importedElement.getElementId());
 			if (realElement == null) {
 				logger.warn("Could not resolve an import element for '" + realElement + "'"); //$NON-NLS-1$ //$NON-NLS-2$
 			}
@@ -412,4 +549,38 @@ public class ModelAssembler {
 			cmd.run();
 		}
 	}
+
+	/**
+	 * Finds the application elements with the given ids in a single walk of
+	 * the application model. Like {@link ModelUtils#findElementById}, the
+	 * first element found in a depth-first walk wins if several elements have
+	 * the same id.
+	 *
+	 * @param ids
+	 *            the element ids to look for
+	 * @return the elements found, by id
+	 */
+	private Map<String, MApplicationElement> findElementsById(Set<String> ids) {
+		Map<String, MApplicationElement> result = new HashMap<>();
+		if (ids.isEmpty()) {
+			return result;
+		}
+		if (ids.contains(application.getElementId())) {
+			result.put(application.getElementId(), application);
+		}
+		TreeIterator<EObject> it = ((EObject) application).eAllContents();
+		while (it.hasNext() && result.size() < ids.size()) {
+			EObject o = it.next();
+			if (!(o instanceof MApplicationElement)) {
+				// ModelUtils.findElementById does not look into those
+				it.prune();
+				continue;
+			}
+			String id = ((MApplicationElement) o).getElementId();
+			if (id != null && ids.contains(id) && !result.containsKey(id)) {
+				result.put(id, (MApplicationElement) o);
+			}
+		}
+		return result;
+	}
 }
@@ -0,0 +1,257 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.e4.ui.internal.workbench;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.eclipse.osgi.service.debug.DebugOptions;
+import org.osgi.service.log.LogService;
+
+/**
+ * Records the duration of the phases of the workbench startup and writes them
+ * as a Chrome trace-event file, which can be opened in
+ * <code>chrome://tracing</code> or any compatible viewer.
+ * <p>
+ * Tracing is enabled through the <code>/trace/startup</code> option of this
+ * bundle. The trace is written to the file given by the
+ * <code>/trace/startup.file</code> option, or to
+ * <code>eclipse-startup-trace.json</code> in the temporary directory if none
+ * is given. When tracing is disabled, the cost of a span is one
+ * {@link System#nanoTime()} call.
+ * </p>
+ * <p>
+ * Typical usage:
+ * </p>
+ *
+ * <pre>
+ * long start = StartupTracer.start();
+ * try {
+ * 	// ...
+ * } finally {
+ * 	StartupTracer.end(&quot;model&quot;, &quot;Load application model&quot;, start);
+ * }
+ * </pre>
+ * <p>
+ * This class is thread safe; spans record the thread they ended on.
+ * </p>
+ */
+public final class StartupTracer {
+
+	private static final String DEFAULT_FILE_NAME = "eclipse-startup-trace.json"; //$NON-NLS-1$
+
+	private static final boolean ENABLED = isTraceEnabled();
+
+	/**
+	 * The {@link System#nanoTime()} value corresponding to the start of the
+	 * virtual machine, so that timestamps are relative to it.
+	 */
+	private static final long ORIGIN = computeOrigin();
+
+	private static final List<Span> spans = new ArrayList<>();
+
+	private static final class Span {
+		final String category;
+		final String name;
+		final long start;
+		final long duration;
+		final long threadId;
+		final String threadName;
+
+		Span(String category, String name, long start, long duration, Thread thread) {
+			this.category = category;
+			this.name = name;
+			this.start = start;
+			this.duration = duration;
+			this.threadId = thread.getId();
+			this.threadName = thread.getName();
+		}
+	}
+
+	private StartupTracer() {
+		// static access only
+	}
+
+	private static boolean isTraceEnabled() {
+		DebugOptions options = getDebugOptions();
+		return options != null && options.isDebugEnabled()
+				&& options.getBooleanOption(Activator.PI_WORKBENCH + Policy.DEBUG_STARTUP, false);
+	}
+
+	private static DebugOptions getDebugOptions() {
+		Activator activator = Activator.getDefault();
+		return activator == null ? null : activator.getDebugOptions();
+	}
+
+	private static long computeOrigin() {
+		long now = System.nanoTime();
+		try {
+			long uptime = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+			return now - uptime * 1000000L;
+		} catch (RuntimeException e) {
+			// no management support, timestamps are relative to this class
+			return now;
+		}
+	}
+
+	/**
+	 * @return <code>true</code> if the startup phases are traced
+	 */
+	public static boolean isEnabled() {
+		return ENABLED;
+	}
+
+	/**
+	 * Marks the start of a span.
+	 *
+	 * @return the value to pass to {@link #end(String, String, long)}
+	 */
+	public static long start() {
+		return System.nanoTime();
+	}
+
+	/**
+	 * Records a span that started at the given time and ends now, on the
+	 * current thread.
+	 *
+	 * @param category
+	 *            the category of the span, e.g. <code>"model"</code>
+	 * @param name
+	 *            a human readable name of the span
+	 * @param startTime
+	 *            the value returned by {@link #start()} when the span began
+	 */
+	public static void end(String category, String name, long startTime) {
+		if (!ENABLED) {
+			return;
+		}
+		long now = System.nanoTime();
+		Span span = new Span(category, name, startTime, now - startTime, Thread.currentThread());
+		synchronized (spans) {
+			spans.add(span);
+		}
+	}
+
+	/**
+	 * Writes all the spans recorded so far to the trace file. Does nothing if
+	 * tracing is disabled. May be called several times; each call rewrites
+	 * the whole file.
+	 */
+	public static void write() {
+		if (!ENABLED) {
+			return;
+		}
+		List<Span> toWrite;
+		synchronized (spans) {
+			toWrite = new ArrayList<>(spans);
+		}
+		File file = getTraceFile();
+		synchronized (StartupTracer.class) {
+			try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+				writeTrace(writer, toWrite);
+			} catch (IOException e) {
+				Activator.log(LogService.LOG_ERROR, "Unable to write the startup trace to " + file, e); //$NON-NLS-1$
+				return;
+			}
+		}
+		Activator.trace(Policy.DEBUG_STARTUP,
+				toWrite.size() + " startup spans written to " + file.getAbsolutePath(), null); //$NON-NLS-1$
+	}
+
+	private static File getTraceFile() {
+		DebugOptions options = getDebugOptions();
+		String path = options == null ? null
+				: options.getOption(Activator.PI_WORKBENCH + Policy.DEBUG_STARTUP_FILE);
+		if (path == null || path.trim().length() == 0) {
+			return new File(System.getProperty("java.io.tmpdir"), DEFAULT_FILE_NAME); //$NON-NLS-1$
+		}
+		return new File(path.trim());
+	}
+
+	private static void writeTrace(Writer writer, List<Span> toWrite) throws IOException {
+		Map<Long, String> threads = new LinkedHashMap<>();
+		writer.write("{\"traceEvents\":["); //$NON-NLS-1$
+		boolean first = true;
+		for (Span span : toWrite) {
+			threads.put(span.threadId, span.threadName);
+			if (!first) {
+				writer.write(',');
+			}
+			first = false;
+			writer.write("\n{\"name\":"); //$NON-NLS-1$
+			writeString(writer, span.name);
+			writer.write(",\"cat\":"); //$NON-NLS-1$
+			writeString(writer, span.category);
+			writer.write(",\"ph\":\"X\",\"ts\":"); //$NON-NLS-1$
+			writer.write(Long.toString((span.start - ORIGIN) / 1000));
+			writer.write(",\"dur\":"); //$NON-NLS-1$
+			writer.write(Long.toString(span.duration / 1000));
+			writer.write(",\"pid\":1,\"tid\":"); //$NON-NLS-1$
+			writer.write(Long.toString(span.threadId));
+			writer.write('}');
+		}
+		// name the threads so that the viewer does not only show their ids
+		for (Map.Entry<Long, String> thread : threads.entrySet()) {
+			if (!first) {
+				writer.write(',');
+			}
+			first = false;
+			writer.write("\n{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":"); //$NON-NLS-1$
+			writer.write(Long.toString(thread.getKey()));
+			writer.write(",\"args\":{\"name\":"); //$NON-NLS-1$
+			writeString(writer, thread.getValue());
+			writer.write("}}"); //$NON-NLS-1$
+		}
+		writer.write("\n],\"displayTimeUnit\":\"ms\"}\n"); //$NON-NLS-1$
+	}
+
+	private static void writeString(Writer writer, String value) throws IOException {
+		writer.write('"');
+		if (value != null) {
+			for (int i = 0; i < value.length(); i++) {
+				char c = value.charAt(i);
+				switch (c) {
+				case '"':
+					writer.write("\\\""); //$NON-NLS-1$
+					break;
+				case '\\':
+					writer.write("\\\\"); //$NON-NLS-1$
+					break;
+				case '\n':
+					writer.write("\\n"); //$NON-NLS-1$
+					break;
+				case '\r':
+					writer.write("\\r"); //$NON-NLS-1$
+					break;
+				case '\t':
+					writer.write("\\t"); //$NON-NLS-1$
+					break;
+				default:
+					if (c < 0x20) {
+						writer.write(String.format("\\u%04x", Integer.valueOf(c))); //$NON-NLS-1$
+					} else {
+						writer.write(c);
+					}
+				}
+			}
+		}
+		writer.write('"');
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2015 IBM Corporation and others.
+ * Copyright (c) 2007, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,6 +10,8 @@
  ******************************************************************************/
 package org.eclipse.jface.internal;
 
+import java.io.File;
+
 import org.eclipse.jface.util.BidiUtils;
 import org.osgi.framework.FrameworkUtil;
 
@@ -91,6 +93,24 @@ public class InternalPolicy {
 	 */
 	public static boolean DEBUG_LOAD_URL_IMAGE_DESCRIPTOR_2x_PNG_FOR_GIF = false;
 
+	/**
+	 * (NON-API) Remember the creating plug-in and the allocation site of the
+	 * resources of resource managers, see
+	 * {@link org.eclipse.jface.resource.ResourceManager#getUsage()}.
+	 *
+	 * @since 3.13
+	 */
+	public static boolean DEBUG_TRACK_RESOURCE_ALLOCATIONS = false;
+
+	/**
+	 * (NON-API) The directory in which URLImageDescriptor and
+	 * FileImageDescriptor keep decoded image data for later sessions, or
+	 * <code>null</code> if decoded image data is not cached.
+	 *
+	 * @since 3.13
+	 */
+	public static File IMAGE_DATA_CACHE_LOCATION; // default value is null
+
 	/**
 	 * (NON-API) A flag to indicate whether the JFace bundle is running inside
 	 * an OSGi container
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2015 IBM Corporation and others.
+ * Copyright (c) 2004, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -30,6 +30,11 @@ abstract class AbstractResourceManager extends ResourceManager {
      */
     private HashMap<DeviceResourceDescriptor, RefCount> map = null;
 
+    /**
+     * Counts the resources in the map for {@link #getUsage()}.
+     */
+    private final ResourceUsageTracker usage = new ResourceUsageTracker();
+
     /**
      * Holds a reference count for a previously-allocated resource
      */
@@ -75,6 +80,7 @@ abstract class AbstractResourceManager extends ResourceManager {
 
         // Get the current reference count
         RefCount count = map.get(descriptor);
+        referenced(descriptor, count != null);
         if (count != null) {
             // If this resource already exists, increment the reference count and return
             // the existing resource.
@@ -87,10 +93,22 @@ abstract class AbstractResourceManager extends ResourceManager {
 
         count = new RefCount(resource);
         map.put(descriptor, count);
+        usage.allocated(resource, descriptor);
 
         return resource;
     }
 
+    /**
+     * Called every time a resource is requested, before it is allocated if it
+     * does not exist yet.
+     *
+     * @param descriptor identifier for the requested resource
+     * @param shared whether the resource exists already
+     */
+    void referenced(DeviceResourceDescriptor descriptor, boolean shared) {
+        // nothing by default
+    }
+
     @Override
 	public final void destroy(DeviceResourceDescriptor descriptor) {
         // If the map is empty (null) then there are no resources to dispose
@@ -105,6 +123,9 @@ abstract class AbstractResourceManager extends ResourceManager {
             count.count--;
             if (count.count == 0) {
                 // If this was the last reference, deallocate it.
+                if (!keepsForReuse(descriptor)) {
+                    usage.deallocated(count.resource);
+                }
                 deallocate(count.resource, descriptor);
                 map.remove(descriptor);
             }
@@ -130,6 +151,8 @@ abstract class AbstractResourceManager extends ResourceManager {
             return;
         }
 
+        usage.clear();
+
         Collection<Entry<DeviceResourceDescriptor, RefCount>> entries = map.entrySet();
 
         for (Iterator<Entry<DeviceResourceDescriptor, RefCount>> iter = entries.iterator(); iter.hasNext();) {
@@ -144,6 +167,30 @@ abstract class AbstractResourceManager extends ResourceManager {
         map = null;
     }
 
+    /**
+     * Returns whether deallocate keeps the resource of the descriptor for reuse
+     * instead of freeing it. Such a resource stays counted as live until it is
+     * reported to the usage tracker as deallocated once it is freed.
+     *
+     * @param descriptor
+     * @return boolean
+     */
+    boolean keepsForReuse(DeviceResourceDescriptor descriptor) {
+        return false;
+    }
+
+    /**
+     * @return the tracker counting the live resources of the receiver
+     */
+    ResourceUsageTracker getUsageTracker() {
+        return usage;
+    }
+
+    @Override
+	public ResourceUsage getUsage() {
+        return usage.getUsage();
+    }
+
     @Override
 	public Object find(DeviceResourceDescriptor descriptor) {
         if (map == null) {
@@ -0,0 +1,178 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jface.resource;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map.Entry;
+
+import org.eclipse.swt.graphics.Image;
+
+/**
+ * The CompositeImageCache keeps the composite images of a
+ * {@link DeviceResourceManager} for a while after their last reference was
+ * destroyed. Decorated trees destroy and compose the same overlay images over
+ * and over again while they are scrolled, refreshed or their label providers
+ * are replaced; those images are now taken from the cache.
+ * <p>
+ * The referenced composite images are shared by the reference counting of the
+ * resource manager, keyed by the equality of the descriptors, e.g. the base
+ * image and the overlays per quadrant of a <code>DecorationOverlayIcon</code>.
+ * The cache only holds the unreferenced ones, the least recently released
+ * are disposed first. It also counts the requests for the statistics. The
+ * images are counted as live by the usage tracker of the resource manager
+ * until the cache disposes them.
+ * </p>
+ * <p>
+ * This class is not API. Like the resource manager, it is only used from the
+ * thread of the device.
+ * </p>
+ */
+class CompositeImageCache {
+
+	/**
+	 * The number of unreferenced images that are kept.
+	 */
+	static final int MAX_UNREFERENCED = 256;
+
+	private final LinkedHashMap<ImageDescriptor, Image> unreferenced = new LinkedHashMap<>();
+
+	private final ResourceUsageTracker usage;
+
+	private long requestCount;
+
+	private long hitCount;
+
+	private long evictionCount;
+
+	private int imageCount;
+
+	/**
+	 * Whether the classes of composite image descriptors override
+	 * <code>equals</code>.
+	 */
+	private static final ClassValue<Boolean> OVERRIDES_EQUALS = new ClassValue<Boolean>() {
+		@Override
+		protected Boolean computeValue(Class<?> type) {
+			try {
+				return Boolean.valueOf(type.getMethod("equals", Object.class).getDeclaringClass() != Object.class); //$NON-NLS-1$
+			} catch (NoSuchMethodException e) {
+				return Boolean.FALSE;
+			}
+		}
+	};
+
+	/**
+	 * Create a new cache.
+	 *
+	 * @param usage
+	 *            the usage tracker of the resource manager
+	 */
+	CompositeImageCache(ResourceUsageTracker usage) {
+		this.usage = usage;
+	}
+
+	/**
+	 * Return whether the images of the descriptor are kept by the cache. Only
+	 * the composite image descriptors that override <code>equals</code> are
+	 * cached: an identity-equal descriptor, which is often created anew for
+	 * every request, would never be requested again.
+	 *
+	 * @param descriptor
+	 * @return boolean
+	 */
+	static boolean isCached(DeviceResourceDescriptor descriptor) {
+		return descriptor instanceof CompositeImageDescriptor
+				&& OVERRIDES_EQUALS.get(descriptor.getClass()).booleanValue();
+	}
+
+	/**
+	 * Count a request for the image of the descriptor.
+	 *
+	 * @param shared
+	 *            whether the image was referenced already
+	 */
+	void countRequest(boolean shared) {
+		requestCount++;
+		if (shared) {
+			hitCount++;
+		}
+	}
+
+	/**
+	 * Take the unreferenced image of the descriptor out of the cache.
+	 *
+	 * @param descriptor
+	 * @return the image or <code>null</code> if it has to be created
+	 */
+	Image take(ImageDescriptor descriptor) {
+		Image image = unreferenced.remove(descriptor);
+		if (image != null) {
+			hitCount++;
+		}
+		return image;
+	}
+
+	/**
+	 * Remember that the image of a descriptor was created.
+	 */
+	void created() {
+		imageCount++;
+	}
+
+	/**
+	 * Keep the image of the descriptor whose last reference was destroyed,
+	 * disposing the least recently released images if there are too many.
+	 *
+	 * @param descriptor
+	 * @param image
+	 */
+	void release(ImageDescriptor descriptor, Image image) {
+		Image previous = unreferenced.put(descriptor, image);
+		if (previous != null && previous != image) {
+			// cannot happen as long as the descriptors are consistent
+			dispose(descriptor, previous);
+		}
+		if (unreferenced.size() > MAX_UNREFERENCED) {
+			Iterator<Entry<ImageDescriptor, Image>> iterator = unreferenced.entrySet().iterator();
+			Entry<ImageDescriptor, Image> eldest = iterator.next();
+			iterator.remove();
+			dispose(eldest.getKey(), eldest.getValue());
+			evictionCount++;
+		}
+	}
+
+	private void dispose(ImageDescriptor descriptor, Image image) {
+		usage.deallocated(image);
+		descriptor.destroyResource(image);
+		imageCount--;
+	}
+
+	/**
+	 * Dispose all unreferenced images.
+	 */
+	void dispose() {
+		for (Entry<ImageDescriptor, Image> entry : unreferenced.entrySet()) {
+			dispose(entry.getKey(), entry.getValue());
+		}
+		unreferenced.clear();
+	}
+
+	/**
+	 * Return a snapshot of the statistics.
+	 *
+	 * @return CompositeImageStatistics
+	 */
+	CompositeImageStatistics getStatistics() {
+		return new CompositeImageStatistics(requestCount, hitCount, evictionCount, imageCount,
+				unreferenced.size());
+	}
+}
@@ -0,0 +1,107 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jface.resource;
+
+/**
+ * A snapshot of the use of the composite images, e.g. the decorated images of
+ * a <code>DecorationOverlayIcon</code>, that a resource manager shares between
+ * its clients.
+ *
+ * @see ResourceManager#getCompositeImageStatistics()
+ * @noinstantiate This class is not intended to be instantiated by clients.
+ * @since 3.13
+ */
+public final class CompositeImageStatistics {
+
+	private final long requestCount;
+
+	private final long hitCount;
+
+	private final long evictionCount;
+
+	private final int imageCount;
+
+	private final int unreferencedImageCount;
+
+	CompositeImageStatistics(long requestCount, long hitCount, long evictionCount, int imageCount,
+			int unreferencedImageCount) {
+		this.requestCount = requestCount;
+		this.hitCount = hitCount;
+		this.evictionCount = evictionCount;
+		this.imageCount = imageCount;
+		this.unreferencedImageCount = unreferencedImageCount;
+	}
+
+	/**
+	 * Returns the number of times a composite image was requested.
+	 *
+	 * @return the number of requests
+	 */
+	public long getRequestCount() {
+		return requestCount;
+	}
+
+	/**
+	 * Returns the number of requests that were answered with an image that
+	 * existed already, instead of composing a new one.
+	 *
+	 * @return the number of hits
+	 */
+	public long getHitCount() {
+		return hitCount;
+	}
+
+	/**
+	 * Returns the ratio of hits to requests, 0 if there were no requests.
+	 *
+	 * @return the hit rate between 0 and 1
+	 */
+	public double getHitRate() {
+		return requestCount == 0 ? 0 : (double) hitCount / requestCount;
+	}
+
+	/**
+	 * Returns the number of unreferenced composite images that were disposed
+	 * to make room for others.
+	 *
+	 * @return the number of evictions
+	 */
+	public long getEvictionCount() {
+		return evictionCount;
+	}
+
+	/**
+	 * Returns the number of native composite images that are currently
+	 * allocated, including the unreferenced ones that are kept for reuse.
+	 *
+	 * @return the number of native image handles
+	 */
+	public int getImageCount() {
+		return imageCount;
+	}
+
+	/**
+	 * Returns the number of allocated composite images that are not referenced
+	 * anymore but kept for reuse.
+	 *
+	 * @return the number of unreferenced images
+	 */
+	public int getUnreferencedImageCount() {
+		return unreferencedImageCount;
+	}
+
+	@Override
+	public String toString() {
+		return "CompositeImageStatistics [requests=" + requestCount + ", hits=" + hitCount //$NON-NLS-1$ //$NON-NLS-2$
+				+ ", evictions=" + evictionCount + ", images=" + imageCount //$NON-NLS-1$ //$NON-NLS-2$
+				+ ", unreferenced=" + unreferencedImageCount + "]"; //$NON-NLS-1$ //$NON-NLS-2$
+	}
+}
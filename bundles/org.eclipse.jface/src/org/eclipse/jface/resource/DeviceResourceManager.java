@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2015 IBM Corporation and others.
+ * Copyright (c) 2004, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,8 +10,16 @@
  *******************************************************************************/
 package org.eclipse.jface.resource;
 
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.jface.resource.ImagePreloader.Preload;
+import org.eclipse.swt.SWTException;
 import org.eclipse.swt.graphics.Device;
 import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.ImageDataProvider;
 
 /**
  * Manages SWT resources for a particular device.
@@ -33,6 +41,22 @@ public final class DeviceResourceManager extends AbstractResourceManager {
     private Device device;
     private Image missingImage;
 
+    /**
+     * The number of pending preloads that are kept, the oldest are dropped
+     * first.
+     */
+    private static final int MAX_PRELOADS = 256;
+
+    /**
+     * The preloads of the images that were not created yet. (null when empty)
+     */
+    private Map<ImageDescriptor, Preload> preloads = null;
+
+    /**
+     * The unreferenced composite images kept for reuse. (null after dispose)
+     */
+    private CompositeImageCache compositeImages = new CompositeImageCache(getUsageTracker());
+
     @Override
 	public Device getDevice() {
         return device;
@@ -49,14 +73,79 @@ public final class DeviceResourceManager extends AbstractResourceManager {
 
     @Override
 	protected Object allocate(DeviceResourceDescriptor descriptor) throws DeviceResourceException {
+        if (compositeImages != null && CompositeImageCache.isCached(descriptor)) {
+            Image image = compositeImages.take((ImageDescriptor) descriptor);
+            if (image == null) {
+                image = (Image) descriptor.createResource(device);
+                compositeImages.created();
+            }
+            return image;
+        }
+        if (preloads != null && descriptor instanceof ImageDescriptor) {
+            Preload preload = preloads.remove(descriptor);
+            if (preloads.isEmpty()) {
+                preloads = null;
+            }
+            ImageDataProvider provider = preload == null ? null : preload.take();
+            if (provider != null) {
+                try {
+                    return new Image(device, provider);
+                } catch (SWTException | IllegalArgumentException e) {
+                    // create the image as usual
+                }
+            }
+        }
         return descriptor.createResource(device);
     }
 
+    @Override
+	public void preloadImages(Collection<? extends ImageDescriptor> descriptors) {
+        for (ImageDescriptor descriptor : descriptors) {
+            if (find(descriptor) != null || preloads != null && preloads.containsKey(descriptor)) {
+                continue;
+            }
+            if (preloads == null) {
+                preloads = new LinkedHashMap<>();
+            }
+            preloads.put(descriptor, ImagePreloader.submit(descriptor));
+            if (preloads.size() > MAX_PRELOADS) {
+                // the images preloaded first are the least likely to be created
+                Iterator<Preload> eldest = preloads.values().iterator();
+                eldest.next().cancel();
+                eldest.remove();
+            }
+        }
+    }
+
     @Override
 	protected void deallocate(Object resource, DeviceResourceDescriptor descriptor) {
+        if (compositeImages != null && CompositeImageCache.isCached(descriptor)) {
+            compositeImages.release((ImageDescriptor) descriptor, (Image) resource);
+            return;
+        }
         descriptor.destroyResource(resource);
     }
 
+    @Override
+	boolean keepsForReuse(DeviceResourceDescriptor descriptor) {
+        return compositeImages != null && CompositeImageCache.isCached(descriptor);
+    }
+
+    @Override
+	void referenced(DeviceResourceDescriptor descriptor, boolean shared) {
+        if (compositeImages != null && CompositeImageCache.isCached(descriptor)) {
+            compositeImages.countRequest(shared);
+        }
+    }
+
+    @Override
+	public CompositeImageStatistics getCompositeImageStatistics() {
+        if (compositeImages == null) {
+            return super.getCompositeImageStatistics();
+        }
+        return compositeImages.getStatistics();
+    }
+
     @Override
 	protected Image getDefaultImage() {
         if (missingImage == null) {
@@ -67,7 +156,19 @@ public final class DeviceResourceManager extends AbstractResourceManager {
 
     @Override
 	public void dispose() {
+        // dispose the images that are still referenced right away
+        CompositeImageCache cache = compositeImages;
+        compositeImages = null;
         super.dispose();
+        if (cache != null) {
+            cache.dispose();
+        }
+        if (preloads != null) {
+            for (Preload preload : preloads.values()) {
+                preload.cancel();
+            }
+            preloads = null;
+        }
         if (missingImage != null) {
             missingImage.dispose();
             missingImage = null;
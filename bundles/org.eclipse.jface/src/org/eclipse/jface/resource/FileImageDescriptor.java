@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,6 +11,7 @@
 package org.eclipse.jface.resource;
 
 import java.io.BufferedInputStream;
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
@@ -26,6 +27,7 @@ import org.eclipse.swt.SWTException;
 import org.eclipse.swt.graphics.Device;
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.ImageDataProvider;
 
 /**
  * An image descriptor that loads its image information from a file.
@@ -84,10 +86,38 @@ class FileImageDescriptor extends ImageDescriptor {
 	 * @see org.eclipse.jface.resource.ImageDescriptor#getImageData() The
 	 *      FileImageDescriptor implementation of this method is not used by
 	 *      {@link ImageDescriptor#createImage(boolean, Device)} as of version
-	 *      3.4 so that the SWT OS optimised loading can be used.
+	 *      3.4 so that the SWT OS optimised loading can be used, unless
+	 *      decoded image data is cached.
 	 */
 	@Override
 	public ImageData getImageData() {
+		if (ImageDataCache.isEnabled()) {
+			String key;
+			String stamp;
+			if (location == null) {
+				File file = new File(name);
+				key = file.getAbsolutePath();
+				stamp = ImageDataCache.getStamp(file);
+			} else {
+				URL resource = location.getResource(name);
+				key = resource == null ? null : resource.toExternalForm();
+				stamp = resource == null ? null : ImageDataCache.getStamp(resource);
+			}
+			if (stamp != null) {
+				ImageData result = ImageDataCache.get(key, stamp);
+				if (result == null) {
+					result = loadImageData();
+					if (result != null) {
+						ImageDataCache.put(key, stamp, result);
+					}
+				}
+				return result;
+			}
+		}
+		return loadImageData();
+	}
+
+	private ImageData loadImageData() {
 		InputStream in = getStream();
 		ImageData result = null;
 		if (in != null) {
@@ -111,6 +141,16 @@ class FileImageDescriptor extends ImageDescriptor {
 		return result;
 	}
 
+	@Override
+	ImageDataProvider createPreloadedProvider() {
+		final ImageData data = getImageData();
+		if (data == null) {
+			return null;
+		}
+		// like the image created from the file, other zoom levels are scaled
+		return zoom -> zoom == 100 ? data : null;
+	}
+
 	/**
 	 * Returns a stream on the image contents. Returns null if a stream could
 	 * not be opened.
@@ -159,6 +199,10 @@ class FileImageDescriptor extends ImageDescriptor {
 
 	@Override
 	public Image createImage(boolean returnMissingImageOnError, Device device) {
+		if (ImageDataCache.isEnabled()) {
+			// SWT would decode the file itself, bypassing the cache
+			return super.createImage(returnMissingImageOnError, device);
+		}
 		String path = getFilePath();
 		if (path == null)
 			return createDefaultImage(returnMissingImageOnError, device);
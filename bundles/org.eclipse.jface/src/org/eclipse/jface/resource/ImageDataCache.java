@@ -0,0 +1,364 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jface.resource;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.runtime.FileLocator;
+import org.eclipse.core.runtime.URIUtil;
+import org.eclipse.jface.internal.InternalPolicy;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.PaletteData;
+import org.eclipse.swt.graphics.RGB;
+
+/**
+ * The ImageDataCache stores decoded image data in a directory so that later
+ * sessions can read the pixels instead of decoding the image file again. The
+ * cache is disabled unless {@link InternalPolicy#IMAGE_DATA_CACHE_LOCATION}
+ * is set.
+ * <p>
+ * An entry is keyed by the URL of the image and remembers the modification
+ * time and length of the image file, so an entry of an image that was
+ * changed, e.g. by updating its bundle, is not used. Failures only mean the
+ * image is decoded as usual.
+ * </p>
+ * <p>
+ * The keys of the images in bundles change with the bundle ids, so entries
+ * that were not used for {@link #MAX_UNUSED_DAYS} days are deleted once per
+ * session, in the background, when the first entry is stored.
+ * </p>
+ * <p>
+ * This class is not API.
+ * </p>
+ */
+class ImageDataCache {
+
+	private static final int MAGIC = 0x4A464944; // "JFID"
+
+	private static final int FORMAT_VERSION = 1;
+
+	private static final String FILE_EXTENSION = ".imagedata"; //$NON-NLS-1$
+
+	/**
+	 * Images with more pixel data are not worth caching, they are not icons.
+	 */
+	private static final int MAX_DATA_SIZE = 1024 * 1024;
+
+	/**
+	 * The days after which an entry that was not used is deleted.
+	 */
+	private static final int MAX_UNUSED_DAYS = 30;
+
+	private static boolean pruned;
+
+	private ImageDataCache() {
+		// static access only
+	}
+
+	/**
+	 * Return whether image data is cached at all.
+	 *
+	 * @return boolean
+	 */
+	static boolean isEnabled() {
+		return InternalPolicy.IMAGE_DATA_CACHE_LOCATION != null;
+	}
+
+	/**
+	 * Return the stamp of the contents of the url, <code>null</code> if the
+	 * contents cannot be told apart from other versions.
+	 *
+	 * @param url
+	 * @return String or <code>null</code>
+	 */
+	static String getStamp(URL url) {
+		try {
+			if (InternalPolicy.OSGI_AVAILABLE) {
+				URL platformURL = FileLocator.find(url);
+				if (platformURL != null) {
+					url = platformURL;
+				}
+			}
+			if ("file".equalsIgnoreCase(url.getProtocol())) { //$NON-NLS-1$
+				return getStamp(URIUtil.toFile(URIUtil.toURI(url)));
+			}
+			// bundle entries answer the time of the entry in the bundle
+			URLConnection connection = url.openConnection();
+			long modified = connection.getLastModified();
+			if (modified == 0) {
+				return null;
+			}
+			return modified + ":" + connection.getContentLengthLong(); //$NON-NLS-1$
+		} catch (IOException | URISyntaxException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Return the stamp of the contents of the file, <code>null</code> if it
+	 * does not exist.
+	 *
+	 * @param file
+	 * @return String or <code>null</code>
+	 */
+	static String getStamp(File file) {
+		if (file == null || !file.isFile()) {
+			return null;
+		}
+		return file.lastModified() + ":" + file.length(); //$NON-NLS-1$
+	}
+
+	/**
+	 * Return the cached image data of the key or <code>null</code> if there
+	 * is no current entry.
+	 *
+	 * @param key
+	 *            the location of the image
+	 * @param stamp
+	 *            the current stamp of the image contents
+	 * @return ImageData or <code>null</code>
+	 */
+	static ImageData get(String key, String stamp) {
+		File file = getFile(key);
+		if (file == null || !file.isFile()) {
+			return null;
+		}
+		long length = file.length();
+		ImageData data;
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+				return null;
+			}
+			if (!key.equals(readString(in, length)) || !stamp.equals(readString(in, length))) {
+				return null;
+			}
+			data = readImageData(in, length);
+		} catch (IOException | IllegalArgumentException e) {
+			// a broken entry, it is replaced when the image is decoded again
+			return null;
+		}
+		// keep the entry from being pruned
+		long now = System.currentTimeMillis();
+		if (now - file.lastModified() > TimeUnit.DAYS.toMillis(1)) {
+			file.setLastModified(now);
+		}
+		return data;
+	}
+
+	/**
+	 * Store the image data of the key.
+	 *
+	 * @param key
+	 *            the location of the image
+	 * @param stamp
+	 *            the stamp of the image contents the data was decoded from
+	 * @param data
+	 *            the decoded image data
+	 */
+	static void put(String key, String stamp, ImageData data) {
+		File file = getFile(key);
+		if (file == null || data.data.length > MAX_DATA_SIZE) {
+			return;
+		}
+		File directory = file.getParentFile();
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			return;
+		}
+		startPruning(directory);
+		File tempFile = null;
+		try {
+			// other threads may store the same image at the same time
+			tempFile = File.createTempFile("image", ".tmp", directory); //$NON-NLS-1$ //$NON-NLS-2$
+			try (DataOutputStream out = new DataOutputStream(
+					new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+				out.writeInt(MAGIC);
+				out.writeInt(FORMAT_VERSION);
+				writeString(out, key);
+				writeString(out, stamp);
+				writeImageData(out, data);
+			}
+			if (file.exists() && !file.delete() || !tempFile.renameTo(file)) {
+				tempFile.delete();
+			}
+		} catch (IOException e) {
+			if (tempFile != null) {
+				tempFile.delete();
+			}
+		}
+	}
+
+	/**
+	 * Delete the entries of the directory that were not used for
+	 * {@link #MAX_UNUSED_DAYS} days, and the temporary files left behind, in
+	 * a background thread. Only the first call of a session does something.
+	 */
+	private static synchronized void startPruning(File directory) {
+		if (pruned) {
+			return;
+		}
+		pruned = true;
+		Thread thread = new Thread(() -> {
+			File[] files = directory.listFiles();
+			if (files == null) {
+				return;
+			}
+			long now = System.currentTimeMillis();
+			long entryLimit = now - TimeUnit.DAYS.toMillis(MAX_UNUSED_DAYS);
+			long tempLimit = now - TimeUnit.DAYS.toMillis(1);
+			for (File file : files) {
+				String name = file.getName();
+				long modified = file.lastModified();
+				if (name.endsWith(FILE_EXTENSION) ? modified < entryLimit
+						: name.endsWith(".tmp") && modified < tempLimit) { //$NON-NLS-1$
+					file.delete();
+				}
+			}
+		}, "Image data cache pruning"); //$NON-NLS-1$
+		thread.setDaemon(true);
+		thread.setPriority(Thread.MIN_PRIORITY);
+		thread.start();
+	}
+
+	private static File getFile(String key) {
+		File location = InternalPolicy.IMAGE_DATA_CACHE_LOCATION;
+		if (location == null) {
+			return null;
+		}
+		String name = UUID.nameUUIDFromBytes(key.getBytes(StandardCharsets.UTF_8)).toString();
+		return new File(location, name + FILE_EXTENSION);
+	}
+
+	private static void writeImageData(DataOutputStream out, ImageData data) throws IOException {
+		out.writeInt(data.width);
+		out.writeInt(data.height);
+		out.writeInt(data.depth);
+		out.writeInt(data.scanlinePad);
+		PaletteData palette = data.palette;
+		out.writeBoolean(palette.isDirect);
+		if (palette.isDirect) {
+			out.writeInt(palette.redMask);
+			out.writeInt(palette.greenMask);
+			out.writeInt(palette.blueMask);
+		} else {
+			RGB[] colors = palette.colors;
+			out.writeInt(colors.length);
+			for (RGB color : colors) {
+				out.writeByte(color.red);
+				out.writeByte(color.green);
+				out.writeByte(color.blue);
+			}
+		}
+		out.writeInt(data.transparentPixel);
+		out.writeInt(data.maskPad);
+		writeBytes(out, data.maskData);
+		writeBytes(out, data.alphaData);
+		out.writeInt(data.alpha);
+		out.writeInt(data.type);
+		out.writeInt(data.x);
+		out.writeInt(data.y);
+		out.writeInt(data.disposalMethod);
+		out.writeInt(data.delayTime);
+		writeBytes(out, data.data);
+	}
+
+	private static ImageData readImageData(DataInputStream in, long length) throws IOException {
+		int width = in.readInt();
+		int height = in.readInt();
+		int depth = in.readInt();
+		int scanlinePad = in.readInt();
+		PaletteData palette;
+		if (in.readBoolean()) {
+			palette = new PaletteData(in.readInt(), in.readInt(), in.readInt());
+		} else {
+			int colorCount = in.readInt();
+			if (colorCount < 0 || colorCount > length) {
+				throw new IOException("Invalid palette size: " + colorCount); //$NON-NLS-1$
+			}
+			RGB[] colors = new RGB[colorCount];
+			for (int i = 0; i < colors.length; i++) {
+				colors[i] = new RGB(in.readUnsignedByte(), in.readUnsignedByte(), in.readUnsignedByte());
+			}
+			palette = new PaletteData(colors);
+		}
+		int transparentPixel = in.readInt();
+		int maskPad = in.readInt();
+		byte[] maskData = readBytes(in, length);
+		byte[] alphaData = readBytes(in, length);
+		int alpha = in.readInt();
+		int type = in.readInt();
+		int x = in.readInt();
+		int y = in.readInt();
+		int disposalMethod = in.readInt();
+		int delayTime = in.readInt();
+		byte[] pixels = readBytes(in, length);
+
+		ImageData data = new ImageData(width, height, depth, palette, scanlinePad, pixels);
+		data.transparentPixel = transparentPixel;
+		data.maskPad = maskPad;
+		data.maskData = maskData;
+		data.alphaData = alphaData;
+		data.alpha = alpha;
+		data.type = type;
+		data.x = x;
+		data.y = y;
+		data.disposalMethod = disposalMethod;
+		data.delayTime = delayTime;
+		return data;
+	}
+
+	private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+		if (bytes == null) {
+			out.writeInt(-1);
+			return;
+		}
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	/**
+	 * Read bytes written by {@link #writeBytes(DataOutputStream, byte[])}, no
+	 * more than the length of the file.
+	 */
+	private static byte[] readBytes(DataInputStream in, long fileLength) throws IOException {
+		int length = in.readInt();
+		if (length < 0) {
+			return null;
+		}
+		if (length > fileLength) {
+			throw new IOException("Invalid length: " + length); //$NON-NLS-1$
+		}
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return bytes;
+	}
+
+	private static void writeString(DataOutputStream out, String string) throws IOException {
+		writeBytes(out, string.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static String readString(DataInputStream in, long fileLength) throws IOException {
+		byte[] bytes = readBytes(in, fileLength);
+		return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+	}
+}
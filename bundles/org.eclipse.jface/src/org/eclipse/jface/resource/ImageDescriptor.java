@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -16,6 +16,7 @@ import org.eclipse.swt.SWTException;
 import org.eclipse.swt.graphics.Device;
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.ImageDataProvider;
 import org.eclipse.swt.graphics.PaletteData;
 import org.eclipse.swt.graphics.RGB;
 import org.eclipse.swt.widgets.Display;
@@ -315,6 +316,19 @@ public abstract class ImageDescriptor extends DeviceResourceDescriptor {
      */
     public abstract ImageData getImageData();
 
+    /**
+     * Decodes the image data of this descriptor for a later
+     * {@link #createResource(Device)}. Called on a background thread by
+     * {@link ResourceManager#preloadImages(java.util.Collection)}, so only
+     * descriptors that load their data without a device may return
+     * something. The default implementation does not preload anything.
+     *
+     * @return a provider of the decoded image data or <code>null</code>
+     */
+    ImageDataProvider createPreloadedProvider() {
+        return null;
+    }
+
     /**
      * Returns the shared image descriptor for a missing image.
      *
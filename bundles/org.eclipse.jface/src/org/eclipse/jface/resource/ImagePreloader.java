@@ -0,0 +1,142 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jface.resource;
+
+import java.lang.ref.SoftReference;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.swt.graphics.ImageDataProvider;
+
+/**
+ * The ImagePreloader decodes the image data of image descriptors on a few
+ * shared daemon threads, so that the thread of the device only has to create
+ * the native image.
+ * <p>
+ * A preload that has not started yet when its image is needed is abandoned
+ * and the image is created as usual; a preload that is running is waited
+ * for, so an image is never decoded twice. The decoded image data is only
+ * softly referenced until it is taken, so that the preloads of images that
+ * are never created do not hold on to it.
+ * </p>
+ * <p>
+ * This class is not API.
+ * </p>
+ */
+class ImagePreloader {
+
+	private static final int PARALLELISM = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+
+	private static ThreadPoolExecutor executor;
+
+	/**
+	 * The decoding of the image data of one descriptor.
+	 */
+	static final class Preload implements Runnable {
+
+		private final ImageDescriptor descriptor;
+
+		private final AtomicBoolean claimed = new AtomicBoolean();
+
+		private final CountDownLatch done = new CountDownLatch(1);
+
+		private volatile SoftReference<ImageDataProvider> provider;
+
+		Preload(ImageDescriptor descriptor) {
+			this.descriptor = descriptor;
+		}
+
+		@Override
+		public void run() {
+			if (!claimed.compareAndSet(false, true)) {
+				return;
+			}
+			try {
+				ImageDataProvider decoded = descriptor.createPreloadedProvider();
+				if (decoded != null) {
+					provider = new SoftReference<>(decoded);
+				}
+			} catch (RuntimeException e) {
+				// the image is loaded again when it is created, which reports
+				// the problem
+			} finally {
+				done.countDown();
+			}
+		}
+
+		/**
+		 * Return the decoded image data, waiting for the decoding if it is
+		 * running. Return <code>null</code> if the image data could not be
+		 * decoded, was reclaimed by the garbage collector or the decoding had
+		 * not started; it is not started anymore afterwards.
+		 *
+		 * @return ImageDataProvider or <code>null</code>
+		 */
+		ImageDataProvider take() {
+			if (claimed.compareAndSet(false, true)) {
+				return null;
+			}
+			try {
+				done.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return null;
+			}
+			SoftReference<ImageDataProvider> decoded = provider;
+			provider = null;
+			return decoded == null ? null : decoded.get();
+		}
+
+		/**
+		 * Drop the preload, e.g. because its resource manager was disposed.
+		 */
+		void cancel() {
+			claimed.set(true);
+			provider = null;
+		}
+	}
+
+	private ImagePreloader() {
+		// static access only
+	}
+
+	private static synchronized ThreadPoolExecutor getExecutor() {
+		if (executor == null) {
+			AtomicInteger count = new AtomicInteger();
+			executor = new ThreadPoolExecutor(PARALLELISM, PARALLELISM, 10, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<Runnable>(), runnable -> {
+						Thread thread = new Thread(runnable, "Image preloader " + count.incrementAndGet()); //$NON-NLS-1$
+						thread.setDaemon(true);
+						thread.setPriority(Thread.MIN_PRIORITY);
+						return thread;
+					});
+			// don't keep idle threads once the images are decoded
+			executor.allowCoreThreadTimeOut(true);
+		}
+		return executor;
+	}
+
+	/**
+	 * Start decoding the image data of the descriptor.
+	 *
+	 * @param descriptor
+	 * @return the preload to take the image data from
+	 */
+	static Preload submit(ImageDescriptor descriptor) {
+		Preload preload = new Preload(descriptor);
+		getExecutor().execute(preload);
+		return preload;
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,8 +13,11 @@
  *******************************************************************************/
 package org.eclipse.jface.resource;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 import org.eclipse.core.runtime.Assert;
@@ -304,6 +307,29 @@ public class ImageRegistry {
         }
     }
 
+    /**
+     * Starts decoding the images of the given keys on background threads, so
+     * that a later {@link #get(String)} only has to create the native image.
+     * Keys that are unknown or whose images exist already are ignored.
+     *
+     * @param keys
+     *            the keys of the images that will be needed soon
+     * @see ResourceManager#preloadImages(Collection)
+     * @since 3.13
+     */
+    public void preload(Collection<String> keys) {
+        List<ImageDescriptor> descriptors = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            Entry entry = getEntry(key);
+            if (entry != null && entry.image == null && entry.descriptor != null) {
+                descriptors.add(entry.descriptor);
+            }
+        }
+        if (!descriptors.isEmpty()) {
+            manager.preloadImages(descriptors);
+        }
+    }
+
     private Entry getEntry(String key) {
         return getTable().get(key);
     }
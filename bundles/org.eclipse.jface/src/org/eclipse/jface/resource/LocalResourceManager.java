@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2015 IBM Corporation and others.
+ * Copyright (c) 2004, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,6 +10,8 @@
  *******************************************************************************/
 package org.eclipse.jface.resource;
 
+import java.util.Collection;
+
 import org.eclipse.swt.graphics.Device;
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.widgets.Control;
@@ -69,6 +71,16 @@ public final class LocalResourceManager extends AbstractResourceManager {
         return parentRegistry.create(descriptor);
     }
 
+    @Override
+	public void preloadImages(Collection<? extends ImageDescriptor> descriptors) {
+        parentRegistry.preloadImages(descriptors);
+    }
+
+    @Override
+	public CompositeImageStatistics getCompositeImageStatistics() {
+        return parentRegistry.getCompositeImageStatistics();
+    }
+
     @Override
 	protected void deallocate(Object resource,
             DeviceResourceDescriptor descriptor) {
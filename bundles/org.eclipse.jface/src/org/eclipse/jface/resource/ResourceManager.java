@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2015 IBM Corporation and others.
+ * Copyright (c) 2004, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,6 +11,7 @@
 package org.eclipse.jface.resource;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 import org.eclipse.core.runtime.Assert;
@@ -86,6 +87,62 @@ public abstract class ResourceManager {
      */
     public abstract Object create(DeviceResourceDescriptor descriptor);
 
+    /**
+     * Starts decoding the image data of the given image descriptors on
+     * background threads, so that a later {@link #create(DeviceResourceDescriptor)}
+     * of one of them only has to create the native image. Use it ahead of
+     * showing many images at once, e.g. before a large menu or tree is filled.
+     * <p>
+     * Preloading is a hint; images that cannot be preloaded are created as
+     * usual. Like the other methods, this method must be called from the
+     * thread of the device. The default implementation does nothing.
+     * </p>
+     *
+     * @param descriptors
+     *            the image descriptors to preload
+     * @since 3.13
+     */
+    public void preloadImages(Collection<? extends ImageDescriptor> descriptors) {
+        // nothing by default
+    }
+
+    /**
+     * Returns the statistics of the composite images, e.g. the decorated images
+     * of <code>DecorationOverlayIcon</code>s, that this manager shares. The
+     * images of equal composite image descriptors are shared by all managers
+     * of a device, and the global manager of the device keeps some of them
+     * after their last reference was destroyed, so composing an image that was
+     * composed recently does not allocate a new native image.
+     * <p>
+     * The default implementation answers statistics without any requests.
+     * </p>
+     *
+     * @return a snapshot of the statistics (not null)
+     * @since 3.13
+     */
+    public CompositeImageStatistics getCompositeImageStatistics() {
+        return new CompositeImageStatistics(0, 0, 0, 0, 0);
+    }
+
+    /**
+     * Returns the SWT resources that this manager currently holds, counted
+     * per type with their estimated native memory and the high-watermarks of
+     * the counts. The global manager of a device, see
+     * {@link JFaceResources#getResources()}, allocates the native resources
+     * of all the local managers of the device and also reports the images it
+     * keeps for reuse; a local manager reports the resources it references.
+     * <p>
+     * The default implementation answers an empty usage.
+     * </p>
+     *
+     * @return a snapshot of the usage (not null)
+     * @see ResourceUsage
+     * @since 3.13
+     */
+    public ResourceUsage getUsage() {
+        return ResourceUsage.EMPTY;
+    }
+
     /**
      * Deallocates a resource previously allocated by {@link #create(DeviceResourceDescriptor)}.
      * Descriptors are compared by equality, not identity. If the same resource was
@@ -0,0 +1,171 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jface.resource;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A snapshot of the SWT resources that a resource manager holds, used to find
+ * leaks and overallocation of native resources in long running sessions.
+ * <p>
+ * The resources are counted per type, i.e. per class of the resource such as
+ * {@link org.eclipse.swt.graphics.Image}, {@link org.eclipse.swt.graphics.Font},
+ * {@link org.eclipse.swt.graphics.Color} or {@link org.eclipse.swt.graphics.Cursor}.
+ * The estimated sizes are rough approximations of the native memory of the
+ * resources, e.g. the pixels of an image, meant to compare resource types and
+ * sessions rather than to measure the memory of the process.
+ * </p>
+ * <p>
+ * The counts per creating plug-in and the allocation sites are only collected
+ * while the <code>org.eclipse.jface/debug/trackResourceAllocations</code>
+ * debug option is enabled, since they require the call stack of every
+ * allocation.
+ * </p>
+ *
+ * @see ResourceManager#getUsage()
+ * @noinstantiate This class is not intended to be instantiated by clients.
+ * @since 3.13
+ */
+public final class ResourceUsage {
+
+	static final ResourceUsage EMPTY = new ResourceUsage(Collections.<Class<?>, int[]> emptyMap(),
+			Collections.<Class<?>, Long> emptyMap(), Collections.<String, Integer> emptyMap(),
+			Collections.<Throwable> emptyList());
+
+	private final Map<Class<?>, int[]> counts;
+
+	private final Map<Class<?>, Long> sizes;
+
+	private final Map<String, Integer> bundleCounts;
+
+	private final List<Throwable> allocationSites;
+
+	/**
+	 * @param counts
+	 *            the live count and the high-watermark per type
+	 * @param sizes
+	 *            the estimated size per type
+	 * @param bundleCounts
+	 *            the live count per creating bundle
+	 * @param allocationSites
+	 *            the allocation sites of the live resources
+	 */
+	ResourceUsage(Map<Class<?>, int[]> counts, Map<Class<?>, Long> sizes, Map<String, Integer> bundleCounts,
+			List<Throwable> allocationSites) {
+		this.counts = counts;
+		this.sizes = sizes;
+		this.bundleCounts = bundleCounts;
+		this.allocationSites = allocationSites;
+	}
+
+	/**
+	 * Returns the types of the resources that were held, i.e. the types with
+	 * a high-watermark above 0.
+	 *
+	 * @return the resource classes, not modifiable
+	 */
+	public Set<Class<?>> getTypes() {
+		return Collections.unmodifiableSet(counts.keySet());
+	}
+
+	/**
+	 * Returns the number of resources of the type that are currently held.
+	 *
+	 * @param type
+	 *            the class of the resources, e.g. <code>Image.class</code>
+	 * @return the live count
+	 */
+	public int getCount(Class<?> type) {
+		int[] count = counts.get(type);
+		return count == null ? 0 : count[0];
+	}
+
+	/**
+	 * Returns the highest number of resources of the type that were held at
+	 * the same time.
+	 *
+	 * @param type
+	 *            the class of the resources, e.g. <code>Image.class</code>
+	 * @return the high-watermark
+	 */
+	public int getHighWatermark(Class<?> type) {
+		int[] count = counts.get(type);
+		return count == null ? 0 : count[1];
+	}
+
+	/**
+	 * Returns the estimated native memory of the resources of the type that
+	 * are currently held.
+	 *
+	 * @param type
+	 *            the class of the resources, e.g. <code>Image.class</code>
+	 * @return the estimated size in bytes
+	 */
+	public long getEstimatedSize(Class<?> type) {
+		Long size = sizes.get(type);
+		return size == null ? 0 : size.longValue();
+	}
+
+	/**
+	 * Returns the estimated native memory of all resources that are currently
+	 * held.
+	 *
+	 * @return the estimated size in bytes
+	 */
+	public long getEstimatedSize() {
+		long total = 0;
+		for (Long size : sizes.values()) {
+			total += size.longValue();
+		}
+		return total;
+	}
+
+	/**
+	 * Returns the number of live resources per symbolic name of the plug-in
+	 * that created them. Empty unless allocations are tracked.
+	 *
+	 * @return the counts per plug-in, not modifiable
+	 */
+	public Map<String, Integer> getCountsByPlugin() {
+		return Collections.unmodifiableMap(bundleCounts);
+	}
+
+	/**
+	 * Returns the allocation sites of the live resources. The stack trace of
+	 * each throwable is the call stack that allocated a resource, its message
+	 * describes the resource. Empty unless allocations are tracked.
+	 *
+	 * @return the allocation sites, not modifiable
+	 */
+	public List<Throwable> getAllocationSites() {
+		return Collections.unmodifiableList(allocationSites);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder result = new StringBuilder("ResourceUsage ["); //$NON-NLS-1$
+		boolean first = true;
+		for (Map.Entry<Class<?>, int[]> entry : counts.entrySet()) {
+			if (!first) {
+				result.append(", "); //$NON-NLS-1$
+			}
+			first = false;
+			Class<?> type = entry.getKey();
+			result.append(type.getSimpleName()).append('=').append(entry.getValue()[0]);
+			result.append(" (max ").append(entry.getValue()[1]); //$NON-NLS-1$
+			result.append(", ~").append(getEstimatedSize(type)).append(" bytes)"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		return result.append(']').toString();
+	}
+}
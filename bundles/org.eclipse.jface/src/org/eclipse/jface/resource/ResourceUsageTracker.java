@@ -0,0 +1,248 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jface.resource;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jface.internal.InternalPolicy;
+import org.eclipse.swt.graphics.Color;
+import org.eclipse.swt.graphics.Cursor;
+import org.eclipse.swt.graphics.Font;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.Rectangle;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.FrameworkUtil;
+
+/**
+ * The ResourceUsageTracker counts the resources held by an
+ * {@link AbstractResourceManager} per type and, while
+ * {@link InternalPolicy#DEBUG_TRACK_RESOURCE_ALLOCATIONS} is set, remembers
+ * the creating plug-in and the allocation site of each resource.
+ * <p>
+ * A resource is live from its allocation until it is deallocated, counting it
+ * again while it is live has no effect. The size of a resource is estimated
+ * when it is allocated, so that the totals stay consistent even if the
+ * resource is disposed elsewhere.
+ * </p>
+ * <p>
+ * This class is not API. Like the resource manager, it is only used from the
+ * thread of the device.
+ * </p>
+ */
+class ResourceUsageTracker {
+
+	/**
+	 * Estimated native size of a font, the platforms keep the font metrics
+	 * and glyph caches.
+	 */
+	private static final int FONT_SIZE = 2048;
+
+	private static final int COLOR_SIZE = 16;
+
+	private static final int CURSOR_SIZE = 32 * 32 * 4;
+
+	private static final int OTHER_SIZE = 64;
+
+	private static final String UNKNOWN_PLUGIN = "unknown"; //$NON-NLS-1$
+
+	private static final String PACKAGE_PREFIX = ResourceUsageTracker.class.getPackage().getName() + '.';
+
+	/**
+	 * A live resource.
+	 */
+	private static final class Live {
+		final long size;
+
+		/**
+		 * The allocation, only known while allocations are tracked.
+		 */
+		final Allocation allocation;
+
+		Live(long size, Allocation allocation) {
+			this.size = size;
+			this.allocation = allocation;
+		}
+	}
+
+	/**
+	 * The allocation of one resource.
+	 */
+	private static final class Allocation {
+		final String plugin;
+
+		final Throwable site;
+
+		Allocation(String plugin, Throwable site) {
+			this.plugin = plugin;
+			this.site = site;
+		}
+	}
+
+	/**
+	 * Gives access to the classes on the call stack, which are needed to find
+	 * the plug-in of the caller.
+	 */
+	private static final class CallerContext extends SecurityManager {
+		@Override
+		protected Class<?>[] getClassContext() {
+			return super.getClassContext();
+		}
+	}
+
+	private static CallerContext callerContext;
+
+	/**
+	 * Live count and high-watermark per type.
+	 */
+	private final Map<Class<?>, int[]> counts = new LinkedHashMap<>();
+
+	private final Map<Class<?>, Long> sizes = new HashMap<>();
+
+	/**
+	 * The live resources.
+	 */
+	private final Map<Object, Live> live = new IdentityHashMap<>();
+
+	/**
+	 * Count a resource that was allocated, unless it is live already.
+	 *
+	 * @param resource
+	 * @param descriptor
+	 */
+	void allocated(Object resource, DeviceResourceDescriptor descriptor) {
+		if (live.containsKey(resource)) {
+			return;
+		}
+		Class<?> type = resource.getClass();
+		int[] count = counts.get(type);
+		if (count == null) {
+			count = new int[2];
+			counts.put(type, count);
+		}
+		count[0]++;
+		count[1] = Math.max(count[1], count[0]);
+		long size = estimateSize(resource);
+		sizes.merge(type, Long.valueOf(size), (a, b) -> Long.valueOf(a.longValue() + b.longValue()));
+
+		Allocation allocation = null;
+		if (InternalPolicy.DEBUG_TRACK_RESOURCE_ALLOCATIONS) {
+			allocation = new Allocation(findCallerPlugin(),
+					new Throwable(type.getSimpleName() + " allocated for " + descriptor)); //$NON-NLS-1$
+		}
+		live.put(resource, new Live(size, allocation));
+	}
+
+	/**
+	 * Count a resource that was deallocated, unless it is not live.
+	 *
+	 * @param resource
+	 */
+	void deallocated(Object resource) {
+		Live removed = live.remove(resource);
+		if (removed == null) {
+			return;
+		}
+		Class<?> type = resource.getClass();
+		counts.get(type)[0]--;
+		sizes.merge(type, Long.valueOf(-removed.size), (a, b) -> Long.valueOf(a.longValue() + b.longValue()));
+	}
+
+	/**
+	 * Forget all live resources, keeping the high-watermarks.
+	 */
+	void clear() {
+		for (int[] count : counts.values()) {
+			count[0] = 0;
+		}
+		sizes.clear();
+		live.clear();
+	}
+
+	/**
+	 * Return a snapshot of the usage.
+	 *
+	 * @return ResourceUsage
+	 */
+	ResourceUsage getUsage() {
+		Map<Class<?>, int[]> countsCopy = new LinkedHashMap<>();
+		for (Map.Entry<Class<?>, int[]> entry : counts.entrySet()) {
+			countsCopy.put(entry.getKey(), entry.getValue().clone());
+		}
+		Map<String, Integer> pluginCounts = new HashMap<>();
+		List<Throwable> sites = new ArrayList<>();
+		for (Live resource : live.values()) {
+			Allocation allocation = resource.allocation;
+			if (allocation != null) {
+				pluginCounts.merge(allocation.plugin, Integer.valueOf(1),
+						(a, b) -> Integer.valueOf(a.intValue() + b.intValue()));
+				sites.add(allocation.site);
+			}
+		}
+		return new ResourceUsage(countsCopy, new HashMap<>(sizes), pluginCounts, sites);
+	}
+
+	/**
+	 * Estimate the native memory of the resource.
+	 */
+	private static long estimateSize(Object resource) {
+		if (resource instanceof Image) {
+			Image image = (Image) resource;
+			if (image.isDisposed()) {
+				return 0;
+			}
+			Rectangle bounds = image.getBounds();
+			return (long) bounds.width * bounds.height * 4;
+		}
+		if (resource instanceof Font) {
+			return FONT_SIZE;
+		}
+		if (resource instanceof Color) {
+			return COLOR_SIZE;
+		}
+		if (resource instanceof Cursor) {
+			return CURSOR_SIZE;
+		}
+		return OTHER_SIZE;
+	}
+
+	/**
+	 * Return the symbolic name of the plug-in of the first caller outside of
+	 * this package.
+	 */
+	private static String findCallerPlugin() {
+		if (!InternalPolicy.OSGI_AVAILABLE) {
+			return UNKNOWN_PLUGIN;
+		}
+		Class<?>[] classes;
+		try {
+			if (callerContext == null) {
+				callerContext = new CallerContext();
+			}
+			classes = callerContext.getClassContext();
+		} catch (SecurityException e) {
+			return UNKNOWN_PLUGIN;
+		}
+		for (Class<?> clazz : classes) {
+			if (clazz.getName().startsWith(PACKAGE_PREFIX)) {
+				continue;
+			}
+			Bundle bundle = FrameworkUtil.getBundle(clazz);
+			return bundle == null ? UNKNOWN_PLUGIN : bundle.getSymbolicName();
+		}
+		return UNKNOWN_PLUGIN;
+	}
+}
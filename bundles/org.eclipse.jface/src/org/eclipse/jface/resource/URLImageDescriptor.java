@@ -102,6 +102,24 @@ class URLImageDescriptor extends ImageDescriptor {
 	}
 
 	private static ImageData getImageData(URL url) {
+		if (ImageDataCache.isEnabled()) {
+			String stamp = ImageDataCache.getStamp(url);
+			if (stamp != null) {
+				String key = url.toExternalForm();
+				ImageData result = ImageDataCache.get(key, stamp);
+				if (result == null) {
+					result = loadImageData(url);
+					if (result != null) {
+						ImageDataCache.put(key, stamp, result);
+					}
+				}
+				return result;
+			}
+		}
+		return loadImageData(url);
+	}
+
+	private static ImageData loadImageData(URL url) {
 		ImageData result = null;
 		try (InputStream in = getStream(url)) {
 			if (in != null) {
@@ -118,6 +136,20 @@ class URLImageDescriptor extends ImageDescriptor {
 		return result;
 	}
 
+	@Override
+	ImageDataProvider createPreloadedProvider() {
+		if (!InternalPolicy.DEBUG_LOAD_URL_IMAGE_DESCRIPTOR_2x) {
+			return null;
+		}
+		final URLImageDataProvider provider = new URLImageDataProvider(url);
+		final ImageData data = provider.getImageData(100);
+		if (data == null) {
+			return null;
+		}
+		// other zoom levels are still decoded when they are needed
+		return zoom -> zoom == 100 ? data : provider.getImageData(zoom);
+	}
+
 	/**
 	 * Returns a stream on the image contents. Returns null if a stream could
 	 * not be opened.
@@ -239,7 +271,8 @@ class URLImageDescriptor extends ImageDescriptor {
 		try {
 
 			if (InternalPolicy.DEBUG_LOAD_URL_IMAGE_DESCRIPTOR_2x) {
-				if (!InternalPolicy.DEBUG_LOAD_URL_IMAGE_DESCRIPTOR_DIRECTLY) {
+				// SWT would decode the files itself, bypassing the cache
+				if (!InternalPolicy.DEBUG_LOAD_URL_IMAGE_DESCRIPTOR_DIRECTLY && !ImageDataCache.isEnabled()) {
 					try {
 						return new Image(device, new URLImageFileNameProvider(url));
 					} catch (SWTException exception) {
@@ -269,7 +302,7 @@ class URLImageDescriptor extends ImageDescriptor {
 				return image;
 
 			}
-			if (InternalPolicy.DEBUG_LOAD_URL_IMAGE_DESCRIPTOR_DIRECTLY) {
+			if (InternalPolicy.DEBUG_LOAD_URL_IMAGE_DESCRIPTOR_DIRECTLY || ImageDataCache.isEnabled()) {
 				return super.createImage(returnMissingImageOnError, device);
 			}
 
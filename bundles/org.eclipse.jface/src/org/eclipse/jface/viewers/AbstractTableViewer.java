@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -201,6 +201,20 @@ public abstract class AbstractTableViewer extends ColumnViewer {
 
 	private VirtualManager virtualManager;
 
+	/**
+	 * Whether subclasses of table viewers create single items in their own
+	 * way, which the creation of items in bulk would bypass. The items of
+	 * table viewers other than {@link TableViewer} are only created by their
+	 * {@link #internalCreateNewRowPart(int, int)}.
+	 */
+	private static final ClassValue<Boolean> OVERRIDES_ITEM_CREATION = new ClassValue<Boolean>() {
+		@Override
+		protected Boolean computeValue(Class<?> type) {
+			return Boolean.valueOf(!TableViewer.class.isAssignableFrom(type)
+					|| overridesMethod(type, TableViewer.class, "internalCreateNewRowPart", int.class, int.class)); //$NON-NLS-1$
+		}
+	};
+
 	/**
 	 * Create the new viewer for table like widgets
 	 */
@@ -253,6 +267,20 @@ public abstract class AbstractTableViewer extends ColumnViewer {
 			return;
 		Object[] filtered = filter(elements);
 
+		if (virtualManager == null && filtered.length >= BULK_ADD_THRESHOLD && !overridesItemCreation()) {
+			Object[] sorted = filtered;
+			ViewerComparator comparator = getComparator();
+			if (comparator != null) {
+				sorted = filtered.clone();
+				comparator.sort(this, sorted);
+			}
+			// the common case of elements that all go after the existing ones
+			if (comparator == null || indexForElement(sorted[0]) == doGetItemCount()) {
+				appendItems(sorted, 0);
+				return;
+			}
+		}
+
 		for (int i = 0; i < filtered.length; i++) {
 			Object element = filtered[i];
 			int index = indexForElement(element);
@@ -278,6 +306,41 @@ public abstract class AbstractTableViewer extends ColumnViewer {
 		}
 	}
 
+	/**
+	 * Appends items for the elements starting at the given index to the end of
+	 * the table. The item count is set once and the items are filled in a
+	 * single pass while the redraw of the table is suspended, instead of
+	 * creating and laying out the items one by one. Must not be used if the
+	 * table is virtual or a subclass overrides the creation of single items,
+	 * see {@link #overridesItemCreation()}.
+	 *
+	 * @param elements
+	 *            the elements, in the order of the items
+	 * @param from
+	 *            the index of the first element to append
+	 */
+	private void appendItems(Object[] elements, int from) {
+		Control control = getControl();
+		int start = doGetItemCount();
+		control.setRedraw(false);
+		try {
+			doSetItemCount(start + elements.length - from);
+			for (int i = from; i < elements.length; i++) {
+				updateItem(doGetItem(start + i - from), elements[i]);
+			}
+		} finally {
+			control.setRedraw(true);
+		}
+	}
+
+	/**
+	 * Returns whether the class of this viewer creates single items in its
+	 * own way, so that they must not be created in bulk.
+	 */
+	private boolean overridesItemCreation() {
+		return OVERRIDES_ITEM_CREATION.get(getClass()).booleanValue();
+	}
+
 	/**
 	 * Create a new row.  Callers can only use the returned object locally and before
 	 * making the next call on the viewer since it may be re-used for subsequent method
@@ -354,6 +417,10 @@ public abstract class AbstractTableViewer extends ColumnViewer {
 					mapElement(element, item);
 				}
 
+				if (isLabelCached(item, element)) {
+					return;
+				}
+
 				int columnCount = doGetColumnCount();
 				if (columnCount == 0)
 					columnCount = 1;// If there are no columns do the first one
@@ -393,6 +460,8 @@ public abstract class AbstractTableViewer extends ColumnViewer {
 
 				}
 
+				labelsUpdated(item, element);
+
 			}
 		} finally {
 			setBusy(oldBusy);
@@ -711,8 +780,12 @@ public abstract class AbstractTableViewer extends ColumnViewer {
 			}
 		}
 		// add any remaining elements
-		for (int i = min; i < children.length; ++i) {
-			createItem(children[i], i);
+		if (virtualManager == null && children.length - min >= BULK_ADD_THRESHOLD && !overridesItemCreation()) {
+			appendItems(children, min);
+		} else {
+			for (int i = min; i < children.length; ++i) {
+				createItem(children[i], i);
+			}
 		}
 	}
 
@@ -20,9 +20,11 @@ package org.eclipse.jface.viewers;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.IStatus;
@@ -100,6 +102,17 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 	 */
 	private boolean isExpandableCheckFilters = false;
 
+	/**
+	 * Whether subclasses of tree viewers compute the paths of items in their
+	 * own way, see {@link #getTreePathFromItem(Item)}.
+	 */
+	private static final ClassValue<Boolean> OVERRIDES_TREE_PATH_FROM_ITEM = new ClassValue<Boolean>() {
+		@Override
+		protected Boolean computeValue(Class<?> type) {
+			return Boolean.valueOf(overridesMethod(type, AbstractTreeViewer.class, "getTreePathFromItem", Item.class)); //$NON-NLS-1$
+		}
+	};
+
 	/**
 	 * Safe runnable used to update an item.
 	 */
@@ -347,22 +360,22 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 
 		// Optimize for the empty case
 		if (items.length == 0) {
-			for (int i = 0; i < elements.length; i++) {
-				createTreeItem(widget, elements[i], -1);
-			}
+			createTreeItems(widget, elements, 0);
 			return;
 		}
 
 		// Optimize for no comparator
 		if (comparator == null) {
+			List<Object> added = new ArrayList<>(elements.length);
 			for (int i = 0; i < elements.length; i++) {
 				Object element = elements[i];
 				if (itemExists(items, element)) {
 					internalRefresh(element);
 				} else {
-					createTreeItem(widget, element, -1);
+					added.add(element);
 				}
 			}
+			createTreeItems(widget, added.toArray(), 0);
 			return;
 		}
 		// As the items are sorted already we optimize for a
@@ -379,8 +392,9 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 			indexInItems = insertionPosition(items, comparator,
 					indexInItems, element, parentPath);
 			if (indexInItems == items.length) {
-				createTreeItem(widget, element, -1);
-				newItems++;
+				// the remaining elements are sorted after all items
+				createTreeItems(widget, elements, i);
+				return;
 			} else {
 				// Search for an item for the element. The comparator might
 				// regard elements as equal when they are not.
@@ -816,9 +830,7 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 					} else {
 						children = getSortedChildren(parentElement);
 					}
-					for (int i2 = 0; i2 < children.length; i2++) {
-						createTreeItem(widget, children[i2], -1);
-					}
+					createTreeItems(widget, children, 0);
 				}
 			});
 		} finally {
@@ -844,6 +856,28 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 		updatePlus(item, element);
 	}
 
+	/**
+	 * Appends items for the given elements to the children of the parent and
+	 * synchronizes them with the elements, starting at the given index of the
+	 * elements. The default implementation calls
+	 * {@link #createTreeItem(Widget, Object, int)} for each element. Subclasses
+	 * may override to create many items in bulk, as long as the items are
+	 * created the way <code>createTreeItem</code> creates them.
+	 *
+	 * @param parent
+	 *            the parent widget
+	 * @param elements
+	 *            the elements, in the order of the items
+	 * @param from
+	 *            the index of the first element to create an item for
+	 * @since 3.13
+	 */
+	protected void createTreeItems(Widget parent, Object[] elements, int from) {
+		for (int i = from; i < elements.length; i++) {
+			createTreeItem(parent, elements[i], -1);
+		}
+	}
+
 	/**
 	 * The <code>AbstractTreeViewer</code> implementation of this method also
 	 * recurses over children of the corresponding element.
@@ -923,6 +957,10 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 			return;
 		}
 
+		if (isLabelCached(item, element)) {
+			return;
+		}
+
 		int columnCount = doGetColumnCount();
 		if (columnCount == 0)// If no columns are created then fake one
 			columnCount = 1;
@@ -959,6 +997,8 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 			}
 
 		}
+
+		labelsUpdated(item, element);
 	}
 
 	/**
@@ -2757,9 +2797,7 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 
 		// add any remaining elements
 		if (min < elementChildren.length) {
-			for (int i = min; i < elementChildren.length; ++i) {
-				createTreeItem(widget, elementChildren[i], -1);
-			}
+			createTreeItems(widget, elementChildren, min);
 
 			// Need to restore expanded state in a separate pass
 			// because createTreeItem does not return the new item.
@@ -2927,6 +2965,30 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 		return new TreePath(segments.toArray());
 	}
 
+	/**
+	 * Returns the tree path of the item, sharing the paths of its ancestors
+	 * with the other items of the same query. Only used if
+	 * {@link #getTreePathFromItem(Item)} is not overridden.
+	 *
+	 * @param item
+	 *            the item
+	 * @param paths
+	 *            the paths of the items computed so far
+	 * @return the tree path
+	 */
+	private TreePath getTreePathFromItem(Item item, Map<Item, TreePath> paths) {
+		TreePath path = paths.get(item);
+		if (path == null) {
+			Object segment = item.getData();
+			Assert.isNotNull(segment);
+			Item parentItem = getParentItem(item);
+			TreePath parentPath = parentItem == null ? TreePath.EMPTY : getTreePathFromItem(parentItem, paths);
+			path = parentPath.createChildPath(segment);
+			paths.put(item, path);
+		}
+		return path;
+	}
+
 	/**
 	 * The <code>AbstractTreeViewer</code> implementation of this method returns
 	 * the result as an <code>ITreeSelection</code>.
@@ -2948,10 +3010,14 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 		}
 		Widget[] items = getSelection(getControl());
 		ArrayList list = new ArrayList(items.length);
+		// selected items in deep trees share their ancestors, unless a
+		// subclass computes the paths of items itself
+		Map<Item, TreePath> paths = OVERRIDES_TREE_PATH_FROM_ITEM.get(getClass()).booleanValue() ? null
+				: new HashMap<>();
 		for (int i = 0; i < items.length; i++) {
 			Widget item = items[i];
 			if (item.getData() != null) {
-				list.add(getTreePathFromItem((Item) item));
+				list.add(paths == null ? getTreePathFromItem((Item) item) : getTreePathFromItem((Item) item, paths));
 			}
 		}
 		return new TreeSelection((TreePath[]) list.toArray(new TreePath[list
@@ -0,0 +1,522 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jface.viewers;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.jface.resource.ImageDescriptor;
+import org.eclipse.jface.resource.JFaceResources;
+import org.eclipse.jface.resource.LocalResourceManager;
+import org.eclipse.jface.util.Policy;
+import org.eclipse.swt.events.DisposeListener;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Event;
+import org.eclipse.swt.widgets.Item;
+import org.eclipse.swt.widgets.Widget;
+
+/**
+ * An {@link AsyncCellLabelProvider} computes the labels of its cells on
+ * background threads, so that slow labels do not block the painting and
+ * scrolling of the viewer.
+ * <p>
+ * When a cell is updated, the label provider shows a cheap placeholder, see
+ * {@link #updatePlaceholder(ViewerCell)}, and requests the label of the
+ * element in the column of the cell. {@link #computeLabel(Object, int)} is
+ * called on a shared pool of worker threads and the cell is updated with the
+ * result on the UI thread. When the label provider is set on a viewer with
+ * several columns, the label of each column is computed separately.
+ * </p>
+ * <p>
+ * Requests are deduplicated per element and column, elements are compared
+ * with the comparer of the viewer, see
+ * {@link StructuredViewer#setComparer(IElementComparer)}. The most recently
+ * requested or painted elements are computed first, and requests of rows that
+ * were scrolled out of view are dropped when too many are waiting; the label
+ * of such a row is requested again when it is painted. This relies on owner
+ * draw, which is enabled by default. The image of a cell is released as soon
+ * as the cell shows another one.
+ * </p>
+ * <p>
+ * All methods except {@link #computeLabel(Object, int)} are called on the UI
+ * thread.
+ * </p>
+ *
+ * @since 3.13
+ */
+public abstract class AsyncCellLabelProvider extends StyledCellLabelProvider {
+
+	/**
+	 * The label of an element computed in the background. It holds no SWT
+	 * resources, so it can be created on any thread; the image is created
+	 * and the styles are applied when the label is shown.
+	 */
+	public static final class CellLabel {
+
+		private final StyledString text;
+
+		private final ImageDescriptor image;
+
+		/**
+		 * Creates a label with a styled text and an image.
+		 *
+		 * @param text
+		 *            the text, may contain styles
+		 * @param image
+		 *            the image or <code>null</code>
+		 */
+		public CellLabel(StyledString text, ImageDescriptor image) {
+			this.text = text == null ? new StyledString() : text;
+			this.image = image;
+		}
+
+		/**
+		 * Creates a label with a plain text and an image.
+		 *
+		 * @param text
+		 *            the text
+		 * @param image
+		 *            the image or <code>null</code>
+		 */
+		public CellLabel(String text, ImageDescriptor image) {
+			this(new StyledString(text == null ? "" : text), image); //$NON-NLS-1$
+		}
+
+		/**
+		 * @return the text, may contain styles
+		 */
+		public StyledString getText() {
+			return text;
+		}
+
+		/**
+		 * @return the image or <code>null</code>
+		 */
+		public ImageDescriptor getImage() {
+			return image;
+		}
+	}
+
+	/**
+	 * The request for the label of one element in one column, only used on
+	 * the UI thread.
+	 */
+	private static final class Request {
+
+		final Object element;
+
+		final int columnIndex;
+
+		/**
+		 * The items that show the element.
+		 */
+		final List<Item> items = new ArrayList<>(1);
+
+		/**
+		 * Whether the label is being computed.
+		 */
+		boolean running;
+
+		/**
+		 * Whether the element was updated while its label was computed.
+		 */
+		boolean stale;
+
+		Request(Object element, int columnIndex) {
+			this.element = element;
+			this.columnIndex = columnIndex;
+		}
+	}
+
+	/**
+	 * The number of waiting requests above which the least recently painted
+	 * ones are dropped.
+	 */
+	static final int MAX_PENDING = 512;
+
+	private static final int PARALLELISM = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+
+	private static ThreadPoolExecutor executor;
+
+	/**
+	 * The waiting and the running requests by element, compared with the
+	 * comparer of the viewer, in arrays indexed by column.
+	 */
+	private CustomHashtable requests;
+
+	/**
+	 * The waiting requests, the most recently requested or painted last.
+	 */
+	private final LinkedHashSet<Request> pending = new LinkedHashSet<>();
+
+	/**
+	 * The number of requests being computed.
+	 */
+	private int runningCount;
+
+	/**
+	 * The key of the item data that holds the elements whose computed labels
+	 * the cells of the item show, by column, unique per instance.
+	 */
+	private final String labelKey = AsyncCellLabelProvider.class.getName() + ".label@" //$NON-NLS-1$
+			+ System.identityHashCode(this);
+
+	/**
+	 * The key of the item data that holds the descriptors of the images the
+	 * cells of the item show, by column.
+	 */
+	private final String imagesKey = AsyncCellLabelProvider.class.getName() + ".images@" //$NON-NLS-1$
+			+ System.identityHashCode(this);
+
+	private final DisposeListener imagesReleaser = event -> {
+		Object[] shown = (Object[]) event.widget.getData(imagesKey);
+		for (Object descriptor : shown) {
+			releaseImage((ImageDescriptor) descriptor);
+		}
+	};
+
+	private LocalResourceManager resourceManager;
+
+	private Display display;
+
+	private boolean disposed;
+
+	/**
+	 * Creates a new AsyncCellLabelProvider.
+	 */
+	public AsyncCellLabelProvider() {
+		super();
+	}
+
+	/**
+	 * Creates a new AsyncCellLabelProvider with the given style.
+	 *
+	 * @param style
+	 *            the style bits
+	 * @see StyledCellLabelProvider#COLORS_ON_SELECTION
+	 * @see StyledCellLabelProvider#NO_FOCUS
+	 */
+	public AsyncCellLabelProvider(int style) {
+		super(style);
+	}
+
+	/**
+	 * Computes the label of the element in a column. This method is called on
+	 * a worker thread, possibly for several elements at the same time, so it
+	 * must not access widgets or other state of the UI thread.
+	 *
+	 * @param element
+	 *            the element
+	 * @param columnIndex
+	 *            the index of the column, 0 if the viewer has no columns
+	 * @return the label of the element, <code>null</code> for an empty label
+	 */
+	protected abstract CellLabel computeLabel(Object element, int columnIndex);
+
+	/**
+	 * Shows the placeholder in the cell while its label is computed. It is
+	 * not called if the cell shows a computed label of its element already,
+	 * that label is kept until the new one is computed. The default
+	 * implementation clears the text, the styles and the image. Subclasses
+	 * may override to show a cheap label, e.g. the name of the element.
+	 *
+	 * @param cell
+	 *            the cell to update
+	 */
+	protected void updatePlaceholder(ViewerCell cell) {
+		cell.setText(""); //$NON-NLS-1$
+		cell.setStyleRanges(null);
+		cell.setImage(null);
+	}
+
+	private boolean showsLabel(Widget item, Object element, int columnIndex) {
+		Object shown = getColumnData(item, labelKey, columnIndex);
+		return shown != null && getViewer().equals(shown, element);
+	}
+
+	/**
+	 * Returns the value of the column in the array the item holds under the
+	 * key.
+	 */
+	private static Object getColumnData(Widget item, String key, int columnIndex) {
+		Object[] values = (Object[]) item.getData(key);
+		return values == null || columnIndex >= values.length ? null : values[columnIndex];
+	}
+
+	/**
+	 * Sets the value of the column in the array the item holds under the
+	 * key.
+	 *
+	 * @return the previous value of the column or <code>null</code>
+	 */
+	private static Object setColumnData(Widget item, String key, int columnIndex, Object value) {
+		Object[] values = (Object[]) item.getData(key);
+		if (values == null || columnIndex >= values.length) {
+			if (value == null) {
+				return null;
+			}
+			Object[] grown = new Object[columnIndex + 1];
+			if (values != null) {
+				System.arraycopy(values, 0, grown, 0, values.length);
+			}
+			values = grown;
+			item.setData(key, values);
+		}
+		Object previous = values[columnIndex];
+		values[columnIndex] = value;
+		return previous;
+	}
+
+	private Request getRequest(Object element, int columnIndex) {
+		Request[] byColumn = (Request[]) requests.get(element);
+		return byColumn == null || columnIndex >= byColumn.length ? null : byColumn[columnIndex];
+	}
+
+	private void putRequest(Request request) {
+		Request[] byColumn = (Request[]) requests.get(request.element);
+		if (byColumn == null || request.columnIndex >= byColumn.length) {
+			Request[] grown = new Request[request.columnIndex + 1];
+			if (byColumn != null) {
+				System.arraycopy(byColumn, 0, grown, 0, byColumn.length);
+			}
+			byColumn = grown;
+			requests.put(request.element, byColumn);
+		}
+		byColumn[request.columnIndex] = request;
+	}
+
+	private void removeRequest(Request request) {
+		Request[] byColumn = (Request[]) requests.get(request.element);
+		if (byColumn == null || byColumn[request.columnIndex] != request) {
+			return;
+		}
+		byColumn[request.columnIndex] = null;
+		for (Request other : byColumn) {
+			if (other != null) {
+				return;
+			}
+		}
+		requests.remove(request.element);
+	}
+
+	@Override
+	public void initialize(ColumnViewer viewer, ViewerColumn column) {
+		super.initialize(viewer, column);
+		display = viewer.getControl().getDisplay();
+		requests = viewer.newHashtable(CustomHashtable.DEFAULT_CAPACITY);
+		resourceManager = new LocalResourceManager(JFaceResources.getResources(display));
+	}
+
+	@Override
+	public void update(ViewerCell cell) {
+		Object element = cell.getElement();
+		Item item = (Item) cell.getItem();
+		int columnIndex = cell.getColumnIndex();
+		if (!showsLabel(item, element, columnIndex)) {
+			Image image = cell.getImage();
+			updatePlaceholder(cell);
+			setColumnData(item, labelKey, columnIndex, null);
+			ImageDescriptor previous = setShownImage(item, columnIndex, null);
+			if (previous != null) {
+				if (cell.getImage() == image) {
+					// the placeholder kept the image of the previous label
+					cell.setImage(null);
+				}
+				releaseImage(previous);
+			}
+		}
+		request(element, item, columnIndex);
+		super.update(cell);
+	}
+
+	@Override
+	protected void erase(Event event, Object element) {
+		super.erase(event, element);
+		if (disposed) {
+			return;
+		}
+		// painted items are visible, prefer their requests
+		Request request = getRequest(element, event.index);
+		if (request == null) {
+			if (!showsLabel(event.item, element, event.index)) {
+				request(element, (Item) event.item, event.index);
+			}
+		} else if (!request.running) {
+			pending.remove(request);
+			pending.add(request);
+		}
+	}
+
+	private void request(Object element, Item item, int columnIndex) {
+		if (disposed) {
+			return;
+		}
+		Request request = getRequest(element, columnIndex);
+		if (request == null) {
+			request = new Request(element, columnIndex);
+			putRequest(request);
+		}
+		if (request.running) {
+			request.stale = true;
+		} else {
+			pending.remove(request);
+			pending.add(request);
+		}
+		if (!request.items.contains(item)) {
+			request.items.add(item);
+		}
+		if (pending.size() > MAX_PENDING) {
+			// drop the requests of the rows that were not painted for the longest time
+			Iterator<Request> iterator = pending.iterator();
+			removeRequest(iterator.next());
+			iterator.remove();
+		}
+		schedule();
+	}
+
+	private void schedule() {
+		while (runningCount < PARALLELISM && !pending.isEmpty()) {
+			Request request = null;
+			for (Request next : pending) {
+				request = next;
+			}
+			pending.remove(request);
+			request.running = true;
+			runningCount++;
+			final Request toCompute = request;
+			getExecutor().execute(() -> compute(toCompute));
+		}
+	}
+
+	private void compute(final Request request) {
+		CellLabel label = null;
+		try {
+			label = computeLabel(request.element, request.columnIndex);
+		} catch (RuntimeException e) {
+			Policy.getLog().log(new Status(IStatus.ERROR, Policy.JFACE, "Error computing the label of " //$NON-NLS-1$
+					+ request.element, e));
+		}
+		final CellLabel result = label;
+		if (!display.isDisposed()) {
+			display.asyncExec(() -> done(request, result));
+		}
+	}
+
+	private void done(Request request, CellLabel label) {
+		if (disposed) {
+			return;
+		}
+		request.running = false;
+		runningCount--;
+		ColumnViewer viewer = getViewer();
+		for (Item item : request.items) {
+			if (item.isDisposed() || !viewer.equals(item.getData(), request.element)) {
+				// the item was reused for another element
+				continue;
+			}
+			ViewerRow row = viewer.getViewerRowFromItem(item);
+			ViewerCell cell = row == null ? null : row.getCell(request.columnIndex);
+			if (cell != null) {
+				applyLabel(cell, label);
+				setColumnData(item, labelKey, request.columnIndex, request.element);
+				super.update(cell);
+			}
+		}
+		if (request.stale) {
+			// the element changed while it was computed, compute it again
+			request.stale = false;
+			pending.add(request);
+		} else {
+			removeRequest(request);
+		}
+		schedule();
+	}
+
+	private void applyLabel(ViewerCell cell, CellLabel label) {
+		ImageDescriptor descriptor = null;
+		if (label == null) {
+			cell.setText(""); //$NON-NLS-1$
+			cell.setStyleRanges(null);
+		} else {
+			StyledString text = label.getText();
+			cell.setText(text.getString());
+			cell.setStyleRanges(text.getStyleRanges());
+			descriptor = label.getImage();
+		}
+		// create the new image before the old one is released, they may be the same
+		cell.setImage(descriptor == null ? null : resourceManager.createImageWithDefault(descriptor));
+		releaseImage(setShownImage((Item) cell.getItem(), cell.getColumnIndex(), descriptor));
+	}
+
+	/**
+	 * Remembers the descriptor of the image the cell of the item shows.
+	 *
+	 * @return the descriptor of the image the cell showed before or
+	 *         <code>null</code>
+	 */
+	private ImageDescriptor setShownImage(Item item, int columnIndex, ImageDescriptor descriptor) {
+		if (descriptor != null && item.getData(imagesKey) == null) {
+			item.addDisposeListener(imagesReleaser);
+		}
+		return (ImageDescriptor) setColumnData(item, imagesKey, columnIndex, descriptor);
+	}
+
+	private void releaseImage(ImageDescriptor descriptor) {
+		if (descriptor != null && resourceManager != null) {
+			resourceManager.destroy(descriptor);
+		}
+	}
+
+	/**
+	 * Returns the number of requests that wait for a worker thread. Only for
+	 * testing.
+	 *
+	 * @return the number of waiting requests
+	 */
+	int getPendingCount() {
+		return pending.size();
+	}
+
+	@Override
+	public void dispose() {
+		disposed = true;
+		pending.clear();
+		requests = null;
+		if (resourceManager != null) {
+			resourceManager.dispose();
+			resourceManager = null;
+		}
+		super.dispose();
+	}
+
+	private static synchronized ThreadPoolExecutor getExecutor() {
+		if (executor == null) {
+			AtomicInteger count = new AtomicInteger();
+			executor = new ThreadPoolExecutor(PARALLELISM, PARALLELISM, 10, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<Runnable>(), runnable -> {
+						Thread thread = new Thread(runnable, "Label computer " + count.incrementAndGet()); //$NON-NLS-1$
+						thread.setDaemon(true);
+						return thread;
+					});
+			executor.allowCoreThreadTimeOut(true);
+		}
+		return executor;
+	}
+}
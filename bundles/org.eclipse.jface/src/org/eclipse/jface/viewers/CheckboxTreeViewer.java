@@ -38,6 +38,12 @@ import org.eclipse.swt.widgets.Widget;
  * with a domain-specific content provider, label provider, element filter (optional),
  * and element sorter (optional).
  * </p>
+ * <p>
+ * With {@link #setUseElementCheckStates(boolean)} the viewer keeps the check
+ * states by element rather than in the tree items, so that elements of a
+ * <code>SWT.VIRTUAL</code> tree can be checked and queried without creating
+ * their items. See that method for how the check methods behave then.
+ * </p>
  * @noextend This class is not intended to be subclassed by clients.
  */
 public class CheckboxTreeViewer extends TreeViewer implements ICheckable {
@@ -57,6 +63,11 @@ public class CheckboxTreeViewer extends TreeViewer implements ICheckable {
      */
     private TreeItem lastClickedItem = null;
 
+    /**
+     * The check states of a virtual tree, or <code>null</code>.
+     */
+    private SparseCheckState sparseState;
+
     /**
      * Creates a tree viewer on a newly-created tree control under the given parent.
      * The tree control is created using the SWT style bits: <code>CHECK</code> and <code>BORDER</code>.
@@ -94,6 +105,114 @@ public class CheckboxTreeViewer extends TreeViewer implements ICheckable {
         super(tree);
     }
 
+    /**
+     * Sets whether the check states are kept by element rather than in the
+     * tree items. This is meant for trees with the <code>SWT.VIRTUAL</code>
+     * style bit, whose items are only created when they are shown: elements
+     * can then be checked and queried without creating their items. It has no
+     * effect while an {@link ICheckStateProvider} is set.
+     * <p>
+     * When the check states are kept by element:
+     * </p>
+     * <ul>
+     * <li>only the elements whose state was set are recorded, and the parents
+     * of the elements are determined by the content provider;</li>
+     * <li><code>setSubtreeChecked</code> records the state at the root of the
+     * subtree instead of checking every item, and the items of the
+     * descendants get the state when they are shown;</li>
+     * <li>elements whose subtree state or recorded descendants differ from
+     * their own check state are grayed; {@link #getGrayed(Object)},
+     * {@link #getGrayedElements()} and the items report them as grayed along
+     * with the explicitly grayed elements, so passing the result of
+     * <code>getGrayedElements</code> to <code>setGrayedElements</code> grays
+     * them explicitly;</li>
+     * <li>{@link #getCheckedElements()} returns the elements that were checked
+     * by themselves, the roots of checked subtrees and the elements of the
+     * checked items that are shown;</li>
+     * <li>the states of removed elements are forgotten, and so are those of
+     * elements that are gone when their parent is refreshed, unless the
+     * content provider is lazy.</li>
+     * </ul>
+     * <p>
+     * Enabling records the check and grayed states of the existing items.
+     * Disabling leaves the items as they are.
+     * </p>
+     *
+     * @param enable
+     *            <code>true</code> to keep the check states by element,
+     *            <code>false</code> to keep them in the tree items
+     * @since 3.13
+     */
+    public void setUseElementCheckStates(boolean enable) {
+        if (enable == (sparseState != null)) {
+            return;
+        }
+        if (!enable) {
+            sparseState = null;
+            return;
+        }
+        List checked = new ArrayList();
+        internalCollectChecked(checked, getControl());
+        List grayed = new ArrayList();
+        internalCollectGrayed(grayed, getControl());
+        sparseState = new SparseCheckState(this);
+        sparseState.setCheckedElements(checked.toArray());
+        sparseState.setGrayedElements(grayed.toArray());
+    }
+
+    /**
+     * Returns whether the check states are kept by element, see
+     * {@link #setUseElementCheckStates(boolean)}.
+     */
+    private boolean usesSparseState() {
+        return sparseState != null && checkStateProvider == null;
+    }
+
+    /**
+     * Updates the check box of the item of the element, if it is shown, and
+     * the grayed state of the shown items of its ancestors.
+     */
+    private void updateSparseState(Object element) {
+        Widget widget = findItem(element);
+        if (widget instanceof TreeItem) {
+            TreeItem item = (TreeItem) widget;
+            item.setChecked(sparseState.isChecked(element));
+            item.setGrayed(sparseState.isGrayed(element));
+        }
+        for (Object ancestor : sparseState.getAncestors(element)) {
+            widget = findItem(ancestor);
+            if (widget instanceof TreeItem) {
+                ((TreeItem) widget).setGrayed(sparseState.isGrayed(ancestor));
+            }
+        }
+    }
+
+    /**
+     * Updates the check boxes of all shown items below the widget.
+     */
+    private void applySparseState(Widget widget) {
+        Item[] items = getChildren(widget);
+        for (int i = 0; i < items.length; i++) {
+            TreeItem item = (TreeItem) items[i];
+            Object data = item.getData();
+            if (data != null) {
+                item.setChecked(sparseState.isChecked(data));
+                item.setGrayed(sparseState.isGrayed(data));
+                applySparseState(item);
+            }
+        }
+    }
+
+    private void applySparseState() {
+        Control tree = getControl();
+        tree.setRedraw(false);
+        try {
+            applySparseState(tree);
+        } finally {
+            tree.setRedraw(true);
+        }
+    }
+
     @Override
 	public void addCheckStateListener(ICheckStateListener listener) {
         checkStateListeners.add(listener);
@@ -121,7 +240,11 @@ public class CheckboxTreeViewer extends TreeViewer implements ICheckable {
     	if(!item.isDisposed() && checkStateProvider != null) {
 			setChecked(element, checkStateProvider.isChecked(element));
 			setGrayed(element, checkStateProvider.isGrayed(element));
-    	}
+		} else if (!item.isDisposed() && usesSparseState()) {
+			TreeItem treeItem = (TreeItem) item;
+			treeItem.setChecked(sparseState.isChecked(element));
+			treeItem.setGrayed(sparseState.isGrayed(element));
+		}
 	}
 
 	/**
@@ -200,6 +323,9 @@ public class CheckboxTreeViewer extends TreeViewer implements ICheckable {
 
     @Override
 	public boolean getChecked(Object element) {
+        if (usesSparseState()) {
+            return sparseState.isChecked(element);
+        }
         Widget widget = findItem(element);
         if (widget instanceof TreeItem) {
 			return ((TreeItem) widget).getChecked();
@@ -215,6 +341,10 @@ public class CheckboxTreeViewer extends TreeViewer implements ICheckable {
      * This method is typically used when preserving the interesting
      * state of a viewer; <code>setCheckedElements</code> is used during the restore.
      * </p>
+     * <p>
+     * If the check states are kept by element, the result also contains the
+     * recorded checked elements, see {@link #setUseElementCheckStates(boolean)}.
+     * </p>
      *
      * @return the array of checked elements
      *
@@ -224,6 +354,17 @@ public class CheckboxTreeViewer extends TreeViewer implements ICheckable {
         ArrayList v = new ArrayList();
         Control tree = getControl();
         internalCollectChecked(v, tree);
+        if (usesSparseState()) {
+            CustomHashtable shown = newHashtable(v.size() * 2 + 1);
+            for (Object element : v) {
+                shown.put(element, element);
+            }
+            for (Object element : sparseState.getCheckedElements()) {
+                if (!shown.containsKey(element)) {
+                    v.add(element);
+                }
+            }
+        }
         return v.toArray();
     }
 
@@ -235,6 +376,9 @@ public class CheckboxTreeViewer extends TreeViewer implements ICheckable {
      *   and <code>false</code> if not grayed
      */
     public boolean getGrayed(Object element) {
+        if (usesSparseState()) {
+            return sparseState.isGrayed(element);
+        }
         Widget widget = findItem(element);
         if (widget instanceof TreeItem) {
             return ((TreeItem) widget).getGrayed();
@@ -250,12 +394,20 @@ public class CheckboxTreeViewer extends TreeViewer implements ICheckable {
      * This method is typically used when preserving the interesting
      * state of a viewer; <code>setGrayedElements</code> is used during the restore.
      * </p>
+     * <p>
+     * If the check states are kept by element, the result also contains the
+     * elements grayed because of the states in their subtree, see
+     * {@link #setUseElementCheckStates(boolean)}.
+     * </p>
      *
      * @return the array of grayed elements
      *
      * @see #setGrayedElements
      */
     public Object[] getGrayedElements() {
+        if (usesSparseState()) {
+            return sparseState.getGrayedElements();
+        }
         List result = new ArrayList();
         internalCollectGrayed(result, getControl());
         return result.toArray();
@@ -290,6 +442,10 @@ public class CheckboxTreeViewer extends TreeViewer implements ICheckable {
 
             Object data = item.getData();
             if (data != null) {
+                if (usesSparseState()) {
+                    sparseState.setChecked(data, item.getChecked());
+                    updateSparseState(data);
+                }
                 fireCheckStateChanged(new CheckStateChangedEvent(this, data,
                         item.getChecked()));
             }
@@ -388,9 +544,9 @@ public class CheckboxTreeViewer extends TreeViewer implements ICheckable {
     	if (!getPreserveSelection()) {
     		return;
     	}
-    	//If a check provider is present, it determines the state across input
-    	//changes.
-    	if(checkStateProvider != null) {
+    	//If a check provider is present or the states are kept by element, they
+    	//determine the state across input changes.
+    	if(checkStateProvider != null || usesSparseState()) {
     		//Try to preserve the selection, let the ICheckProvider manage
     		//the check states
     		super.preservingSelection(updateCode);
@@ -409,6 +565,57 @@ public class CheckboxTreeViewer extends TreeViewer implements ICheckable {
         applyState(checkedNodes, grayedNodes, getControl());
     }
 
+    /**
+     * Returns whether the recorded states below refreshed elements can be
+     * checked against their children, i.e. whether the content provider is
+     * not lazy.
+     */
+    private boolean canPruneSparseState() {
+        IContentProvider provider = getContentProvider();
+        return !(provider instanceof ILazyTreeContentProvider)
+                && !(provider instanceof ILazyTreePathContentProvider);
+    }
+
+    @Override
+	protected void inputChanged(Object input, Object oldInput) {
+        super.inputChanged(input, oldInput);
+        if (usesSparseState() && canPruneSparseState()) {
+            sparseState.refresh(getRoot());
+        }
+    }
+
+    @Override
+	protected void internalRefresh(Object element, boolean updateLabels) {
+        if (usesSparseState() && canPruneSparseState()) {
+            sparseState.refresh(element);
+        }
+        super.internalRefresh(element, updateLabels);
+    }
+
+    @Override
+	protected void internalRemove(Object[] elementsOrPaths) {
+        if (usesSparseState()) {
+            for (int i = 0; i < elementsOrPaths.length; i++) {
+                Object element = elementsOrPaths[i];
+                if (element instanceof TreePath) {
+                    element = ((TreePath) element).getLastSegment();
+                }
+                sparseState.remove(element);
+            }
+        }
+        super.internalRemove(elementsOrPaths);
+    }
+
+    @Override
+	protected void internalRemove(Object parent, Object[] elements) {
+        if (usesSparseState()) {
+            for (int i = 0; i < elements.length; i++) {
+                sparseState.remove(elements[i]);
+            }
+        }
+        super.internalRemove(parent, elements);
+    }
+
     @Override
 	public void removeCheckStateListener(ICheckStateListener listener) {
         checkStateListeners.remove(listener);
@@ -417,6 +624,11 @@ public class CheckboxTreeViewer extends TreeViewer implements ICheckable {
     @Override
 	public boolean setChecked(Object element, boolean state) {
         Assert.isNotNull(element);
+        if (usesSparseState()) {
+            sparseState.setChecked(element, state);
+            updateSparseState(element);
+            return true;
+        }
         Widget widget = internalExpand(element, false);
         if (widget instanceof TreeItem) {
             ((TreeItem) widget).setChecked(state);
@@ -465,6 +677,11 @@ public class CheckboxTreeViewer extends TreeViewer implements ICheckable {
      */
     public void setCheckedElements(Object[] elements) {
         assertElementsNotNull(elements);
+        if (usesSparseState()) {
+            sparseState.setCheckedElements(elements);
+            applySparseState();
+            return;
+        }
         CustomHashtable checkedElements = newHashtable(elements.length * 2 + 1);
         for (int i = 0; i < elements.length; ++i) {
             Object element = elements[i];
@@ -489,6 +706,11 @@ public class CheckboxTreeViewer extends TreeViewer implements ICheckable {
      */
     public boolean setGrayed(Object element, boolean state) {
         Assert.isNotNull(element);
+        if (usesSparseState()) {
+            sparseState.setGrayed(element, state);
+            updateSparseState(element);
+            return true;
+        }
         Widget widget = internalExpand(element, false);
         if (widget instanceof TreeItem) {
             ((TreeItem) widget).setGrayed(state);
@@ -507,6 +729,12 @@ public class CheckboxTreeViewer extends TreeViewer implements ICheckable {
      */
     public boolean setGrayChecked(Object element, boolean state) {
         Assert.isNotNull(element);
+        if (usesSparseState()) {
+            sparseState.setChecked(element, state);
+            sparseState.setGrayed(element, state);
+            updateSparseState(element);
+            return true;
+        }
         Widget widget = internalExpand(element, false);
         if (widget instanceof TreeItem) {
             TreeItem item = (TreeItem) widget;
@@ -532,6 +760,11 @@ public class CheckboxTreeViewer extends TreeViewer implements ICheckable {
      */
     public void setGrayedElements(Object[] elements) {
         assertElementsNotNull(elements);
+        if (usesSparseState()) {
+            sparseState.setGrayedElements(elements);
+            applySparseState();
+            return;
+        }
         CustomHashtable grayedElements = newHashtable(elements.length * 2 + 1);
         for (int i = 0; i < elements.length; ++i) {
             Object element = elements[i];
@@ -558,6 +791,14 @@ public class CheckboxTreeViewer extends TreeViewer implements ICheckable {
      */
     public boolean setParentsGrayed(Object element, boolean state) {
         Assert.isNotNull(element);
+        if (usesSparseState()) {
+            sparseState.setGrayed(element, state);
+            for (Object ancestor : sparseState.getAncestors(element)) {
+                sparseState.setGrayed(ancestor, state);
+            }
+            updateSparseState(element);
+            return true;
+        }
         Widget widget = internalExpand(element, false);
         if (widget instanceof TreeItem) {
             TreeItem item = (TreeItem) widget;
@@ -587,6 +828,11 @@ public class CheckboxTreeViewer extends TreeViewer implements ICheckable {
      *  and <code>false</code> otherwise
      */
     public boolean setSubtreeChecked(Object element, boolean state) {
+        if (usesSparseState()) {
+            sparseState.setSubtreeChecked(element, state);
+            applySparseState();
+            return true;
+        }
         Widget widget = internalExpand(element, false);
         if (widget instanceof TreeItem) {
             TreeItem item = (TreeItem) widget;
@@ -615,6 +861,11 @@ public class CheckboxTreeViewer extends TreeViewer implements ICheckable {
      */
 	@Deprecated
 	public void setAllChecked(boolean state) {
+		if (usesSparseState()) {
+			sparseState.setAllChecked(state);
+			applySparseState();
+			return;
+		}
 		setAllChecked(state,  getTree().getItems());
 
 	}
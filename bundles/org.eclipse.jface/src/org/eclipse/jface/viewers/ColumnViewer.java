@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2015 IBM Corporation and others.
+ * Copyright (c) 2006, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -19,6 +19,7 @@ import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.jface.internal.InternalPolicy;
 import org.eclipse.jface.util.Policy;
+import org.eclipse.swt.SWT;
 import org.eclipse.swt.events.DisposeEvent;
 import org.eclipse.swt.events.MouseAdapter;
 import org.eclipse.swt.events.MouseEvent;
@@ -42,6 +43,69 @@ import org.eclipse.swt.widgets.Widget;
  *
  */
 public abstract class ColumnViewer extends StructuredViewer {
+
+	/**
+	 * The key of the item data that holds the {@link LabelStamp} of the
+	 * labels shown by an item while the label cache is enabled.
+	 */
+	private static final String LABEL_STAMP_KEY = "org.eclipse.jface.viewers.labelStamp"; //$NON-NLS-1$
+
+	/**
+	 * The element, its stamp and the state of the viewer the labels of an
+	 * item were computed for.
+	 */
+	private static final class LabelStamp {
+		final Object element;
+
+		final Object stamp;
+
+		final int generation;
+
+		final int columnCount;
+
+		LabelStamp(Object element, Object stamp, int generation, int columnCount) {
+			this.element = element;
+			this.stamp = stamp;
+			this.generation = generation;
+			this.columnCount = columnCount;
+		}
+	}
+
+	/**
+	 * The number of elements from which the items of added elements are
+	 * created in bulk by the table and tree viewers.
+	 */
+	static final int BULK_ADD_THRESHOLD = 32;
+
+	/**
+	 * Returns whether a class between the given type and the given base
+	 * class, the base excluded, declares the method. The table and tree
+	 * viewers use it to keep creating items one by one for subclasses that
+	 * customize the creation of single items, which the bulk creation would
+	 * bypass.
+	 *
+	 * @param type
+	 *            the class of the viewer, a subclass of the base
+	 * @param base
+	 *            the class that declares the default implementation
+	 * @param name
+	 *            the name of the method
+	 * @param parameterTypes
+	 *            the parameter types of the method
+	 * @return whether a subclass of the base overrides the method
+	 */
+	static boolean overridesMethod(Class<?> type, Class<?> base, String name, Class<?>... parameterTypes) {
+		for (Class<?> c = type; c != null && c != base; c = c.getSuperclass()) {
+			try {
+				c.getDeclaredMethod(name, parameterTypes);
+				return true;
+			} catch (NoSuchMethodException e) {
+				// look in the superclass
+			}
+		}
+		return false;
+	}
+
 	private CellEditor[] cellEditors;
 
 	private ICellModifier cellModifier;
@@ -60,6 +124,14 @@ public abstract class ColumnViewer extends StructuredViewer {
 
 	private MouseListener mouseListener;
 
+	private boolean labelCacheEnabled;
+
+	/**
+	 * Incremented whenever the cached labels become invalid, e.g. when a label
+	 * provider changes.
+	 */
+	private int labelCacheGeneration;
+
 	// after logging for the first
 	// time
 
@@ -349,9 +421,120 @@ public abstract class ColumnViewer extends StructuredViewer {
 		if (labelProvider instanceof CellLabelProvider) {
 			((CellLabelProvider) labelProvider).initialize(this, null);
 		}
+		invalidateLabelCache();
 		super.setLabelProvider(labelProvider);
 	}
 
+	@Override
+	protected void handleLabelProviderChanged(LabelProviderChangedEvent event) {
+		invalidateLabelCache();
+		super.handleLabelProviderChanged(event);
+	}
+
+	/**
+	 * Enables or disables the label cache of this viewer. While it is enabled,
+	 * a refresh or an update of an element skips the label providers of all
+	 * columns if the item shows the labels of the same element with the same
+	 * stamp already.
+	 * <p>
+	 * The stamps are provided by the content provider if it implements
+	 * {@link IElementStampProvider}, otherwise by the label provider of the
+	 * viewer if it implements that interface. Elements without a stamp are
+	 * always updated. The cached labels are invalidated when a label provider
+	 * is set or fires a change event and when columns are added or removed.
+	 * The cache is not used by viewers with the {@link SWT#VIRTUAL} style,
+	 * since their items are cleared by the widget.
+	 * </p>
+	 *
+	 * @param enabled
+	 *            <code>true</code> to skip the label computation of unchanged
+	 *            elements
+	 * @since 3.13
+	 */
+	public void setLabelCacheEnabled(boolean enabled) {
+		labelCacheEnabled = enabled;
+		invalidateLabelCache();
+	}
+
+	/**
+	 * Returns whether the label cache of this viewer is enabled.
+	 *
+	 * @return <code>true</code> if the label computation of unchanged
+	 *         elements is skipped
+	 * @see #setLabelCacheEnabled(boolean)
+	 * @since 3.13
+	 */
+	public boolean isLabelCacheEnabled() {
+		return labelCacheEnabled;
+	}
+
+	/**
+	 * Invalidates the labels cached for all items.
+	 */
+	/* package */void invalidateLabelCache() {
+		labelCacheGeneration++;
+	}
+
+	/**
+	 * Returns whether the item shows the current labels of the element, so that
+	 * the label providers need not be called.
+	 *
+	 * @param item
+	 *            the item
+	 * @param element
+	 *            the element of the item
+	 * @return <code>true</code> if the labels of the item are up to date
+	 */
+	/* package */boolean isLabelCached(Item item, Object element) {
+		if (!labelCacheEnabled || (getControl().getStyle() & SWT.VIRTUAL) != 0) {
+			return false;
+		}
+		Object data = item.getData(LABEL_STAMP_KEY);
+		if (!(data instanceof LabelStamp)) {
+			return false;
+		}
+		LabelStamp labelStamp = (LabelStamp) data;
+		if (labelStamp.element != element || labelStamp.generation != labelCacheGeneration
+				|| labelStamp.columnCount != doGetColumnCount()) {
+			return false;
+		}
+		Object stamp = getStamp(element);
+		return stamp != null && stamp.equals(labelStamp.stamp);
+	}
+
+	/**
+	 * Remembers that the labels of the element were computed for the item.
+	 *
+	 * @param item
+	 *            the item
+	 * @param element
+	 *            the element of the item
+	 */
+	/* package */void labelsUpdated(Item item, Object element) {
+		if (!labelCacheEnabled || (getControl().getStyle() & SWT.VIRTUAL) != 0) {
+			return;
+		}
+		Object stamp = getStamp(element);
+		if (stamp == null) {
+			if (item.getData(LABEL_STAMP_KEY) != null) {
+				item.setData(LABEL_STAMP_KEY, null);
+			}
+			return;
+		}
+		item.setData(LABEL_STAMP_KEY, new LabelStamp(element, stamp, labelCacheGeneration, doGetColumnCount()));
+	}
+
+	private Object getStamp(Object element) {
+		Object provider = getContentProvider();
+		if (!(provider instanceof IElementStampProvider)) {
+			provider = getLabelProvider();
+			if (!(provider instanceof IElementStampProvider)) {
+				return null;
+			}
+		}
+		return ((IElementStampProvider) provider).getStamp(element);
+	}
+
 	@Override
 	void internalDisposeLabelProvider(IBaseLabelProvider oldProvider) {
 		if (oldProvider instanceof CellLabelProvider) {
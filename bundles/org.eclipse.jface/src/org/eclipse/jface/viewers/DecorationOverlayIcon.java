@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2015 IBM Corporation and others.
+ * Copyright (c) 2006, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,7 +10,7 @@
  *******************************************************************************/
 package org.eclipse.jface.viewers;
 
-import java.util.Arrays;
+import java.util.Objects;
 
 import org.eclipse.jface.resource.CompositeImageDescriptor;
 import org.eclipse.jface.resource.ImageDescriptor;
@@ -141,13 +141,30 @@ public class DecorationOverlayIcon extends CompositeImageDescriptor {
 			return false;
 		}
         DecorationOverlayIcon other = (DecorationOverlayIcon) o;
-        return base.equals(other.base)
-                && Arrays.equals(overlays, other.overlays);
+        return base.equals(other.base) && size.equals(other.size)
+                && equalOverlays(overlays, other.overlays);
+    }
+
+    /**
+     * Return whether the overlays are the same in every quadrant. Missing
+     * trailing quadrants are the same as <code>null</code> ones, so that the
+     * icons of callers that pass 4, 5 or 6 overlays share their images.
+     */
+    private static boolean equalOverlays(ImageDescriptor[] overlays1, ImageDescriptor[] overlays2) {
+        int length = Math.max(overlays1.length, overlays2.length);
+        for (int i = 0; i < length; i++) {
+            ImageDescriptor overlay1 = i < overlays1.length ? overlays1[i] : null;
+            ImageDescriptor overlay2 = i < overlays2.length ? overlays2[i] : null;
+            if (!Objects.equals(overlay1, overlay2)) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
 	public int hashCode() {
-        int code = System.identityHashCode(base);
+        int code = base.hashCode();
         for (int i = 0; i < overlays.length; i++) {
             if (overlays[i] != null) {
 				code ^= overlays[i].hashCode();
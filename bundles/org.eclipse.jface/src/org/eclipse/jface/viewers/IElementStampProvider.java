@@ -0,0 +1,37 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.jface.viewers;
+
+/**
+ * Interface to provide a stamp of the displayed state of an element, e.g. a
+ * modification count or a timestamp. It is implemented by the content provider
+ * or the label provider of a {@link ColumnViewer} whose label cache is
+ * enabled: the labels of an element are only recomputed on a refresh or an
+ * update when its stamp has changed.
+ *
+ * @see ColumnViewer#setLabelCacheEnabled(boolean)
+ * @since 3.13
+ */
+public interface IElementStampProvider {
+
+	/**
+	 * Provides the stamp of the given element. The stamp must change whenever
+	 * the text, image, font or colors of any column of the element change,
+	 * stamps are compared with <code>equals</code>.
+	 *
+	 * @param element
+	 *            the element
+	 * @return the stamp of the element, or <code>null</code> to always compute
+	 *         the labels of the element
+	 */
+	Object getStamp(Object element);
+}
@@ -0,0 +1,543 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jface.viewers;
+
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+
+/**
+ * The SparseCheckState keeps the check states of a {@link CheckboxTreeViewer}
+ * by element instead of in the tree items, so that items need not be created
+ * to check or query elements.
+ * <p>
+ * Only the elements whose state was set are recorded. An element is either
+ * checked by itself or as the root of a checked subtree; the state of any
+ * other element is the state of its nearest ancestor that is the root of a
+ * subtree, the default state if there is none. An element is grayed if it was
+ * grayed explicitly, or if the state of its subtree or of a recorded element
+ * below it differs from its own state.
+ * </p>
+ * <p>
+ * The recorded elements are indexed by their parent: each recorded element
+ * has a node, and so do its ancestors, which are found once through the
+ * content provider of the viewer when the element is recorded. Nodes that
+ * hold no state and have no children are dropped, and the nodes of elements
+ * removed from the viewer are dropped with their subtree.
+ * </p>
+ */
+/* package */final class SparseCheckState {
+
+	/**
+	 * The node of an element in the index.
+	 */
+	private static final class Node {
+		/**
+		 * The element, or <code>null</code> for the root of the index.
+		 */
+		final Object element;
+
+		final Node parent;
+
+		/**
+		 * The child nodes, or <code>null</code> if there are none.
+		 */
+		List<Node> children;
+
+		/**
+		 * The state of the element itself, or <code>null</code>.
+		 */
+		Boolean self;
+
+		/**
+		 * The state of the subtree rooted at the element, or <code>null</code>.
+		 */
+		Boolean subtree;
+
+		/**
+		 * Whether the element is grayed explicitly.
+		 */
+		boolean grayed;
+
+		Node(Object element, Node parent) {
+			this.element = element;
+			this.parent = parent;
+		}
+
+		boolean hasState() {
+			return self != null || subtree != null;
+		}
+
+		boolean isEmpty() {
+			return !hasState() && !grayed && (children == null || children.isEmpty());
+		}
+	}
+
+	private final CheckboxTreeViewer viewer;
+
+	private final Node root = new Node(null, null);
+
+	private CustomHashtable nodes;
+
+	private boolean defaultState;
+
+	/**
+	 * The flags of the states recorded in a subtree, see
+	 * {@link #collectGrayed(Node, boolean, List)}.
+	 */
+	private static final int CHECKED = 1;
+
+	private static final int UNCHECKED = 2;
+
+	/**
+	 * @param viewer
+	 *            the viewer whose content provider knows the parents
+	 */
+	SparseCheckState(CheckboxTreeViewer viewer) {
+		this.viewer = viewer;
+		nodes = viewer.newHashtable(CustomHashtable.DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Returns the parent element of the element or tree path, as a tree path
+	 * if the content provider is tree path based.
+	 */
+	private Object getParent(Object elementOrTreePath) {
+		return viewer.getParentElement(elementOrTreePath);
+	}
+
+	private static Object toElement(Object elementOrTreePath) {
+		if (elementOrTreePath instanceof TreePath) {
+			TreePath path = (TreePath) elementOrTreePath;
+			return path.getSegmentCount() == 0 ? null : path.getLastSegment();
+		}
+		return elementOrTreePath;
+	}
+
+	private Node getNode(Object element) {
+		return (Node) nodes.get(element);
+	}
+
+	/**
+	 * Returns the node of the element, creating it and the nodes of its
+	 * ancestors as needed.
+	 */
+	private Node getOrCreateNode(Object element) {
+		Node node = getNode(element);
+		if (node != null) {
+			return node;
+		}
+		List<Object> missing = new ArrayList<>();
+		missing.add(element);
+		Node parentNode = root;
+		Object current = getParent(element);
+		while (current != null) {
+			Object currentElement = toElement(current);
+			if (currentElement == null || viewer.equals(currentElement, viewer.getRoot())) {
+				break;
+			}
+			Node existing = getNode(currentElement);
+			if (existing != null) {
+				parentNode = existing;
+				break;
+			}
+			missing.add(currentElement);
+			current = getParent(current);
+		}
+		for (int i = missing.size() - 1; i >= 0; i--) {
+			node = new Node(missing.get(i), parentNode);
+			if (parentNode.children == null) {
+				parentNode.children = new ArrayList<>(2);
+			}
+			parentNode.children.add(node);
+			nodes.put(node.element, node);
+			parentNode = node;
+		}
+		return node;
+	}
+
+	/**
+	 * Returns the node of the element or of its nearest ancestor that has one,
+	 * or the root of the index.
+	 */
+	private Node findNearestNode(Object element) {
+		Node node = getNode(element);
+		if (node != null) {
+			return node;
+		}
+		Object current = getParent(element);
+		while (current != null) {
+			Object currentElement = toElement(current);
+			if (currentElement == null) {
+				break;
+			}
+			node = getNode(currentElement);
+			if (node != null) {
+				return node;
+			}
+			current = getParent(current);
+		}
+		return root;
+	}
+
+	/**
+	 * Returns the state inherited by the descendants of the node, i.e. the
+	 * subtree state of the node or of its nearest ancestor that has one.
+	 */
+	private boolean getSubtreeState(Node node) {
+		for (Node current = node; current != root; current = current.parent) {
+			if (current.subtree != null) {
+				return current.subtree.booleanValue();
+			}
+		}
+		return defaultState;
+	}
+
+	private boolean isChecked(Node node) {
+		if (node.self != null) {
+			return node.self.booleanValue();
+		}
+		return getSubtreeState(node);
+	}
+
+	/**
+	 * Returns whether the element is checked.
+	 *
+	 * @param element
+	 * @return boolean
+	 */
+	boolean isChecked(Object element) {
+		Node node = getNode(element);
+		if (node != null) {
+			return isChecked(node);
+		}
+		return getSubtreeState(findNearestNode(element));
+	}
+
+	/**
+	 * Returns whether the element is grayed, explicitly or because its subtree
+	 * has mixed states. Only the recorded nodes below the element are visited.
+	 *
+	 * @param element
+	 * @return boolean
+	 */
+	boolean isGrayed(Object element) {
+		Node node = getNode(element);
+		if (node == null) {
+			return false;
+		}
+		if (node.grayed) {
+			return true;
+		}
+		boolean state = isChecked(node);
+		return node.subtree != null && node.subtree.booleanValue() != state
+				|| hasDifferentDescendant(node, state);
+	}
+
+	private static boolean hasDifferentDescendant(Node node, boolean state) {
+		if (node.children == null) {
+			return false;
+		}
+		for (Node child : node.children) {
+			if (child.self != null && child.self.booleanValue() != state
+					|| child.subtree != null && child.subtree.booleanValue() != state) {
+				return true;
+			}
+			if (hasDifferentDescendant(child, state)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Drops the node and its ancestors as long as they are empty.
+	 */
+	private void prune(Node node) {
+		Node current = node;
+		while (current != root && current.isEmpty()) {
+			current.parent.children.remove(current);
+			nodes.remove(current.element);
+			current = current.parent;
+		}
+	}
+
+	/**
+	 * Drops the nodes of the subtree below the node from the index, but not
+	 * the node itself.
+	 */
+	private void forgetChildren(Node node) {
+		if (node.children == null) {
+			return;
+		}
+		for (Node child : node.children) {
+			nodes.remove(child.element);
+			forgetChildren(child);
+		}
+		node.children = null;
+	}
+
+	/**
+	 * Clears the check states, and the explicit grayed states if requested,
+	 * of the nodes below the node and drops the nodes that become empty.
+	 */
+	private void clearBelow(Node node, boolean clearGrayed) {
+		if (node.children == null) {
+			return;
+		}
+		for (Node child : new ArrayList<>(node.children)) {
+			child.self = null;
+			child.subtree = null;
+			if (clearGrayed) {
+				child.grayed = false;
+			}
+			clearBelow(child, clearGrayed);
+			if (child.isEmpty()) {
+				node.children.remove(child);
+				nodes.remove(child.element);
+			}
+		}
+	}
+
+	/**
+	 * Sets the state of the element alone.
+	 *
+	 * @param element
+	 * @param state
+	 */
+	void setChecked(Object element, boolean state) {
+		getOrCreateNode(element).self = Boolean.valueOf(state);
+	}
+
+	/**
+	 * Sets the state of the element and all its descendants, forgetting the
+	 * states recorded below it.
+	 *
+	 * @param element
+	 * @param state
+	 */
+	void setSubtreeChecked(Object element, boolean state) {
+		Node node = getOrCreateNode(element);
+		clearBelow(node, false);
+		node.self = null;
+		node.subtree = Boolean.valueOf(state);
+	}
+
+	/**
+	 * Checks the given elements alone and unchecks all others.
+	 *
+	 * @param elements
+	 */
+	void setCheckedElements(Object[] elements) {
+		clearBelow(root, false);
+		defaultState = false;
+		for (Object element : elements) {
+			setChecked(element, true);
+		}
+	}
+
+	/**
+	 * Sets the state of all elements.
+	 *
+	 * @param state
+	 */
+	void setAllChecked(boolean state) {
+		clearBelow(root, false);
+		defaultState = state;
+	}
+
+	/**
+	 * Returns whether all elements that are not recorded are checked.
+	 *
+	 * @return the default state
+	 */
+	boolean getDefaultState() {
+		return defaultState;
+	}
+
+	/**
+	 * Returns the recorded elements that are checked, i.e. the elements that
+	 * were checked by themselves and the roots of checked subtrees.
+	 *
+	 * @return the checked elements
+	 */
+	Object[] getCheckedElements() {
+		List<Object> result = new ArrayList<>();
+		for (Enumeration e = nodes.elements(); e.hasMoreElements();) {
+			Node node = (Node) e.nextElement();
+			if (node.hasState() && isChecked(node)) {
+				result.add(node.element);
+			}
+		}
+		return result.toArray();
+	}
+
+	/**
+	 * Sets the explicit grayed state of the element.
+	 *
+	 * @param element
+	 * @param state
+	 */
+	void setGrayed(Object element, boolean state) {
+		if (state) {
+			getOrCreateNode(element).grayed = true;
+		} else {
+			Node node = getNode(element);
+			if (node != null) {
+				node.grayed = false;
+				prune(node);
+			}
+		}
+	}
+
+	/**
+	 * Grays the given elements explicitly and ungrays all others.
+	 *
+	 * @param elements
+	 */
+	void setGrayedElements(Object[] elements) {
+		List<Node> grayedNodes = new ArrayList<>();
+		for (Enumeration e = nodes.elements(); e.hasMoreElements();) {
+			Node node = (Node) e.nextElement();
+			if (node.grayed) {
+				grayedNodes.add(node);
+			}
+		}
+		for (Node node : grayedNodes) {
+			node.grayed = false;
+			prune(node);
+		}
+		for (Object element : elements) {
+			getOrCreateNode(element).grayed = true;
+		}
+	}
+
+	/**
+	 * Returns the grayed elements, i.e. the elements for which
+	 * {@link #isGrayed(Object)} returns <code>true</code>: the explicitly
+	 * grayed elements and the elements whose subtree has mixed states. The
+	 * recorded nodes are visited once.
+	 *
+	 * @return the grayed elements
+	 */
+	Object[] getGrayedElements() {
+		List<Object> result = new ArrayList<>();
+		collectGrayed(root, defaultState, result);
+		return result.toArray();
+	}
+
+	/**
+	 * Adds the grayed elements of the subtree of the node to the result.
+	 *
+	 * @param inherited
+	 *            the subtree state of the nearest ancestor that has one, or
+	 *            the default state
+	 * @return the states recorded at the node and below it, a combination of
+	 *         {@link #CHECKED} and {@link #UNCHECKED}
+	 */
+	private static int collectGrayed(Node node, boolean inherited, List<Object> result) {
+		boolean subtreeState = node.subtree != null ? node.subtree.booleanValue() : inherited;
+		int below = 0;
+		if (node.children != null) {
+			for (Node child : node.children) {
+				below |= collectGrayed(child, subtreeState, result);
+			}
+		}
+		boolean state = node.self != null ? node.self.booleanValue() : subtreeState;
+		if (node.element != null && (node.grayed
+				|| node.subtree != null && node.subtree.booleanValue() != state
+				|| (below & (state ? UNCHECKED : CHECKED)) != 0)) {
+			result.add(node.element);
+		}
+		int recorded = below;
+		if (node.self != null) {
+			recorded |= node.self.booleanValue() ? CHECKED : UNCHECKED;
+		}
+		if (node.subtree != null) {
+			recorded |= node.subtree.booleanValue() ? CHECKED : UNCHECKED;
+		}
+		return recorded;
+	}
+
+	/**
+	 * Forgets the states recorded for the element and its descendants, which
+	 * were removed from the viewer.
+	 *
+	 * @param element
+	 */
+	void remove(Object element) {
+		Node node = getNode(element);
+		if (node == null) {
+			return;
+		}
+		forgetChildren(node);
+		node.self = null;
+		node.subtree = null;
+		node.grayed = false;
+		prune(node);
+	}
+
+	/**
+	 * Forgets the states recorded below the element for the elements that are
+	 * no longer children of their recorded parent. The children are asked from
+	 * the viewer, so this must not be called with a lazy content provider.
+	 *
+	 * @param element
+	 *            the refreshed element, or the input of the viewer
+	 */
+	void refresh(Object element) {
+		Node node = element == null || viewer.equals(element, viewer.getRoot()) ? root : getNode(element);
+		if (node != null) {
+			retainChildren(node);
+		}
+	}
+
+	private void retainChildren(Node node) {
+		if (node.children == null) {
+			return;
+		}
+		Object[] children = viewer.getRawChildren(node == root ? viewer.getRoot() : node.element);
+		CustomHashtable current = viewer.newHashtable(children.length * 2 + 1);
+		for (Object child : children) {
+			current.put(child, child);
+		}
+		for (Node child : new ArrayList<>(node.children)) {
+			if (current.containsKey(child.element)) {
+				retainChildren(child);
+			} else {
+				node.children.remove(child);
+				nodes.remove(child.element);
+				forgetChildren(child);
+			}
+		}
+		prune(node);
+	}
+
+	/**
+	 * Returns the ancestors of the element, the parent first.
+	 *
+	 * @param element
+	 * @return the ancestor elements
+	 */
+	List<Object> getAncestors(Object element) {
+		List<Object> ancestors = new ArrayList<>();
+		Object current = getParent(element);
+		while (current != null) {
+			Object currentElement = toElement(current);
+			if (currentElement == null) {
+				break;
+			}
+			ancestors.add(currentElement);
+			current = getParent(current);
+		}
+		return ancestors;
+	}
+}
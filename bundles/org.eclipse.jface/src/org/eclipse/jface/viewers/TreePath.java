@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2015 IBM Corporation and others.
+ * Copyright (c) 2005, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -18,6 +18,14 @@ import org.eclipse.core.runtime.Assert;
  * value semantics. A model element is represented by a path of elements in the
  * tree from the root element to the leaf element.
  * <p>
+ * The paths created by {@link #createChildPath(Object)} share the segments of
+ * their parent path, so that the paths of many nodes of a deep tree, e.g. of a
+ * large tree selection, take memory proportional to the number of nodes rather
+ * than to the sum of the path lengths. Such a path is never flattened into
+ * an array: an access by index walks its parents up to the segment, and
+ * comparisons walk both paths from their last segments.
+ * </p>
+ * <p>
  * Clients may instantiate this class. Not intended to be subclassed.
  * </p>
  *
@@ -30,7 +38,24 @@ public final class TreePath {
 	 */
 	public static final TreePath EMPTY = new TreePath(new Object[0]);
 
-	private Object[] segments;
+	/**
+	 * The segments of this path, or <code>null</code> if this path is a child
+	 * of {@link #parentPath}.
+	 */
+	private final Object[] segments;
+
+	/**
+	 * The parent of this path if it is a child path, otherwise
+	 * <code>null</code>.
+	 */
+	private final TreePath parentPath;
+
+	/**
+	 * The last segment of this path if it is a child path.
+	 */
+	private final Object childSegment;
+
+	private final int segmentCount;
 
 	private int hash;
 
@@ -47,6 +72,25 @@ public final class TreePath {
 			Assert.isNotNull(segment);
 		}
 		this.segments = segments;
+		this.parentPath = null;
+		this.childSegment = null;
+		this.segmentCount = segments.length;
+	}
+
+	/**
+	 * Constructs a child path that shares the segments of the parent path.
+	 *
+	 * @param parentPath
+	 *            the parent path
+	 * @param childSegment
+	 *            the last segment
+	 */
+	private TreePath(TreePath parentPath, Object childSegment) {
+		Assert.isNotNull(childSegment);
+		this.segments = null;
+		this.parentPath = parentPath;
+		this.childSegment = childSegment;
+		this.segmentCount = parentPath.segmentCount + 1;
 	}
 
 	/**
@@ -57,7 +101,14 @@ public final class TreePath {
 	 * @return element at the specified index
 	 */
 	public Object getSegment(int index) {
-		return segments[index];
+		TreePath path = this;
+		while (path.segments == null) {
+			if (index == path.segmentCount - 1) {
+				return path.childSegment;
+			}
+			path = path.parentPath;
+		}
+		return path.segments[index];
 	}
 
 	/**
@@ -66,7 +117,7 @@ public final class TreePath {
 	 * @return the number of elements in this path
 	 */
 	public int getSegmentCount() {
-		return segments.length;
+		return segmentCount;
 	}
 
 	/**
@@ -76,10 +127,14 @@ public final class TreePath {
 	 * @return the first element in this path
 	 */
 	public Object getFirstSegment() {
-		if (segments.length == 0) {
+		if (segmentCount == 0) {
 			return null;
 		}
-		return segments[0];
+		TreePath path = this;
+		while (path.segments == null && path.parentPath.segmentCount > 0) {
+			path = path.parentPath;
+		}
+		return path.segments == null ? path.childSegment : path.segments[0];
 	}
 
 	/**
@@ -89,10 +144,13 @@ public final class TreePath {
 	 * @return the last element in this path
 	 */
 	public Object getLastSegment() {
-		if (segments.length == 0) {
+		if (segments == null) {
+			return childSegment;
+		}
+		if (segmentCount == 0) {
 			return null;
 		}
-		return segments[segments.length - 1];
+		return segments[segmentCount - 1];
 	}
 
 	@Override
@@ -106,7 +164,12 @@ public final class TreePath {
 	@Override
 	public int hashCode() {
 		if (hash == 0) {
-			hash = hashCode(null);
+			if (segments == null) {
+				// reuse the hash code of the shared parent
+				hash = parentPath.hashCode() + childSegment.hashCode();
+			} else {
+				hash = hashCode(null);
+			}
 		}
 		return hash;
 	}
@@ -122,16 +185,25 @@ public final class TreePath {
 	 */
 	public int hashCode(IElementComparer comparer) {
 		int result = 0;
-		for (Object segment : segments) {
-			if (comparer == null) {
-				result += segment.hashCode();
-			} else {
-				result += comparer.hashCode(segment);
-			}
+		TreePath path = this;
+		while (path.segments == null) {
+			result += hashCode(path.childSegment, comparer);
+			path = path.parentPath;
+		}
+		for (Object segment : path.segments) {
+			result += hashCode(segment, comparer);
 		}
 		return result;
 	}
 
+	private static int hashCode(Object segment, IElementComparer comparer) {
+		return comparer == null ? segment.hashCode() : comparer.hashCode(segment);
+	}
+
+	private static boolean equals(Object segment, Object otherSegment, IElementComparer comparer) {
+		return comparer == null ? segment.equals(otherSegment) : comparer.equals(segment, otherSegment);
+	}
+
 	/**
 	 * Returns whether this path is equivalent to the given path using the
 	 * specified comparer to compare individual elements.
@@ -147,18 +219,56 @@ public final class TreePath {
 		if (otherPath == null) {
 			return false;
 		}
-		if (segments.length != otherPath.segments.length) {
+		if (segmentCount != otherPath.segmentCount) {
 			return false;
 		}
-		for (int i = 0; i < segments.length; i++) {
-			if (comparer == null) {
-				if (!segments[i].equals(otherPath.segments[i])) {
-					return false;
-				}
+		return equalSegments(this, otherPath, segmentCount, comparer);
+	}
+
+	/**
+	 * Returns whether the first segments of the given paths are equal. The
+	 * paths are walked from the given count to their first segment, without
+	 * copying the segments of child paths.
+	 *
+	 * @param path
+	 *            a path with at least <code>count</code> segments
+	 * @param other
+	 *            another path with at least <code>count</code> segments
+	 * @param count
+	 *            the number of segments to compare
+	 * @param comparer
+	 *            comparator to use or <code>null</code> if segments should be
+	 *            compared using equals()
+	 * @return whether the segments are equal
+	 */
+	private static boolean equalSegments(TreePath path, TreePath other, int count, IElementComparer comparer) {
+		while (path.segments == null && path.segmentCount > count) {
+			path = path.parentPath;
+		}
+		while (other.segments == null && other.segmentCount > count) {
+			other = other.parentPath;
+		}
+		for (int i = count - 1; i >= 0; i--) {
+			if (path == other) {
+				// the remaining segments are shared
+				return true;
+			}
+			Object segment;
+			if (path.segments == null) {
+				segment = path.childSegment;
+				path = path.parentPath;
 			} else {
-				if (!comparer.equals(segments[i], otherPath.segments[i])) {
-					return false;
-				}
+				segment = path.segments[i];
+			}
+			Object otherSegment;
+			if (other.segments == null) {
+				otherSegment = other.childSegment;
+				other = other.parentPath;
+			} else {
+				otherSegment = other.segments[i];
+			}
+			if (!equals(segment, otherSegment, comparer)) {
+				return false;
 			}
 		}
 		return true;
@@ -185,28 +295,20 @@ public final class TreePath {
 		if (otherSegmentCount > thisSegmentCount) {
 			return false;
 		}
-		for (int i = 0; i < otherSegmentCount; i++) {
-			Object otherSegment = treePath.getSegment(i);
-			if (comparer == null) {
-				if (!otherSegment.equals(segments[i])) {
-					return false;
-				}
-			} else {
-				if (!comparer.equals(otherSegment, segments[i])) {
-					return false;
-				}
-			}
-		}
-		return true;
+		return equalSegments(this, treePath, otherSegmentCount, comparer);
 	}
 
 	/**
 	 * Returns a copy of this tree path with one segment removed from the end,
-	 * or <code>null</code> if this tree path has no segments.
+	 * or <code>null</code> if this tree path has no segments. The parent of a
+	 * path created by {@link #createChildPath(Object)} is returned without
+	 * copying.
 	 * @return a tree path
 	 */
 	public TreePath getParentPath() {
-		int segmentCount = getSegmentCount();
+		if (segments == null) {
+			return parentPath;
+		}
 		if (segmentCount < 1) {
 			return null;
 		} else if (segmentCount == 1) {
@@ -218,17 +320,12 @@ public final class TreePath {
 	}
 
 	/**
-	 * Returns a copy of this tree path with the given segment added at the end.
+	 * Returns a tree path with the given segment added at the end. The new path
+	 * shares the segments of this path instead of copying them.
 	 * @param newSegment
 	 * @return a tree path
 	 */
 	public TreePath createChildPath(Object newSegment) {
-		int segmentCount = getSegmentCount();
-		Object[] childSegments = new Object[segmentCount + 1];
-		if(segmentCount>0) {
-			System.arraycopy(segments, 0, childSegments, 0, segmentCount);
-		}
-		childSegments[segmentCount] = newSegment;
-		return new TreePath(childSegments);
+		return new TreePath(this, newSegment);
 	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2015 IBM Corporation and others.
+ * Copyright (c) 2004, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -87,6 +87,19 @@ public class TreeViewer extends AbstractTreeViewer {
 	 */
 	private TreeViewerRow cachedRow;
 
+	/**
+	 * Whether subclasses of tree viewers override the creation of single
+	 * items, which the creation of items in bulk would bypass.
+	 */
+	private static final ClassValue<Boolean> OVERRIDES_ITEM_CREATION = new ClassValue<Boolean>() {
+		@Override
+		protected Boolean computeValue(Class<?> type) {
+			return Boolean.valueOf(
+					overridesMethod(type, TreeViewer.class, "createTreeItem", Widget.class, Object.class, int.class) //$NON-NLS-1$
+							|| overridesMethod(type, TreeViewer.class, "newItem", Widget.class, int.class, int.class)); //$NON-NLS-1$
+		}
+	};
+
 	/**
 	 * true if we are inside a preservingSelection() call
 	 */
@@ -279,6 +292,41 @@ public class TreeViewer extends AbstractTreeViewer {
 		return item;
 	}
 
+	/**
+	 * Creates many items in bulk unless the tree is virtual or a subclass
+	 * overrides {@link #createTreeItem(Widget, Object, int)} or
+	 * {@link #newItem(Widget, int, int)}: the item count of the parent is set
+	 * once and the new items are filled in a single pass while the redraw of
+	 * the tree is suspended.
+	 */
+	@Override
+	protected void createTreeItems(Widget parent, Object[] elements, int from) {
+		if (elements.length - from < BULK_ADD_THRESHOLD || (tree.getStyle() & SWT.VIRTUAL) != 0
+				|| OVERRIDES_ITEM_CREATION.get(getClass()).booleanValue()) {
+			super.createTreeItems(parent, elements, from);
+			return;
+		}
+		TreeItem parentItem = parent instanceof TreeItem ? (TreeItem) parent : null;
+		int start = parentItem == null ? tree.getItemCount() : parentItem.getItemCount();
+		int count = start + elements.length - from;
+		tree.setRedraw(false);
+		try {
+			if (parentItem == null) {
+				tree.setItemCount(count);
+			} else {
+				parentItem.setItemCount(count);
+			}
+			for (int i = from; i < elements.length; i++) {
+				int index = start + i - from;
+				TreeItem item = parentItem == null ? tree.getItem(index) : parentItem.getItem(index);
+				updateItem(item, elements[i]);
+				updatePlus(item, elements[i]);
+			}
+		} finally {
+			tree.setRedraw(true);
+		}
+	}
+
 	@Override
 	protected void removeAll(Control widget) {
 		((Tree) widget).removeAll();
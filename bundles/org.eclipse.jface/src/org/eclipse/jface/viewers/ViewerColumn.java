@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2015 IBM Corporation and others.
+ * Copyright (c) 2006, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -93,6 +93,9 @@ public abstract class ViewerColumn {
 		}
 
 		this.labelProvider = labelProvider;
+		if (viewer != null) {
+			viewer.invalidateLabelCache();
+		}
 
 		if (registerListener) {
 			this.labelProvider.initialize(viewer, this);
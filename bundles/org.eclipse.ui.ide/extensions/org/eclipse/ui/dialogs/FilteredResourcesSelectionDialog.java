@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,27 +13,39 @@
  *******************************************************************************/
 package org.eclipse.ui.dialogs;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
 import java.io.IOException;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.core.resources.IContainer;
 import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IResourceDeltaVisitor;
 import org.eclipse.core.resources.IResourceProxy;
 import org.eclipse.core.resources.IResourceProxyVisitor;
 import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceRoot;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.ListenerList;
+import org.eclipse.core.runtime.Path;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jface.action.Action;
 import org.eclipse.jface.action.IAction;
 import org.eclipse.jface.action.IMenuManager;
@@ -56,6 +68,8 @@ import org.eclipse.swt.widgets.Shell;
 import org.eclipse.ui.IEditorInput;
 import org.eclipse.ui.IEditorPart;
 import org.eclipse.ui.IMemento;
+import org.eclipse.ui.IWorkbench;
+import org.eclipse.ui.IWorkbenchListener;
 import org.eclipse.ui.IWorkbenchPage;
 import org.eclipse.ui.IWorkbenchWindow;
 import org.eclipse.ui.IWorkingSet;
@@ -401,6 +415,29 @@ public class FilteredResourcesSelectionDialog extends
 		return new ResourceFilter(container, searchContainer, isDerived, typeMask);
 	}
 
+	@Override
+	protected ItemsIndex getItemsIndex() {
+		// the index holds the resources of the whole workspace, as collected
+		// by the fillContentProvider of this class
+		if (container.getType() != IResource.ROOT || overridesFillContentProvider(getClass())) {
+			return null;
+		}
+		return ResourceItemsIndex.getDefault();
+	}
+
+	private static boolean overridesFillContentProvider(Class<?> dialogClass) {
+		for (Class<?> c = dialogClass; c != FilteredResourcesSelectionDialog.class; c = c.getSuperclass()) {
+			try {
+				c.getDeclaredMethod("fillContentProvider", AbstractContentProvider.class, //$NON-NLS-1$
+						ItemsFilter.class, IProgressMonitor.class);
+				return true;
+			} catch (NoSuchMethodException e) {
+				// check the superclass
+			}
+		}
+		return false;
+	}
+
 	@Override
 	protected void applyFilter() {
 		super.applyFilter();
@@ -959,7 +996,8 @@ public class FilteredResourcesSelectionDialog extends
 			IResource resource = (IResource) item;
 			return (this.filterTypeMask & resource.getType()) != 0
 					&& matchName(resource)
-					&& (this.showDerived || !resource.isDerived());
+					// the index also holds the members of derived folders
+					&& (this.showDerived || !resource.isDerived(IResource.CHECK_ANCESTORS));
 		}
 
 		private boolean matchName(IResource resource) {
@@ -1102,4 +1140,263 @@ public class FilteredResourcesSelectionDialog extends
 
 	}
 
+	/**
+	 * <code>ResourceItemsIndex</code> holds the accessible resources of the
+	 * workspace for the dialogs that search the whole workspace. It is kept up
+	 * to date by resource change events and stored in the state location of
+	 * the IDE plug-in when the workbench shuts down, so that the next session
+	 * can use it right away. Every session collects the resources once more
+	 * in the background to pick up the changes made in between.
+	 */
+	private static class ResourceItemsIndex extends ItemsIndex implements IResourceChangeListener {
+
+		private static final String INDEX_FILE = "resourceIndex.dat"; //$NON-NLS-1$
+
+		private static ResourceItemsIndex instance;
+
+		private final Job indexJob;
+
+		/**
+		 * The resources changed while the index job collects the resources,
+		 * <code>null</code> if the job is not collecting.
+		 */
+		private Set<IResource> changedWhileIndexing;
+
+		static synchronized ResourceItemsIndex getDefault() {
+			if (instance == null) {
+				instance = new ResourceItemsIndex();
+				instance.start();
+			}
+			return instance;
+		}
+
+		private ResourceItemsIndex() {
+			indexJob = new Job(IDEWorkbenchMessages.OpenResourceDialog_indexJob) {
+				@Override
+				protected IStatus run(IProgressMonitor monitor) {
+					return index(monitor);
+				}
+			};
+			indexJob.setSystem(true);
+			indexJob.setPriority(Job.DECORATE);
+		}
+
+		private void start() {
+			final IWorkspace workspace = ResourcesPlugin.getWorkspace();
+			workspace.addResourceChangeListener(this, IResourceChangeEvent.POST_CHANGE);
+			PlatformUI.getWorkbench().addWorkbenchListener(new IWorkbenchListener() {
+				@Override
+				public boolean preShutdown(IWorkbench workbench, boolean forced) {
+					return true;
+				}
+
+				@Override
+				public void postShutdown(IWorkbench workbench) {
+					workspace.removeResourceChangeListener(ResourceItemsIndex.this);
+					indexJob.cancel();
+					if (isReady()) {
+						try {
+							save(getIndexFile());
+						} catch (IOException e) {
+							IDEWorkbenchPlugin.log("Could not store the resource index", e); //$NON-NLS-1$
+						}
+					}
+				}
+			});
+			indexJob.schedule();
+		}
+
+		private static File getIndexFile() {
+			return IDEWorkbenchPlugin.getDefault().getStateLocation().append(INDEX_FILE).toFile();
+		}
+
+		/**
+		 * Loads the stored index if there is no index yet, then collects the
+		 * resources of the workspace and replaces the index with them.
+		 */
+		private IStatus index(final IProgressMonitor monitor) {
+			if (!isReady()) {
+				try {
+					load(getIndexFile());
+				} catch (IOException e) {
+					IDEWorkbenchPlugin.log("Could not read the resource index", e); //$NON-NLS-1$
+				}
+			}
+
+			synchronized (this) {
+				changedWhileIndexing = new HashSet<>();
+			}
+			final List<IResource> resources = new ArrayList<>();
+			try {
+				ResourcesPlugin.getWorkspace().getRoot().accept(proxy -> {
+					if (monitor.isCanceled()) {
+						return false;
+					}
+					if (proxy.getType() == IResource.ROOT) {
+						return true;
+					}
+					IResource resource = proxy.requestResource();
+					// skip closed projects
+					if (!resource.isAccessible()) {
+						return false;
+					}
+					resources.add(resource);
+					return proxy.getType() != IResource.FILE;
+				}, IResource.NONE);
+			} catch (CoreException e) {
+				synchronized (this) {
+					changedWhileIndexing = null;
+				}
+				return e.getStatus();
+			}
+
+			synchronized (this) {
+				if (monitor.isCanceled()) {
+					changedWhileIndexing = null;
+					return Status.CANCEL_STATUS;
+				}
+				setItems(resources);
+				List<IPath> removedContainers = new ArrayList<>();
+				for (IResource resource : changedWhileIndexing) {
+					if (resource.isAccessible()) {
+						add(resource);
+					} else {
+						remove(resource);
+						if (resource.getType() != IResource.FILE) {
+							removedContainers.add(resource.getFullPath());
+						}
+					}
+				}
+				removeMembers(removedContainers);
+				changedWhileIndexing = null;
+			}
+			setReady(true);
+			return Status.OK_STATUS;
+		}
+
+		@Override
+		public void resourceChanged(IResourceChangeEvent event) {
+			IResourceDelta delta = event.getDelta();
+			if (delta == null) {
+				return;
+			}
+			DeltaVisitor visitor = new DeltaVisitor();
+			try {
+				delta.accept(visitor);
+			} catch (CoreException e) {
+				IDEWorkbenchPlugin.log("Could not update the resource index", e.getStatus()); //$NON-NLS-1$
+				return;
+			}
+			synchronized (this) {
+				for (IResource resource : visitor.added) {
+					add(resource);
+				}
+				for (IResource resource : visitor.removed) {
+					remove(resource);
+				}
+				removeMembers(visitor.removedContainers);
+				if (changedWhileIndexing != null) {
+					changedWhileIndexing.addAll(visitor.added);
+					changedWhileIndexing.addAll(visitor.removed);
+				}
+			}
+			if (visitor.projectOpened) {
+				// reschedules a running job once it is done
+				indexJob.schedule();
+			}
+		}
+
+		/**
+		 * Removes the members of the given containers.
+		 */
+		private void removeMembers(final List<IPath> containers) {
+			if (containers.isEmpty()) {
+				return;
+			}
+			removeIf(item -> {
+				IPath path = ((IResource) item).getFullPath();
+				for (IPath container : containers) {
+					if (container.isPrefixOf(path)) {
+						return true;
+					}
+				}
+				return false;
+			});
+		}
+
+		@Override
+		protected Object restoreItem(DataInput in) throws IOException {
+			int type = in.readByte();
+			IPath path = Path.fromPortableString(in.readUTF());
+			IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
+			IResource resource;
+			switch (type) {
+			case IResource.FILE:
+				resource = root.getFile(path);
+				break;
+			case IResource.FOLDER:
+				resource = root.getFolder(path);
+				break;
+			case IResource.PROJECT:
+				resource = root.getProject(path.lastSegment());
+				break;
+			default:
+				return null;
+			}
+			return resource.isAccessible() ? resource : null;
+		}
+
+		@Override
+		protected void storeItem(Object item, DataOutput out) throws IOException {
+			IResource resource = (IResource) item;
+			out.writeByte(resource.getType());
+			out.writeUTF(resource.getFullPath().toPortableString());
+		}
+
+		/**
+		 * Collects the resources a resource delta adds or removes.
+		 */
+		private static class DeltaVisitor implements IResourceDeltaVisitor {
+
+			List<IResource> added = new ArrayList<>();
+
+			List<IResource> removed = new ArrayList<>();
+
+			List<IPath> removedContainers = new ArrayList<>();
+
+			boolean projectOpened;
+
+			@Override
+			public boolean visit(IResourceDelta delta) {
+				IResource resource = delta.getResource();
+				switch (delta.getKind()) {
+				case IResourceDelta.ADDED:
+					added.add(resource);
+					return true;
+				case IResourceDelta.REMOVED:
+					removed(resource);
+					return false;
+				default:
+					if (resource.getType() == IResource.PROJECT
+							&& (delta.getFlags() & IResourceDelta.OPEN) != 0) {
+						if (resource.isAccessible()) {
+							projectOpened = true;
+						} else {
+							removed(resource);
+						}
+						return false;
+					}
+					return true;
+				}
+			}
+
+			private void removed(IResource resource) {
+				removed.add(resource);
+				if (resource.getType() != IResource.FILE) {
+					removedContainers.add(resource.getFullPath());
+				}
+			}
+		}
+	}
+
 }
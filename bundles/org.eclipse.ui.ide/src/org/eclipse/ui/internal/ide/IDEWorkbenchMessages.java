@@ -786,6 +786,7 @@ public class IDEWorkbenchMessages extends NLS {
 	public static String OpenResourceDialog_showInButton_text;
 
 	public static String OpenResourceDialog_showInMenu_label;
+	public static String OpenResourceDialog_indexJob;
 
 	public static String NewFolderDialog_title;
 	public static String NewFolderDialog_nameLabel;
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -156,6 +156,8 @@ public class OpenResourceDialog extends FilteredResourcesSelectionDialog {
 			int typesMask) {
 		super(parentShell, true, container, typesMask);
 		setTitle(IDEWorkbenchMessages.OpenResourceDialog_title);
+		// the resource filter only reads the workspace tree
+		setParallelMatching(true);
 	}
 
 	@Override
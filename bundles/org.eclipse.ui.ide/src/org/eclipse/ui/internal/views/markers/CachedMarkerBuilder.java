@@ -298,6 +298,7 @@ public class CachedMarkerBuilder {
 	 */
 	void scheduleUpdate() {
 		if (active) {
+			requestFullRebuild();
 			scheduler.scheduleUpdate(MarkerUpdateScheduler.SHORT_DELAY,true);
 		}
 	}
@@ -308,6 +309,7 @@ public class CachedMarkerBuilder {
 	 */
 	void scheduleUpdate(long delay) {
 		if (active) {
+			requestFullRebuild();
 			scheduler.scheduleUpdate(delay,true);
 		}
 	}
@@ -451,11 +453,12 @@ public class CachedMarkerBuilder {
 				// ensure cancellation before calling the method
 				// updateJob.cancel();
 			} else {
-				/*
-				 * updateJob = isIncremental() ? new IncrementUpdateJob(this):
-				 * new MarkerUpdateJob(this);
-				 */
-				updateJob = new MarkerUpdateJob(this);
+				if (isIncremental()) {
+					incrementJob = new IncrementUpdateJob(this);
+					updateJob = incrementJob;
+				} else {
+					updateJob = new MarkerUpdateJob(this);
+				}
 				updateJob.setPriority(Job.LONG);
 				updateJob.setSystem(true);
 			}
@@ -597,20 +600,28 @@ public class CachedMarkerBuilder {
 	}
 
 ///////	<Incremental update code>///////
-		private IncrementUpdateJob incrementJob;
+	private IncrementUpdateJob incrementJob;
+
 	/**
-	 * Checks whether the builder should perform incrementally Note : Incremental
-	 * updating method is NOT used and tested yet but left out for further
-	 * investigation(*).
+	 * Checks whether the builder should apply marker changes incrementally
+	 * rather than gathering all the markers again on every change.
 	 *
 	 * @return Returns true if we should collect markers incrementally.
 	 */
 	boolean isIncremental() {
-		/*
-		 * We do not update incrementally. We have
-		 * code for further investigation(*) for this anyway.
-		 */
-		return false;
+		return true;
+	}
+
+	/**
+	 * Gather all the markers again on the next update instead of applying
+	 * marker changes, as needed when filters, scope or grouping change.
+	 */
+	void requestFullRebuild() {
+		synchronized (getUpdateScheduler().getSchedulingLock()) {
+			if (incrementJob != null) {
+				incrementJob.requestFullRebuild();
+			}
+		}
 	}
 
 	/**
@@ -640,13 +651,12 @@ public class CachedMarkerBuilder {
 	 */
 	void incrementalUpdate(MarkerUpdate update) {
 		synchronized (getUpdateScheduler().getSchedulingLock()) {
-			if (incrementJob == null) {
-				scheduleUpdateJob(MarkerUpdateScheduler.SHORT_DELAY, true);
+			// without a job, no markers were gathered yet, the first
+			// update gathers them all
+			if (incrementJob != null) {
+				incrementJob.addUpdate(update);
 			}
 		}
-		if (incrementJob != null) {
-			incrementJob.addUpdate(update);
-		}
 	}
 ///////	</Incremental update code>///////
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015 IBM Corporation and others.
+ * Copyright (c) 2015, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,78 +11,90 @@
 
 package org.eclipse.ui.internal.views.markers;
 
-import java.util.Collection;
-import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
 
+import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.ui.views.markers.internal.MarkerMessages;
 
 /**
- * The job that performs incremental update. Once the processing is complete it
- * schedules an UI update. If it'll be possible and beneficial switch to
- * incremental updatation, this has been left out for further investigation(*).
- * only, and not used currently.
+ * The job that performs incremental updates. Marker changes reported by the
+ * {@link MarkersChangeListener} are queued and applied to the existing
+ * {@link Markers}; all the markers are only gathered again when a full
+ * rebuild is requested, e.g. because filters or the scope changed, or when
+ * there are so many changes that gathering is cheaper. Once the processing
+ * is complete it schedules an UI update.
  *
  * @since 3.6
  *
  */
 class IncrementUpdateJob extends MarkerUpdateJob {
 
-	private LinkedList<MarkerEntry> incrementEntryList;
-	private LinkedList<MarkerUpdate> updateQueue;
+	/**
+	 * The minimum number of changed markers for which all markers are
+	 * gathered again instead of applying the changes.
+	 */
+	private static final int MIN_REBUILD_THRESHOLD = 1000;
+
+	private final LinkedList<MarkerUpdate> updateQueue = new LinkedList<>();
+
+	// guarded by updateQueue
+	private boolean fullRebuild = true;
 
 	/**
 	 * @param builder
 	 */
 	public IncrementUpdateJob(CachedMarkerBuilder builder) {
 		super(builder);
-		incrementEntryList = new LinkedList<>();
 	}
 
 	@Override
 	protected IStatus run(IProgressMonitor monitor) {
 		monitor.beginTask(MarkerMessages.MarkerView_processUpdates, IProgressMonitor.UNKNOWN);
-		boolean clean= isClean();
-		if (clean) {
-			clearEntries();
-		}
-		Collection<MarkerEntry> markerEntries = incrementalEntries();
-		if (clean) {
+		List<MarkerUpdate> updates;
+		boolean rebuild;
+		synchronized (updateQueue) {
+			updates = new ArrayList<>(updateQueue);
+			updateQueue.clear();
+			rebuild = fullRebuild;
+			fullRebuild = false;
+		}
+		Set<IMarker> changedMarkers = null;
+		if (!rebuild) {
+			changedMarkers = getChangedMarkers(updates);
+			rebuild = changedMarkers.size() > Math.max(MIN_REBUILD_THRESHOLD,
+					builder.getMarkers().getMarkerEntryArray().length / 2);
+		}
+
+		if (rebuild) {
 			/*
-			 * Unfortunately we cannot lock marker operations between gathering
-			 * and updation. We have this code in place only for further
-			 * investigation
+			 * The queued changes were dropped above, so changes reported
+			 * while gathering are applied by the next update. Applying a
+			 * change twice is harmless.
 			 */
-			clean = !clean(markerEntries, monitor);
-			LinkedList<MarkerUpdate> queue = getUpdatesQueue();
-			synchronized (queue) {
-				queue.clear();
-			}
-		}
-		if (monitor.isCanceled()) {
-			return Status.CANCEL_STATUS;
-		}
-		if (!clean) {
-			builder.registerTypesToListener();
-			if (!processUpdates(monitor)) {
+			buildMarkers(monitor);
+			if (monitor.isCanceled()) {
+				requestFullRebuild();
 				return Status.CANCEL_STATUS;
 			}
+			return Status.OK_STATUS;
 		}
-		if (!processMarkerEntries(markerEntries, monitor)) {
-			return Status.CANCEL_STATUS;
-		}
-		if (monitor.isCanceled()) {
-			return Status.CANCEL_STATUS;
-		}
-		// update with sorted entries
-		updateIncrementalList(markerEntries);
 
-		if (monitor.isCanceled()) {
+		if (changedMarkers.isEmpty()) {
+			builder.setBuilding(false);
+			return Status.OK_STATUS;
+		}
+		if (!builder.getMarkers().updateWithChanges(changedMarkers, monitor) || monitor.isCanceled()) {
+			requeue(updates);
 			return Status.CANCEL_STATUS;
 		}
+		builder.updateChangeFlags(getChangeFlags(updates));
 		builder.getUpdateScheduler().scheduleUIUpdate(MarkerUpdateScheduler.SHORT_DELAY);
 		if (monitor.isCanceled()) {
 			return Status.CANCEL_STATUS;
@@ -93,183 +105,70 @@ class IncrementUpdateJob extends MarkerUpdateJob {
 	}
 
 	/**
-	 * Update the list
-	 *
-	 * @param markerEntries
-	 */
-	private boolean updateIncrementalList(Collection<MarkerEntry> markerEntries) {
-		markerEntries.clear();
-		Markers clone = builder.getMarkers();
-		synchronized (clone) {
-			clone = clone.getClone();
-		}
-		MarkerEntry[] entries = clone.getMarkerEntryArray();
-		for (int i = 0; i < entries.length; i++) {
-			markerEntries.add(entries[i]);
-		}
-		return true;
-	}
-
-	/**
-	 * Process the incremental updates
+	 * Return the markers affected by the updates.
 	 *
-	 * @param monitor
+	 * @param updates
 	 */
-	private boolean processUpdates(IProgressMonitor monitor) {
-		Collection<MarkerEntry> markerEntries = incrementalEntries();
-		int addCount = 0, removedCount = 0, changedCount = 0, size = 0, newSize = 0;
-		LinkedList<MarkerUpdate> queue = getUpdatesQueue();
-		MarkerUpdate next = null;
-		do {
-			synchronized (queue) {
-				if (!queue.isEmpty()) {
-					next = queue.removeFirst();
-				} else {
-					next = null;
-				}
+	private Set<IMarker> getChangedMarkers(List<MarkerUpdate> updates) {
+		Set<IMarker> markers = new HashSet<>();
+		for (MarkerUpdate update : updates) {
+			for (MarkerEntry entry : update.removed) {
+				markers.add(entry.getMarker());
 			}
-			if (monitor.isCanceled() || next == null) {
-				break;
+			for (MarkerEntry entry : update.added) {
+				markers.add(entry.getMarker());
 			}
-			/**
-			 * The following performs incremental updation of the markers that
-			 * were gathered intially, and keeps them synched at any point with
-			 * the markers of interest in Workspace
-			 */
-			// unfortunately marker operations cannot be locked
-			// so locking between gathering of markers and
-			// marker deltas is not possible
-			size = markerEntries.size();
-			handleRemovedEntries(markerEntries, next.removed, monitor);
-			newSize = markerEntries.size();
-			removedCount += size - newSize;
-
-			handleChangedEntries(markerEntries, next.changed, monitor);
-			changedCount += next.changed.size();
-
-			size = newSize;
-			handleAddedEntries(markerEntries, next.added, monitor);
-			newSize = markerEntries.size();
-			removedCount += newSize - size;
-		} while (next != null);
-		boolean[] changeFlags = new boolean[] { addCount > 0, removedCount > 0,
-				changedCount > 0 };
-		for (int i = 0; i < changeFlags.length; i++) {
-			if (changeFlags[i]) {
-				builder.updateChangeFlags(changeFlags);
-				return true;
+			for (MarkerEntry entry : update.changed) {
+				markers.add(entry.getMarker());
 			}
 		}
-		return false;
+		return markers;
 	}
 
 	/**
-	 * @param added
-	 * @param monitor
+	 * @param updates
+	 * @return the {added,removed,changed} flags for the updates
 	 */
-	private void handleAddedEntries(Collection<MarkerEntry> markerEntries, Collection<MarkerEntry> added,
-			IProgressMonitor monitor) {
-		MarkerContentGenerator generator = builder.getGenerator();
-		Iterator<MarkerEntry> iterator = added.iterator();
-		while (iterator.hasNext()) {
-			MarkerEntry entry = iterator.next();
-			if (generator.select(entry)) {
-				markerEntries.add(entry);
-			}
-		}
+	private boolean[] getChangeFlags(List<MarkerUpdate> updates) {
+		boolean[] changeFlags = new boolean[] { false, false, false };
+		for (MarkerUpdate update : updates) {
+			changeFlags[0] |= !update.added.isEmpty();
+			changeFlags[1] |= !update.removed.isEmpty();
+			changeFlags[2] |= !update.changed.isEmpty();
+		}
+		return changeFlags;
 	}
 
 	/**
-	 * @param changed
-	 * @param monitor
+	 * Put back updates that could not be applied, ahead of the ones that came
+	 * in meanwhile.
+	 *
+	 * @param updates
 	 */
-	private void handleChangedEntries(Collection<MarkerEntry> markerEntries,
-			Collection<MarkerEntry> changed, IProgressMonitor monitor) {
-		MarkerContentGenerator generator = builder.getGenerator();
-		Iterator<MarkerEntry> iterator = changed.iterator();
-		while (iterator.hasNext()) {
-			MarkerEntry entry = iterator.next();
-			Iterator<MarkerEntry> iterator2 = markerEntries.iterator();
-			while (iterator2.hasNext()) {
-				MarkerEntry oldEntry = iterator2.next();
-				if (oldEntry.getMarker().equals(entry.getMarker())) {
-					iterator2.remove();
-				}
-			}
-			if (!generator.select(entry)) {
-				iterator.remove();
+	private void requeue(List<MarkerUpdate> updates) {
+		synchronized (updateQueue) {
+			if (!fullRebuild) {
+				updateQueue.addAll(0, updates);
 			}
 		}
-		markerEntries.addAll(changed);
 	}
 
 	/**
-	 * @param removed
-	 * @param monitor
+	 * Request that all markers are gathered again on the next run, instead of
+	 * applying the queued updates.
 	 */
-	private void handleRemovedEntries(Collection<MarkerEntry> markerEntries,
-			Collection<MarkerEntry> removed, IProgressMonitor monitor) {
-		boolean found = false;
-		Iterator<MarkerEntry> iterator = markerEntries.iterator();
-		while (iterator.hasNext()) {
-			MarkerEntry entry = iterator.next();
-			found = entry.getStaleState();
-			if (found) {
-				iterator.remove();
-			}
-			if (removed.isEmpty()) {
-				continue;
-			}
-			Iterator<MarkerEntry> iterator2 = removed.iterator();
-			while (iterator2.hasNext()) {
-				MarkerEntry stale = iterator2.next();
-				if (stale.getMarker().equals(entry.getMarker())) {
-					iterator2.remove();
-					if (!found) {
-						iterator.remove();
-					}
-					break;
-				}
-			}
-		}
-		if (removed.isEmpty()) {
-			// TODO: do we check for residuals?
-			return;
-		}
-		// TODO: do we check for residuals?
-		iterator = markerEntries.iterator();
-		while (iterator.hasNext()) {
-			MarkerEntry entry = iterator.next();
-			if (entry.getMarker() != null && !entry.getMarker().exists()) {
-				iterator.remove();
-			}
+	void requestFullRebuild() {
+		synchronized (updateQueue) {
+			fullRebuild = true;
+			updateQueue.clear();
 		}
 	}
 
 	/**
-	 * Clean
+	 * Drop the queued updates.
 	 */
 	void clearEntries() {
-		incrementEntryList = new LinkedList<>();
-	}
-
-	/**
-	 * @return Returns the incrementEntryies.
-	 */
-	Collection<MarkerEntry> incrementalEntries() {
-		return incrementEntryList;
-	}
-
-	/**
-	 * @return the updateQueue that holds the updates and maintains ordering
-	 */
-	LinkedList<MarkerUpdate> getUpdatesQueue() {
-		synchronized (builder.MARKER_INCREMENTAL_UPDATE_FAMILY) {
-			if (updateQueue == null) {
-				updateQueue = new LinkedList<>();
-			}
-			return updateQueue;
-		}
+		requestFullRebuild();
 	}
 
 	/**
@@ -278,9 +177,10 @@ class IncrementUpdateJob extends MarkerUpdateJob {
 	 * @param update
 	 */
 	void addUpdate(MarkerUpdate update) {
-		LinkedList<MarkerUpdate> updateList = getUpdatesQueue();
-		synchronized (updateList) {
-			updateList.addLast(update);
+		synchronized (updateQueue) {
+			if (!fullRebuild) {
+				updateQueue.addLast(update);
+			}
 		}
 	}
 
@@ -291,4 +191,4 @@ class IncrementUpdateJob extends MarkerUpdateJob {
 		}
 		return super.belongsTo(family);
 	}
-}
\ No newline at end of file
+}
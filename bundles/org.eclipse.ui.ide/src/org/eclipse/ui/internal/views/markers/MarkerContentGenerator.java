@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2015 IBM Corporation and others.
+ * Copyright (c) 2007, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -23,10 +23,13 @@ import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspaceRoot;
 import org.eclipse.core.resources.mapping.ResourceMapping;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IConfigurationElement;
@@ -1022,7 +1025,11 @@ public class MarkerContentGenerator {
 	}
 
 	/**
-	 * Gather markers into result.
+	 * Gather markers into result. The markers of each type and resource, or
+	 * project when the whole workspace is shown, are gathered and filtered by
+	 * their own task; the entries are added to result in the order of the
+	 * tasks.
+	 *
 	 * @param typeIds
 	 * @param includeSubTypes
 	 * @param result
@@ -1032,87 +1039,177 @@ public class MarkerContentGenerator {
 			Collection<MarkerEntry> result, IProgressMonitor monitor) {
 		try {
 			Collection<IResource> resources = getResourcesForBuild();
+			String[] gatheredTypes = typeIds;
 			if (includeSubTypes) {
 				// Optimize and calculate super types
-				String[] superTypes = MarkerResourceUtil.getMutuallyExclusiveSupersIds(typeIds);
+				gatheredTypes = MarkerResourceUtil.getMutuallyExclusiveSupersIds(typeIds);
 				if (monitor.isCanceled()) {
 					return false;
 				}
-				for (int i = 0; i < superTypes.length; i++) {
-					boolean success = internalGatherMarkers(resources, superTypes[i], includeSubTypes, result, monitor);
-					if (!success || monitor.isCanceled()) {
-						return false;
+			}
+			IResource[] selected = getSelectedResources();
+			Collection<MarkerFieldFilterGroup> enabled = getEnabledFilters();
+			boolean filtersAreANDed = andFilters();
+			boolean parallel = MarkerWorkerPool.getParallelism() > 1;
+			for (MarkerFieldFilterGroup group : enabled) {
+				parallel &= group.prepareForSelection();
+			}
+
+			List<Callable<List<MarkerEntry>>> tasks = new ArrayList<>();
+			for (String typeId : gatheredTypes) {
+				for (IResource resource : resources) {
+					if (parallel && resource.getType() == IResource.ROOT) {
+						// the markers of the root itself, then one task per project
+						tasks.add(() -> internalGatherMarkers(resource, IResource.DEPTH_ZERO, typeId, includeSubTypes,
+								selected, enabled, filtersAreANDed, monitor));
+						for (IProject project : ((IWorkspaceRoot) resource).getProjects()) {
+							tasks.add(() -> internalGatherMarkers(project, IResource.DEPTH_INFINITE, typeId,
+									includeSubTypes, selected, enabled, filtersAreANDed, monitor));
+						}
+					} else {
+						tasks.add(() -> internalGatherMarkers(resource, IResource.DEPTH_INFINITE, typeId,
+								includeSubTypes, selected, enabled, filtersAreANDed, monitor));
 					}
 				}
-			} else {
-				for (int i = 0; i < typeIds.length; i++) {
-					boolean success = internalGatherMarkers(resources, typeIds[i], includeSubTypes, result, monitor);
-					if (!success || monitor.isCanceled()) {
-						return false;
-					}
+			}
+
+			List<List<MarkerEntry>> gathered = MarkerWorkerPool.invokeAll(tasks, parallel, monitor);
+			if (gathered == null) {
+				return false;
+			}
+			for (List<MarkerEntry> entries : gathered) {
+				if (entries == null) {
+					// cancelled
+					return false;
 				}
+				result.addAll(entries);
 			}
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			MarkerSupportInternalUtilities.showViewError(cause instanceof Exception ? (Exception) cause : e);
+			return false;
 		} catch (Exception e) {
 			//do not propagate but do show the error
 			MarkerSupportInternalUtilities.showViewError(e);
 			return false;
-		} finally {
 		}
-		return true;
+		return !monitor.isCanceled();
 	}
 
 	/**
 	 * A helper to the
 	 * {@link #gatherMarkers(String[], boolean, Collection, IProgressMonitor)}
+	 * that gathers the selected markers of one resource. May run in any
+	 * thread.
 	 *
-	 * @param resources
+	 * @param resource
+	 * @param depth
 	 * @param typeId
 	 * @param includeSubTypes
-	 * @param result
+	 * @param selected
+	 * @param enabled
+	 * @param filtersAreANDed
 	 * @param monitor
+	 * @return the entries or <code>null</code> if cancelled
 	 */
-	private boolean internalGatherMarkers(Collection<IResource> resources, String typeId,
-			boolean includeSubTypes, Collection<MarkerEntry> result, IProgressMonitor monitor) {
+	private static List<MarkerEntry> internalGatherMarkers(IResource resource, int depth, String typeId,
+			boolean includeSubTypes, IResource[] selected, Collection<MarkerFieldFilterGroup> enabled,
+			boolean filtersAreANDed, IProgressMonitor monitor) {
 		if (monitor.isCanceled()) {
-			return false;
+			return null;
+		}
+		if (!resource.isAccessible()) {
+			return Collections.emptyList();
+		}
+		IMarker[] markers;
+		try {
+			markers = resource.findMarkers(typeId, includeSubTypes, depth);
+		} catch (CoreException e) {
+			MarkerSupportInternalUtilities.logViewError(e);
+			return Collections.emptyList();
+		}
+		if (monitor.isCanceled()) {
+			return null;
+		}
+		List<MarkerEntry> result = new ArrayList<>();
+		// one snapshot per task, snapshots are not thread safe
+		MarkerSnapshot snapshot = new MarkerSnapshot();
+		MarkerEntry entry = null;
+		int lenght = markers.length;
+		for (int i = 0; i < lenght; i++) {
+			entry = createEntry(markers[i], snapshot);
+			if (entry == null) {
+				continue;
+			}
+			if (select(entry, selected, enabled, filtersAreANDed)) {
+				result.add(entry);
+			} else {
+				snapshot.removeLast();
+			}
+			entry.clearCache();
+			if (i % 500 == 0) {
+				if (monitor.isCanceled()) {
+					return null;
+				}
+			}
 		}
+		snapshot.trimToSize();
+		return result;
+	}
+
+	/**
+	 * Create the entries for the given markers that still exist and match the
+	 * enabled filters. Used to apply marker changes without gathering all the
+	 * markers again.
+	 *
+	 * @param markers
+	 *            the markers to select from
+	 * @param monitor
+	 * @return the selected entries or <code>null</code> if cancelled
+	 */
+	List<MarkerEntry> selectMarkerEntries(Collection<IMarker> markers, IProgressMonitor monitor) {
 		IResource[] selected = getSelectedResources();
 		Collection<MarkerFieldFilterGroup> enabled = getEnabledFilters();
 		boolean filtersAreANDed = andFilters();
-		Iterator<IResource> iterator = resources.iterator();
-		while (iterator.hasNext()) {
-			IMarker[] markers = null;
-			try {
-				IResource resource = iterator.next();
-				if (!resource.isAccessible()) {
-					continue;
-				}
-				markers = resource.findMarkers(typeId, includeSubTypes, IResource.DEPTH_INFINITE);
-			} catch (CoreException e) {
-				MarkerSupportInternalUtilities.logViewError(e);
+		List<MarkerEntry> result = new ArrayList<>();
+		MarkerSnapshot snapshot = new MarkerSnapshot();
+		int i = 0;
+		for (IMarker marker : markers) {
+			if (i++ % 500 == 0 && monitor.isCanceled()) {
+				return null;
 			}
-			if (markers == null) {
+			MarkerEntry entry = createEntry(marker, snapshot);
+			if (entry == null) {
 				continue;
 			}
-			if (monitor.isCanceled()) {
-				return false;
-			}
-			MarkerEntry entry = null;
-			int lenght = markers.length;
-			for (int i = 0; i < lenght; i++) {
-				entry = new MarkerEntry(markers[i]);
-				if (select(entry, selected, enabled, filtersAreANDed)) {
-					result.add(entry);
-				}
-				entry.clearCache();
-				if (i % 500 == 0) {
-					if (monitor.isCanceled()) {
-						return false;
-					}
-				}
+			if (select(entry, selected, enabled, filtersAreANDed)) {
+				result.add(entry);
+			} else {
+				snapshot.removeLast();
 			}
+			entry.clearCache();
+		}
+		snapshot.trimToSize();
+		return result;
+	}
+
+	/**
+	 * Create the entry for the marker, reading its attributes into the last
+	 * row of the snapshot so that filtering, sorting and grouping do not have
+	 * to ask the marker for them one by one.
+	 *
+	 * @param marker
+	 * @param snapshot
+	 * @return the entry or <code>null</code> if the marker does not exist
+	 *         anymore
+	 */
+	private static MarkerEntry createEntry(IMarker marker, MarkerSnapshot snapshot) {
+		try {
+			return new MarkerEntry(marker, snapshot, snapshot.add(marker));
+		} catch (CoreException e) {
+			// deleted meanwhile
+			return null;
 		}
-		return true;
 	}
 
 	void dispose() {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2015 IBM Corporation and others.
+ * Copyright (c) 2007, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -75,6 +75,13 @@ class MarkerEntry extends MarkerSupportItem implements IAdaptable {
 	 */
 	private IMarker marker;
 
+	/**
+	 * The snapshot holding the attributes of the marker at {@link #row}, or
+	 * <code>null</code> if they are read from the marker.
+	 */
+	private MarkerSnapshot snapshot;
+	private int row;
+
 	/**
 	 * Create a new instance of the receiver.
 	 *
@@ -85,6 +92,21 @@ class MarkerEntry extends MarkerSupportItem implements IAdaptable {
 		stale = false;
 	}
 
+	/**
+	 * Create a new instance of the receiver whose attributes were read into
+	 * the snapshot.
+	 *
+	 * @param marker
+	 * @param snapshot
+	 * @param row
+	 *            the row of the marker in the snapshot
+	 */
+	MarkerEntry(IMarker marker, MarkerSnapshot snapshot, int row) {
+		this(marker);
+		this.snapshot = snapshot;
+		this.row = row;
+	}
+
 	@Override
 	public <T> T getAdapter(Class<T> adapter) {
 		if (adapter.equals(IMarker.class)) {
@@ -104,6 +126,17 @@ class MarkerEntry extends MarkerSupportItem implements IAdaptable {
 
 	@Override
 	public int getAttributeValue(String attribute, int defaultValue) {
+		if (snapshot != null) {
+			int value = MarkerSnapshot.NO_VALUE;
+			if (IMarker.SEVERITY.equals(attribute)) {
+				value = snapshot.getSeverity(row);
+			} else if (IMarker.LINE_NUMBER.equals(attribute)) {
+				value = snapshot.getLineNumber(row);
+			}
+			if (value != MarkerSnapshot.NO_VALUE) {
+				return value;
+			}
+		}
 		Object value = getAttributeValue(attribute);
 		if (value == null) {
 			return defaultValue;
@@ -119,6 +152,9 @@ class MarkerEntry extends MarkerSupportItem implements IAdaptable {
 	 * @return Object or <code>null</code>
 	 */
 	Object getAttributeValue(String attribute) {
+		if (snapshot != null && MarkerSnapshot.holds(attribute)) {
+			return snapshot.getValue(row, attribute);
+		}
 		Object value = getCache().get(attribute);
 		if(value == null) {
 			if(stale){
@@ -199,6 +235,9 @@ class MarkerEntry extends MarkerSupportItem implements IAdaptable {
 
 	@Override
 	long getCreationTime() {
+		if (snapshot != null) {
+			return snapshot.getCreationTime(row);
+		}
 		if(stale){
 			return -1;
 		}
@@ -223,7 +262,8 @@ class MarkerEntry extends MarkerSupportItem implements IAdaptable {
 
 	@Override
 	public String getLocation() {
-		if(stale||checkIfMarkerStale()){
+		// the snapshot has the attributes even if the marker is gone
+		if (snapshot == null && (stale || checkIfMarkerStale())) {
 			return MarkerSupportInternalUtilities.UNKNOWN_ATRRIBTE_VALUE_STRING;
 		}
 		if (getCache().containsKey(LOCATION_STRING)) {
@@ -263,6 +303,9 @@ class MarkerEntry extends MarkerSupportItem implements IAdaptable {
 
 	@Override
 	String getMarkerTypeName() {
+		if (snapshot != null) {
+			return MarkerTypesModel.getInstance().getType(snapshot.getType(row)).getLabel();
+		}
 		if(stale){
 			return NLS.bind(MarkerMessages.FieldMessage_WrongType, marker.toString());
 		}
@@ -276,6 +319,9 @@ class MarkerEntry extends MarkerSupportItem implements IAdaptable {
 	}
 
 	String getMarkerTypeId() {
+		if (snapshot != null) {
+			return snapshot.getType(row);
+		}
 		if(stale){
 			return NLS.bind(MarkerMessages.FieldMessage_WrongType, marker.toString());
 		}
@@ -295,6 +341,9 @@ class MarkerEntry extends MarkerSupportItem implements IAdaptable {
 
 	@Override
 	public String getPath() {
+		if (snapshot != null) {
+			return snapshot.getPath(row);
+		}
 		String folder = getAttributeValue(MarkerViewUtil.PATH_ATTRIBUTE, null);
 		if (folder != null) {
 			return folder;
@@ -337,6 +386,7 @@ class MarkerEntry extends MarkerSupportItem implements IAdaptable {
 		this.marker = marker;
 		// reset stale
 		stale = false;
+		snapshot = null;
 		clearCache();
 	}
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2015 IBM Corporation and others.
+ * Copyright (c) 2007, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -687,6 +687,28 @@ class MarkerFieldFilterGroup {
 		}
 	}
 
+	/**
+	 * Compute what the receiver computes lazily on the first selection, so
+	 * that entries can then be selected from several threads.
+	 *
+	 * @return <code>true</code> if the receiver can select entries from
+	 *         several threads, i.e. if all its field filters are defined by
+	 *         this plug-in; contributed filters are not required to be thread
+	 *         safe
+	 */
+	boolean prepareForSelection() {
+		MarkerFieldFilter[] filters = getFieldFilters();
+		if (wSetResources == null && scope == ON_WORKING_SET) {
+			computeWorkingSetResources();
+		}
+		for (int i = 0; i < filters.length; i++) {
+			if (filters[i].getClass().getClassLoader() != MarkerFieldFilterGroup.class.getClassLoader()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	public boolean selectByFilters(MarkerEntry entry) {
 		return select(entry);
 	}
@@ -0,0 +1,208 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.ui.internal.views.markers;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.ui.views.markers.MarkerViewUtil;
+
+/**
+ * The MarkerSnapshot holds the marker attributes the marker views filter,
+ * sort, group and label by, for all the markers of one gathering. The values
+ * are kept column by column in primitive arrays where possible, and the
+ * strings that repeat between markers (types, locations and paths) are
+ * shared. A {@link MarkerEntry} refers to its row so that it does not have to
+ * ask its {@link IMarker} for these attributes, which would lock the
+ * workspace for each call.
+ * <p>
+ * Rows are only added by the job gathering the markers; once the entries are
+ * handed over to the view the snapshot is read only.
+ * </p>
+ */
+class MarkerSnapshot {
+
+	/**
+	 * The value of an int column for a marker that does not have the
+	 * attribute.
+	 */
+	static final int NO_VALUE = Integer.MIN_VALUE;
+
+	private static final String[] ATTRIBUTES = { IMarker.SEVERITY, IMarker.MESSAGE, IMarker.LOCATION,
+			IMarker.LINE_NUMBER, MarkerViewUtil.PATH_ATTRIBUTE };
+
+	private static final int INITIAL_CAPACITY = 64;
+
+	private int size;
+
+	private String[] types = new String[INITIAL_CAPACITY];
+	private int[] severities = new int[INITIAL_CAPACITY];
+	private String[] messages = new String[INITIAL_CAPACITY];
+	private String[] locations = new String[INITIAL_CAPACITY];
+	private int[] lineNumbers = new int[INITIAL_CAPACITY];
+	private String[] paths = new String[INITIAL_CAPACITY];
+	private long[] creationTimes = new long[INITIAL_CAPACITY];
+
+	private Map<String, String> sharedStrings = new HashMap<>();
+
+	/**
+	 * Return whether the attribute is held by snapshots. The path is not, as
+	 * its column holds the path shown rather than the attribute value; see
+	 * {@link #getPath(int)}.
+	 *
+	 * @param attribute
+	 * @return boolean
+	 */
+	static boolean holds(String attribute) {
+		return IMarker.SEVERITY.equals(attribute) || IMarker.MESSAGE.equals(attribute)
+				|| IMarker.LOCATION.equals(attribute) || IMarker.LINE_NUMBER.equals(attribute);
+	}
+
+	/**
+	 * Add a row with the attributes of the marker.
+	 *
+	 * @param marker
+	 * @return the row of the marker
+	 * @throws CoreException
+	 *             if the marker does not exist anymore
+	 */
+	int add(IMarker marker) throws CoreException {
+		Object[] values = marker.getAttributes(ATTRIBUTES);
+		String type = marker.getType();
+		long creationTime = marker.getCreationTime();
+
+		if (size == types.length) {
+			grow(size * 2);
+		}
+		int row = size++;
+		types[row] = share(type);
+		severities[row] = values[0] instanceof Integer ? ((Integer) values[0]).intValue() : NO_VALUE;
+		messages[row] = values[1] == null ? null : values[1].toString();
+		locations[row] = values[2] == null ? null : share(values[2].toString());
+		lineNumbers[row] = values[3] instanceof Integer ? ((Integer) values[3]).intValue() : NO_VALUE;
+		paths[row] = share(values[4] == null ? getContainerPath(marker.getResource()) : values[4].toString());
+		creationTimes[row] = creationTime;
+		return row;
+	}
+
+	/**
+	 * Remove the last row, used when its marker was not selected.
+	 */
+	void removeLast() {
+		size--;
+		types[size] = null;
+		messages[size] = null;
+		locations[size] = null;
+		paths[size] = null;
+	}
+
+	/**
+	 * Release the memory not needed once all the rows are added.
+	 */
+	void trimToSize() {
+		if (size < types.length) {
+			grow(size);
+		}
+		sharedStrings = new HashMap<>();
+	}
+
+	private void grow(int capacity) {
+		types = Arrays.copyOf(types, capacity);
+		severities = Arrays.copyOf(severities, capacity);
+		messages = Arrays.copyOf(messages, capacity);
+		locations = Arrays.copyOf(locations, capacity);
+		lineNumbers = Arrays.copyOf(lineNumbers, capacity);
+		paths = Arrays.copyOf(paths, capacity);
+		creationTimes = Arrays.copyOf(creationTimes, capacity);
+	}
+
+	private String share(String value) {
+		String shared = sharedStrings.get(value);
+		if (shared == null) {
+			sharedStrings.put(value, value);
+			return value;
+		}
+		return shared;
+	}
+
+	/**
+	 * Return the path shown for markers of resource without a path
+	 * attribute, the path of its container.
+	 *
+	 * @param resource
+	 * @return String
+	 */
+	private static String getContainerPath(IResource resource) {
+		IPath path = resource.getFullPath();
+		if (path.segmentCount() <= 1) {
+			return MarkerSupportInternalUtilities.EMPTY_STRING;
+		}
+		return path.removeLastSegments(1).removeTrailingSeparator().toString();
+	}
+
+	/**
+	 * Return the value of the attribute held by the snapshot.
+	 *
+	 * @param row
+	 * @param attribute
+	 *            an attribute the snapshot {@link #holds(String)}
+	 * @return Object or <code>null</code> if the marker does not have it
+	 */
+	Object getValue(int row, String attribute) {
+		if (IMarker.SEVERITY.equals(attribute)) {
+			return toObject(severities[row]);
+		}
+		if (IMarker.MESSAGE.equals(attribute)) {
+			return messages[row];
+		}
+		if (IMarker.LOCATION.equals(attribute)) {
+			return locations[row];
+		}
+		return toObject(lineNumbers[row]);
+	}
+
+	private static Object toObject(int value) {
+		return value == NO_VALUE ? null : Integer.valueOf(value);
+	}
+
+	int getSeverity(int row) {
+		return severities[row];
+	}
+
+	int getLineNumber(int row) {
+		return lineNumbers[row];
+	}
+
+	String getType(int row) {
+		return types[row];
+	}
+
+	/**
+	 * Return the path shown for the marker: its path attribute or else the
+	 * path of the container of its resource.
+	 *
+	 * @param row
+	 * @return String
+	 */
+	String getPath(int row) {
+		return paths[row];
+	}
+
+	long getCreationTime(int row) {
+		return creationTimes[row];
+	}
+}
@@ -417,4 +417,127 @@ public class MarkerSortUtil {
 		sortStartingKElement(entries, comparator, from, entries.length - 1, k,monitor);
 	}
 
-}
\ No newline at end of file
+
+	/**
+	 * Sorts the k smallest entries of [from,to] into [from,from+k-1] such that
+	 * array[from]<array[from+1]<...<array[from+k-1] and
+	 * array[from+k-1]<arra[from+k||from+k+1||from+k+2|| ....to]. The other
+	 * entries follow in their original relative order.
+	 *
+	 * Unlike {@link #sortStartingKElement(MarkerEntry[], Comparator, int, int, int, IProgressMonitor)}
+	 * the range is read only once, keeping the indices of the k smallest
+	 * entries seen so far in a bounded heap. Each entry costs one comparison
+	 * with the largest of them unless it belongs to them, so for a small k
+	 * the cost is proportional to the size of the range, whatever the k.
+	 * Entries that compare equal keep their order.
+	 *
+	 * Note: when k is close to the size of the range this falls back to
+	 * sortStartingKElement.
+	 *
+	 * @param entries
+	 * @param comparator
+	 * @param from
+	 * @param to
+	 * @param k
+	 * @param monitor
+	 *            if cancelled the range is left as it was
+	 */
+	public static void selectTopK(MarkerEntry[] entries, Comparator<MarkerItem> comparator, int from, int to, int k,
+			IProgressMonitor monitor) {
+		int n = to - from + 1;
+		if (entries.length == 0 || from < 0 || to > entries.length - 1 || n < 2 || k < 1) {
+			return;
+		}
+		if (k >= n || ((float) n / k) <= MERGE_OR_HEAP_SWITCH) {
+			sortStartingKElement(entries, comparator, from, to, Math.min(k, n), monitor);
+			return;
+		}
+
+		// max-heap of the indices of the k smallest entries
+		int[] heap = new int[k];
+		int size = 0;
+		for (int i = from; i <= to; i++) {
+			if ((i - from) % 1000 == 0 && monitor.isCanceled()) {
+				return;
+			}
+			if (size < k) {
+				heap[size] = i;
+				siftUp(entries, heap, size++, comparator);
+			} else if (isLess(entries, i, heap[0], comparator)) {
+				// clear cache of the one leaving the heap
+				entries[heap[0]].clearCache();
+				heap[0] = i;
+				siftDown(entries, heap, size, comparator);
+			} else {
+				entries[i].clearCache();
+			}
+		}
+
+		// the heap to ascending order, largest first to the end
+		int[] top = new int[k];
+		boolean[] inTop = new boolean[n];
+		while (size > 0) {
+			top[size - 1] = heap[0];
+			inTop[heap[0] - from] = true;
+			heap[0] = heap[--size];
+			siftDown(entries, heap, size, comparator);
+		}
+
+		MarkerEntry[] rest = new MarkerEntry[n - k];
+		int r = 0;
+		for (int i = from; i <= to; i++) {
+			if (!inTop[i - from]) {
+				rest[r++] = entries[i];
+			}
+		}
+		MarkerEntry[] sorted = new MarkerEntry[k];
+		for (int i = 0; i < k; i++) {
+			sorted[i] = entries[top[i]];
+			sorted[i].clearCache();
+		}
+		System.arraycopy(sorted, 0, entries, from, k);
+		System.arraycopy(rest, 0, entries, from + k, rest.length);
+	}
+
+	/**
+	 * @return true if the entry at index a sorts before the one at index b;
+	 *         ties are broken by index so that the order is stable
+	 */
+	private static boolean isLess(MarkerEntry[] entries, int a, int b, Comparator<MarkerItem> comparator) {
+		int value = comparator.compare(entries[a], entries[b]);
+		return value < 0 || (value == 0 && a < b);
+	}
+
+	private static void siftUp(MarkerEntry[] entries, int[] heap, int position, Comparator<MarkerItem> comparator) {
+		int hole = heap[position];
+		while (position > 0) {
+			int parent = (position - 1) / 2;
+			if (!isLess(entries, heap[parent], hole, comparator)) {
+				break;
+			}
+			heap[position] = heap[parent];
+			position = parent;
+		}
+		heap[position] = hole;
+	}
+
+	private static void siftDown(MarkerEntry[] entries, int[] heap, int size, Comparator<MarkerItem> comparator) {
+		if (size == 0) {
+			return;
+		}
+		int hole = heap[0];
+		int position = 0;
+		int child;
+		while ((child = 2 * position + 1) < size) {
+			if (child + 1 < size && isLess(entries, heap[child], heap[child + 1], comparator)) {
+				child++;
+			}
+			if (!isLess(entries, hole, heap[child], comparator)) {
+				break;
+			}
+			heap[position] = heap[child];
+			position = child;
+		}
+		heap[position] = hole;
+	}
+}
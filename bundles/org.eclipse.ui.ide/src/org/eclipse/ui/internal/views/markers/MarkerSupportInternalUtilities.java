@@ -260,6 +260,10 @@ public class MarkerSupportInternalUtilities {
 	public static final String  getGroupValue(MarkerGroup group, MarkerItem item) {
 		if (item.getMarker() == null)
 			return ((MarkerSupportItem) item).getDescription();
+		if (item instanceof MarkerEntry) {
+			MarkerEntry entry = (MarkerEntry) item;
+			return group.findGroupValue(entry.getMarkerTypeId(), entry).getLabel();
+		}
 		try {
 			MarkerGroupingEntry groupingEntry = group.findGroupValue(item
 					.getMarker().getType(), item.getMarker());
@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.ui.internal.views.markers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+
+/**
+ * The MarkerWorkerPool runs the work of the marker update jobs that can be
+ * split, such as gathering the markers of several projects or grouping large
+ * numbers of entries, on a few shared daemon threads.
+ * <p>
+ * The results are always returned in the order of the tasks so that the
+ * outcome does not depend on the scheduling. The calling job keeps watching
+ * its progress monitor while it waits and gives up as soon as it is
+ * cancelled; the tasks are expected to check the monitor as well.
+ * </p>
+ * <p>
+ * The callers run work that calls contributed code, such as the filters of
+ * contributed marker fields, in the calling thread. Running all the work in
+ * the calling thread can be forced with the system property
+ * <code>org.eclipse.ui.ide.markers.serialUpdates=true</code>.
+ * </p>
+ */
+class MarkerWorkerPool {
+
+	private static final boolean SERIAL = Boolean.getBoolean("org.eclipse.ui.ide.markers.serialUpdates"); //$NON-NLS-1$
+
+	private static final int PARALLELISM = Math.min(8, Runtime.getRuntime().availableProcessors());
+
+	/**
+	 * How long to wait for a task before checking the monitor again.
+	 */
+	private static final long POLL_MILLIS = 50;
+
+	private static ThreadPoolExecutor executor;
+
+	private MarkerWorkerPool() {
+		// static access only
+	}
+
+	/**
+	 * Return the number of tasks the pool runs at the same time, 1 if the
+	 * work is done in the calling thread.
+	 *
+	 * @return int
+	 */
+	static int getParallelism() {
+		return SERIAL ? 1 : PARALLELISM;
+	}
+
+	private static synchronized ThreadPoolExecutor getExecutor() {
+		if (executor == null) {
+			AtomicInteger count = new AtomicInteger();
+			executor = new ThreadPoolExecutor(PARALLELISM, PARALLELISM, 10, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<Runnable>(), runnable -> {
+						Thread thread = new Thread(runnable, "Markers view worker " + count.incrementAndGet()); //$NON-NLS-1$
+						thread.setDaemon(true);
+						return thread;
+					});
+			// don't keep idle threads between updates
+			executor.allowCoreThreadTimeOut(true);
+		}
+		return executor;
+	}
+
+	/**
+	 * Run the tasks and return their results in the order of the tasks.
+	 *
+	 * @param tasks
+	 * @param parallel
+	 *            <code>false</code> to run the tasks in the calling thread
+	 * @param monitor
+	 *            the monitor of the calling job
+	 * @return the results or <code>null</code> if the monitor was cancelled
+	 * @throws ExecutionException
+	 *             if one of the tasks failed; the other tasks are cancelled
+	 */
+	static <T> List<T> invokeAll(List<Callable<T>> tasks, boolean parallel, IProgressMonitor monitor)
+			throws ExecutionException {
+		List<T> results = new ArrayList<>(tasks.size());
+		if (!parallel || getParallelism() == 1 || tasks.size() < 2) {
+			for (Callable<T> task : tasks) {
+				if (monitor.isCanceled()) {
+					return null;
+				}
+				try {
+					results.add(task.call());
+				} catch (Exception e) {
+					throw new ExecutionException(e);
+				}
+			}
+			return monitor.isCanceled() ? null : results;
+		}
+
+		List<Future<T>> futures = new ArrayList<>(tasks.size());
+		ThreadPoolExecutor pool = getExecutor();
+		for (Callable<T> task : tasks) {
+			futures.add(pool.submit(task));
+		}
+		try {
+			for (Future<T> future : futures) {
+				while (true) {
+					if (monitor.isCanceled()) {
+						return null;
+					}
+					try {
+						results.add(future.get(POLL_MILLIS, TimeUnit.MILLISECONDS));
+						break;
+					} catch (TimeoutException e) {
+						// check the monitor again
+					}
+				}
+			}
+			return results;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		} finally {
+			// no-op for the tasks that are done; running tasks stop by
+			// checking the monitor, interrupting them could break workspace
+			// operations
+			for (Future<T> future : futures) {
+				future.cancel(false);
+			}
+		}
+	}
+}
@@ -20,10 +20,12 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 
 import org.eclipse.core.resources.IMarker;
-import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.ui.views.markers.MarkerItem;
 import org.eclipse.ui.views.markers.internal.MarkerGroup;
@@ -42,6 +44,9 @@ class Markers {
 	static final MarkerCategory[] EMPTY_CATEGORY_ARRAY = new MarkerCategory[0];
 	static final MarkerEntry[] EMPTY_ENTRY_ARRAY = new MarkerEntry[0];
 
+	// the fewest entries worth grouping in a separate task
+	private static final int MIN_GROUPING_CHUNK = 5000;
+
 	// the marker entries
 	private MarkerEntry[] markerEntryArray = EMPTY_ENTRY_ARRAY;
 	// the categories
@@ -56,6 +61,10 @@ class Markers {
 	private Map<IMarker, MarkerEntry> markerToEntryMap;
 	private Integer[] markerCounts;
 
+	// true if the shown entries of markerEntryArray, or of each category when
+	// showing the hierarchy, are the sorted smallest entries
+	private boolean shownSorted;
+
 	Markers(CachedMarkerBuilder builder) {
 		this.builder = builder;
 		inChange = false;
@@ -80,9 +89,11 @@ class Markers {
 				markerToEntryMap = null;
 			}
 			markerCounts = null;
+			shownSorted = false;
 			if (markerEntries.size() == 0) {
 				categories = EMPTY_CATEGORY_ARRAY;
 				markerEntryArray = EMPTY_ENTRY_ARRAY;
+				shownSorted = true;
 				return true;
 			}
 			if (monitor.isCanceled()) {
@@ -146,6 +157,7 @@ class Markers {
 		boolean initialVal = inChange;
 		try {
 			inChange = true;
+			shownSorted = false;
 			if (builder.isShowingHierarchy()) {
 				Comparator<MarkerItem> comparator = builder.getComparator().getFieldsComparator();
 				for (int i = 0; i < categories.length; i++) {
@@ -157,7 +169,8 @@ class Markers {
 					category.children = null; // reset cached children
 					int avaliable = category.end - category.start + 1;
 					int effLimit = getShowingLimit(avaliable);
-					MarkerSortUtil.sortStartingKElement(markerEntryArray,
+					// only the shown entries of each category need sorting
+					MarkerSortUtil.selectTopK(markerEntryArray,
 							comparator, category.start, category.end, effLimit,
 							monitor);
 				}
@@ -167,12 +180,13 @@ class Markers {
 				}
 				int avaialble = markerEntryArray.length - 1;
 				int effLimit = getShowingLimit(avaialble);
-				MarkerSortUtil.sortStartingKElement(markerEntryArray,
-						builder.getComparator(), effLimit, monitor);
+				MarkerSortUtil.selectTopK(markerEntryArray,
+						builder.getComparator(), 0, avaialble, effLimit, monitor);
 			}
 			if (monitor.isCanceled()) {
 				return false;
 			}
+			shownSorted = true;
 			monitor.worked(50);
 			return true;
 		} finally {
@@ -180,6 +194,210 @@ class Markers {
 		}
 	}
 
+	/**
+	 * Update with changes to the given markers, without gathering all the
+	 * markers again. The current entries of the changed markers are replaced
+	 * with new entries if the markers still exist and match the filters, or
+	 * dropped otherwise. Applying the same changes twice gives the same
+	 * result.
+	 * <p>
+	 * When the shown entries are sorted, only the new entries are sorted and
+	 * grouped and then merged into the current categories; otherwise all the
+	 * entries are sorted and grouped again.
+	 * </p>
+	 *
+	 * @param changedMarkers
+	 *            the markers that were added, removed or changed
+	 * @param monitor
+	 * @return <code>false</code> if cancelled
+	 */
+	synchronized boolean updateWithChanges(Set<IMarker> changedMarkers, IProgressMonitor monitor) {
+		List<MarkerEntry> newEntries = builder.getGenerator().selectMarkerEntries(changedMarkers, monitor);
+		if (newEntries == null || monitor.isCanceled()) {
+			return false;
+		}
+		MarkerEntry[] current = markerEntryArray;
+		if (!shownSorted) {
+			List<MarkerEntry> kept = new ArrayList<>(current.length + newEntries.size());
+			for (int i = 0; i < current.length; i++) {
+				if (isKept(current[i], changedMarkers)) {
+					kept.add(current[i]);
+				}
+			}
+			kept.addAll(newEntries);
+			return updateWithNewMarkers(kept, true, monitor);
+		}
+
+		boolean initialVal = inChange;
+		try {
+			inChange = true;
+			boolean hierarchy = builder.isShowingHierarchy();
+			MarkerGroup group = builder.getCategoryGroup();
+			Collection<MergeRange> ranges;
+			if (hierarchy) {
+				// the ranges of the categories in the order of their groups
+				TreeMap<MarkerGroupingEntry, MergeRange> groupRanges = new TreeMap<>(
+						group.getEntriesComparator());
+				for (MarkerCategory category : categories) {
+					MergeRange range = null;
+					int shown = getShowingLimit(category.end - category.start + 1);
+					for (int i = category.start; i <= category.end; i++) {
+						MarkerEntry entry = current[i];
+						if (!isKept(entry, changedMarkers)) {
+							continue;
+						}
+						if (range == null) {
+							MarkerGroupingEntry groupingEntry = group.findGroupValue(entry.getMarkerTypeId(), entry);
+							if (groupingEntry == null) {
+								continue;
+							}
+							range = getRange(groupRanges, groupingEntry);
+						}
+						range.add(entry, i - category.start < shown);
+					}
+					if (monitor.isCanceled()) {
+						return false;
+					}
+				}
+				for (MarkerEntry entry : newEntries) {
+					String type = entry.getMarkerTypeId();
+					if (entry.getStaleState()) {
+						continue;
+					}
+					MarkerGroupingEntry groupingEntry = group.findGroupValue(type, entry);
+					if (groupingEntry != null) {
+						getRange(groupRanges, groupingEntry).added.add(entry);
+					}
+				}
+				ranges = groupRanges.values();
+			} else {
+				MergeRange range = new MergeRange();
+				int shown = getShowingLimit(current.length);
+				for (int i = 0; i < current.length; i++) {
+					if (isKept(current[i], changedMarkers)) {
+						range.add(current[i], i < shown);
+					}
+				}
+				range.added.addAll(newEntries);
+				ranges = Collections.singletonList(range);
+			}
+			if (monitor.isCanceled()) {
+				return false;
+			}
+
+			Comparator<MarkerItem> comparator = hierarchy ? builder.getComparator().getFieldsComparator()
+					: builder.getComparator();
+			int size = 0;
+			for (MergeRange range : ranges) {
+				size += range.shown.size() + range.rest.size() + range.added.size();
+			}
+			MarkerEntry[] merged = new MarkerEntry[size];
+			List<MarkerCategory> newCategories = new ArrayList<>(ranges.size());
+			int m = 0;
+			for (MergeRange range : ranges) {
+				int start = m;
+				m = range.merge(merged, start, comparator);
+				int end = m - 1;
+				if (range.shown.size() < getShowingLimit(end - start + 1) && !range.rest.isEmpty()) {
+					// shown entries were removed, the next smallest ones may
+					// be anywhere in the rest
+					MarkerSortUtil.selectTopK(merged, comparator, start, end, getShowingLimit(end - start + 1),
+							monitor);
+					if (monitor.isCanceled()) {
+						return false;
+					}
+				}
+				if (hierarchy) {
+					newCategories.add(new MarkerCategory(this, start, end,
+							group.getMarkerField().getValue(merged[start])));
+				}
+			}
+			for (int i = 0; i < merged.length; i++) {
+				merged[i].clearCache();
+			}
+			if (markerToEntryMap != null) {
+				markerToEntryMap.clear();
+				markerToEntryMap = null;
+			}
+			markerCounts = null;
+			categories = newCategories.toArray(EMPTY_CATEGORY_ARRAY);
+			markerEntryArray = merged;
+			return true;
+		} finally {
+			inChange = initialVal;
+		}
+	}
+
+	private static boolean isKept(MarkerEntry entry, Set<IMarker> changedMarkers) {
+		IMarker marker = entry.getMarker();
+		return marker != null && !entry.getStaleState() && !changedMarkers.contains(marker);
+	}
+
+	private static MergeRange getRange(Map<MarkerGroupingEntry, MergeRange> ranges,
+			MarkerGroupingEntry groupingEntry) {
+		MergeRange range = ranges.get(groupingEntry);
+		if (range == null) {
+			range = new MergeRange();
+			ranges.put(groupingEntry, range);
+		}
+		return range;
+	}
+
+	/**
+	 * The entries of a category, or of all the markers when not showing the
+	 * hierarchy, while changes are merged into them.
+	 */
+	private static class MergeRange {
+
+		// the kept entries that were shown, sorted
+		final List<MarkerEntry> shown = new ArrayList<>();
+
+		// the kept entries that were not shown, none sorts before the shown
+		final List<MarkerEntry> rest = new ArrayList<>();
+
+		// the new entries
+		final List<MarkerEntry> added = new ArrayList<>();
+
+		void add(MarkerEntry entry, boolean wasShown) {
+			(wasShown ? shown : rest).add(entry);
+		}
+
+		/**
+		 * Merges the new entries into the shown ones and copies them followed
+		 * by the rest to the array.
+		 *
+		 * @return the index after the copied entries
+		 */
+		int merge(MarkerEntry[] array, int start, Comparator<MarkerItem> comparator) {
+			Collections.sort(added, comparator);
+			// binary search the insertion points, so that only the new
+			// entries are compared against the (many) existing ones
+			int k = 0, m = start;
+			for (MarkerEntry entry : added) {
+				int low = k, high = shown.size();
+				while (low < high) {
+					int mid = (low + high) >>> 1;
+					if (comparator.compare(shown.get(mid), entry) <= 0) {
+						low = mid + 1;
+					} else {
+						high = mid;
+					}
+				}
+				while (k < low) {
+					array[m++] = shown.get(k++);
+				}
+				array[m++] = entry;
+			}
+			while (k < shown.size()) {
+				array[m++] = shown.get(k++);
+			}
+			for (MarkerEntry entry : rest) {
+				array[m++] = entry;
+			}
+			return m;
+		}
+	}
+
 	/**
 	 * get marker limit to show, if any.
 	 *
@@ -239,25 +457,22 @@ class Markers {
 			int k, IProgressMonitor monitor) {
 		TreeMap<MarkerGroupingEntry, List<MarkerEntry>> map = new TreeMap<>(
 				group.getEntriesComparator());
+		MarkerGroupingEntry[] groupingEntries = findGroupValues(entries, group, k, monitor);
+		if (groupingEntries == null) {
+			return Collections.emptyMap();
+		}
 		for (int i = 0; i <= k; i++) {
-			IMarker marker = entries[i].getMarker();
-			if (marker == null) {
+			MarkerEntry entry = entries[i];
+			MarkerGroupingEntry groupingEntry = groupingEntries[i];
+			if (groupingEntry == null) {
 				continue;// skip stale markers
 			}
-			if (monitor.isCanceled()) {
-				return Collections.emptyMap();
-			}
-			try {
-				MarkerGroupingEntry groupingEntry = group.findGroupValue(marker.getType(), marker);
-				List<MarkerEntry> list = map.get(groupingEntry);
-				if (list == null) {
-					list = new ArrayList<>();
-					map.put(groupingEntry, list);
-				}
-				list.add(entries[i]);
-			} catch (CoreException e) {
-				entries[i].checkIfMarkerStale();
+			List<MarkerEntry> list = map.get(groupingEntry);
+			if (list == null) {
+				list = new ArrayList<>();
+				map.put(groupingEntry, list);
 			}
+			list.add(entry);
 		}
 		TreeMap<MarkerGroupingEntry, Integer> result = new TreeMap<>(
 				group.getEntriesComparator());
@@ -275,6 +490,65 @@ class Markers {
 		return result;
 	}
 
+	/**
+	 * Find the groups of the entries up to k, in chunks run by the
+	 * {@link MarkerWorkerPool} when there are many entries. The groups are
+	 * returned by index so that the grouping does not depend on the order the
+	 * chunks complete in.
+	 *
+	 * @param entries
+	 * @param group
+	 * @param k
+	 * @param monitor
+	 * @return the group of each entry, <code>null</code> for stale entries,
+	 *         or <code>null</code> if cancelled
+	 */
+	private static MarkerGroupingEntry[] findGroupValues(MarkerEntry[] entries, MarkerGroup group, int k,
+			IProgressMonitor monitor) {
+		MarkerGroupingEntry[] groupingEntries = new MarkerGroupingEntry[k + 1];
+		int chunkSize = Math.max(MIN_GROUPING_CHUNK, (k + MarkerWorkerPool.getParallelism())
+				/ MarkerWorkerPool.getParallelism());
+		List<Callable<Boolean>> tasks = new ArrayList<>();
+		for (int start = 0; start <= k; start += chunkSize) {
+			int from = start;
+			int to = Math.min(k, start + chunkSize - 1);
+			tasks.add(() -> {
+				for (int i = from; i <= to; i++) {
+					MarkerEntry entry = entries[i];
+					if (entry.getMarker() == null) {
+						continue;// skip stale markers
+					}
+					if (i % 500 == 0 && monitor.isCanceled()) {
+						return Boolean.FALSE;
+					}
+					// answered from the snapshot of the entry when it has one
+					String type = entry.getMarkerTypeId();
+					if (entry.getStaleState()) {
+						continue;
+					}
+					groupingEntries[i] = group.findGroupValue(type, entry);
+				}
+				return Boolean.TRUE;
+			});
+		}
+		try {
+			List<Boolean> completed = MarkerWorkerPool.invokeAll(tasks, true, monitor);
+			if (completed == null || completed.contains(Boolean.FALSE)) {
+				return null;
+			}
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException(cause);
+		}
+		return groupingEntries;
+	}
+
 	/**
 	 * Returns an array of marker counts where getMarkerCounts()[severity] is
 	 * the number of markers in the list with the given severity.
@@ -300,17 +574,7 @@ class Markers {
 	static Integer[] getMarkerCounts(MarkerEntry[] entries) {
 		int[] ints = new int[] { 0, 0, 0, 0 };
 		for (int idx = 0; idx < entries.length; idx++) {
-			IMarker marker = entries[idx].getMarker();
-			int severity = -1;
-			Object value = null;
-			try {
-				value = marker.getAttribute(IMarker.SEVERITY);
-			} catch (CoreException e) {
-				entries[idx].checkIfMarkerStale();
-			}
-			if (value instanceof Integer) {
-				severity = ((Integer) value).intValue();
-			}
+			int severity = entries[idx].getAttributeValue(IMarker.SEVERITY, -1);
 			if (severity >= IMarker.SEVERITY_INFO) {
 				ints[severity]++;
 			} else {
@@ -174,14 +174,12 @@ class MarkersChangeListener implements IResourceChangeListener {
 
 	/**
 	 * Handle changes incrementally.
-	 * The following performs incremental updation
-	 * of the markers that were gathered initially, and keeps them synched at
-	 * any point with the markers of interest in Workspace. Unfortunately marker
-	 * operations cannot be locked so locking between gathering of markers and
-	 * marker deltas is not possible.
-	 *
-	 * Note : this method of updating is NOT used and tested yet and has holes
-	 * but left out SOLELY for further investigation(*).
+	 * The following queues the marker deltas of interest, so that the
+	 * {@link IncrementUpdateJob} applies them to the markers that were
+	 * gathered initially and keeps them synched with the markers of interest
+	 * in Workspace. Marker operations cannot be locked, so a delta may also be
+	 * reflected by a concurrent gathering of markers; applying it again is
+	 * harmless.
 	 *
 	 * @param event
 	 */
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2015 IBM Corporation and others.
+ * Copyright (c) 2006, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -97,6 +97,18 @@ public class MarkerGroup {
 			}
 			return null;
 		}
+
+		@Override
+		public MarkerGroupingEntry testAttribute(MarkerItem item) {
+			if (item.getMarker() == null) {
+				return null;
+			}
+			String value = item.getAttributeValue(attribute, (String) null);
+			if (value != null && attributeValue.equals(value)) {
+				return groupingEntry;
+			}
+			return null;
+		}
 	}
 
 	class EntryMapping {
@@ -130,6 +142,18 @@ public class MarkerGroup {
 		public MarkerGroupingEntry testAttribute(IMarker marker) {
 			return null;
 		}
+
+		/**
+		 * Test the attribute of the item to find a grouping. The item may
+		 * answer from the attribute values it already read.
+		 *
+		 * @param item
+		 * @return MarkerGroupingEntry or <code>null</code> if there is not
+		 *         entry.
+		 */
+		public MarkerGroupingEntry testAttribute(MarkerItem item) {
+			return null;
+		}
 	}
 
 	class FieldGroup implements IField {
@@ -391,13 +415,32 @@ public class MarkerGroup {
 	 * @return MarkerGroupingEntry
 	 */
 	public MarkerGroupingEntry findGroupValue(String type, IMarker marker) {
+		return findGroupValue(type, marker, null);
+	}
+
+	/**
+	 * Find the group for the item of the specified marker type. Unlike
+	 * {@link #findGroupValue(String, IMarker)} the attributes are read through
+	 * the item, so that the values it already has are not read again from the
+	 * marker.
+	 *
+	 * @param type
+	 * @param item
+	 * @return MarkerGroupingEntry
+	 */
+	public MarkerGroupingEntry findGroupValue(String type, MarkerItem item) {
+		return findGroupValue(type, item.getMarker(), item);
+	}
+
+	private MarkerGroupingEntry findGroupValue(String type, IMarker marker, MarkerItem item) {
 		if (typesToMappings.containsKey(type)) {
 			EntryMapping defaultMapping = null;
 			Iterator<EntryMapping> mappings = typesToMappings.get(type).iterator();
 			while (mappings.hasNext()) {
 				EntryMapping mapping = mappings.next();
 				if (mapping.hasAttributes()) {
-					MarkerGroupingEntry entry = mapping.testAttribute(marker);
+					MarkerGroupingEntry entry = item == null ? mapping.testAttribute(marker)
+							: mapping.testAttribute(item);
 					if (entry != null) {
 						return entry;
 					}
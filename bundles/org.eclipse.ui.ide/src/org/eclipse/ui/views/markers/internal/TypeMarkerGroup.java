@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2015 IBM Corporation and others.
+ * Copyright (c) 2007, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,8 +12,8 @@
 package org.eclipse.ui.views.markers.internal;
 
 import java.util.Comparator;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.runtime.CoreException;
@@ -29,7 +29,7 @@ import org.eclipse.ui.views.markers.MarkerItem;
  */
 public class TypeMarkerGroup extends MarkerGroup {
 
-	private Map<String, TypesMarkerGroupingEntry> entries=new HashMap<>();
+	private ConcurrentMap<String, TypesMarkerGroupingEntry> entries = new ConcurrentHashMap<>();
 	/**
 	 * TypeMarkerField is the MarkerField used for MarkerGroupungs
 	 *
@@ -102,6 +102,9 @@ public class TypeMarkerGroup extends MarkerGroup {
 		markerField = new TypeMarkerField();
 	}
 
+	/*
+	 * The markers views may group from several threads.
+	 */
 	@Override
 	public MarkerGroupingEntry findGroupValue(String typeId, IMarker marker) {
 		TypesMarkerGroupingEntry entry = entries
@@ -116,11 +119,19 @@ public class TypeMarkerGroup extends MarkerGroup {
 			}
 			entry = new TypesMarkerGroupingEntry(groupName);
 			entry.setGroup(this);
-			entries.put(typeId, entry);
+			TypesMarkerGroupingEntry existing = entries.putIfAbsent(typeId, entry);
+			if (existing != null) {
+				entry = existing;
+			}
 		}
 		return entry;
 	}
 
+	@Override
+	public MarkerGroupingEntry findGroupValue(String typeId, MarkerItem item) {
+		return findGroupValue(typeId, item.getMarker());
+	}
+
 	@Override
 	public String getId() {
 		return Util.TYPE_MARKER_GROUPING_ID;
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2015 IBM Corporation and others.
+ * Copyright (c) 2005, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -34,6 +34,9 @@ public class CommonNavigatorMessages extends NLS {
 	/** */
 	public static String Exception_Invoking_Extension;
 
+	/** */
+	public static String Timeout_Invoking_Extension;
+
 	/** */
 	public static String NavigatorViewerDescriptor_Popup_Menu_Overridden;
 
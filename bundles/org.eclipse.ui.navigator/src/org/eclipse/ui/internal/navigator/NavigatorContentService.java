@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2003, 2015 IBM Corporation and others.
+ * Copyright (c) 2003, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -120,10 +120,32 @@ public class NavigatorContentService implements IExtensionActivationListener,
 	/*
 	 * Used when providing objects to the CommonViewer by the contentProvider
 	 * to record the object/description associations which are when stored
-	 * in the Tree associated with the viewer.
+	 * in the Tree associated with the viewer. An entry is forgotten when its
+	 * element is associated with an item or filtered out. Elements that are
+	 * provided but never get an item, e.g. children computed for hasChildren()
+	 * or replaced by a pipelined extension, are forgotten when the children of
+	 * their parent are provided again or the item of the parent is
+	 * disassociated, and when the whole viewer is refreshed or its input or
+	 * extensions change.
 	 */
-	private Map<Object, INavigatorContentDescriptor> contributionMemory;
-	private Map<Object, INavigatorContentDescriptor> contributionMemoryFirstClass;
+	private final Map<Object, Contribution> contributionMemory = new HashMap<Object, Contribution>();
+
+	/*
+	 * The elements of the contribution memory by the parent they were
+	 * provided for.
+	 */
+	private final Map<Object, Set<Object>> contributionsByParent = new HashMap<Object, Set<Object>>();
+
+	private static class Contribution {
+		final INavigatorContentDescriptor source;
+		final INavigatorContentDescriptor firstClassSource;
+		Object parent;
+
+		Contribution(INavigatorContentDescriptor source, INavigatorContentDescriptor firstClassSource) {
+			this.source = source;
+			this.firstClassSource = firstClassSource;
+		}
+	}
 
 	private ILabelProvider labelProvider;
 
@@ -164,8 +186,6 @@ public class NavigatorContentService implements IExtensionActivationListener,
 		assistant = new VisibilityAssistant(viewerDescriptor,
 				getActivationService());
 		getActivationService().addExtensionActivationListener(this);
-		contributionMemory = new HashMap<Object, INavigatorContentDescriptor>();
-		contributionMemoryFirstClass = new HashMap<Object, INavigatorContentDescriptor>();
 	}
 
 	/**
@@ -349,6 +369,7 @@ public class NavigatorContentService implements IExtensionActivationListener,
 			} else {
 				structuredViewerManager.inputChanged(aViewer, anOldInput, aNewInput);
 			}
+			forgetContributions();
 
 			for (NavigatorContentExtension ext : contentExtensions.values()) {
 				if (ext.isLoaded()) {
@@ -676,13 +697,16 @@ public class NavigatorContentService implements IExtensionActivationListener,
 		 * the first one wins, so we don't update the contribution memory.
 		 */
 		synchronized (this) {
-			if (contributionMemory.get(element) == null
-					|| contributionMemoryFirstClass.get(element) == firstClassSource) {
+			Contribution contribution = contributionMemory.get(element);
+			if (contribution == null || contribution.firstClassSource == firstClassSource) {
 				if (Policy.DEBUG_RESOLUTION)
 					System.out
 							.println("rememberContribution: " + Policy.getObjectString(element) + " source: " + source); //$NON-NLS-1$//$NON-NLS-2$
-				contributionMemory.put(element, source);
-				contributionMemoryFirstClass.put(element, firstClassSource);
+				Contribution replacement = new Contribution(source, firstClassSource);
+				if (contribution != null) {
+					replacement.parent = contribution.parent;
+				}
+				contributionMemory.put(element, replacement);
 			}
 		}
 	}
@@ -695,8 +719,94 @@ public class NavigatorContentService implements IExtensionActivationListener,
 	 */
 	public void forgetContribution(Object element) {
 		synchronized (this) {
-			contributionMemory.remove(element);
-			contributionMemoryFirstClass.remove(element);
+			Contribution contribution = contributionMemory.remove(element);
+			if (contribution != null && contribution.parent != null) {
+				Set<Object> children = contributionsByParent.get(contribution.parent);
+				if (children != null) {
+					children.remove(element);
+					if (children.isEmpty()) {
+						contributionsByParent.remove(contribution.parent);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Record the parent the remembered elements were provided for, so that
+	 * they are forgotten with the parent.
+	 *
+	 * @param parent
+	 *            The parent element or the input
+	 * @param children
+	 *            The children or elements provided for the parent
+	 */
+	public void rememberChildren(Object parent, Collection<?> children) {
+		synchronized (this) {
+			Set<Object> remembered = null;
+			for (Object child : children) {
+				Contribution contribution = contributionMemory.get(child);
+				if (contribution == null) {
+					continue;
+				}
+				if (contribution.parent != null && !contribution.parent.equals(parent)) {
+					Set<Object> previous = contributionsByParent.get(contribution.parent);
+					if (previous != null) {
+						previous.remove(child);
+						if (previous.isEmpty()) {
+							contributionsByParent.remove(contribution.parent);
+						}
+					}
+				}
+				contribution.parent = parent;
+				if (remembered == null) {
+					remembered = contributionsByParent.get(parent);
+					if (remembered == null) {
+						remembered = new HashSet<Object>();
+						contributionsByParent.put(parent, remembered);
+					}
+				}
+				remembered.add(child);
+			}
+		}
+	}
+
+	/**
+	 * Forget about the elements provided for the parent that are not
+	 * associated with an item yet. Called when the children of the parent are
+	 * provided again and when the item of the parent is disassociated.
+	 *
+	 * @param parent
+	 *            The parent element or the input
+	 */
+	public void forgetChildren(Object parent) {
+		synchronized (this) {
+			Set<Object> children = contributionsByParent.remove(parent);
+			if (children == null) {
+				return;
+			}
+			if (Policy.DEBUG_RESOLUTION)
+				System.out.println("forgetChildren: " + Policy.getObjectString(parent) + " " + children.size()); //$NON-NLS-1$ //$NON-NLS-2$
+			for (Object child : children) {
+				Contribution contribution = contributionMemory.get(child);
+				if (contribution != null && parent.equals(contribution.parent)) {
+					contributionMemory.remove(child);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Forget about all elements that are not associated with an item yet.
+	 * Called when the whole viewer is refreshed, as the content providers
+	 * provide the shown elements again.
+	 */
+	public void forgetContributions() {
+		synchronized (this) {
+			if (Policy.DEBUG_RESOLUTION)
+				System.out.println("forgetContributions: " + contributionMemory.size()); //$NON-NLS-1$
+			contributionMemory.clear();
+			contributionsByParent.clear();
 		}
 	}
 
@@ -706,15 +816,18 @@ public class NavigatorContentService implements IExtensionActivationListener,
 	 */
 	public NavigatorContentDescriptor getContribution(Object element)
 	{
-		NavigatorContentDescriptor desc;
 		synchronized (this) {
-			desc = (NavigatorContentDescriptor) contributionMemory.get(element);
+			Contribution contribution = contributionMemory.get(element);
+			return contribution == null ? null : (NavigatorContentDescriptor) contribution.source;
 		}
-		return desc;
 	}
 
 	/**
-	 * Used only for the tests
+	 * Returns the number of elements whose contributing extension is
+	 * remembered but that are not associated with an item of the viewer yet.
+	 * Meant for tests and for monitoring the memory held by the content
+	 * service.
+	 *
 	 * @return the size of the contribution memory
 	 */
 	public int getContributionMemorySize() {
@@ -736,10 +849,7 @@ public class NavigatorContentService implements IExtensionActivationListener,
 		if (structuredViewerManager == null)
 			return null;
 		// Try here first because it might not yet be in the tree
-		NavigatorContentDescriptor src;
-		synchronized (this) {
-			src = (NavigatorContentDescriptor) contributionMemory.get(element);
-		}
+		NavigatorContentDescriptor src = getContribution(element);
 		if (src != null)
 			return src;
 		return (NavigatorContentDescriptor) structuredViewerManager.getData(element);
@@ -836,6 +946,7 @@ public class NavigatorContentService implements IExtensionActivationListener,
 				}
 			});
 		}
+		forgetContributions();
 		if (structuredViewerManager != null) {
 			structuredViewerManager.resetViewerData();
 		}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2003, 2015 IBM Corporation and others.
+ * Copyright (c) 2003, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -16,18 +16,31 @@ package org.eclipse.ui.internal.navigator;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.SafeRunner;
 import org.eclipse.jface.viewers.ITreeContentProvider;
 import org.eclipse.jface.viewers.ITreePathContentProvider;
+import org.eclipse.jface.viewers.StructuredViewer;
 import org.eclipse.jface.viewers.TreePath;
 import org.eclipse.jface.viewers.Viewer;
 import org.eclipse.osgi.util.NLS;
+import org.eclipse.swt.widgets.Control;
 import org.eclipse.ui.internal.navigator.extensions.NavigatorContentDescriptor;
 import org.eclipse.ui.internal.navigator.extensions.NavigatorContentExtension;
 import org.eclipse.ui.internal.navigator.extensions.NavigatorViewerDescriptor;
@@ -64,13 +77,30 @@ public class NavigatorContentServiceContentProvider implements ITreeContentProvi
 
 	private static final Object[] NO_CHILDREN = new Object[0];
 
+	private static final long DEFAULT_EXTENSION_TIMEOUT = 5000;
+
+	private static final int PARALLELISM = Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors()));
+
+	private static ThreadPoolExecutor executor;
+
 	private final NavigatorContentService contentService;
 
 	private boolean disposeContentService;
 
 	private final boolean enforceHasChildren;
 
-	private Viewer viewer;
+	private final boolean parallelChildren;
+
+	private final long extensionTimeout;
+
+	private volatile Viewer viewer;
+
+	/**
+	 * The computations that did not complete in time by parent element or
+	 * path and extension. A pending one is not submitted again, a completed
+	 * one answers the next request for the children of the parent.
+	 */
+	private final Map<Object, Map<NavigatorContentExtension, ChildrenComputation>> lateComputations = new HashMap<Object, Map<NavigatorContentExtension, ChildrenComputation>>();
 
 	/**
 	 * <p>
@@ -102,11 +132,28 @@ public class NavigatorContentServiceContentProvider implements ITreeContentProvi
 		contentService = aContentService;
 		INavigatorViewerDescriptor vDesc = contentService.getViewerDescriptor();
 		enforceHasChildren = vDesc.getBooleanConfigProperty(NavigatorViewerDescriptor.PROP_ENFORCE_HAS_CHILDREN);
+		parallelChildren = vDesc.getBooleanConfigProperty(NavigatorViewerDescriptor.PROP_PARALLEL_CHILDREN);
+		extensionTimeout = getExtensionTimeout(vDesc);
+	}
+
+	private static long getExtensionTimeout(INavigatorViewerDescriptor vDesc) {
+		String timeout = vDesc.getStringConfigProperty(NavigatorViewerDescriptor.PROP_EXTENSION_TIMEOUT);
+		if (timeout != null) {
+			try {
+				return Long.parseLong(timeout.trim());
+			} catch (NumberFormatException e) {
+				NavigatorPlugin.logError(0, NavigatorViewerDescriptor.PROP_EXTENSION_TIMEOUT + ": " + timeout, e); //$NON-NLS-1$
+			}
+		}
+		return DEFAULT_EXTENSION_TIMEOUT;
 	}
 
 	@Override
 	public void inputChanged(Viewer aViewer, Object anOldInput, Object aNewInput) {
 		viewer = aViewer;
+		synchronized (lateComputations) {
+			lateComputations.clear();
+		}
 		contentService.updateService(aViewer, anOldInput, aNewInput);
 	}
 
@@ -136,8 +183,13 @@ public class NavigatorContentServiceContentProvider implements ITreeContentProvi
 		if (enabledExtensions.size() == 0) {
 			return NO_CHILDREN;
 		}
+		// the elements provided before and not shown since are provided again
+		contentService.forgetChildren(aParentElement);
 		final Set finalSet = new LinkedHashSet();
 		final ContributorTrackingSet localSet = new ContributorTrackingSet(contentService);
+		final Map<NavigatorContentExtension, ChildrenComputation> computing = parallelChildren
+				? submitChildren(aParentElement, aParentElementOrPath, enabledExtensions, elements)
+				: Collections.<NavigatorContentExtension, ChildrenComputation> emptyMap();
 
 		for (final Iterator itr = enabledExtensions.iterator(); itr.hasNext();) {
 			SafeRunner.run(new NavigatorSafeRunnable() {
@@ -149,12 +201,12 @@ public class NavigatorContentServiceContentProvider implements ITreeContentProvi
 				public void run() throws Exception {
 					if (!isOverridingExtensionInSet(foundExtension.getDescriptor(),
 							enabledExtensions)) {
-						if (elements)
-							contributedChildren = foundExtension.internalGetContentProvider()
-									.getElements(aParentElementOrPath);
+						ChildrenComputation computation = computing.get(foundExtension);
+						if (computation != null)
+							contributedChildren = awaitChildren(foundExtension, computation, aParentElement);
 						else
-							contributedChildren = foundExtension.internalGetContentProvider()
-									.getChildren(aParentElementOrPath);
+							contributedChildren = computeChildren(foundExtension, aParentElementOrPath,
+									elements);
 						overridingExtensions = foundExtension
 								.getOverridingExtensionsForTriggerPoint(aParentElement);
 						INavigatorContentDescriptor foundDescriptor = foundExtension
@@ -179,9 +231,289 @@ public class NavigatorContentServiceContentProvider implements ITreeContentProvi
 			});
 		}
 
+		contentService.rememberChildren(aParentElement, finalSet);
 		return finalSet.toArray();
 	}
 
+	/**
+	 * Ask the content provider of the extension for the children or the
+	 * elements of the parent and record the time it took.
+	 */
+	private static Object[] computeChildren(NavigatorContentExtension anExtension,
+			Object aParentElementOrPath, boolean elements) {
+		long start = System.nanoTime();
+		try {
+			SafeDelegateTreeContentProvider contentProvider = anExtension.internalGetContentProvider();
+			if (elements)
+				return contentProvider.getElements(aParentElementOrPath);
+			return contentProvider.getChildren(aParentElementOrPath);
+		} finally {
+			long time = System.nanoTime() - start;
+			anExtension.recordChildrenTime(time);
+			if (Policy.DEBUG_CONTENT_TIMING) {
+				System.out.println(anExtension.getId() + " computed children of " //$NON-NLS-1$
+						+ Policy.getObjectString(aParentElementOrPath) + " in " //$NON-NLS-1$
+						+ TimeUnit.NANOSECONDS.toMicros(time) + " us on " //$NON-NLS-1$
+						+ Thread.currentThread().getName());
+			}
+		}
+	}
+
+	/**
+	 * The children of an extension computed in the background. If the
+	 * computation completes after its caller stopped waiting for it, the
+	 * parent is refreshed so that the late children are shown; the refresh
+	 * takes them from {@link NavigatorContentServiceContentProvider#lateComputations}.
+	 */
+	private class ChildrenComputation implements Callable<Object[]> {
+
+		private final NavigatorContentExtension extension;
+
+		private final Object parentElement;
+
+		private final Object parentElementOrPath;
+
+		private final boolean elements;
+
+		private Future<Object[]> future;
+
+		private boolean done;
+
+		private boolean late;
+
+		ChildrenComputation(NavigatorContentExtension anExtension, Object aParentElement,
+				Object aParentElementOrPath, boolean isElements) {
+			extension = anExtension;
+			parentElement = aParentElement;
+			parentElementOrPath = aParentElementOrPath;
+			elements = isElements;
+		}
+
+		@Override
+		public Object[] call() throws Exception {
+			try {
+				return computeChildren(extension, parentElementOrPath, elements);
+			} finally {
+				boolean refresh;
+				synchronized (this) {
+					done = true;
+					refresh = late;
+				}
+				if (refresh) {
+					refreshLate(parentElement, elements);
+				}
+			}
+		}
+
+		/**
+		 * Mark the computation as late unless it is done already.
+		 *
+		 * @return <code>true</code> if the computation is late,
+		 *         <code>false</code> if it is done and its result can be taken
+		 */
+		synchronized boolean markLate() {
+			if (!done) {
+				late = true;
+			}
+			return late;
+		}
+
+		/**
+		 * @return <code>true</code> if the computation is late and not done
+		 *         yet
+		 */
+		synchronized boolean isPending() {
+			return late && !done;
+		}
+	}
+
+	/**
+	 * Remember a computation that did not complete in time for its parent.
+	 */
+	private void rememberLate(ChildrenComputation aComputation) {
+		synchronized (lateComputations) {
+			Map<NavigatorContentExtension, ChildrenComputation> byExtension = lateComputations
+					.get(aComputation.parentElementOrPath);
+			if (byExtension == null) {
+				byExtension = new HashMap<NavigatorContentExtension, ChildrenComputation>();
+				lateComputations.put(aComputation.parentElementOrPath, byExtension);
+			}
+			byExtension.put(aComputation.extension, aComputation);
+		}
+	}
+
+	/**
+	 * Find the late computation of the children of the parent by the
+	 * extension. A completed one is forgotten, so that it is only used once.
+	 *
+	 * @return The late computation, or <code>null</code> if there is none
+	 */
+	private ChildrenComputation takeLate(NavigatorContentExtension anExtension, Object aParentElementOrPath,
+			boolean elements) {
+		synchronized (lateComputations) {
+			Map<NavigatorContentExtension, ChildrenComputation> byExtension = lateComputations
+					.get(aParentElementOrPath);
+			if (byExtension == null) {
+				return null;
+			}
+			ChildrenComputation computation = byExtension.get(anExtension);
+			if (computation == null || computation.elements != elements) {
+				return null;
+			}
+			if (!computation.isPending()) {
+				byExtension.remove(anExtension);
+				if (byExtension.isEmpty()) {
+					lateComputations.remove(aParentElementOrPath);
+				}
+			}
+			return computation;
+		}
+	}
+
+	/**
+	 * Refresh the parent whose children were computed too late.
+	 */
+	private void refreshLate(final Object aParentElement, final boolean elements) {
+		final Viewer currentViewer = viewer;
+		if (!(currentViewer instanceof StructuredViewer)) {
+			return;
+		}
+		final Control control = currentViewer.getControl();
+		if (control == null || control.isDisposed()) {
+			return;
+		}
+		control.getDisplay().asyncExec(() -> {
+			if (control.isDisposed() || viewer != currentViewer) {
+				return;
+			}
+			if (elements) {
+				currentViewer.refresh();
+			} else {
+				((StructuredViewer) currentViewer).refresh(aParentElement);
+			}
+		});
+	}
+
+	/**
+	 * Start computing the children of all but the first of the extensions that
+	 * are queried for children in the background. The first one is computed
+	 * by the calling thread while the others run; the results are still
+	 * merged in the order of the extensions.
+	 *
+	 * @return The computations by extension, empty if there is only one
+	 *         extension to query
+	 */
+	private Map<NavigatorContentExtension, ChildrenComputation> submitChildren(final Object aParentElement,
+			final Object aParentElementOrPath, Set enabledExtensions, final boolean elements) {
+		List<NavigatorContentExtension> queried = new ArrayList<NavigatorContentExtension>();
+		for (Iterator itr = enabledExtensions.iterator(); itr.hasNext();) {
+			NavigatorContentExtension extension = (NavigatorContentExtension) itr.next();
+			if (!isOverridingExtensionInSet(extension.getDescriptor(), enabledExtensions)) {
+				queried.add(extension);
+			}
+		}
+		if (queried.size() < 2) {
+			return Collections.emptyMap();
+		}
+		Map<NavigatorContentExtension, ChildrenComputation> computing = new HashMap<NavigatorContentExtension, ChildrenComputation>();
+		ThreadPoolExecutor pool = getExecutor();
+		for (int i = 1; i < queried.size(); i++) {
+			final NavigatorContentExtension extension = queried.get(i);
+			// the content provider is created and initialized in the calling
+			// thread
+			extension.internalGetContentProvider();
+			ChildrenComputation computation = takeLate(extension, aParentElementOrPath, elements);
+			if (computation == null) {
+				computation = new ChildrenComputation(extension, aParentElement, aParentElementOrPath, elements);
+				computation.future = pool.submit(computation);
+			}
+			computing.put(extension, computation);
+		}
+		return computing;
+	}
+
+	/**
+	 * Wait for the children computed in the background. Each extension gets
+	 * the whole timeout from the moment its children are waited for. If the
+	 * extension does not answer in time, or the calling thread is
+	 * interrupted, it is left out of the children for now and the parent is
+	 * refreshed once the children are computed. A computation that is late
+	 * already is not waited for again.
+	 */
+	private Object[] awaitChildren(NavigatorContentExtension anExtension, ChildrenComputation aComputation,
+			Object aParentElement) throws Exception {
+		Future<Object[]> future = aComputation.future;
+		if (aComputation.isPending()) {
+			// the parent is refreshed when it completes
+			return NO_CHILDREN;
+		}
+		try {
+			try {
+				return future.get(extensionTimeout, TimeUnit.MILLISECONDS);
+			} catch (TimeoutException e) {
+				if (!aComputation.markLate()) {
+					// completed in the meantime
+					return getDone(future);
+				}
+				rememberLate(aComputation);
+				// interrupting the content provider could break the model it
+				// reads, let it finish in the background
+				NavigatorPlugin.log(IStatus.WARNING, 0, NLS.bind(CommonNavigatorMessages.Timeout_Invoking_Extension,
+						new Object[] { anExtension.getId(), aParentElement, Long.valueOf(extensionTimeout) }), null);
+				return NO_CHILDREN;
+			} catch (InterruptedException e) {
+				// keep the interrupt for the caller, the children are shown
+				// by the refresh once they are computed
+				Thread.currentThread().interrupt();
+				if (!aComputation.markLate()) {
+					return getDone(future);
+				}
+				rememberLate(aComputation);
+				return NO_CHILDREN;
+			}
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof Exception)
+				throw (Exception) cause;
+			if (cause instanceof Error)
+				throw (Error) cause;
+			throw e;
+		}
+	}
+
+	/**
+	 * Return the result of a computation that is done or about to be,
+	 * ignoring an interrupt of the calling thread, which is kept.
+	 */
+	private static Object[] getDone(Future<Object[]> aFuture) throws ExecutionException {
+		boolean interrupted = Thread.interrupted();
+		try {
+			return aFuture.get();
+		} catch (InterruptedException e) {
+			// cannot happen, the future is done
+			return NO_CHILDREN;
+		} finally {
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	private static synchronized ThreadPoolExecutor getExecutor() {
+		if (executor == null) {
+			final AtomicInteger count = new AtomicInteger();
+			executor = new ThreadPoolExecutor(PARALLELISM, PARALLELISM, 10, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<Runnable>(), runnable -> {
+						Thread thread = new Thread(runnable, "Navigator content worker " + count.incrementAndGet()); //$NON-NLS-1$
+						thread.setDaemon(true);
+						return thread;
+					});
+			// don't keep idle threads between expansions
+			executor.allowCoreThreadTimeOut(true);
+		}
+		return executor;
+	}
+
 	/**
 	 * Query each of <code>theOverridingExtensions</code> for children, and then
 	 * pipe them through the Pipeline content provider.
@@ -481,6 +813,9 @@ public class NavigatorContentServiceContentProvider implements ITreeContentProvi
 	 */
 	@Override
 	public void dispose() {
+		synchronized (lateComputations) {
+			lateComputations.clear();
+		}
 		if (disposeContentService) {
 			contentService.dispose();
 		}
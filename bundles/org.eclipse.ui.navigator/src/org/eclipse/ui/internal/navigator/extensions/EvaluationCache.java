@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2003, 2015 IBM Corporation and others.
+ * Copyright (c) 2003, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -43,6 +43,12 @@ public class EvaluationCache implements VisibilityListener {
 	private final ReferenceQueue<Object> evaluationsQueue = new ReferenceQueue<>();
 	private final ReferenceQueue<Object> evaluationsWithOverridesQueue = new ReferenceQueue<>();
 
+	/*
+	 * Whether the evaluations only depend on the class of the elements, so
+	 * that they are cached by class; null if not known yet.
+	 */
+	private Boolean keyedByType;
+
 	/**
 	 * @param anAssistant the VisisbilityAssistant to register with, must be non-null
 	 */
@@ -170,6 +176,26 @@ public class EvaluationCache implements VisibilityListener {
 		}
 	}
 
+	/**
+	 * @return whether the descriptors are cached by the class of the elements
+	 *         rather than by element, or {@code null} if that has not been
+	 *         determined since the cache was last cleared
+	 */
+	public Boolean isKeyedByType() {
+		return keyedByType;
+	}
+
+	/**
+	 * Sets whether the descriptors are cached by the class of the elements,
+	 * which is valid as long as the visibility and activation of the
+	 * extensions do not change.
+	 *
+	 * @param isKeyedByType
+	 */
+	public void setKeyedByType(boolean isKeyedByType) {
+		keyedByType = Boolean.valueOf(isKeyedByType);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 *
@@ -200,5 +226,6 @@ public class EvaluationCache implements VisibilityListener {
 		}
 		evaluations.clear();
 		evaluationsWithOverrides.clear();
+		keyedByType = null;
 	}
 }
\ No newline at end of file
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2003, 2015 IBM Corporation and others.
+ * Copyright (c) 2003, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,12 +11,16 @@
 package org.eclipse.ui.internal.navigator.extensions;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.WeakHashMap;
 
 import org.eclipse.osgi.util.NLS;
 
@@ -99,6 +103,21 @@ public final class NavigatorContentDescriptor implements
 
 	private boolean providesSaveables;
 
+	/*
+	 * The names of the expression elements whose result only depends on the
+	 * class of the element they are evaluated for.
+	 */
+	private static final Set<String> TYPE_ONLY_EXPRESSIONS = new HashSet<String>(
+			Arrays.asList("instanceof", "and", "or", "not")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+
+	/*
+	 * The results of the trigger points and possible children expressions by
+	 * class of the element, used when the expressions only test the type of
+	 * the element; null otherwise.
+	 */
+	private Map<Class<?>, Boolean> triggerPointsByType;
+	private Map<Class<?>, Boolean> possibleChildrenByType;
+
 	/**
 	 * Creates a new content descriptor from a configuration element.
 	 *
@@ -257,6 +276,7 @@ public final class NavigatorContentDescriptor implements
 			children = configElement.getChildren(TAG_TRIGGER_POINTS);
 			if (children.length == 1) {
 				enablement = new CustomAndExpression(children[0]);
+				triggerPointsByType = createTypeCache(children[0]);
 			} else {
 				throw new WorkbenchException(NLS.bind(
 						CommonNavigatorMessages.Attribute_Missing_Warning,
@@ -270,6 +290,7 @@ public final class NavigatorContentDescriptor implements
 			children = configElement.getChildren(TAG_POSSIBLE_CHILDREN);
 			if (children.length == 1) {
 				possibleChildren = new CustomAndExpression(children[0]);
+				possibleChildrenByType = createTypeCache(children[0]);
 			} else if(children.length > 1){
 				throw new WorkbenchException(NLS.bind(
 						CommonNavigatorMessages.Attribute_Missing_Warning,
@@ -283,6 +304,7 @@ public final class NavigatorContentDescriptor implements
 			try {
 				enablement = ElementHandler.getDefault().create(
 						ExpressionConverter.getDefault(), children[0]);
+				triggerPointsByType = createTypeCache(children[0]);
 			} catch (CoreException e) {
 				NavigatorPlugin.log(IStatus.ERROR, 0, e.getMessage(), e);
 			}
@@ -414,8 +436,7 @@ public final class NavigatorContentDescriptor implements
 			return false;
 		}
 
-		IEvaluationContext context = NavigatorPlugin.getEvalContext(anElement);
-		return NavigatorPlugin.safeEvaluate(enablement, context) == EvaluationResult.TRUE;
+		return evaluate(enablement, triggerPointsByType, anElement);
 	}
 
 	/**
@@ -442,15 +463,86 @@ public final class NavigatorContentDescriptor implements
 			return arePossibleChildren((IStructuredSelection) anElement);
 		}
 
-		IEvaluationContext context = NavigatorPlugin.getEvalContext(anElement);
 		if (possibleChildren != null) {
-			return NavigatorPlugin.safeEvaluate(possibleChildren, context) == EvaluationResult.TRUE;
+			return evaluate(possibleChildren, possibleChildrenByType, anElement);
 		} else if (enablement != null) {
-			return NavigatorPlugin.safeEvaluate(enablement, context) == EvaluationResult.TRUE;
+			return evaluate(enablement, triggerPointsByType, anElement);
 		}
 		return false;
 	}
 
+	/**
+	 * Evaluates the expression for the element, or answers the result for
+	 * the class of the element if the expression only tests the type.
+	 *
+	 * @param expression
+	 * @param byType
+	 *            the results by class or null if the expression does not only
+	 *            test the type
+	 * @param anElement
+	 * @return True if and only if the expression is true for the element
+	 */
+	private static boolean evaluate(Expression expression, Map<Class<?>, Boolean> byType, Object anElement) {
+		Boolean result = null;
+		if (byType != null) {
+			synchronized (byType) {
+				result = byType.get(anElement.getClass());
+			}
+			if (result != null) {
+				return result.booleanValue();
+			}
+		}
+		IEvaluationContext context = NavigatorPlugin.getEvalContext(anElement);
+		result = Boolean.valueOf(NavigatorPlugin.safeEvaluate(expression, context) == EvaluationResult.TRUE);
+		if (byType != null) {
+			synchronized (byType) {
+				byType.put(anElement.getClass(), result);
+			}
+		}
+		return result.booleanValue();
+	}
+
+	/**
+	 * @param anExpressionElement
+	 *            the element holding the expression
+	 * @return a map for the results of the expression by class if it only
+	 *         tests the type of the element, null otherwise
+	 */
+	private static Map<Class<?>, Boolean> createTypeCache(IConfigurationElement anExpressionElement) {
+		// classes are held weakly not to keep their bundle class loader
+		return isTypeOnly(anExpressionElement) ? new WeakHashMap<Class<?>, Boolean>() : null;
+	}
+
+	private static boolean isTypeOnly(IConfigurationElement anExpressionElement) {
+		IConfigurationElement[] children = anExpressionElement.getChildren();
+		for (int i = 0; i < children.length; i++) {
+			if (!TYPE_ONLY_EXPRESSIONS.contains(children[i].getName()) || !isTypeOnly(children[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return True if the result of {@link #isTriggerPoint(Object)} only
+	 *         depends on the class of the element
+	 */
+	public boolean hasTypeOnlyTriggerPoints() {
+		return enablement == null || triggerPointsByType != null;
+	}
+
+	/**
+	 * @return True if the result of {@link #isPossibleChild(Object)} only
+	 *         depends on the class of the element, unless the element is a
+	 *         selection
+	 */
+	public boolean hasTypeOnlyPossibleChildren() {
+		if (possibleChildren != null) {
+			return possibleChildrenByType != null;
+		}
+		return hasTypeOnlyTriggerPoints();
+	}
+
 	/**
 	 * A convenience method to check all elements in a selection.
 	 *
@@ -28,6 +28,7 @@ import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.SafeRunner;
 import org.eclipse.jface.resource.ImageDescriptor;
 import org.eclipse.jface.resource.ImageRegistry;
+import org.eclipse.jface.viewers.IStructuredSelection;
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.ui.internal.navigator.NavigatorPlugin;
 import org.eclipse.ui.internal.navigator.NavigatorSafeRunnable;
@@ -154,9 +155,10 @@ public class NavigatorContentDescriptorManager {
 			VisibilityAssistant aVisibilityAssistant, boolean considerOverrides, boolean possibleChild) {
 		EvaluationCache cache = getEvaluationCache(cachedEvaluations, aVisibilityAssistant);
 		Set<NavigatorContentDescriptor> descriptors = new TreeSet<NavigatorContentDescriptor>(ExtensionSequenceNumberComparator.INSTANCE);
+		Object cacheKey = getCacheKey(anElement, cache, aVisibilityAssistant, possibleChild);
 
 		NavigatorContentDescriptor[] cachedDescriptors = null;
-		if ((cachedDescriptors = cache.getDescriptors(anElement, considerOverrides)) != null) {
+		if ((cachedDescriptors = cache.getDescriptors(cacheKey, considerOverrides)) != null) {
 			descriptors.addAll(Arrays.asList(cachedDescriptors));
 			if (Policy.DEBUG_RESOLUTION) {
 				System.out.println("Find descriptors for : " + Policy.getObjectString(anElement) + //$NON-NLS-1$
@@ -183,11 +185,53 @@ public class NavigatorContentDescriptorManager {
 			System.out.println("Find descriptors for: " + Policy.getObjectString(anElement) + //$NON-NLS-1$
 					(considerOverrides ? " (with overrides)" : "") + ": " + descriptors); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
 		}
-		cache.setDescriptors(anElement, descriptors.toArray(new NavigatorContentDescriptor[descriptors.size()]), considerOverrides);
+		cache.setDescriptors(cacheKey, descriptors.toArray(new NavigatorContentDescriptor[descriptors.size()]), considerOverrides);
 
 		return descriptors;
 	}
 
+	/**
+	 * Returns the key to cache the descriptors found for the element under:
+	 * its class if the expressions of all the extensions that are active and
+	 * visible only test the type of the element, so that all the elements of a
+	 * class share one entry, or else the element itself.
+	 */
+	private Object getCacheKey(Object anElement, EvaluationCache cache, VisibilityAssistant aVisibilityAssistant,
+			boolean possibleChild) {
+		if (anElement == null || anElement instanceof IStructuredSelection) {
+			return anElement;
+		}
+		Boolean keyedByType = cache.isKeyedByType();
+		if (keyedByType == null) {
+			keyedByType = Boolean.TRUE;
+			for (NavigatorContentDescriptor descriptor : allDescriptors.values()) {
+				if (aVisibilityAssistant.isActive(descriptor) && aVisibilityAssistant.isVisible(descriptor)
+						&& !(possibleChild ? descriptor.hasTypeOnlyPossibleChildren()
+								: descriptor.hasTypeOnlyTriggerPoints())) {
+					keyedByType = Boolean.FALSE;
+					break;
+				}
+			}
+			cache.setKeyedByType(keyedByType.booleanValue());
+			if (Policy.DEBUG_RESOLUTION) {
+				System.out.println("Descriptors cached by type" + //$NON-NLS-1$
+						(possibleChild ? " (possible children)" : "") + ": " + keyedByType); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			}
+		}
+		return keyedByType.booleanValue() ? anElement.getClass() : anElement;
+	}
+
+	/**
+	 * Public only for tests.
+	 *
+	 * @param aVisibilityAssistant
+	 *            The assistant of the viewer
+	 * @return The cache of the trigger point evaluations for the viewer
+	 */
+	public EvaluationCache getTriggerPointEvaluationCache(VisibilityAssistant aVisibilityAssistant) {
+		return getEvaluationCache(cachedTriggerPointEvaluations, aVisibilityAssistant);
+	}
+
 	private EvaluationCache getEvaluationCache(Map<VisibilityAssistant, EvaluationCache> anEvaluationMap,
 			VisibilityAssistant aVisibilityAssistant) {
 		EvaluationCache c = anEvaluationMap.get(aVisibilityAssistant);
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2003, 2015 IBM Corporation and others.
+ * Copyright (c) 2003, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -58,6 +58,12 @@ public class NavigatorContentExtension implements IMementoAware,
 
 	private StructuredViewerManager viewerManager;
 
+	private int childrenCallCount;
+
+	private long childrenTotalTime;
+
+	private long childrenMaxTime;
+
 	/**
 	 * Create an object to manage the instantiated elements from the extension.
 	 *
@@ -356,6 +362,47 @@ public class NavigatorContentExtension implements IMementoAware,
 				.toArray(new NavigatorContentExtension[overridingExtensions.size()]);
 	}
 
+	/**
+	 * Record the time a call to the content provider for the children or the
+	 * elements of a parent took. The calls may be made from several threads
+	 * if the viewer computes the children of its extensions in parallel.
+	 *
+	 * @param nanos
+	 *            The time the call took in nanoseconds
+	 */
+	public synchronized void recordChildrenTime(long nanos) {
+		childrenCallCount++;
+		childrenTotalTime += nanos;
+		childrenMaxTime = Math.max(childrenMaxTime, nanos);
+	}
+
+	/**
+	 *
+	 * @return The number of calls to the content provider for children or
+	 *         elements.
+	 */
+	public synchronized int getChildrenCallCount() {
+		return childrenCallCount;
+	}
+
+	/**
+	 *
+	 * @return The total time of the calls to the content provider for children
+	 *         or elements in nanoseconds.
+	 */
+	public synchronized long getChildrenTotalTime() {
+		return childrenTotalTime;
+	}
+
+	/**
+	 *
+	 * @return The time of the slowest call to the content provider for children
+	 *         or elements in nanoseconds.
+	 */
+	public synchronized long getChildrenMaxTime() {
+		return childrenMaxTime;
+	}
+
 	@Override
 	public String toString() {
 		return descriptor.toString() + " Instance"; //$NON-NLS-1$
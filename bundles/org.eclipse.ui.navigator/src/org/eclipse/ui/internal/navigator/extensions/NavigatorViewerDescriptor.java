@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2003, 2015 IBM Corporation and others.
+ * Copyright (c) 2003, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -40,6 +40,21 @@ public final class NavigatorViewerDescriptor implements
 	 */
 	public static final String PROP_ENFORCE_HAS_CHILDREN = "org.eclipse.ui.navigator.enforceHasChildren"; //$NON-NLS-1$
 
+	/**
+	 * {@value} (boolean): True indicates the children contributed by several
+	 * content extensions should be computed in parallel (<b>false</b>). The
+	 * content providers of the viewer must then be able to compute children
+	 * outside of the UI thread.
+	 */
+	public static final String PROP_PARALLEL_CHILDREN = "org.eclipse.ui.navigator.parallelChildren"; //$NON-NLS-1$
+
+	/**
+	 * {@value} (int): The time in milliseconds to wait for the children of a
+	 * content extension computed in parallel; the children of an extension that
+	 * takes longer are left out (<b>5000</b>).
+	 */
+	public static final String PROP_EXTENSION_TIMEOUT = "org.eclipse.ui.navigator.extensionTimeout"; //$NON-NLS-1$
+
 	static final String TAG_INCLUDES = "includes"; //$NON-NLS-1$
 
 	static final String TAG_EXCLUDES = "excludes"; //$NON-NLS-1$
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2003, 2015 IBM Corporation and others.
+ * Copyright (c) 2003, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -91,6 +91,8 @@ public class StructuredViewerManager {
 			}
 			@Override
 			public void disassociate(Item item) {
+				// children provided for the element that never got an item
+				contentService.forgetChildren(item.getData());
 				synchronized (viewerDataMap) {
 					if (Policy.DEBUG_VIEWER_MAP)
 						System.out.println("disassociate:  item: " + item + " object: " + item.getData()); //$NON-NLS-1$ //$NON-NLS-2$
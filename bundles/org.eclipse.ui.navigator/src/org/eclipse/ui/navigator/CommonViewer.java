@@ -298,6 +298,8 @@ public class CommonViewer extends TreeViewer {
 
 		Object parent = (parentElement == getInput()) ? getInput()
 				: modification.getParent();
+		// children added below a collapsed parent get no item
+		contentService.rememberChildren(parent, modification.getChildren());
 
 		super.add(parent, modification.getChildren().toArray());
 	}
@@ -526,6 +528,10 @@ public class CommonViewer extends TreeViewer {
 		if (element == null && getRoot() == null) {
 			return;
 		}
+		if (element == null || equals(element, getRoot())) {
+			// all shown elements are provided again
+			contentService.forgetContributions();
+		}
 		super.internalRefresh(element, updateLabels);
 	}
 
@@ -17,11 +17,21 @@
  *******************************************************************************/
 package org.eclipse.ui.dialogs;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -30,6 +40,10 @@ import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Predicate;
 import org.eclipse.core.commands.AbstractHandler;
 import org.eclipse.core.commands.ExecutionEvent;
 import org.eclipse.core.commands.IHandler;
@@ -216,6 +230,14 @@ public abstract class FilteredItemsSelectionDialog extends SelectionStatusDialog
 
 	private ItemsFilter lastCompletedFilter;
 
+	/**
+	 * Searches again when the stale index of the last search is updated, see
+	 * {@link #getItemsIndex()}. (null if not waiting for an update)
+	 */
+	private Runnable indexListener;
+
+	private ItemsIndex indexListenerIndex;
+
 	private String initialPatternText;
 
 	private int selectionMode;
@@ -228,6 +250,19 @@ public abstract class FilteredItemsSelectionDialog extends SelectionStatusDialog
 
 	private IHandlerActivation showViewHandler;
 
+	/**
+	 * The number of items a task of the parallel matching tests at least.
+	 */
+	private static final int MATCH_CHUNK_SIZE = 2048;
+
+	/**
+	 * The pool of the parallel matching, shared by the dialogs and created
+	 * lazily.
+	 */
+	private static ForkJoinPool matchPool;
+
+	private volatile boolean parallelMatching;
+
 	/**
 	 * Creates a new instance of the class.
 	 *
@@ -396,6 +431,7 @@ public abstract class FilteredItemsSelectionDialog extends SelectionStatusDialog
 
 	@Override
 	public boolean close() {
+		removeIndexListener();
 		this.filterJob.cancel();
 		this.refreshCacheJob.cancel();
 		this.refreshProgressMessageJob.cancel();
@@ -1210,6 +1246,103 @@ public abstract class FilteredItemsSelectionDialog extends SelectionStatusDialog
 			AbstractContentProvider contentProvider, ItemsFilter itemsFilter,
 			IProgressMonitor progressMonitor) throws CoreException;
 
+	/**
+	 * Returns the index that backs the content of this dialog. If the index is
+	 * ready a full search matches the items of the index instead of calling
+	 * {@link #fillContentProvider(AbstractContentProvider, ItemsFilter, IProgressMonitor)}.
+	 * <p>
+	 * Subclasses that search a large, slowly changing set of items may return
+	 * a long-lived index that they keep up to date themselves. The default
+	 * implementation returns <code>null</code>.
+	 * </p>
+	 *
+	 * @return the items index or <code>null</code> if the content is not
+	 *         indexed
+	 * @since 3.109
+	 */
+	protected ItemsIndex getItemsIndex() {
+		return null;
+	}
+
+	/**
+	 * Searches again once the stale index the last search was based on has
+	 * been collected anew.
+	 */
+	private void searchAgainWhenIndexUpdated(final ItemsIndex itemsIndex) {
+		synchronized (this) {
+			if (indexListener != null) {
+				return;
+			}
+			indexListener = new Runnable() {
+				@Override
+				public void run() {
+					removeIndexListener();
+					Shell shell = getShell();
+					if (shell == null || shell.isDisposed()) {
+						return;
+					}
+					shell.getDisplay().asyncExec(() -> {
+						if (getShell() == null || getShell().isDisposed()) {
+							return;
+						}
+						// the cached result is stale as well
+						lastCompletedFilter = null;
+						lastCompletedResult = null;
+						filter = null;
+						applyFilter();
+					});
+				}
+			};
+			indexListenerIndex = itemsIndex;
+		}
+		itemsIndex.addUpdateListener(indexListener);
+	}
+
+	private void removeIndexListener() {
+		Runnable listener;
+		ItemsIndex itemsIndex;
+		synchronized (this) {
+			listener = indexListener;
+			itemsIndex = indexListenerIndex;
+			indexListener = null;
+			indexListenerIndex = null;
+		}
+		if (listener != null) {
+			itemsIndex.removeUpdateListener(listener);
+		}
+	}
+
+	/**
+	 * Sets whether the items are matched on several threads. Large searches
+	 * and the filtering of large cached results then split the items across
+	 * a fork/join pool of the dialogs. The order of the result does not change, the
+	 * matching items are sorted with the history items first as before.
+	 * <p>
+	 * Only enable the parallel matching if
+	 * {@link ItemsFilter#matchItem(Object)} of the filters returned by
+	 * {@link #createFilter()} can be called from several threads at the same
+	 * time. It is disabled by default.
+	 * </p>
+	 *
+	 * @param parallelMatching
+	 *            <code>true</code> to match the items on several threads
+	 * @since 3.109
+	 */
+	public void setParallelMatching(boolean parallelMatching) {
+		this.parallelMatching = parallelMatching;
+	}
+
+	/**
+	 * Returns whether the items are matched on several threads.
+	 *
+	 * @return <code>true</code> if the items are matched on several threads
+	 * @see #setParallelMatching(boolean)
+	 * @since 3.109
+	 */
+	public boolean isParallelMatching() {
+		return parallelMatching;
+	}
+
 	/**
 	 * Removes selected items from history.
 	 *
@@ -2068,23 +2201,14 @@ public abstract class FilteredItemsSelectionDialog extends SelectionStatusDialog
 			if (lastCompletedFilter != null
 					&& lastCompletedFilter.isSubFilter(this.itemsFilter)) {
 
-				int length = lastCompletedResult.size() / 500;
+				Object[] cachedItems = lastCompletedResult.toArray();
+				int length = cachedItems.length / 500;
 				monitor
 						.beginTask(
 								WorkbenchMessages.FilteredItemsSelectionDialog_cacheSearchJob_taskName,
 								length);
 
-				for (int pos = 0; pos < lastCompletedResult.size(); pos++) {
-
-					Object item = lastCompletedResult.get(pos);
-					if (monitor.isCanceled())
-						break;
-					contentProvider.add(item, itemsFilter);
-
-					if ((pos % 500) == 0) {
-						monitor.worked(1);
-					}
-				}
+				matchItems(cachedItems, monitor);
 
 			} else {
 
@@ -2095,7 +2219,15 @@ public abstract class FilteredItemsSelectionDialog extends SelectionStatusDialog
 									WorkbenchMessages.FilteredItemsSelectionDialog_searchJob_taskName,
 									100);
 
-				fillContentProvider(contentProvider, itemsFilter, subMonitor.split(95));
+				ItemsIndex itemsIndex = getItemsIndex();
+				if (itemsIndex != null && itemsIndex.isReady()) {
+					if (itemsIndex.isStale()) {
+						searchAgainWhenIndexUpdated(itemsIndex);
+					}
+					fillFromIndex(itemsIndex, subMonitor.split(95));
+				} else {
+					fillContentProvider(contentProvider, itemsFilter, subMonitor.split(95));
+				}
 
 				if (monitor != null && !monitor.isCanceled()) {
 					subMonitor.worked(2);
@@ -2106,6 +2238,113 @@ public abstract class FilteredItemsSelectionDialog extends SelectionStatusDialog
 
 		}
 
+		/**
+		 * Adds the matching items of the index to the content provider.
+		 *
+		 * @param itemsIndex
+		 *            the ready index
+		 * @param monitor
+		 *            for monitoring progress
+		 */
+		private void fillFromIndex(ItemsIndex itemsIndex, IProgressMonitor monitor) {
+			Object[] items = itemsIndex.getItems();
+			monitor.beginTask(WorkbenchMessages.FilteredItemsSelectionDialog_searchJob_taskName, items.length / 500);
+			matchItems(items, monitor);
+			monitor.done();
+		}
+
+		/**
+		 * Adds the matching items to the content provider. The items are
+		 * split across the fork/join pool if the parallel matching is enabled,
+		 * each task collecting its own matches, which are added at once at
+		 * the end; the content provider sorts them afterwards, so the order in
+		 * which they are added does not matter.
+		 *
+		 * @param items
+		 *            the items to match
+		 * @param monitor
+		 *            for monitoring progress, one unit per 500 items
+		 */
+		private void matchItems(Object[] items, IProgressMonitor monitor) {
+			if (!parallelMatching || items.length < 2 * MATCH_CHUNK_SIZE) {
+				for (int pos = 0; pos < items.length; pos++) {
+					if (monitor.isCanceled())
+						break;
+					contentProvider.add(items[pos], itemsFilter);
+
+					if ((pos % 500) == 0) {
+						monitor.worked(1);
+					}
+				}
+				return;
+			}
+
+			List<Object> matches = getMatchPool().invoke(new MatchTask(items, 0, items.length, itemsFilter, monitor));
+			if (!monitor.isCanceled()) {
+				contentProvider.addMatches(matches, itemsFilter);
+			}
+			monitor.worked(items.length / 500);
+		}
+
+	}
+
+	private static synchronized ForkJoinPool getMatchPool() {
+		if (matchPool == null) {
+			matchPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors(), pool -> {
+				ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+				thread.setName("Filtered Items Matcher " + thread.getPoolIndex()); //$NON-NLS-1$
+				return thread;
+			}, null, false);
+		}
+		return matchPool;
+	}
+
+	/**
+	 * Matches a range of items, splitting it in halves until it is small
+	 * enough, and returns the matching items.
+	 */
+	private class MatchTask extends RecursiveTask<List<Object>> {
+
+		private static final long serialVersionUID = 0L;
+
+		private final Object[] items;
+
+		private final int from;
+
+		private final int to;
+
+		private final ItemsFilter itemsFilter;
+
+		private final IProgressMonitor monitor;
+
+		MatchTask(Object[] items, int from, int to, ItemsFilter itemsFilter, IProgressMonitor monitor) {
+			this.items = items;
+			this.from = from;
+			this.to = to;
+			this.itemsFilter = itemsFilter;
+			this.monitor = monitor;
+		}
+
+		@Override
+		protected List<Object> compute() {
+			if (to - from <= MATCH_CHUNK_SIZE) {
+				List<Object> matches = new ArrayList<>();
+				for (int pos = from; pos < to; pos++) {
+					if ((pos - from) % 500 == 0 && monitor.isCanceled())
+						break;
+					if (itemsFilter.matchItem(items[pos])) {
+						matches.add(items[pos]);
+					}
+				}
+				return matches;
+			}
+			int middle = (from + to) >>> 1;
+			MatchTask second = new MatchTask(items, middle, to, itemsFilter, monitor);
+			second.fork();
+			List<Object> matches = new MatchTask(items, from, middle, itemsFilter, monitor).compute();
+			matches.addAll(second.join());
+			return matches;
+		}
 	}
 
 	/**
@@ -2280,6 +2519,268 @@ public abstract class FilteredItemsSelectionDialog extends SelectionStatusDialog
 
 	}
 
+	/**
+	 * An index holds all items a dialog can show so that a full search does
+	 * not have to collect them again. It is meant to live longer than a single
+	 * dialog: the owner keeps it up to date, e.g. from change events, and can
+	 * store it to a file between sessions.
+	 * <p>
+	 * The index is only used once it is ready, i.e. after it was loaded or
+	 * its owner has collected all items and called {@link #setReady(boolean)}.
+	 * A loaded index is stale until the owner has collected the items again
+	 * and called {@link #setItems(Collection)}; the dialogs that searched a
+	 * stale index search again then. All methods are thread safe.
+	 * </p>
+	 *
+	 * @see FilteredItemsSelectionDialog#getItemsIndex()
+	 * @since 3.109
+	 */
+	protected static abstract class ItemsIndex {
+
+		private static final int FILE_VERSION = 1;
+
+		private Set items = new HashSet();
+
+		private volatile boolean ready;
+
+		private volatile boolean stale;
+
+		/**
+		 * The items removed while the index is loaded, <code>null</code> if
+		 * it is not loading.
+		 */
+		private Set removedWhileLoading;
+
+		private final ListenerList<Runnable> updateListeners = new ListenerList<>();
+
+		/**
+		 * Adds an item to the index.
+		 *
+		 * @param item
+		 *            the item to add
+		 */
+		public synchronized void add(Object item) {
+			items.add(item);
+		}
+
+		/**
+		 * Removes an item from the index.
+		 *
+		 * @param item
+		 *            the item to remove
+		 * @return <code>true</code> if the index contained the item
+		 */
+		public synchronized boolean remove(Object item) {
+			if (removedWhileLoading != null) {
+				removedWhileLoading.add(item);
+			}
+			return items.remove(item);
+		}
+
+		/**
+		 * Removes all items that satisfy the given predicate, e.g. all the
+		 * children of a removed container.
+		 *
+		 * @param filter
+		 *            returns <code>true</code> for the items to remove
+		 */
+		public synchronized void removeIf(Predicate<Object> filter) {
+			if (removedWhileLoading != null) {
+				for (Object item : items) {
+					if (filter.test(item)) {
+						removedWhileLoading.add(item);
+					}
+				}
+			}
+			items.removeIf(filter);
+		}
+
+		/**
+		 * Replaces the items of the index, e.g. after the owner has collected
+		 * them again. The index is not stale afterwards and the update
+		 * listeners are notified.
+		 *
+		 * @param newItems
+		 *            the new items of the index
+		 */
+		public void setItems(Collection newItems) {
+			synchronized (this) {
+				items = new HashSet(newItems);
+			}
+			stale = false;
+			for (Runnable listener : updateListeners) {
+				listener.run();
+			}
+		}
+
+		/**
+		 * Returns whether the items were loaded from a file and not collected
+		 * again since, so that they may miss the changes made in between.
+		 *
+		 * @return <code>true</code> if the index is stale
+		 */
+		public boolean isStale() {
+			return stale;
+		}
+
+		/**
+		 * Adds a listener that is notified on any thread when the items of
+		 * the index are replaced by {@link #setItems(Collection)}.
+		 *
+		 * @param listener
+		 *            the listener to add
+		 */
+		public void addUpdateListener(Runnable listener) {
+			updateListeners.add(listener);
+		}
+
+		/**
+		 * Removes an update listener.
+		 *
+		 * @param listener
+		 *            the listener to remove
+		 */
+		public void removeUpdateListener(Runnable listener) {
+			updateListeners.remove(listener);
+		}
+
+		/**
+		 * Returns <code>true</code> if the index contains the item.
+		 *
+		 * @param item
+		 *            the item to look for
+		 * @return <code>true</code> if the index contains the item
+		 */
+		public synchronized boolean contains(Object item) {
+			return items.contains(item);
+		}
+
+		/**
+		 * Returns a snapshot of the items of the index.
+		 *
+		 * @return array of the indexed items
+		 */
+		public synchronized Object[] getItems() {
+			return items.toArray();
+		}
+
+		/**
+		 * Returns whether the index holds all items and can replace a full
+		 * search.
+		 *
+		 * @return <code>true</code> if the index is ready
+		 */
+		public boolean isReady() {
+			return ready;
+		}
+
+		/**
+		 * Marks the index as (not) holding all items.
+		 *
+		 * @param ready
+		 *            <code>true</code> if the index is complete
+		 */
+		protected void setReady(boolean ready) {
+			this.ready = ready;
+		}
+
+		/**
+		 * Loads the items stored by {@link #save(File)}. The index is ready
+		 * and stale afterwards. The items added and removed while loading are
+		 * kept added and removed. Nothing is loaded if the file does not
+		 * exist.
+		 *
+		 * @param file
+		 *            the file to read
+		 * @return <code>true</code> if the items were loaded
+		 * @throws IOException
+		 *             if the file cannot be read
+		 */
+		public boolean load(File file) throws IOException {
+			if (!file.isFile()) {
+				return false;
+			}
+			synchronized (this) {
+				removedWhileLoading = new HashSet();
+			}
+			try (DataInputStream in = new DataInputStream(
+					new BufferedInputStream(new FileInputStream(file)))) {
+				if (in.readInt() != FILE_VERSION) {
+					return false;
+				}
+				int count = in.readInt();
+				Set loaded = new HashSet(count * 4 / 3 + 1);
+				for (int i = 0; i < count; i++) {
+					Object item = restoreItem(in);
+					if (item != null) {
+						loaded.add(item);
+					}
+				}
+				synchronized (this) {
+					// keep what was added or removed while loading
+					loaded.removeAll(removedWhileLoading);
+					loaded.addAll(items);
+					items = loaded;
+				}
+			} finally {
+				synchronized (this) {
+					removedWhileLoading = null;
+				}
+			}
+			stale = true;
+			setReady(true);
+			return true;
+		}
+
+		/**
+		 * Stores the items of the index. The file is replaced only once all
+		 * items are written.
+		 *
+		 * @param file
+		 *            the file to write
+		 * @throws IOException
+		 *             if the file cannot be written
+		 */
+		public void save(File file) throws IOException {
+			Object[] snapshot = getItems();
+			File tempFile = new File(file.getPath() + ".tmp"); //$NON-NLS-1$
+			try (DataOutputStream out = new DataOutputStream(
+					new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+				out.writeInt(FILE_VERSION);
+				out.writeInt(snapshot.length);
+				for (int i = 0; i < snapshot.length; i++) {
+					storeItem(snapshot[i], out);
+				}
+			}
+			if (file.exists() && !file.delete() || !tempFile.renameTo(file)) {
+				throw new IOException("Cannot replace " + file); //$NON-NLS-1$
+			}
+		}
+
+		/**
+		 * Reads an item written by {@link #storeItem(Object, DataOutput)}.
+		 *
+		 * @param in
+		 *            the input to read from
+		 * @return the restored item or <code>null</code> if it no longer
+		 *         exists
+		 * @throws IOException
+		 */
+		protected abstract Object restoreItem(DataInput in) throws IOException;
+
+		/**
+		 * Writes an item.
+		 *
+		 * @param item
+		 *            the item to store
+		 * @param out
+		 *            the output to write to
+		 * @throws IOException
+		 */
+		protected abstract void storeItem(Object item, DataOutput out) throws IOException;
+
+	}
+
 	/**
 	 * Filters elements using SearchPattern by comparing the names of items with
 	 * the filter pattern.
@@ -2602,6 +3103,20 @@ public abstract class FilteredItemsSelectionDialog extends SelectionStatusDialog
 			}
 		}
 
+		/**
+		 * Adds the items that matched the filter.
+		 *
+		 * @param matches
+		 *            the items that matched
+		 * @param itemsFilter
+		 *            the filter they were matched with
+		 */
+		void addMatches(Collection<Object> matches, ItemsFilter itemsFilter) {
+			if (itemsFilter == filter) {
+				this.items.addAll(matches);
+			}
+		}
+
 		/**
 		 * Add all history items to <code>contentProvider</code>.
 		 *
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2015 IBM Corporation and others.
+ * Copyright (c) 2004, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -267,8 +267,7 @@ public class PatternFilter extends ViewerFilter {
      * @return true if the given element's label matches the filter text
      */
     protected boolean isLeafMatch(Viewer viewer, Object element){
-        String labelText = ((ILabelProvider) ((StructuredViewer) viewer)
-                .getLabelProvider()).getText(element);
+        String labelText = getLabelText(viewer, element);
 
         if(labelText == null) {
 			return false;
@@ -276,6 +275,20 @@ public class PatternFilter extends ViewerFilter {
         return wordMatches(labelText);
     }
 
+	/**
+	 * Returns the label of the element that is matched by
+	 * {@link #isLeafMatch(Viewer, Object)}.
+	 *
+	 * @param viewer
+	 *            the viewer that contains the element
+	 * @param element
+	 *            the tree element
+	 * @return the label or <code>null</code>
+	 */
+	/* package */ String getLabelText(Viewer viewer, Object element) {
+		return ((ILabelProvider) ((StructuredViewer) viewer).getLabelProvider()).getText(element);
+	}
+
     /**
      * Take the given filter text and break it down into words using a
      * BreakIterator.
@@ -16,6 +16,7 @@ import org.eclipse.core.runtime.IConfigurationElement;
 import org.eclipse.core.runtime.IExtension;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.e4.ui.internal.workbench.StartupTracer;
 import org.eclipse.jface.util.SafeRunnable;
 import org.eclipse.ui.IStartup;
 import org.eclipse.ui.PlatformUI;
@@ -72,11 +73,13 @@ public class EarlyStartupRunnable extends SafeRunnable {
     private void runEarlyStartup(Object executableExtension) {
 		if (executableExtension instanceof IStartup) {
 			String methodName = executableExtension.getClass().getName() + ".earlyStartup"; //$NON-NLS-1$
+			long start = StartupTracer.start();
 			try {
 				UIStats.start(UIStats.EARLY_STARTUP, methodName);
 				((IStartup) executableExtension).earlyStartup();
 			} finally {
 				UIStats.end(UIStats.EARLY_STARTUP, executableExtension, methodName);
+				StartupTracer.end("earlyStartup", extension.getNamespaceIdentifier() + ": " + methodName, start); //$NON-NLS-1$ //$NON-NLS-2$
 			}
 		} else {
 			String message = executableExtension == null ?
@@ -281,4 +281,19 @@ public interface IPreferenceConstants {
 	 */
 	public static final String SAVE_AUTOMATICALLY_INTERVAL = "SAVE_AUTOMATICALLY_INTERVAL"; //$NON-NLS-1$
 
+	/**
+	 * Preference value that specifies the delay in milliseconds by which the
+	 * re-evaluation of handler enablement and menu visibility is deferred
+	 * after a source (e.g. the selection) changes. Consecutive changes within
+	 * the delay are coalesced and only the latest state is evaluated. Pending
+	 * changes are always evaluated before a command executes. Context
+	 * activations are not deferred.
+	 * <p>
+	 * The integer default value for this preference is: <code>-1</code>,
+	 * meaning re-evaluation happens synchronously on every change. A value of
+	 * <code>0</code> defers re-evaluation until the event loop is idle.
+	 * </p>
+	 */
+	public static final String EVALUATION_DELAY = "EVALUATION_DELAY"; //$NON-NLS-1$
+
 }
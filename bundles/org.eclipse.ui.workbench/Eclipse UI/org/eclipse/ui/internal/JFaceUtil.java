@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2015 IBM Corporation and others.
+ * Copyright (c) 2005, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -35,6 +35,12 @@ import org.eclipse.ui.statushandlers.StatusManager;
  */
 final class JFaceUtil {
 
+	/**
+	 * System property that makes JFace keep decoded image data in the state
+	 * location of the workbench.
+	 */
+	private static final String IMAGE_DATA_CACHE_PROPERTY = "org.eclipse.ui.imageDataCache"; //$NON-NLS-1$
+
 	private JFaceUtil() {
 		// prevents intantiation
 	}
@@ -74,6 +80,12 @@ final class JFaceUtil {
 			}
 		});
 
+		// Keep decoded icons for the next start if requested
+		if (Boolean.getBoolean(IMAGE_DATA_CACHE_PROPERTY)) {
+			InternalPolicy.IMAGE_DATA_CACHE_LOCATION = WorkbenchPlugin.getDefault().getStateLocation()
+					.append("imageData").toFile(); //$NON-NLS-1$
+		}
+
 		// Get all debug options from Platform
 		if ("true".equalsIgnoreCase(Platform.getDebugOption(Policy.JFACE + "/debug"))) { //$NON-NLS-1$ //$NON-NLS-2$
 			Policy.DEBUG_DIALOG_NO_PARENT = "true".equalsIgnoreCase(Platform.getDebugOption(Policy.JFACE + "/debug/dialog/noparent")); //$NON-NLS-1$ //$NON-NLS-2$
@@ -88,6 +100,7 @@ final class JFaceUtil {
 			// loadURLImageDescriptor2x is "true" by default and should stay "true" when absent in the debug options file:
 			InternalPolicy.DEBUG_LOAD_URL_IMAGE_DESCRIPTOR_2x = !"false".equalsIgnoreCase(Platform.getDebugOption(Policy.JFACE + "/debug/loadURLImageDescriptor2x")); //$NON-NLS-1$ //$NON-NLS-2$
 			InternalPolicy.DEBUG_LOAD_URL_IMAGE_DESCRIPTOR_2x_PNG_FOR_GIF = "true".equalsIgnoreCase(Platform.getDebugOption(Policy.JFACE + "/debug/loadURLImageDescriptor2xPngForGif")); //$NON-NLS-1$ //$NON-NLS-2$
+			InternalPolicy.DEBUG_TRACK_RESOURCE_ALLOCATIONS = "true".equalsIgnoreCase(Platform.getDebugOption(Policy.JFACE + "/debug/trackResourceAllocations")); //$NON-NLS-1$ //$NON-NLS-2$
 		}
 	}
 
@@ -44,7 +44,9 @@ import java.util.Set;
 import java.util.UUID;
 import org.eclipse.core.commands.Command;
 import org.eclipse.core.commands.CommandManager;
+import org.eclipse.core.commands.ExecutionEvent;
 import org.eclipse.core.commands.ExecutionException;
+import org.eclipse.core.commands.IExecutionListener;
 import org.eclipse.core.commands.NotEnabledException;
 import org.eclipse.core.commands.NotHandledException;
 import org.eclipse.core.commands.common.EventManager;
@@ -80,6 +82,7 @@ import org.eclipse.e4.core.contexts.IEclipseContext;
 import org.eclipse.e4.core.di.InjectionException;
 import org.eclipse.e4.core.services.events.IEventBroker;
 import org.eclipse.e4.ui.internal.workbench.E4Workbench;
+import org.eclipse.e4.ui.internal.workbench.StartupTracer;
 import org.eclipse.e4.ui.internal.workbench.renderers.swt.IUpdateService;
 import org.eclipse.e4.ui.internal.workbench.swt.E4Application;
 import org.eclipse.e4.ui.internal.workbench.swt.IEventLoopAdvisor;
@@ -1640,6 +1643,16 @@ public final class Workbench extends EventManager implements IWorkbench,
 		// the services, and hooking them up in the correct order
 		e4Context.set("org.eclipse.core.runtime.Platform", Platform.class); //$NON-NLS-1$
 		final EvaluationService evaluationService = new EvaluationService(e4Context);
+		final IPreferenceStore internalStore = WorkbenchPlugin.getDefault().getPreferenceStore();
+		evaluationService.setEvaluationDelay(internalStore.getInt(IPreferenceConstants.EVALUATION_DELAY));
+		internalStore.addPropertyChangeListener(new IPropertyChangeListener() {
+			@Override
+			public void propertyChange(PropertyChangeEvent event) {
+				if (IPreferenceConstants.EVALUATION_DELAY.equals(event.getProperty())) {
+					evaluationService.setEvaluationDelay(internalStore.getInt(IPreferenceConstants.EVALUATION_DELAY));
+				}
+			}
+		});
 
 		StartupThreading.runWithoutExceptions(new StartupRunnable() {
 
@@ -2367,6 +2380,29 @@ UIEvents.Context.TOPIC_CONTEXT,
 
 		final IContextService contextService = cxs;
 
+		// Handler enablement may be re-evaluated lazily after source changes,
+		// make sure it is up-to-date before a command executes.
+		commandManager.addExecutionListener(new IExecutionListener() {
+			@Override
+			public void preExecute(String commandId, ExecutionEvent event) {
+				if (evaluationService instanceof EvaluationService) {
+					((EvaluationService) evaluationService).evaluatePendingChanges();
+				}
+			}
+
+			@Override
+			public void postExecuteSuccess(String commandId, Object returnValue) {
+			}
+
+			@Override
+			public void postExecuteFailure(String commandId, ExecutionException exception) {
+			}
+
+			@Override
+			public void notHandled(String commandId, NotHandledException exception) {
+			}
+		});
+
 		StartupThreading.runWithoutExceptions(new StartupRunnable() {
 
 			@Override
@@ -2810,11 +2846,22 @@ UIEvents.Context.TOPIC_CONTEXT,
 
 		final IExtension[] extensions = point.getExtensions();
 		if (extensions.length == 0) {
+			StartupTracer.write();
 			return;
 		}
 		Job job = new Job("Workbench early startup") { //$NON-NLS-1$
 			@Override
 			protected IStatus run(IProgressMonitor monitor) {
+				long start = StartupTracer.start();
+				try {
+					return runEarlyStartup(monitor);
+				} finally {
+					StartupTracer.end("earlyStartup", getName(), start); //$NON-NLS-1$
+					StartupTracer.write();
+				}
+			}
+
+			private IStatus runEarlyStartup(IProgressMonitor monitor) {
 				HashSet disabledPlugins = new HashSet(Arrays
 						.asList(getDisabledEarlyActivatedPlugins()));
 				monitor.beginTask(WorkbenchMessages.Workbench_startingPlugins, extensions.length);
@@ -2869,6 +2916,7 @@ UIEvents.Context.TOPIC_CONTEXT,
 	 */
 	private int runUI() {
 		UIStats.start(UIStats.START_WORKBENCH, "Workbench"); //$NON-NLS-1$
+		final long startTime = StartupTracer.start();
 
 		// deadlock code
 		boolean avoidDeadlock = true;
@@ -2936,7 +2984,9 @@ UIEvents.Context.TOPIC_CONTEXT,
 			final boolean[] initOK = new boolean[1];
 
 			// initialize workbench and restore or open one window
+			long initStart = StartupTracer.start();
 			initOK[0] = init();
+			StartupTracer.end("workbench", "Initialize workbench", initStart); //$NON-NLS-1$ //$NON-NLS-2$
 
 			if (initOK[0] && runEventLoop) {
 				// Same registration as in E4Workbench
@@ -2995,6 +3045,7 @@ UIEvents.Context.TOPIC_CONTEXT,
 					public void run() {
 						UIStats.end(UIStats.START_WORKBENCH, this, "Workbench"); //$NON-NLS-1$
 						UIStats.startupComplete();
+						StartupTracer.end("workbench", "Start workbench", startTime); //$NON-NLS-1$ //$NON-NLS-2$
 					}
 				});
 
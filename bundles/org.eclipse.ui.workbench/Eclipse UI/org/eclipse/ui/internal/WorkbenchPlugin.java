@@ -30,6 +30,7 @@ import org.eclipse.e4.core.commands.internal.ICommandHelpService;
 import org.eclipse.e4.core.contexts.ContextFunction;
 import org.eclipse.e4.core.contexts.ContextInjectionFactory;
 import org.eclipse.e4.core.contexts.IEclipseContext;
+import org.eclipse.e4.ui.internal.workbench.StartupTracer;
 import org.eclipse.e4.ui.services.help.EHelpService;
 import org.eclipse.jface.preference.IPreferenceStore;
 import org.eclipse.jface.preference.PreferenceManager;
@@ -784,6 +785,7 @@ public class WorkbenchPlugin extends AbstractUIPlugin {
 
     @Override
 	public void start(BundleContext context) throws Exception {
+		long start = StartupTracer.start();
     	context.addBundleListener(getBundleListener());
         super.start(context);
         bundleContext = context;
@@ -792,6 +794,7 @@ public class WorkbenchPlugin extends AbstractUIPlugin {
 
 		parseBidiArguments();
 		Window.setDefaultOrientation(getDefaultOrientation());
+		StartupTracer.end("bundle", "Start " + context.getBundle().getSymbolicName(), start); //$NON-NLS-1$ //$NON-NLS-2$
 
         // The UI plugin needs to be initialized so that it can install the callback in PrefUtil,
         // which needs to be done as early as possible, before the workbench
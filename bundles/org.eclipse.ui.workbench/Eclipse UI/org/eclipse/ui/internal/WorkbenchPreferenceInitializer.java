@@ -118,6 +118,9 @@ public class WorkbenchPreferenceInitializer extends AbstractPreferenceInitialize
 		node.putBoolean(IPreferenceConstants.SAVE_AUTOMATICALLY, false);
 		node.putInt(IPreferenceConstants.SAVE_AUTOMATICALLY_INTERVAL, 20);
 
+		// Deferred re-evaluation of handler enablement and menu visibility
+		node.putInt(IPreferenceConstants.EVALUATION_DELAY, -1);
+
 		IEclipsePreferences rootNode = (IEclipsePreferences) Platform
 				.getPreferencesService().getRootNode()
 				.node(InstanceScope.SCOPE);
@@ -30,6 +30,12 @@ import org.eclipse.ui.services.IEvaluationReference;
  *
  */
 public class EvaluationReference extends RunAndTrack implements IEvaluationReference {
+	/**
+	 * The number of times any reference has been re-evaluated. Only used to
+	 * report evaluation counts when tracing is enabled.
+	 */
+	static int evaluationCount = 0;
+
 	final IEclipseContext context;
 	final Expression expression;
 	final IPropertyChangeListener listener;
@@ -93,6 +99,7 @@ public class EvaluationReference extends RunAndTrack implements IEvaluationRefer
 	}
 
 	public void evaluate() {
+		evaluationCount++;
 		boolean value = cache;
 		evaluate(new ExpressionContext(context));
 		if (!postingChanges) {
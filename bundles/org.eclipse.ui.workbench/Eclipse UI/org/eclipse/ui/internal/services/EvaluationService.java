@@ -15,11 +15,16 @@ package org.eclipse.ui.internal.services;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import org.eclipse.core.commands.util.Tracing;
 import org.eclipse.core.expressions.Expression;
 import org.eclipse.core.expressions.ExpressionInfo;
 import org.eclipse.core.expressions.IEvaluationContext;
@@ -37,10 +42,13 @@ import org.eclipse.jface.util.IPropertyChangeListener;
 import org.eclipse.jface.util.PropertyChangeEvent;
 import org.eclipse.jface.viewers.ISelection;
 import org.eclipse.jface.viewers.IStructuredSelection;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.ui.ISourceProvider;
 import org.eclipse.ui.ISourceProviderListener;
 import org.eclipse.ui.ISources;
+import org.eclipse.ui.internal.IPreferenceConstants;
 import org.eclipse.ui.internal.WorkbenchPlugin;
+import org.eclipse.ui.internal.misc.Policy;
 import org.eclipse.ui.services.IEvaluationReference;
 import org.eclipse.ui.services.IEvaluationService;
 
@@ -51,6 +59,18 @@ import org.eclipse.ui.services.IEvaluationService;
 public final class EvaluationService implements IEvaluationService {
 	public static final String DEFAULT_VAR = "org.eclipse.ui.internal.services.EvaluationService.default_var"; //$NON-NLS-1$
 	private static final String RE_EVAL = "org.eclipse.ui.internal.services.EvaluationService.evaluate"; //$NON-NLS-1$
+
+	/**
+	 * Whether to report how many expressions are re-evaluated for each source
+	 * change.
+	 */
+	private static final boolean DEBUG_PERFORMANCE = Policy.DEBUG_EVALUATIONS_PERFORMANCE;
+
+	/**
+	 * The component name to print when displaying tracing information.
+	 */
+	private static final String TRACING_COMPONENT = "EVALUATIONS"; //$NON-NLS-1$
+
 	private boolean evaluate = false;
 	private ExpressionContext legacyContext;
 	private IEclipseContext context;
@@ -60,6 +80,14 @@ public final class EvaluationService implements IEvaluationService {
 	private ListenerList<IPropertyChangeListener> serviceListeners = new ListenerList<>(ListenerList.IDENTITY);
 	ArrayList<ISourceProvider> sourceProviders = new ArrayList<>();
 	LinkedList<EvaluationReference> refs = new LinkedList<>();
+
+	/**
+	 * The evaluation references indexed by the variable and property names
+	 * their expressions access. This is used to only re-evaluate the affected
+	 * references when an evaluation is requested for a given name. The
+	 * references for each name are kept in registration order.
+	 */
+	private Map<String, Set<EvaluationReference>> refsByName = new HashMap<>();
 	private ISourceProviderListener contextUpdater;
 
 	private HashSet<String> ratVariables = new HashSet<>();
@@ -68,22 +96,54 @@ public final class EvaluationService implements IEvaluationService {
 		public boolean changed(IEclipseContext context) {
 			context.get(RE_EVAL);
 			String[] vars = ratVariables.toArray(new String[ratVariables.size()]);
+			Map<String, Object> values = new LinkedHashMap<>();
 			for (String var : vars) {
-				Object value = context.getActive(var);
-				if (value == null) {
-					ratContext.remove(var);
-				} else {
-					ratContext.set(var, value);
+				values.put(var, context.getActive(var));
+			}
+			if (evaluationDelay >= 0) {
+				Display display = Display.getCurrent();
+				if (display != null && !display.isDisposed()) {
+					deferUpdate(display, values);
+					return true;
 				}
 			}
-			// This ties tool item enablement to variable changes that can
-			// effect the enablement.
-			getEventBroker()
-					.post(UIEvents.REQUEST_ENABLEMENT_UPDATE_TOPIC, UIEvents.ALL_ELEMENT_ID);
+			cancelPendingUpdate();
+			pendingValues = null;
+			update(values);
 			return true;
 		}
 	};
 
+	/**
+	 * The delay in milliseconds by which the re-evaluation of the references
+	 * after a variable change is deferred. A negative value means that the
+	 * references are re-evaluated synchronously, <code>0</code> means that
+	 * they are re-evaluated as soon as the event loop is idle.
+	 *
+	 * @see IPreferenceConstants#EVALUATION_DELAY
+	 */
+	private int evaluationDelay = -1;
+
+	/**
+	 * The latest values of the variables whose re-evaluation is deferred, or
+	 * <code>null</code> if there are no pending changes.
+	 */
+	private Map<String, Object> pendingValues;
+
+	/**
+	 * The display on which the pending update has been scheduled, or
+	 * <code>null</code> if none is scheduled.
+	 */
+	private Display scheduledDisplay;
+
+	private final Runnable pendingUpdate = new Runnable() {
+		@Override
+		public void run() {
+			scheduledDisplay = null;
+			evaluatePendingChanges();
+		}
+	};
+
 	private HashSet<String> variableFilter = new HashSet<>();
 	private IEventBroker eventBroker;
 
@@ -114,16 +174,34 @@ public final class EvaluationService implements IEvaluationService {
 
 			@Override
 			public void sourceChanged(int sourcePriority, String sourceName, Object sourceValue) {
+				long startTime = 0L;
+				int startCount = 0;
+				if (DEBUG_PERFORMANCE) {
+					startTime = System.currentTimeMillis();
+					startCount = EvaluationReference.evaluationCount;
+				}
 				changeVariable(sourceName, sourceValue);
+				if (DEBUG_PERFORMANCE) {
+					traceEvaluations(sourceName, startCount, startTime);
+				}
 			}
 
 			@Override
 			public void sourceChanged(int sourcePriority, Map sourceValuesByName) {
+				long startTime = 0L;
+				int startCount = 0;
+				if (DEBUG_PERFORMANCE) {
+					startTime = System.currentTimeMillis();
+					startCount = EvaluationReference.evaluationCount;
+				}
 				Iterator i = sourceValuesByName.entrySet().iterator();
 				while (i.hasNext()) {
 					final Map.Entry entry = (Entry) i.next();
 					changeVariable((String) entry.getKey(), entry.getValue());
 				}
+				if (DEBUG_PERFORMANCE) {
+					traceEvaluations(sourceValuesByName.keySet().toString(), startCount, startTime);
+				}
 			}
 		};
 		variableFilter.addAll(Arrays.asList(new String[] { ISources.ACTIVE_WORKBENCH_WINDOW_NAME,
@@ -135,6 +213,95 @@ public final class EvaluationService implements IEvaluationService {
 		context.runAndTrack(ratUpdater);
 	}
 
+	/**
+	 * Updates the variables the references are evaluated against, which
+	 * re-evaluates the references depending on the changed ones.
+	 */
+	private void update(Map<String, Object> values) {
+		for (Entry<String, Object> entry : values.entrySet()) {
+			if (entry.getValue() == null) {
+				ratContext.remove(entry.getKey());
+			} else {
+				ratContext.set(entry.getKey(), entry.getValue());
+			}
+		}
+		// This ties tool item enablement to variable changes that can
+		// effect the enablement.
+		getEventBroker().post(UIEvents.REQUEST_ENABLEMENT_UPDATE_TOPIC, UIEvents.ALL_ELEMENT_ID);
+	}
+
+	/**
+	 * Records the latest values of the variables and (re-)schedules the
+	 * update. Changes arriving in the meantime replace these values, so that
+	 * only the latest state is evaluated.
+	 */
+	private void deferUpdate(Display display, Map<String, Object> values) {
+		pendingValues = values;
+		if (scheduledDisplay != null && scheduledDisplay != display) {
+			cancelPendingUpdate();
+		}
+		if (evaluationDelay == 0) {
+			if (scheduledDisplay == null) {
+				display.asyncExec(pendingUpdate);
+			}
+		} else {
+			// restarts the timer if it was already scheduled
+			display.timerExec(evaluationDelay, pendingUpdate);
+		}
+		scheduledDisplay = display;
+	}
+
+	private void cancelPendingUpdate() {
+		if (scheduledDisplay != null) {
+			if (!scheduledDisplay.isDisposed()) {
+				scheduledDisplay.timerExec(-1, pendingUpdate);
+			}
+			scheduledDisplay = null;
+		}
+	}
+
+	/**
+	 * Synchronously re-evaluates the references affected by the variable
+	 * changes whose re-evaluation has been deferred, i.e. the handler
+	 * enablement and the menu visibility. This must be called whenever
+	 * up-to-date results are required, e.g. just before a command is
+	 * executed. This does nothing if there are no pending changes.
+	 */
+	public void evaluatePendingChanges() {
+		Map<String, Object> values = pendingValues;
+		if (values == null) {
+			return;
+		}
+		cancelPendingUpdate();
+		pendingValues = null;
+		update(values);
+	}
+
+	/**
+	 * Sets the delay by which the re-evaluation of the references is deferred
+	 * after a variable changes. While it is deferred, consecutive changes are
+	 * coalesced so that only the latest state is evaluated.
+	 *
+	 * @param delay
+	 *            the delay in milliseconds; <code>0</code> to re-evaluate as
+	 *            soon as the event loop is idle, or a negative value to
+	 *            re-evaluate synchronously on every change.
+	 */
+	public void setEvaluationDelay(int delay) {
+		evaluationDelay = delay;
+		if (delay < 0) {
+			evaluatePendingChanges();
+		}
+	}
+
+	/**
+	 * @return the delay in milliseconds by which the re-evaluation of the
+	 *         references is deferred; a negative value if it is synchronous.
+	 */
+	public int getEvaluationDelay() {
+		return evaluationDelay;
+	}
+
 	private void contextEvaluate() {
 		evaluate = !evaluate;
 		context.set(RE_EVAL, Boolean.valueOf(evaluate));
@@ -191,10 +358,13 @@ public final class EvaluationService implements IEvaluationService {
 
 	@Override
 	public void dispose() {
+		cancelPendingUpdate();
+		pendingValues = null;
 		for (EvaluationReference ref : refs) {
 			invalidate(ref, false);
 		}
 		refs.clear();
+		refsByName.clear();
 		serviceListeners.clear();
 	}
 
@@ -235,19 +405,69 @@ public final class EvaluationService implements IEvaluationService {
 					&& ratVariables.add(IServiceConstants.ACTIVE_SELECTION)) {
 				changed = true;
 			}
+			index(eref, info.getAccessedVariableNames());
+			index(eref, info.getAccessedPropertyNames());
 		}
 		if (changed) {
 			contextEvaluate();
 		}
+		// evaluate the new reference against the latest state
+		evaluatePendingChanges();
 		eref.participating = true;
 		ratContext.runAndTrack(eref);
 	}
 
+	/**
+	 * Adds the given reference to the name index for each of the given names.
+	 *
+	 * @param ref
+	 *            the reference to index; must not be <code>null</code>.
+	 * @param names
+	 *            the variable or property names accessed by the reference's
+	 *            expression; must not be <code>null</code>.
+	 */
+	private void index(EvaluationReference ref, String[] names) {
+		for (String name : names) {
+			Set<EvaluationReference> dependents = refsByName.get(name);
+			if (dependents == null) {
+				dependents = new LinkedHashSet<>();
+				refsByName.put(name, dependents);
+			}
+			dependents.add(ref);
+		}
+	}
+
+	/**
+	 * Removes the given reference from the name index.
+	 *
+	 * @param ref
+	 *            the reference to remove; must not be <code>null</code>.
+	 */
+	private void unindex(EvaluationReference ref) {
+		Expression expr = ref.getExpression();
+		if (expr == null) {
+			return;
+		}
+		ExpressionInfo info = expr.computeExpressionInfo();
+		unindex(ref, info.getAccessedVariableNames());
+		unindex(ref, info.getAccessedPropertyNames());
+	}
+
+	private void unindex(EvaluationReference ref, String[] names) {
+		for (String name : names) {
+			Set<EvaluationReference> dependents = refsByName.get(name);
+			if (dependents != null && dependents.remove(ref) && dependents.isEmpty()) {
+				refsByName.remove(name);
+			}
+		}
+	}
+
 	private void invalidate(IEvaluationReference ref, boolean remove) {
+		EvaluationReference eref = (EvaluationReference) ref;
 		if (remove) {
 			refs.remove(ref);
+			unindex(eref);
 		}
-		EvaluationReference eref = (EvaluationReference) ref;
 		eref.participating = false;
 		eref.evaluate();
 		eref.hasRun = false;
@@ -271,34 +491,30 @@ public final class EvaluationService implements IEvaluationService {
 		context.remove(pokeVar);
 		context.set(pokeVar, "link"); //$NON-NLS-1$
 
+		long startTime = 0L;
+		int startCount = 0;
+		if (DEBUG_PERFORMANCE) {
+			startTime = System.currentTimeMillis();
+			startCount = EvaluationReference.evaluationCount;
+		}
+
+		evaluatePendingChanges();
 		String[] sourceNames = new String[] { propertyName };
 		startSourceChange(sourceNames);
-		for (EvaluationReference ref : refs) {
-			Expression expr = ref.getExpression();
-			if (expr != null) {
-				boolean evaluated = false;
-				ExpressionInfo info = expr.computeExpressionInfo();
-				String[] names = info.getAccessedPropertyNames();
-				for (String name : names) {
-					if (propertyName.equals(name)) {
-						evaluated = true;
-						ref.evaluate();
-						break;
-					}
-				}
-				if (!evaluated) {
-					names = info.getAccessedVariableNames();
-					for (String name : names) {
-						if (propertyName.equals(name)) {
-							evaluated = true;
-							ref.evaluate();
-							break;
-						}
-					}
-				}
+		Set<EvaluationReference> dependents = refsByName.get(propertyName);
+		if (dependents != null) {
+			// listeners may add or remove references while we evaluate
+			EvaluationReference[] toEvaluate = dependents
+					.toArray(new EvaluationReference[dependents.size()]);
+			for (EvaluationReference ref : toEvaluate) {
+				ref.evaluate();
 			}
 		}
 		endSourceChange(sourceNames);
+
+		if (DEBUG_PERFORMANCE) {
+			traceEvaluations(propertyName, startCount, startTime);
+		}
 		eventBroker.post(UIEvents.REQUEST_ENABLEMENT_UPDATE_TOPIC, UIEvents.ALL_ELEMENT_ID);
 	}
 
@@ -322,6 +538,26 @@ public final class EvaluationService implements IEvaluationService {
 		notifying--;
 	}
 
+	/**
+	 * Prints the number of evaluations that happened since
+	 * <code>startCount</code> was recorded.
+	 *
+	 * @param source
+	 *            the name of the source(s) that changed
+	 * @param startCount
+	 *            the evaluation count before the source change
+	 * @param startTime
+	 *            the time the source change started
+	 */
+	private void traceEvaluations(String source, int startCount, long startTime) {
+		final long elapsedTime = System.currentTimeMillis() - startTime;
+		final int count = EvaluationReference.evaluationCount - startCount;
+		if (count > 0) {
+			Tracing.printTrace(TRACING_COMPONENT, count + " of " + refs.size() //$NON-NLS-1$
+					+ " expressions evaluated for " + source + " in " + elapsedTime + "ms"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		}
+	}
+
 	private void fireServiceChange(final String property, final Object oldValue,
 			final Object newValue) {
 		for (final IPropertyChangeListener listener : serviceListeners) {
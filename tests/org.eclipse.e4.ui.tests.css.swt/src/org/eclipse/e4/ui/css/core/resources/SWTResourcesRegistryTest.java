@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013, 2015 IBM Corporation and others. All rights reserved. This
+ * Copyright (c) 2013, 2016 IBM Corporation and others. All rights reserved. This
  * program and the accompanying materials are made available under the terms of
  * the Eclipse Public License v1.0 which accompanies this distribution, and is
  * available at http://www.eclipse.org/legal/epl-v10.html
@@ -11,6 +11,8 @@
 package org.eclipse.e4.ui.css.core.resources;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.doReturn;
@@ -23,8 +25,13 @@ import java.util.Map;
 
 import org.eclipse.e4.ui.css.swt.resources.ResourceByDefinitionKey;
 import org.eclipse.e4.ui.css.swt.resources.SWTResourcesRegistry;
+import org.eclipse.swt.graphics.Color;
 import org.eclipse.swt.graphics.Font;
+import org.eclipse.swt.graphics.FontData;
+import org.eclipse.swt.graphics.RGB;
+import org.eclipse.swt.graphics.RGBA;
 import org.eclipse.swt.graphics.Resource;
+import org.eclipse.swt.widgets.Display;
 import org.junit.Test;
 
 public class SWTResourcesRegistryTest {
@@ -59,6 +66,69 @@ public class SWTResourcesRegistryTest {
 		assertTrue(resources.containsKey("key1"));
 	}
 
+	@Test
+	public void testSharedResources() {
+		Display display = Display.getDefault();
+		SWTResourcesRegistry registry1 = new SWTResourcesRegistry(display);
+		SWTResourcesRegistry registry2 = new SWTResourcesRegistry(display);
+		try {
+			RGBA rgba = new RGBA(12, 34, 56, 255);
+			Color color1 = registry1.createColor(display, rgba);
+			Color color2 = registry2.createColor(display, rgba);
+			assertSame(color1, color2);
+			assertEquals(new RGB(12, 34, 56), color1.getRGB());
+			assertEquals(1, registry2.getAvoidedDuplicates());
+
+			FontData fontData = new FontData("Arial", 11, 0);
+			Font font1 = registry1.createFont(display, fontData);
+			Font font2 = registry2.createFont(display, fontData);
+			assertSame(font1, font2);
+			assertEquals(2, registry2.getAvoidedDuplicates());
+
+			registry1.registerResource(Color.class, "color", color1);
+			registry1.registerResource(Font.class, "font", font1);
+			registry1.dispose();
+			assertFalse(color2.isDisposed());
+			assertFalse(font2.isDisposed());
+
+			registry2.registerResource(Color.class, "color", color2);
+			registry2.registerResource(Font.class, "font", font2);
+			registry2.dispose();
+			assertTrue(color2.isDisposed());
+			assertTrue(font2.isDisposed());
+		} finally {
+			registry1.dispose();
+			registry2.dispose();
+		}
+	}
+
+	@Test
+	public void testSharedAfterReset() {
+		Display display = Display.getDefault();
+		SWTResourcesRegistry registry1 = new SWTResourcesRegistry(display);
+		SWTResourcesRegistry registry2 = new SWTResourcesRegistry(display);
+		try {
+			RGBA rgba = new RGBA(65, 43, 21, 255);
+			Color color1 = registry1.createColor(display, rgba);
+			registry1.registerResource(Color.class, "color", color1);
+			// what the engine does on a reset of the styles
+			registry1.dispose();
+			assertTrue(color1.isDisposed());
+
+			Color color2 = registry1.createColor(display, rgba);
+			registry1.registerResource(Color.class, "color", color2);
+			Color color3 = registry2.createColor(display, rgba);
+			assertSame(color2, color3);
+			assertEquals(1, registry2.getAvoidedDuplicates());
+
+			registry1.dispose();
+			assertFalse(color3.isDisposed());
+		} finally {
+			registry1.dispose();
+			registry2.dispose();
+		}
+	}
+
 	public static class SWTResourcesRegistryTestable extends
 	SWTResourcesRegistry {
 		public SWTResourcesRegistryTestable() {
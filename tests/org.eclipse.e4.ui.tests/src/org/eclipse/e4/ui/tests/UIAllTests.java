@@ -34,6 +34,7 @@ import org.eclipse.e4.ui.tests.workbench.MSashTest;
 import org.eclipse.e4.ui.tests.workbench.MSaveablePartTest;
 import org.eclipse.e4.ui.tests.workbench.MToolItemTest;
 import org.eclipse.e4.ui.tests.workbench.MWindowTest;
+import org.eclipse.e4.ui.tests.workbench.MenuContributionIndexTest;
 import org.eclipse.e4.ui.tests.workbench.ModelAssemblerTests;
 import org.eclipse.e4.ui.tests.workbench.PartFocusTest;
 import org.eclipse.e4.ui.tests.workbench.PartRenderingEngineTests;
@@ -81,7 +82,8 @@ import org.junit.runners.Suite;
 		TopoSortTests.class,
 		ExtensionsSortTests.class,
 		HandlerActivationTest.class,
-		ModelAssemblerTests.class
+		ModelAssemblerTests.class,
+		MenuContributionIndexTest.class
 		// SWTPartRendererTest.class,
 })
 public class UIAllTests {
@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.e4.ui.tests.workbench;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.eclipse.e4.ui.internal.workbench.ContributionsAnalyzer;
+import org.eclipse.e4.ui.internal.workbench.MenuContributionIndex;
+import org.eclipse.e4.ui.model.application.MApplication;
+import org.eclipse.e4.ui.model.application.impl.ApplicationFactoryImpl;
+import org.eclipse.e4.ui.model.application.ui.menu.MMenu;
+import org.eclipse.e4.ui.model.application.ui.menu.MMenuContribution;
+import org.eclipse.e4.ui.model.application.ui.menu.MMenuFactory;
+import org.eclipse.e4.ui.model.application.ui.menu.MPopupMenu;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for the {@link MenuContributionIndex} class
+ */
+public class MenuContributionIndexTest {
+
+	private MApplication application;
+	private MenuContributionIndex index;
+
+	@Before
+	public void setUp() {
+		application = ApplicationFactoryImpl.eINSTANCE.createApplication();
+		index = new MenuContributionIndex(application);
+	}
+
+	private MMenuContribution addContribution(String parentId) {
+		MMenuContribution contribution = MMenuFactory.INSTANCE.createMenuContribution();
+		contribution.setParentId(parentId);
+		application.getMenuContributions().add(contribution);
+		return contribution;
+	}
+
+	@Test
+	public void testContributionsByParentId() {
+		MMenuContribution a1 = addContribution("a");
+		MMenuContribution b1 = addContribution("b");
+		MMenuContribution a2 = addContribution("a");
+		addContribution(null);
+
+		assertEquals(Arrays.asList(a1, a2), index.getContributions("a"));
+		assertEquals(Arrays.asList(b1), index.getContributions("b"));
+		assertTrue(index.getContributions("c").isEmpty());
+	}
+
+	@Test
+	public void testInvalidate() {
+		MMenuContribution a1 = addContribution("a");
+		assertEquals(Arrays.asList(a1), index.getContributions("a"));
+
+		MMenuContribution a2 = addContribution("a");
+		a1.setParentId("b");
+		index.invalidate();
+
+		assertEquals(Arrays.asList(a2), index.getContributions("a"));
+		assertEquals(Arrays.asList(a1), index.getContributions("b"));
+	}
+
+	@Test
+	public void testPopupCandidatesKeepApplicationOrder() {
+		MMenuContribution popupAny = addContribution(ContributionsAnalyzer.POPUP_PARENT_ID);
+		MMenuContribution tagged = addContribution("tagged");
+		MMenuContribution direct = addContribution("menu");
+		MMenuContribution unrelated = addContribution("unrelated");
+		MMenuContribution tagged2 = addContribution("tagged");
+
+		MPopupMenu popup = MMenuFactory.INSTANCE.createPopupMenu();
+		popup.getTags().add("popup:tagged");
+
+		assertEquals(Arrays.asList(popupAny, tagged, direct, tagged2),
+				index.getCandidates(popup, "menu", true));
+		assertEquals(Arrays.asList(direct), index.getCandidates(popup, "menu", false));
+		assertTrue(!index.getCandidates(popup, "menu", true).contains(unrelated));
+	}
+
+	@Test
+	public void testCandidatesGatherSameContributions() {
+		for (int i = 0; i < 100; i++) {
+			addContribution("menu" + (i % 7));
+		}
+		MMenu menu = MMenuFactory.INSTANCE.createMenu();
+		for (int i = 0; i < 7; i++) {
+			String id = "menu" + i;
+			ArrayList<MMenuContribution> expected = new ArrayList<>();
+			ContributionsAnalyzer.XXXgatherMenuContributions(menu, application.getMenuContributions(), id,
+					expected, null, false);
+			ArrayList<MMenuContribution> actual = new ArrayList<>();
+			List<MMenuContribution> candidates = index.getCandidates(menu, id, false);
+			ContributionsAnalyzer.XXXgatherMenuContributions(menu, candidates, id, actual, null, false);
+			assertEquals(expected, actual);
+		}
+	}
+}
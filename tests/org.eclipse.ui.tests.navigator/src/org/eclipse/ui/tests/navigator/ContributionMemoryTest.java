@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.ui.tests.navigator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.jface.viewers.ITreeContentProvider;
+import org.eclipse.ui.internal.navigator.NavigatorContentService;
+import org.eclipse.ui.navigator.INavigatorContentDescriptor;
+import org.junit.Test;
+
+/**
+ * Tests that the contribution memory of the {@link NavigatorContentService}
+ * does not grow while browsing.
+ */
+public class ContributionMemoryTest extends NavigatorTestBase {
+
+	private static final int ORPHANS = 1000;
+
+	private static final int FOLDERS = 20;
+
+	private static final int FILES = 50;
+
+	public ContributionMemoryTest() {
+		_navigatorInstanceId = TEST_VIEWER;
+	}
+
+	private IFolder createLargeTree() throws Exception {
+		final IFolder large = _project.getFolder("large");
+		IWorkspaceRunnable create = monitor -> {
+			large.create(true, true, null);
+			for (int i = 0; i < FOLDERS; i++) {
+				IFolder folder = large.getFolder("folder" + i);
+				folder.create(true, true, null);
+				for (int j = 0; j < FILES; j++) {
+					folder.getFile("file" + j + ".txt").create(new ByteArrayInputStream(new byte[0]), true, null);
+				}
+			}
+		};
+		ResourcesPlugin.getWorkspace().run(create, null);
+		return large;
+	}
+
+	/*
+	 * Computes the children of the folders below the large folder without
+	 * creating their items, as when they are computed for hasChildren().
+	 */
+	private void computeChildrenOfFolders(IFolder large) {
+		ITreeContentProvider contentProvider = (ITreeContentProvider) _viewer.getContentProvider();
+		for (int i = 0; i < FOLDERS; i++) {
+			assertEquals(FILES, contentProvider.getChildren(large.getFolder("folder" + i)).length);
+		}
+	}
+
+	private IFolder showLargeTree() throws Exception {
+		_contentService.bindExtensions(new String[] { COMMON_NAVIGATOR_RESOURCE_EXT }, false);
+		_contentService.getActivationService().activateExtensions(new String[] { COMMON_NAVIGATOR_RESOURCE_EXT },
+				true);
+		IFolder large = createLargeTree();
+		refreshViewer();
+		_viewer.expandToLevel(large, 1);
+		return large;
+	}
+
+	@Test
+	public void testBoundedWhileExpandingAndCollapsing() throws Exception {
+		IFolder large = showLargeTree();
+		NavigatorContentService ncs = (NavigatorContentService) _contentService;
+		int shown = ncs.getContributionMemorySize();
+
+		computeChildrenOfFolders(large);
+		int withChildren = ncs.getContributionMemorySize();
+		assertTrue("The children were not remembered", withChildren >= shown + FOLDERS * FILES);
+
+		for (int i = 0; i < 5; i++) {
+			_viewer.expandToLevel(large.getFolder("folder" + i), 1);
+			_viewer.collapseToLevel(large, 1);
+			_viewer.expandToLevel(large, 1);
+			computeChildrenOfFolders(large);
+			assertTrue("Contribution memory grew to " + ncs.getContributionMemorySize(),
+					ncs.getContributionMemorySize() <= withChildren);
+		}
+	}
+
+	@Test
+	public void testRemovedSubtreeIsForgotten() throws Exception {
+		IFolder large = showLargeTree();
+		NavigatorContentService ncs = (NavigatorContentService) _contentService;
+		int shown = ncs.getContributionMemorySize();
+
+		computeChildrenOfFolders(large);
+		assertTrue(ncs.getContributionMemorySize() >= shown + FOLDERS * FILES);
+
+		_viewer.remove(large);
+		assertTrue("Contribution memory kept " + ncs.getContributionMemorySize(),
+				ncs.getContributionMemorySize() <= shown);
+		assertNull(ncs.getContribution(large.getFolder("folder0").getFile("file0.txt")));
+	}
+
+	/*
+	 * Remembers the contributions of elements that never get an item, as the
+	 * children computed for hasChildren(), and keeps them referenced.
+	 */
+	private List<Object> rememberOrphans(NavigatorContentService ncs) {
+		INavigatorContentDescriptor descriptor = _contentService.getContentDescriptorById(TEST_CONTENT);
+		List<Object> orphans = new ArrayList<Object>();
+		for (int i = 0; i < ORPHANS; i++) {
+			Object orphan = new Object();
+			orphans.add(orphan);
+			ncs.rememberContribution(descriptor, descriptor, orphan);
+		}
+		assertEquals(descriptor, ncs.getContribution(orphans.get(0)));
+		return orphans;
+	}
+
+	@Test
+	public void testInputChangeForgetsOrphans() throws Exception {
+		NavigatorContentService ncs = (NavigatorContentService) _contentService;
+		List<Object> orphans = rememberOrphans(ncs);
+
+		_viewer.setInput(_viewer.getInput());
+		for (Object orphan : orphans) {
+			assertNull(ncs.getContribution(orphan));
+		}
+	}
+
+	@Test
+	public void testEqualElementKeepsContribution() throws Exception {
+		NavigatorContentService ncs = (NavigatorContentService) _contentService;
+		INavigatorContentDescriptor descriptor = _contentService.getContentDescriptorById(TEST_CONTENT);
+		IFile first = _project.getFile("model.properties");
+		IFile second = _project.getFile("model.properties");
+		assertNotSame(first, second);
+
+		ncs.rememberContribution(descriptor, descriptor, first);
+		ncs.rememberContribution(descriptor, descriptor, second);
+		assertEquals(descriptor, ncs.getContribution(second));
+		ncs.forgetContribution(second);
+		assertNull(ncs.getContribution(first));
+	}
+}
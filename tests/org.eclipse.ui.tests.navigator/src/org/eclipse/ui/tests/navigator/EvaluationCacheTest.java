@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015 Google Inc. and others.
+ * Copyright (c) 2015, 2016 Google Inc. and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,10 +11,14 @@
 package org.eclipse.ui.tests.navigator;
 
 import java.util.ArrayList;
+import java.util.Set;
 
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.IAdaptable;
 import org.eclipse.ui.internal.navigator.VisibilityAssistant;
 import org.eclipse.ui.internal.navigator.extensions.EvaluationCache;
 import org.eclipse.ui.internal.navigator.extensions.NavigatorContentDescriptor;
+import org.eclipse.ui.internal.navigator.extensions.NavigatorContentDescriptorManager;
 import org.eclipse.ui.navigator.INavigatorActivationService;
 import org.eclipse.ui.navigator.INavigatorViewerDescriptor;
 import org.eclipse.ui.tests.navigator.util.TestNavigatorActivationService;
@@ -124,6 +128,91 @@ public class EvaluationCacheTest extends NavigatorTestBase {
 		Assert.assertNull(cache.getDescriptors(key, true));
 	}
 
+	@Test
+	public void testOnVisibilityOrActivationChangeResetsKeyedByType() {
+		Assert.assertNull(cache.isKeyedByType());
+		cache.setKeyedByType(true);
+		Assert.assertEquals(Boolean.TRUE, cache.isKeyedByType());
+		cache.onVisibilityOrActivationChange();
+		Assert.assertNull(cache.isKeyedByType());
+	}
+
+	/**
+	 * An element that adapts to a project or not, whatever its class.
+	 */
+	private static class AdaptableElement implements IAdaptable {
+		private final IProject project;
+
+		AdaptableElement(IProject project) {
+			this.project = project;
+		}
+
+		@Override
+		public <T> T getAdapter(Class<T> adapter) {
+			return adapter == IProject.class ? adapter.cast(project) : null;
+		}
+	}
+
+	/**
+	 * @return an assistant for a viewer that only shows the given extension
+	 */
+	private static VisibilityAssistant createAssistant(final String extensionId) {
+		INavigatorViewerDescriptor viewerDescriptor = new TestNavigatorViewerDescriptor() {
+			@Override
+			public boolean isVisibleContentExtension(String aContentExtensionId) {
+				return extensionId.equals(aContentExtensionId);
+			}
+		};
+		INavigatorActivationService activationService = new TestNavigatorActivationService() {
+			@Override
+			public boolean isNavigatorExtensionActive(String aNavigatorExtensionId) {
+				return extensionId.equals(aNavigatorExtensionId);
+			}
+		};
+		return new VisibilityAssistant(viewerDescriptor, activationService);
+	}
+
+	@Test
+	public void testTypeOnlyTriggerPointsSharedByClass() {
+		NavigatorContentDescriptorManager manager = NavigatorContentDescriptorManager.getInstance();
+		NavigatorContentDescriptor descriptor = manager.getContentDescriptor(TEST_CONTENT_TYPE_ONLY);
+		VisibilityAssistant assistant = createAssistant(TEST_CONTENT_TYPE_ONLY);
+		Object element1 = new AdaptableElement(_project);
+		Object element2 = new AdaptableElement(null);
+
+		Set<NavigatorContentDescriptor> found = manager.findDescriptorsForTriggerPoint(element1, assistant, false);
+		Assert.assertTrue(found.contains(descriptor));
+
+		EvaluationCache triggerPoints = manager.getTriggerPointEvaluationCache(assistant);
+		Assert.assertEquals(Boolean.TRUE, triggerPoints.isKeyedByType());
+		NavigatorContentDescriptor[] shared = triggerPoints.getDescriptors(AdaptableElement.class, false);
+		Assert.assertNotNull(shared);
+		Assert.assertNull(triggerPoints.getDescriptors(element1, false));
+
+		// answered from the entry of the class, without evaluating again
+		Assert.assertEquals(found, manager.findDescriptorsForTriggerPoint(element2, assistant, false));
+		Assert.assertSame(shared, triggerPoints.getDescriptors(AdaptableElement.class, false));
+		Assert.assertNull(triggerPoints.getDescriptors(element2, false));
+	}
+
+	@Test
+	public void testAdaptTriggerPointsKeyedByElement() {
+		NavigatorContentDescriptorManager manager = NavigatorContentDescriptorManager.getInstance();
+		NavigatorContentDescriptor descriptor = manager.getContentDescriptor(TEST_CONTENT_ADAPT);
+		VisibilityAssistant assistant = createAssistant(TEST_CONTENT_ADAPT);
+		Object adaptable = new AdaptableElement(_project);
+		Object notAdaptable = new AdaptableElement(null);
+
+		Assert.assertTrue(manager.findDescriptorsForTriggerPoint(adaptable, assistant, false).contains(descriptor));
+		Assert.assertFalse(manager.findDescriptorsForTriggerPoint(notAdaptable, assistant, false).contains(descriptor));
+
+		EvaluationCache triggerPoints = manager.getTriggerPointEvaluationCache(assistant);
+		Assert.assertEquals(Boolean.FALSE, triggerPoints.isKeyedByType());
+		Assert.assertNull(triggerPoints.getDescriptors(AdaptableElement.class, false));
+		Assert.assertNotNull(triggerPoints.getDescriptors(adaptable, false));
+		Assert.assertNotNull(triggerPoints.getDescriptors(notAdaptable, false));
+	}
+
 	// TODO Some way to reliably test the clearing of entries. Possibly using
 	// java.lang.ref.Reference#enqueue().
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2003, 2015 IBM Corporation and others.
+ * Copyright (c) 2003, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -70,6 +70,7 @@ public class NavigatorTestBase {
 	public static final String TEST_VIEWER_FILTER = "org.eclipse.ui.tests.navigator.FilterTestView";
 	public static final String TEST_VIEWER_INITIAL_ACTIVATION = "org.eclipse.ui.tests.navigator.InitialActivationView";
 	public static final String TEST_VIEWER_LINK_HELPER = "org.eclipse.ui.tests.navigator.TestLinkHelperView";
+	public static final String TEST_VIEWER_PARALLEL = "org.eclipse.ui.tests.navigator.ParallelTestView";
 
 	public static final String TEST_VIEW_NON_COMMONVIEWER = "org.eclipse.ui.tests.navigator.NonCommonViewerTestView";
 
@@ -85,6 +86,10 @@ public class NavigatorTestBase {
 	public static final String TEST_CONTENT_WITH = "org.eclipse.ui.tests.navigator.testContentWith";
 	public static final String TEST_CONTENT_NO_CHILDREN = "org.eclipse.ui.tests.navigator.testContentNoChildren";
 	public static final String TEST_CONTENT_EMPTY = "org.eclipse.ui.tests.navigator.testContentEmpty";
+	public static final String TEST_CONTENT_TYPE_ONLY = "org.eclipse.ui.tests.navigator.testTypeOnlyContent";
+	public static final String TEST_CONTENT_ADAPT = "org.eclipse.ui.tests.navigator.testAdaptContent";
+	public static final String TEST_CONTENT_BLOCKING1 = "org.eclipse.ui.tests.navigator.testBlockingContent1";
+	public static final String TEST_CONTENT_BLOCKING2 = "org.eclipse.ui.tests.navigator.testBlockingContent2";
 
 	public static final String TEST_CONTENT_RESOURCE_UNSORTED = "org.eclipse.ui.tests.navigator.resourceContent.unsorted";
 
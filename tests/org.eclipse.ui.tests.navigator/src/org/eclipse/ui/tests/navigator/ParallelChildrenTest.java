@@ -0,0 +1,193 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.ui.tests.navigator;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import org.eclipse.jface.viewers.ITreeContentProvider;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.TreeItem;
+import org.eclipse.ui.internal.navigator.NavigatorContentService;
+import org.eclipse.ui.internal.navigator.extensions.NavigatorContentExtension;
+import org.eclipse.ui.tests.harness.util.DisplayHelper;
+import org.eclipse.ui.tests.navigator.extension.TestBlockingContentProvider;
+import org.eclipse.ui.tests.navigator.extension.TestExtensionTreeData;
+import org.eclipse.ui.tests.navigator.extension.TestSimpleChildrenContentProvider.SimpleChild;
+import org.junit.Test;
+
+/**
+ * Tests a viewer that computes the children of its content extensions in
+ * parallel.
+ */
+public class ParallelChildrenTest extends NavigatorTestBase {
+
+	public ParallelChildrenTest() {
+		_navigatorInstanceId = TEST_VIEWER_PARALLEL;
+	}
+
+	@Test
+	public void testChildrenInExtensionOrder() throws Exception {
+		_contentService.getActivationService().activateExtensions(
+				new String[] { TEST_CONTENT, COMMON_NAVIGATOR_RESOURCE_EXT }, true);
+		refreshViewer();
+
+		NavigatorContentService ncs = (NavigatorContentService) _contentService;
+		Set extensions = ncs.findContentExtensionsByTriggerPoint(_project);
+		assertTrue(extensions.size() >= 2);
+
+		Set expected = new LinkedHashSet();
+		for (Iterator it = extensions.iterator(); it.hasNext();) {
+			NavigatorContentExtension extension = (NavigatorContentExtension) it.next();
+			expected.addAll(Arrays.asList(extension.getContentProvider().getChildren(_project)));
+		}
+
+		Object[] children = ((ITreeContentProvider) _viewer.getContentProvider()).getChildren(_project);
+		assertArrayEquals(expected.toArray(), children);
+		assertTrue(Arrays.asList(children).containsAll(_expectedChildren));
+
+		boolean hasModelChildren = false;
+		for (int i = 0; i < children.length; i++) {
+			hasModelChildren |= children[i] instanceof TestExtensionTreeData;
+		}
+		assertTrue("The children of the test content are missing", hasModelChildren);
+	}
+
+	@Test
+	public void testTimingsAreRecorded() throws Exception {
+		_contentService.getActivationService().activateExtensions(
+				new String[] { TEST_CONTENT, COMMON_NAVIGATOR_RESOURCE_EXT }, true);
+		refreshViewer();
+
+		NavigatorContentService ncs = (NavigatorContentService) _contentService;
+		NavigatorContentExtension testExtension = ncs
+				.getExtension(_contentService.getContentDescriptorById(TEST_CONTENT));
+		NavigatorContentExtension resourceExtension = ncs
+				.getExtension(_contentService.getContentDescriptorById(COMMON_NAVIGATOR_RESOURCE_EXT));
+		int testCalls = testExtension.getChildrenCallCount();
+		int resourceCalls = resourceExtension.getChildrenCallCount();
+
+		((ITreeContentProvider) _viewer.getContentProvider()).getChildren(_project);
+
+		assertTrue(testExtension.getChildrenCallCount() > testCalls);
+		assertTrue(resourceExtension.getChildrenCallCount() > resourceCalls);
+		assertTrue(resourceExtension.getChildrenMaxTime() <= resourceExtension.getChildrenTotalTime());
+	}
+
+	@Test
+	public void testChildrenComputedConcurrently() throws Exception {
+		_contentService.getActivationService().activateExtensions(
+				new String[] { TEST_CONTENT_BLOCKING1, TEST_CONTENT_BLOCKING2, COMMON_NAVIGATOR_RESOURCE_EXT }, true);
+		refreshViewer();
+
+		try {
+			// each blocking provider waits until the other one has started
+			TestBlockingContentProvider.started = new CountDownLatch(2);
+			Object[] children = ((ITreeContentProvider) _viewer.getContentProvider()).getChildren(_project);
+
+			assertEquals(2, TestBlockingContentProvider.maxRunning.get());
+			assertTrue(hasSimpleChild(children, "blocking1"));
+			assertTrue(hasSimpleChild(children, "blocking2"));
+		} finally {
+			TestBlockingContentProvider.reset();
+		}
+	}
+
+	@Test
+	public void testLateChildrenRefreshParent() throws Exception {
+		_contentService.getActivationService().activateExtensions(
+				new String[] { TEST_CONTENT_BLOCKING1, TEST_CONTENT_BLOCKING2, COMMON_NAVIGATOR_RESOURCE_EXT }, true);
+		refreshViewer();
+
+		try {
+			// the second provider answers after the timeout of the viewer
+			TestBlockingContentProvider.released = new CountDownLatch(1);
+			_viewer.expandToLevel(_project, 1);
+
+			final TreeItem projectItem = (TreeItem) _viewer.testFindItem(_project);
+			assertTrue(hasItemOf(projectItem, "blocking1"));
+			assertFalse("The children are not late", hasItemOf(projectItem, "blocking2"));
+
+			TestBlockingContentProvider.released.countDown();
+			boolean refreshed = new DisplayHelper() {
+				@Override
+				protected boolean condition() {
+					return hasItemOf(projectItem, "blocking2");
+				}
+			}.waitForCondition(Display.getCurrent(), 5000);
+			assertTrue("The late children were not shown", refreshed);
+		} finally {
+			TestBlockingContentProvider.reset();
+		}
+	}
+
+	@Test
+	public void testAlwaysLateChildrenAreComputedOnce() throws Exception {
+		_contentService.getActivationService().activateExtensions(
+				new String[] { TEST_CONTENT_BLOCKING1, TEST_CONTENT_BLOCKING2, COMMON_NAVIGATOR_RESOURCE_EXT }, true);
+		refreshViewer();
+
+		try {
+			// the second provider is always slower than the timeout of the
+			// viewer
+			TestBlockingContentProvider.delay = 1500;
+			TestBlockingContentProvider.blockingCalls.set(0);
+			_viewer.expandToLevel(_project, 1);
+
+			final TreeItem projectItem = (TreeItem) _viewer.testFindItem(_project);
+			assertFalse("The children are not late", hasItemOf(projectItem, "blocking2"));
+			boolean refreshed = new DisplayHelper() {
+				@Override
+				protected boolean condition() {
+					return hasItemOf(projectItem, "blocking2");
+				}
+			}.waitForCondition(Display.getCurrent(), 5000);
+			assertTrue("The late children were not shown", refreshed);
+
+			// the refresh takes the late children instead of asking again
+			new DisplayHelper() {
+				@Override
+				protected boolean condition() {
+					return TestBlockingContentProvider.blockingCalls.get() > 1;
+				}
+			}.waitForCondition(Display.getCurrent(), 3000);
+			assertEquals(1, TestBlockingContentProvider.blockingCalls.get());
+		} finally {
+			TestBlockingContentProvider.reset();
+		}
+	}
+
+	private static boolean hasItemOf(TreeItem parentItem, String prefix) {
+		TreeItem[] items = parentItem.getItems();
+		Object[] children = new Object[items.length];
+		for (int i = 0; i < items.length; i++) {
+			children[i] = items[i].getData();
+		}
+		return hasSimpleChild(children, prefix);
+	}
+
+	private static boolean hasSimpleChild(Object[] children, String prefix) {
+		for (int i = 0; i < children.length; i++) {
+			if (children[i] instanceof SimpleChild && ((SimpleChild) children[i])._name.startsWith(prefix)) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
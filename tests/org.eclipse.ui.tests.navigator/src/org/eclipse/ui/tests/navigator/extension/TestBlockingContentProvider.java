@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.ui.tests.navigator.extension;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.resources.IResource;
+
+/**
+ * Provides some children for a given resource, after waiting for the other
+ * blocking providers or for a release.
+ */
+public class TestBlockingContentProvider extends TestSimpleChildrenContentProvider {
+
+	/**
+	 * Counted down by each provider asked for children, which then waits for
+	 * the others. (null to not wait)
+	 */
+	public static volatile CountDownLatch started;
+
+	/**
+	 * Waited for by the providers that block before they answer. (null to
+	 * not wait)
+	 */
+	public static volatile CountDownLatch released;
+
+	/**
+	 * The number of providers computing children at the same time.
+	 */
+	public static final AtomicInteger running = new AtomicInteger();
+
+	public static final AtomicInteger maxRunning = new AtomicInteger();
+
+	/**
+	 * The time in milliseconds the providers that block sleep before they
+	 * answer. (0 to not sleep)
+	 */
+	public static volatile long delay;
+
+	/**
+	 * The number of times the providers that block were asked for the
+	 * children of a resource.
+	 */
+	public static final AtomicInteger blockingCalls = new AtomicInteger();
+
+	private final boolean blocking;
+
+	protected TestBlockingContentProvider(String name, boolean blocking) {
+		_name = name;
+		this.blocking = blocking;
+	}
+
+	public static void reset() {
+		started = null;
+		released = null;
+		running.set(0);
+		maxRunning.set(0);
+		delay = 0;
+		blockingCalls.set(0);
+	}
+
+	@Override
+	public Object[] getChildren(Object parentElement) {
+		if (parentElement instanceof IResource) {
+			int now = running.incrementAndGet();
+			maxRunning.accumulateAndGet(now, Math::max);
+			try {
+				CountDownLatch latch = started;
+				if (latch != null) {
+					latch.countDown();
+					await(latch);
+				}
+				latch = released;
+				if (blocking && latch != null) {
+					await(latch);
+				}
+				if (blocking) {
+					blockingCalls.incrementAndGet();
+					sleep(delay);
+				}
+			} finally {
+				running.decrementAndGet();
+			}
+		}
+		return super.getChildren(parentElement);
+	}
+
+	private static void sleep(long millis) {
+		if (millis > 0) {
+			try {
+				Thread.sleep(millis);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(10, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2008 IBM Corporation and others.
+ * Copyright (c) 2005, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,14 +11,17 @@
 
 package org.eclipse.jface.tests.performance;
 
+import java.io.File;
 import java.io.IOException;
 import java.net.URL;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.Iterator;
 
 import org.eclipse.core.runtime.FileLocator;
 import org.eclipse.core.runtime.Path;
+import org.eclipse.jface.internal.InternalPolicy;
 import org.eclipse.jface.resource.ImageDescriptor;
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.ui.tests.performance.BasicPerformanceTest;
@@ -50,6 +53,30 @@ public class FileImageDescriptorTest extends BasicPerformanceTest {
 	 * @throws Throwable
 	 */
 	public void testRefresh() throws Throwable {
+		exerciseImages();
+	}
+
+	/**
+	 * Test the time for doing a refresh when the decoded image data is read
+	 * from the image data cache.
+	 *
+	 * @throws Throwable
+	 */
+	public void testRefreshCached() throws Throwable {
+		File location = Files.createTempDirectory("imageDataCache").toFile();
+		InternalPolicy.IMAGE_DATA_CACHE_LOCATION = location;
+		try {
+			exerciseImages();
+		} finally {
+			InternalPolicy.IMAGE_DATA_CACHE_LOCATION = null;
+			for (File file : location.listFiles()) {
+				file.delete();
+			}
+			location.delete();
+		}
+	}
+
+	private void exerciseImages() throws Throwable {
 
 		exercise(new TestRunnable() {
 			@Override
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006 IBM Corporation and others.
+ * Copyright (c) 2006, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -27,7 +27,8 @@ import org.eclipse.ui.tests.performance.parts.PerformanceProblemsView;
 import org.eclipse.ui.texteditor.MarkerUtilities;
 
 /**
- * The ProblemsViewPerformanceTest is a test of population of the problems view.
+ * The ProblemsViewPerformanceTest is a test of population and update of the
+ * problems view.
  *
  * @since 3.2
  *
@@ -83,6 +84,67 @@ public class ProblemsViewPerformanceTest extends BasicPerformanceTest {
 
 	}
 
+	/**
+	 * Test the update of a populated problems view when a few markers change.
+	 */
+	public void testIncrementalUpdate() {
+		IWorkbenchWindow window = openTestWindow(EMPTY_PERSPECTIVE_ID);
+		final IWorkbenchPage page = window.getActivePage();
+
+		PerformanceProblemsView view;
+
+		try {
+			view = (PerformanceProblemsView) page.showView(PROBLEMS_VIEW_ID);
+		} catch (PartInitException e) {
+			e.printStackTrace();
+			fail();
+			return;
+		}
+
+		tagIfNecessary("UI - Problems View incremental update",
+				Dimension.ELAPSED_PROCESS);
+
+		// the errors category
+		for (int i = 0; i < 10; i++) {
+			createMarkers();
+		}
+		waitForItemCount(view, 1, Integer.MAX_VALUE);
+
+		try {
+			for (int i = 0; i < 20; i++) {
+				// a warning adds the warnings category
+				IMarker warning = createMarker(IMarker.SEVERITY_WARNING, i);
+				startMeasuring();
+				waitForItemCount(view, 2, Integer.MAX_VALUE);
+				stopMeasuring();
+				warning.delete();
+				waitForItemCount(view, 0, 1);
+			}
+		} catch (CoreException e) {
+			e.printStackTrace();
+			fail();
+		} finally {
+			removeMarkers();
+		}
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	/**
+	 * Process events until the view shows between min and max items, fail
+	 * after a minute.
+	 */
+	private void waitForItemCount(PerformanceProblemsView view, int min, int max) {
+		long end = System.currentTimeMillis() + 60000;
+		int count;
+		while ((count = view.getTreeWidget().getItemCount()) < min || count > max) {
+			if (System.currentTimeMillis() > end) {
+				fail("The view shows " + count + " items, expected " + min + " to " + max);
+			}
+			processEvents();
+		}
+	}
+
 	/**
 	 * Remove the created markers
 	 */
@@ -108,6 +170,17 @@ public class ProblemsViewPerformanceTest extends BasicPerformanceTest {
 
 	}
 
+	/**
+	 * Create a single test marker with the given severity.
+	 */
+	private IMarker createMarker(int severity, int index) throws CoreException {
+		IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
+		IMarker marker = root.createMarker(IMarker.PROBLEM);
+		marker.setAttribute(IMarker.SEVERITY, severity);
+		marker.setAttribute(IMarker.MESSAGE, "this is a test " + index);
+		return marker;
+	}
+
 	/**
 	 * Create the markers for the receiver.
 	 */
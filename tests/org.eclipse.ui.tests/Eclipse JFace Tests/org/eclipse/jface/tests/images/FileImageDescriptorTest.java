@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008 IBM Corporation and others.
+ * Copyright (c) 2008, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,9 +13,13 @@
 
 package org.eclipse.jface.tests.images;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Enumeration;
 import java.util.Iterator;
 
@@ -23,8 +27,10 @@ import junit.framework.TestCase;
 
 import org.eclipse.core.runtime.FileLocator;
 import org.eclipse.core.runtime.Path;
+import org.eclipse.jface.internal.InternalPolicy;
 import org.eclipse.jface.resource.ImageDescriptor;
 import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.ImageData;
 import org.eclipse.ui.tests.TestPlugin;
 import org.osgi.framework.Bundle;
 
@@ -131,4 +137,85 @@ public class FileImageDescriptorTest extends TestCase {
 		assertTrue("Did not find default image", image != null);
 	}
 
+	/**
+	 * Test that the image data read from the image data cache equals the
+	 * decoded image data.
+	 *
+	 * @throws IOException
+	 */
+	public void testImageDataCache() throws IOException {
+		ImageDescriptor descriptor = ImageDescriptor.createFromFile(
+				FileImageDescriptorTest.class, "anything.gif");
+		ImageData decoded = descriptor.getImageData();
+		assertNotNull("Could not decode image", decoded);
+
+		File location = Files.createTempDirectory("imageDataCache").toFile();
+		InternalPolicy.IMAGE_DATA_CACHE_LOCATION = location;
+		try {
+			ImageData stored = descriptor.getImageData();
+			assertEquals("Image data was not stored", 1, location.list().length);
+			ImageData cached = descriptor.getImageData();
+			assertImageDataEquals(decoded, stored);
+			assertImageDataEquals(decoded, cached);
+
+			Image image = descriptor.createImage(false);
+			assertNotNull("Could not create image from cached data", image);
+			image.dispose();
+		} finally {
+			InternalPolicy.IMAGE_DATA_CACHE_LOCATION = null;
+			for (File file : location.listFiles()) {
+				file.delete();
+			}
+			location.delete();
+		}
+	}
+
+	/**
+	 * Test that the image data of a file URL with encoded characters is
+	 * cached.
+	 *
+	 * @throws IOException
+	 */
+	public void testImageDataCacheEncodedURL() throws IOException {
+		File directory = Files.createTempDirectory("image data").toFile();
+		File imageFile = new File(directory, "any thing.gif");
+		File location = new File(directory, "cache");
+		try (InputStream in = FileImageDescriptorTest.class.getResourceAsStream("anything.gif")) {
+			Files.copy(in, imageFile.toPath());
+		}
+		URL url = imageFile.toURI().toURL();
+		assertTrue(url.toString().contains("%20"));
+		InternalPolicy.IMAGE_DATA_CACHE_LOCATION = location;
+		try {
+			ImageDescriptor descriptor = ImageDescriptor.createFromURL(url);
+			ImageData stored = descriptor.getImageData();
+			assertNotNull("Could not decode image", stored);
+			assertEquals("Image data was not stored", 1, location.list().length);
+			assertImageDataEquals(stored, descriptor.getImageData());
+		} finally {
+			InternalPolicy.IMAGE_DATA_CACHE_LOCATION = null;
+			File[] files = location.listFiles();
+			if (files != null) {
+				for (File file : files) {
+					file.delete();
+				}
+			}
+			location.delete();
+			imageFile.delete();
+			directory.delete();
+		}
+	}
+
+	private static void assertImageDataEquals(ImageData expected, ImageData actual) {
+		assertEquals(expected.width, actual.width);
+		assertEquals(expected.height, actual.height);
+		assertEquals(expected.depth, actual.depth);
+		assertEquals(expected.transparentPixel, actual.transparentPixel);
+		assertEquals(expected.alpha, actual.alpha);
+		assertTrue(Arrays.equals(expected.data, actual.data));
+		assertTrue(Arrays.equals(expected.maskData, actual.maskData));
+		assertTrue(Arrays.equals(expected.alphaData, actual.alphaData));
+		assertTrue(Arrays.equals(expected.palette.getRGBs(), actual.palette.getRGBs()));
+	}
+
 }
@@ -11,13 +11,26 @@
  *******************************************************************************/
 package org.eclipse.jface.tests.images;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.eclipse.jface.dialogs.Dialog;
 import org.eclipse.jface.dialogs.IconAndMessageDialog;
 import org.eclipse.jface.dialogs.MessageDialog;
+import org.eclipse.jface.resource.DeviceResourceManager;
+import org.eclipse.jface.resource.ImageDescriptor;
 import org.eclipse.jface.resource.ImageRegistry;
 import org.eclipse.jface.resource.JFaceResources;
 import org.eclipse.jface.window.Window;
 import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.widgets.Display;
 
 import junit.framework.TestCase;
 
@@ -81,4 +94,72 @@ public class ImageRegistryTest extends TestCase {
         }
 
     }
+    /**
+     * Tests that the image is created from the preloaded image data rather
+     * than loaded again.
+     */
+    public void testPreloadedDataIsUsed() throws Exception {
+        final AtomicInteger opened = new AtomicInteger();
+        URLStreamHandler handler = new URLStreamHandler() {
+            @Override
+            protected URLConnection openConnection(final URL url) {
+                return new URLConnection(url) {
+                    @Override
+                    public void connect() {
+                        // nothing to connect
+                    }
+
+                    @Override
+                    public InputStream getInputStream() throws IOException {
+                        if (!url.getPath().endsWith("/anything.gif")) {
+                            throw new IOException("No image at " + url);
+                        }
+                        opened.incrementAndGet();
+                        return FileImageDescriptorTest.class.getResourceAsStream("anything.gif");
+                    }
+                };
+            }
+        };
+        ImageDescriptor descriptor = ImageDescriptor
+                .createFromURL(new URL(null, "preloadtest:/icons/anything.gif", handler));
+        DeviceResourceManager manager = new DeviceResourceManager(Display.getCurrent());
+        try {
+            manager.preloadImages(Collections.singleton(descriptor));
+            long end = System.currentTimeMillis() + 5000;
+            while (opened.get() == 0 && System.currentTimeMillis() < end) {
+                Thread.sleep(10);
+            }
+            assertEquals("The image data should have been preloaded", 1, opened.get());
+
+            Image image = manager.createImage(descriptor);
+            assertEquals(descriptor.getImageData().width, image.getBounds().width);
+            // getImageData() above opened the stream once more
+            assertEquals("The preloaded image data should have been used", 2, opened.get());
+        } finally {
+            manager.dispose();
+        }
+    }
+
+    public void testPreload() {
+        DeviceResourceManager manager = new DeviceResourceManager(Display.getCurrent());
+        try {
+            ImageRegistry reg = new ImageRegistry(manager);
+            ImageDescriptor descriptor = ImageDescriptor.createFromFile(
+                    FileImageDescriptorTest.class, "anything.gif");
+            reg.put("anything", descriptor);
+
+            reg.preload(Arrays.asList("anything", "unknown"));
+            Image image = reg.get("anything");
+            assertNotNull("Returned null image", image);
+
+            ImageData expected = descriptor.getImageData();
+            ImageData actual = image.getImageData();
+            assertEquals(expected.width, actual.width);
+            assertEquals(expected.height, actual.height);
+            assertSame(image, reg.get("anything"));
+        } finally {
+            manager.dispose();
+        }
+    }
+
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2007 IBM Corporation and others.
+ * Copyright (c) 2004, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,16 +13,23 @@ package org.eclipse.jface.tests.images;
 import junit.framework.Assert;
 import junit.framework.TestCase;
 
+import org.eclipse.jface.internal.InternalPolicy;
 import org.eclipse.jface.resource.ColorDescriptor;
+import org.eclipse.jface.resource.CompositeImageDescriptor;
+import org.eclipse.jface.resource.CompositeImageStatistics;
 import org.eclipse.jface.resource.DeviceResourceDescriptor;
 import org.eclipse.jface.resource.DeviceResourceException;
 import org.eclipse.jface.resource.DeviceResourceManager;
 import org.eclipse.jface.resource.ImageDescriptor;
 import org.eclipse.jface.resource.LocalResourceManager;
 import org.eclipse.jface.resource.ResourceManager;
+import org.eclipse.jface.resource.ResourceUsage;
+import org.eclipse.jface.viewers.DecorationOverlayIcon;
+import org.eclipse.jface.viewers.IDecoration;
 import org.eclipse.swt.graphics.Color;
 import org.eclipse.swt.graphics.Device;
 import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.Point;
 import org.eclipse.swt.graphics.RGB;
 import org.eclipse.swt.widgets.Display;
 import org.eclipse.ui.plugin.AbstractUIPlugin;
@@ -286,4 +293,199 @@ public class ResourceManagerTest extends TestCase {
     	// Destroy the resource we created
     	globalResourceManager.destroy(descriptor);
     }
+
+    /**
+     * Tests that equal overlay icons share one image, which is kept for a
+     * while after its last reference was destroyed.
+     */
+    public void testCompositeImageSharing() throws Exception {
+        ImageDescriptor overlay = getImage("icons/binary_co.gif");
+        LocalResourceManager manager1 = new LocalResourceManager(globalResourceManager);
+        LocalResourceManager manager2 = new LocalResourceManager(globalResourceManager);
+
+        Image image1 = manager1.createImage(new DecorationOverlayIcon(testImage, overlay, IDecoration.TOP_RIGHT));
+        Image image2 = manager2.createImage(new DecorationOverlayIcon(testImage,
+                new ImageDescriptor[] { null, overlay, null, null }));
+        assertSame("Equal overlay icons should share their image", image1, image2);
+
+        CompositeImageStatistics statistics = manager1.getCompositeImageStatistics();
+        assertEquals(2, statistics.getRequestCount());
+        assertEquals(1, statistics.getHitCount());
+        assertEquals(1, statistics.getImageCount());
+
+        manager1.dispose();
+        manager2.dispose();
+        assertFalse("The unreferenced image should be kept", image1.isDisposed());
+        assertEquals(1, globalResourceManager.getCompositeImageStatistics().getUnreferencedImageCount());
+
+        Image image3 = globalResourceManager
+                .createImage(new DecorationOverlayIcon(testImage, overlay, IDecoration.TOP_RIGHT));
+        assertSame("The unreferenced image should be reused", image1, image3);
+        statistics = globalResourceManager.getCompositeImageStatistics();
+        assertEquals(2, statistics.getHitCount());
+        assertEquals(0, statistics.getUnreferencedImageCount());
+
+        Image otherImage = globalResourceManager.createImage(
+                new DecorationOverlayIcon(testImage, new ImageDescriptor[] { overlay }, new Point(20, 20)));
+        assertNotSame("Icons of other sizes should not share their image", image1, otherImage);
+
+        globalResourceManager.dispose();
+        assertTrue(image1.isDisposed());
+        assertTrue(otherImage.isDisposed());
+    }
+
+    /**
+     * Tests that the least recently released composite images are disposed
+     * when too many are kept.
+     */
+    public void testCompositeImageEviction() throws Exception {
+        ImageDescriptor overlay = getImage("icons/binary_co.gif");
+        int count = 300;
+        Image[] images = new Image[count];
+        DecorationOverlayIcon[] icons = new DecorationOverlayIcon[count];
+        for (int i = 0; i < count; i++) {
+            icons[i] = new DecorationOverlayIcon(testImage, new ImageDescriptor[] { overlay },
+                    new Point(16 + i, 16));
+            images[i] = globalResourceManager.createImage(icons[i]);
+        }
+        for (int i = 0; i < count; i++) {
+            globalResourceManager.destroyImage(icons[i]);
+        }
+
+        CompositeImageStatistics statistics = globalResourceManager.getCompositeImageStatistics();
+        assertTrue(statistics.getEvictionCount() > 0);
+        assertEquals(count - statistics.getEvictionCount(), statistics.getImageCount());
+        assertEquals(statistics.getImageCount(), statistics.getUnreferencedImageCount());
+        assertTrue("The first released image should be disposed", images[0].isDisposed());
+        assertFalse("The last released image should be kept", images[count - 1].isDisposed());
+    }
+
+    /**
+     * Tests that equal overlay icons have equal hash codes, also when their
+     * overlays are equal but distinct descriptors.
+     */
+    public void testOverlayIconHashCode() throws Exception {
+        DecorationOverlayIcon icon1 = new DecorationOverlayIcon(testImage, getImage("icons/binary_co.gif"),
+                IDecoration.TOP_LEFT);
+        DecorationOverlayIcon icon2 = new DecorationOverlayIcon(testImage, getImage("icons/binary_co.gif"),
+                IDecoration.TOP_LEFT);
+        assertEquals(icon1, icon2);
+        assertEquals(icon1.hashCode(), icon2.hashCode());
+
+        Image image1 = globalResourceManager.createImage(icon1);
+        Image image2 = globalResourceManager.createImage(icon2);
+        assertSame(image1, image2);
+    }
+
+    /**
+     * Tests that the images of composite descriptors that are only equal to
+     * themselves are disposed on their last destroy rather than cached.
+     */
+    public void testIdentityCompositeImageNotCached() throws Exception {
+        ImageDescriptor descriptor = new CompositeImageDescriptor() {
+            @Override
+            protected void drawCompositeImage(int width, int height) {
+                drawImage(testImage.getImageData(), 0, 0);
+            }
+
+            @Override
+            protected Point getSize() {
+                return new Point(16, 16);
+            }
+        };
+        Image image = globalResourceManager.createImage(descriptor);
+        globalResourceManager.destroyImage(descriptor);
+        assertTrue("The image should not be kept", image.isDisposed());
+        assertEquals(0, globalResourceManager.getCompositeImageStatistics().getUnreferencedImageCount());
+    }
+
+    /**
+     * Tests the usage counts of the global and a local manager.
+     */
+    public void testUsage() throws Exception {
+        LocalResourceManager localManager = new LocalResourceManager(globalResourceManager);
+        Image image = (Image) localManager.create(descriptors[0]);
+        localManager.create(descriptors[1]);
+        localManager.create(descriptors[2]);
+        globalResourceManager.create(descriptors[12]);
+
+        ResourceUsage usage = globalResourceManager.getUsage();
+        assertEquals(2, usage.getCount(Image.class));
+        assertEquals(1, usage.getCount(Color.class));
+        long imageSize = (long) image.getBounds().width * image.getBounds().height * 4;
+        assertTrue(usage.getEstimatedSize(Image.class) >= imageSize);
+        assertTrue(usage.getEstimatedSize() > usage.getEstimatedSize(Image.class));
+        assertEquals(2, localManager.getUsage().getCount(Image.class));
+        assertEquals(0, localManager.getUsage().getCount(Color.class));
+
+        localManager.dispose();
+        usage = globalResourceManager.getUsage();
+        assertEquals(0, usage.getCount(Image.class));
+        assertEquals(2, usage.getHighWatermark(Image.class));
+        assertEquals(0, usage.getEstimatedSize(Image.class));
+        assertEquals(1, usage.getCount(Color.class));
+
+        globalResourceManager.destroy(descriptors[12]);
+        assertEquals(0, globalResourceManager.getUsage().getCount(Color.class));
+    }
+
+    /**
+     * Tests that the composite images kept for reuse are counted as live
+     * until they are disposed.
+     */
+    public void testUsageOfCachedCompositeImages() throws Exception {
+        DecorationOverlayIcon icon = new DecorationOverlayIcon(testImage, getImage("icons/binary_co.gif"),
+                IDecoration.TOP_RIGHT);
+        Image image = globalResourceManager.createImage(icon);
+        long imageSize = globalResourceManager.getUsage().getEstimatedSize(Image.class);
+        globalResourceManager.destroyImage(icon);
+        assertFalse(image.isDisposed());
+        ResourceUsage usage = globalResourceManager.getUsage();
+        assertEquals(1, usage.getCount(Image.class));
+        assertEquals(imageSize, usage.getEstimatedSize(Image.class));
+
+        assertSame(image, globalResourceManager.createImage(icon));
+        assertEquals(1, globalResourceManager.getUsage().getCount(Image.class));
+        assertEquals(1, globalResourceManager.getUsage().getHighWatermark(Image.class));
+        globalResourceManager.destroyImage(icon);
+    }
+
+    /**
+     * Tests that the estimated size of an image does not depend on whether it
+     * was disposed before its descriptor was destroyed.
+     */
+    public void testUsageOfImageDisposedElsewhere() throws Exception {
+        Image image = (Image) globalResourceManager.create(descriptors[0]);
+        assertTrue(globalResourceManager.getUsage().getEstimatedSize(Image.class) > 0);
+        image.dispose();
+        globalResourceManager.destroy(descriptors[0]);
+        ResourceUsage usage = globalResourceManager.getUsage();
+        assertEquals(0, usage.getCount(Image.class));
+        assertEquals(0, usage.getEstimatedSize(Image.class));
+    }
+
+    /**
+     * Tests that the creating plug-in and the allocation site are remembered
+     * while allocations are tracked.
+     */
+    public void testUsageAllocationTracking() throws Exception {
+        boolean track = InternalPolicy.DEBUG_TRACK_RESOURCE_ALLOCATIONS;
+        InternalPolicy.DEBUG_TRACK_RESOURCE_ALLOCATIONS = true;
+        try {
+            globalResourceManager.create(descriptors[0]);
+            globalResourceManager.create(descriptors[12]);
+            ResourceUsage usage = globalResourceManager.getUsage();
+            assertEquals(2, usage.getAllocationSites().size());
+            if (InternalPolicy.OSGI_AVAILABLE) {
+                assertEquals(Integer.valueOf(2), usage.getCountsByPlugin().get("org.eclipse.ui.tests"));
+            }
+
+            globalResourceManager.destroy(descriptors[0]);
+            assertEquals(1, globalResourceManager.getUsage().getAllocationSites().size());
+            globalResourceManager.destroy(descriptors[12]);
+            assertTrue(globalResourceManager.getUsage().getCountsByPlugin().isEmpty());
+        } finally {
+            InternalPolicy.DEBUG_TRACK_RESOURCE_ALLOCATIONS = track;
+        }
+    }
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2009 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -67,5 +67,8 @@ public class AllTests extends TestSuite {
 		addTestSuite(Bug242231Test.class);
 		addTestSuite(StyledStringBuilderTest.class);
 		addTestSuite(TreeManagerTest.class);
+		addTestSuite(AsyncCellLabelProviderTest.class);
+		addTestSuite(LabelCacheTest.class);
+		addTestSuite(VirtualCheckboxTreeViewerTest.class);
 	}
 }
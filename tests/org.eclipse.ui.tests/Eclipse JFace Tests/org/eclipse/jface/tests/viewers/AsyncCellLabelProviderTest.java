@@ -0,0 +1,214 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.jface.tests.viewers;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.eclipse.jface.resource.ImageDescriptor;
+import org.eclipse.jface.viewers.AsyncCellLabelProvider;
+import org.eclipse.jface.viewers.StructuredViewer;
+import org.eclipse.jface.viewers.TableViewer;
+import org.eclipse.jface.viewers.ViewerCell;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.PaletteData;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.TableColumn;
+import org.eclipse.swt.widgets.TableItem;
+
+/**
+ * Tests the asynchronous computation of labels by an
+ * {@link AsyncCellLabelProvider}.
+ */
+public class AsyncCellLabelProviderTest extends ViewerTestCase {
+
+	private static final String PLACEHOLDER = "...";
+
+	private TableViewer tableViewer;
+
+	private final Map<Object, AtomicInteger> computations = new ConcurrentHashMap<>();
+
+	private volatile CountDownLatch release = new CountDownLatch(0);
+
+	private volatile ImageDescriptor image;
+
+	private static class TestImageDescriptor extends ImageDescriptor {
+
+		volatile boolean destroyed;
+
+		@Override
+		public ImageData getImageData() {
+			return new ImageData(16, 16, 24, new PaletteData(0xFF, 0xFF00, 0xFF0000));
+		}
+
+		@Override
+		public void destroyResource(Object previouslyCreatedObject) {
+			destroyed = true;
+			super.destroyResource(previouslyCreatedObject);
+		}
+	}
+
+	/**
+	 * @param name
+	 */
+	public AsyncCellLabelProviderTest(String name) {
+		super(name);
+	}
+
+	@Override
+	protected StructuredViewer createViewer(Composite parent) {
+		tableViewer = new TableViewer(parent);
+		tableViewer.setContentProvider(new TestModelContentProvider());
+		tableViewer.setLabelProvider(new AsyncCellLabelProvider() {
+			@Override
+			protected CellLabel computeLabel(Object element, int columnIndex) {
+				try {
+					release.await(10, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				computations.computeIfAbsent(element, e -> new AtomicInteger()).incrementAndGet();
+				return new CellLabel("computed " + ((TestElement) element).getLabel(), image);
+			}
+
+			@Override
+			protected void updatePlaceholder(ViewerCell cell) {
+				cell.setText(PLACEHOLDER);
+			}
+		});
+		return tableViewer;
+	}
+
+	private void waitUntil(BooleanSupplier condition, String message) {
+		Display display = fShell.getDisplay();
+		long end = System.currentTimeMillis() + 10000;
+		while (!condition.getAsBoolean()) {
+			if (System.currentTimeMillis() > end) {
+				fail(message);
+			}
+			if (!display.readAndDispatch()) {
+				try {
+					Thread.sleep(10);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+	}
+
+	private void waitForLabels() {
+		waitUntil(() -> {
+			for (TableItem item : tableViewer.getTable().getItems()) {
+				if (PLACEHOLDER.equals(item.getText())) {
+					return false;
+				}
+			}
+			return true;
+		}, "The labels were not computed");
+	}
+
+	public void testLabelsAreComputed() {
+		waitForLabels();
+		TableItem[] items = tableViewer.getTable().getItems();
+		assertEquals(fRootElement.getChildCount(), items.length);
+		for (TableItem item : items) {
+			assertEquals("computed " + ((TestElement) item.getData()).getLabel(), item.getText());
+		}
+	}
+
+	public void testComputedLabelIsKeptWhileComputing() {
+		waitForLabels();
+		TestElement element = fRootElement.getFirstChild();
+		String oldText = tableViewer.getTable().getItem(0).getText();
+		release = new CountDownLatch(1);
+		try {
+			element.setLabel("changed");
+			assertEquals(oldText, tableViewer.getTable().getItem(0).getText());
+		} finally {
+			release.countDown();
+		}
+		waitUntil(() -> "computed changed".equals(tableViewer.getTable().getItem(0).getText()),
+				"The changed label was not computed");
+	}
+
+	public void testRequestsAreDeduplicated() {
+		waitForLabels();
+		computations.clear();
+		TestElement element = fRootElement.getFirstChild();
+		release = new CountDownLatch(1);
+		try {
+			for (int i = 0; i < 10; i++) {
+				tableViewer.update(element, null);
+			}
+		} finally {
+			release.countDown();
+		}
+		// the first update is computed, the others are merged into one repeated computation
+		waitUntil(() -> computations.containsKey(element) && computations.get(element).get() >= 2,
+				"The label was not computed again");
+		processEvents();
+		assertEquals(2, computations.get(element).get());
+	}
+
+	public void testReplacedImageIsReleased() {
+		waitForLabels();
+		TestElement element = fRootElement.getFirstChild();
+		TableItem item = tableViewer.getTable().getItem(0);
+		TestImageDescriptor first = new TestImageDescriptor();
+		image = first;
+		element.setLabel("first");
+		waitUntil(() -> "computed first".equals(item.getText()), "The first label was not computed");
+		assertNotNull(item.getImage());
+
+		TestImageDescriptor second = new TestImageDescriptor();
+		image = second;
+		element.setLabel("second");
+		waitUntil(() -> "computed second".equals(item.getText()), "The second label was not computed");
+		assertTrue("The replaced image was not released", first.destroyed);
+		assertFalse(second.destroyed);
+		assertFalse(item.getImage().isDisposed());
+	}
+
+	public void testLabelsAreComputedPerColumn() {
+		new TableColumn(tableViewer.getTable(), 0).setWidth(100);
+		new TableColumn(tableViewer.getTable(), 0).setWidth(100);
+		tableViewer.setLabelProvider(new AsyncCellLabelProvider() {
+			@Override
+			protected CellLabel computeLabel(Object element, int columnIndex) {
+				return new CellLabel("computed " + ((TestElement) element).getLabel() + " " + columnIndex, null);
+			}
+
+			@Override
+			protected void updatePlaceholder(ViewerCell cell) {
+				cell.setText(PLACEHOLDER);
+			}
+		});
+		waitUntil(() -> {
+			for (TableItem item : tableViewer.getTable().getItems()) {
+				if (PLACEHOLDER.equals(item.getText(0)) || PLACEHOLDER.equals(item.getText(1))) {
+					return false;
+				}
+			}
+			return true;
+		}, "The labels of both columns were not computed");
+		for (TableItem item : tableViewer.getTable().getItems()) {
+			String label = ((TestElement) item.getData()).getLabel();
+			assertEquals("computed " + label + " 0", item.getText(0));
+			assertEquals("computed " + label + " 1", item.getText(1));
+		}
+	}
+}
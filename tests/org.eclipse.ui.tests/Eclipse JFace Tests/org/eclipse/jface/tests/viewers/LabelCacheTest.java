@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.jface.tests.viewers;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.jface.viewers.IElementStampProvider;
+import org.eclipse.jface.viewers.LabelProvider;
+import org.eclipse.jface.viewers.LabelProviderChangedEvent;
+import org.eclipse.jface.viewers.StructuredViewer;
+import org.eclipse.jface.viewers.TableViewer;
+import org.eclipse.swt.widgets.Composite;
+
+/**
+ * Tests the label cache of column viewers.
+ *
+ * @since 3.13
+ */
+public class LabelCacheTest extends ViewerTestCase {
+
+	private final Map<Object, Integer> stamps = new HashMap<>();
+
+	private int labelCount;
+
+	private StampedLabelProvider labelProvider;
+
+	private class StampedLabelProvider extends LabelProvider implements IElementStampProvider {
+		@Override
+		public String getText(Object element) {
+			labelCount++;
+			return ((TestElement) element).getLabel();
+		}
+
+		@Override
+		public Object getStamp(Object element) {
+			return stamps.get(element);
+		}
+
+		void fireChanged() {
+			fireLabelProviderChanged(new LabelProviderChangedEvent(this));
+		}
+	}
+
+	/**
+	 * @param name
+	 */
+	public LabelCacheTest(String name) {
+		super(name);
+	}
+
+	@Override
+	protected StructuredViewer createViewer(Composite parent) {
+		TableViewer viewer = new TableViewer(parent);
+		viewer.setContentProvider(new TestModelContentProvider());
+		labelProvider = new StampedLabelProvider();
+		viewer.setLabelProvider(labelProvider);
+		viewer.setLabelCacheEnabled(true);
+		return viewer;
+	}
+
+	@Override
+	protected void setInput() {
+		for (TestElement child : fRootElement.getChildren()) {
+			stamps.put(child, Integer.valueOf(0));
+		}
+		super.setInput();
+	}
+
+	private TableViewer getTableViewer() {
+		return (TableViewer) fViewer;
+	}
+
+	public void testUnchangedElementsAreSkipped() {
+		labelCount = 0;
+		fViewer.refresh();
+		assertEquals(0, labelCount);
+	}
+
+	public void testChangedStampIsUpdated() {
+		TestElement first = fRootElement.getFirstChild();
+		stamps.put(first, Integer.valueOf(1));
+		labelCount = 0;
+		fViewer.refresh();
+		assertEquals(1, labelCount);
+	}
+
+	public void testElementsWithoutStampAreUpdated() {
+		stamps.clear();
+		labelCount = 0;
+		fViewer.refresh();
+		assertEquals(fRootElement.getChildCount(), labelCount);
+	}
+
+	public void testLabelProviderChangeInvalidates() {
+		labelProvider.fireChanged();
+		labelCount = 0;
+		fViewer.refresh();
+		assertEquals(0, labelCount);
+		labelProvider.fireChanged();
+		assertEquals(fRootElement.getChildCount(), labelCount);
+	}
+
+	public void testDisabledCacheUpdatesAll() {
+		getTableViewer().setLabelCacheEnabled(false);
+		labelCount = 0;
+		fViewer.refresh();
+		assertEquals(fRootElement.getChildCount(), labelCount);
+	}
+}
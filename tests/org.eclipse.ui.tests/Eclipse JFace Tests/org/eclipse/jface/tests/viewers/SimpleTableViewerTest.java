@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006 IBM Corporation and others.
+ * Copyright (c) 2006, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -19,6 +19,7 @@ import org.eclipse.jface.viewers.LabelProvider;
 import org.eclipse.jface.viewers.StructuredViewer;
 import org.eclipse.jface.viewers.TableViewer;
 import org.eclipse.jface.viewers.TableViewerColumn;
+import org.eclipse.jface.viewers.ViewerRow;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.widgets.Composite;
@@ -174,4 +175,56 @@ public class SimpleTableViewerTest extends ViewerTestCase {
 		tableViewer.getTable().dispose();
 		assertEquals(1, disposeCounter[0]);
 	}
+
+	public void testAddManyElements() {
+		int count = tableViewer.getTable().getItemCount();
+		TestElement[] newElements = new TestElement[100];
+		for (int i = 0; i < newElements.length; i++) {
+			newElements[i] = new TestElement(fModel, fRootElement);
+			newElements[i].setLabel("added-" + i);
+		}
+		fRootElement.addChildren(newElements, new TestModelChange(TestModelChange.INSERT, fRootElement, newElements));
+		assertEquals(count + newElements.length, tableViewer.getTable().getItemCount());
+		for (int i = 0; i < newElements.length; i++) {
+			assertEquals(newElements[i].toString(), tableViewer.getTable().getItem(count + i).getText());
+			assertSame(newElements[i], tableViewer.getTable().getItem(count + i).getData());
+		}
+	}
+
+	public void testAddManyElementsWithSorter() {
+		tableViewer.setSorter(new StructuredViewerTest.TestLabelSorter());
+		int count = tableViewer.getTable().getItemCount();
+		TestElement[] newElements = new TestElement[100];
+		for (int i = 0; i < newElements.length; i++) {
+			newElements[i] = new TestElement(fModel, fRootElement);
+			newElements[i].setLabel("a-added-" + (1000 + i));
+		}
+		fRootElement.addChildren(newElements, new TestModelChange(TestModelChange.INSERT, fRootElement, newElements));
+		assertEquals(count + newElements.length, tableViewer.getTable().getItemCount());
+		for (int i = 0; i < newElements.length; i++) {
+			assertSame(newElements[newElements.length - 1 - i], tableViewer.getTable().getItem(count + i).getData());
+		}
+	}
+
+	public void testAddManyElementsWithOverriddenItemCreation() {
+		final int[] created = new int[1];
+		TableViewer viewer = new TableViewer(fShell) {
+			@Override
+			protected ViewerRow internalCreateNewRowPart(int style, int rowIndex) {
+				created[0]++;
+				return super.internalCreateNewRowPart(style, rowIndex);
+			}
+		};
+		viewer.setContentProvider(new TestModelContentProvider());
+		viewer.setInput(fRootElement);
+		created[0] = 0;
+		TestElement[] newElements = new TestElement[100];
+		for (int i = 0; i < newElements.length; i++) {
+			newElements[i] = new TestElement(fModel, fRootElement);
+			newElements[i].setLabel("added-" + i);
+		}
+		viewer.add(newElements);
+		assertEquals(newElements.length, created[0]);
+		viewer.getTable().dispose();
+	}
 }
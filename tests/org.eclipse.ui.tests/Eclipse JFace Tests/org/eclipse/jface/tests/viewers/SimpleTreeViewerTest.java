@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2015 IBM Corporation and others.
+ * Copyright (c) 2006, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,17 +14,21 @@ package org.eclipse.jface.tests.viewers;
 
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Item;
+import org.eclipse.swt.widgets.Widget;
 
 import org.eclipse.jface.viewers.ILabelProviderListener;
 import org.eclipse.jface.viewers.ISelectionChangedListener;
 import org.eclipse.jface.viewers.ITableLabelProvider;
 import org.eclipse.jface.viewers.ITreeContentProvider;
+import org.eclipse.jface.viewers.ITreeSelection;
 import org.eclipse.jface.viewers.LabelProvider;
 import org.eclipse.jface.viewers.SelectionChangedEvent;
 import org.eclipse.jface.viewers.StructuredSelection;
 import org.eclipse.jface.viewers.StructuredViewer;
 import org.eclipse.jface.viewers.TreeNode;
 import org.eclipse.jface.viewers.TreeNodeContentProvider;
+import org.eclipse.jface.viewers.TreePath;
 import org.eclipse.jface.viewers.TreePathViewerSorter;
 import org.eclipse.jface.viewers.TreeViewer;
 import org.eclipse.jface.viewers.Viewer;
@@ -169,4 +173,76 @@ public class SimpleTreeViewerTest extends ViewerTestCase {
 		assertEquals(4, i); // 4 because the filter doesn't work due to equal nodes
 	}
 
+	public void testAddManyElements() {
+		int count = treeViewer.getTree().getItemCount();
+		TestElement[] newElements = new TestElement[100];
+		for (int i = 0; i < newElements.length; i++) {
+			newElements[i] = new TestElement(fModel, fRootElement);
+			newElements[i].setLabel("added-" + i);
+		}
+		fRootElement.addChildren(newElements, new TestModelChange(TestModelChange.INSERT, fRootElement, newElements));
+		assertEquals(count + newElements.length, treeViewer.getTree().getItemCount());
+		for (int i = 0; i < newElements.length; i++) {
+			assertEquals(newElements[i].toString(), treeViewer.getTree().getItem(count + i).getText());
+			assertSame(newElements[i], treeViewer.getTree().getItem(count + i).getData());
+		}
+	}
+
+	public void testAddManyElementsWithSorter() {
+		treeViewer.setSorter(new StructuredViewerTest.TestLabelSorter());
+		int count = treeViewer.getTree().getItemCount();
+		TestElement[] newElements = new TestElement[100];
+		for (int i = 0; i < newElements.length; i++) {
+			newElements[i] = new TestElement(fModel, fRootElement);
+			newElements[i].setLabel("a-added-" + (1000 + i));
+		}
+		fRootElement.addChildren(newElements, new TestModelChange(TestModelChange.INSERT, fRootElement, newElements));
+		assertEquals(count + newElements.length, treeViewer.getTree().getItemCount());
+		for (int i = 0; i < newElements.length; i++) {
+			assertSame(newElements[newElements.length - 1 - i], treeViewer.getTree().getItem(count + i).getData());
+		}
+	}
+
+	public void testAddManyElementsWithOverriddenItemCreation() {
+		final int[] created = new int[1];
+		TreeViewer viewer = new TreeViewer(fShell) {
+			@Override
+			protected void createTreeItem(Widget parent, Object element, int index) {
+				created[0]++;
+				super.createTreeItem(parent, element, index);
+			}
+		};
+		viewer.setContentProvider(new TestModelContentProvider());
+		viewer.setInput(fRootElement);
+		created[0] = 0;
+		TestElement[] newElements = new TestElement[100];
+		for (int i = 0; i < newElements.length; i++) {
+			newElements[i] = new TestElement(fModel, fRootElement);
+			newElements[i].setLabel("added-" + i);
+		}
+		viewer.add(fRootElement, newElements);
+		assertEquals(newElements.length, created[0]);
+		viewer.getTree().dispose();
+	}
+
+	public void testSelectionWithOverriddenTreePathFromItem() {
+		final int[] computed = new int[1];
+		TreeViewer viewer = new TreeViewer(fShell) {
+			@Override
+			protected TreePath getTreePathFromItem(Item item) {
+				computed[0]++;
+				return super.getTreePathFromItem(item);
+			}
+		};
+		viewer.setContentProvider(new TestModelContentProvider());
+		viewer.setInput(fRootElement);
+		TestElement grandChild = fRootElement.getFirstChild().getFirstChild();
+		viewer.setSelection(new StructuredSelection(grandChild), true);
+		computed[0] = 0;
+		ITreeSelection selection = (ITreeSelection) viewer.getSelection();
+		assertEquals(1, computed[0]);
+		assertEquals(grandChild, selection.getPaths()[0].getLastSegment());
+		assertEquals(3, selection.getPaths()[0].getSegmentCount());
+		viewer.getTree().dispose();
+	}
 }
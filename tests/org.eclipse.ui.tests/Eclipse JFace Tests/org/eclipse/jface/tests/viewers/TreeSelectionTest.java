@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006 IBM Corporation and others.
+ * Copyright (c) 2006, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -43,4 +43,60 @@ public class TreeSelectionTest extends TestCase {
 		assertFalse(treeSelection1.equals(treeSelection2));
 	}
 
+	public void testChildPathsShareTheirParent() {
+		Object one = new Object();
+		Object two = new Object();
+		Object three = new Object();
+		TreePath parent = TreePath.EMPTY.createChildPath(one);
+		TreePath child1 = parent.createChildPath(two);
+		TreePath child2 = parent.createChildPath(three);
+		assertSame(parent, child1.getParentPath());
+		assertSame(parent, child2.getParentPath());
+		assertEquals(2, child1.getSegmentCount());
+		assertSame(one, child1.getFirstSegment());
+		assertSame(two, child1.getLastSegment());
+		assertSame(three, child2.getSegment(1));
+	}
+
+	public void testIndexedAccessOfChildPaths() {
+		Object[] segments = new Object[10];
+		TreePath path = TreePath.EMPTY;
+		TreePath middle = null;
+		for (int i = 0; i < segments.length; i++) {
+			segments[i] = new Object();
+			path = path.createChildPath(segments[i]);
+			if (i == 4) {
+				middle = path;
+				assertSame(segments[2], middle.getSegment(2));
+			}
+		}
+		for (int i = 0; i < segments.length; i++) {
+			assertSame(segments[i], path.getSegment(i));
+		}
+		assertSame(segments[0], path.getFirstSegment());
+		assertSame(segments[4], middle.getLastSegment());
+		assertEquals(new TreePath(segments), path);
+	}
+
+	public void testChildPathsEqualArrayPaths() {
+		Object one = new Object();
+		Object two = new Object();
+		Object three = new Object();
+		TreePath childPath = new TreePath(new Object[] { one }).createChildPath(two).createChildPath(three);
+		TreePath arrayPath = new TreePath(new Object[] { one, two, three });
+		assertEquals(arrayPath, childPath);
+		assertEquals(childPath, arrayPath);
+		assertEquals(arrayPath.hashCode(), childPath.hashCode());
+		assertTrue(childPath.startsWith(new TreePath(new Object[] { one, two }), null));
+		assertTrue(arrayPath.startsWith(childPath.getParentPath(), null));
+		assertFalse(childPath.startsWith(new TreePath(new Object[] { two }), null));
+		assertFalse(childPath.equals(TreePath.EMPTY.createChildPath(one).createChildPath(three).createChildPath(three)));
+		try {
+			childPath.getSegment(3);
+			fail("Expected an ArrayIndexOutOfBoundsException");
+		} catch (ArrayIndexOutOfBoundsException e) {
+			// expected
+		}
+	}
+
 }
@@ -0,0 +1,180 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.jface.tests.viewers;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.jface.viewers.CheckboxTreeViewer;
+import org.eclipse.jface.viewers.StructuredViewer;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Tree;
+import org.eclipse.swt.widgets.TreeItem;
+
+/**
+ * Tests the check states of a {@link CheckboxTreeViewer} on a virtual tree
+ * that keeps them by element.
+ */
+public class VirtualCheckboxTreeViewerTest extends ViewerTestCase {
+
+	private CheckboxTreeViewer checkboxViewer;
+
+	/**
+	 * @param name
+	 */
+	public VirtualCheckboxTreeViewerTest(String name) {
+		super(name);
+	}
+
+	@Override
+	protected StructuredViewer createViewer(Composite parent) {
+		Tree tree = new Tree(parent, SWT.CHECK | SWT.VIRTUAL);
+		checkboxViewer = new CheckboxTreeViewer(tree);
+		checkboxViewer.setUseElementCheckStates(true);
+		checkboxViewer.setContentProvider(new TestModelContentProvider());
+		return checkboxViewer;
+	}
+
+	public void testCheckCollapsedElement() {
+		TestElement grandChild = fRootElement.getFirstChild().getFirstChild();
+		assertTrue(checkboxViewer.setChecked(grandChild, true));
+		assertTrue(checkboxViewer.getChecked(grandChild));
+		assertFalse(checkboxViewer.getChecked(fRootElement.getFirstChild()));
+		assertNull("no item was created", checkboxViewer.testFindItem(grandChild));
+	}
+
+	public void testSubtreeCheckedWithoutItems() {
+		TestElement child = fRootElement.getFirstChild();
+		checkboxViewer.setSubtreeChecked(child, true);
+		TestElement grandGrandChild = child.getFirstChild().getFirstChild();
+		assertTrue(checkboxViewer.getChecked(child));
+		assertTrue(checkboxViewer.getChecked(grandGrandChild));
+		assertFalse(checkboxViewer.getChecked(fRootElement.getLastChild()));
+		Object[] checked = checkboxViewer.getCheckedElements();
+		assertEquals(1, checked.length);
+		assertEquals(child, checked[0]);
+	}
+
+	public void testMixedSubtreeIsGrayed() {
+		TestElement child = fRootElement.getFirstChild();
+		checkboxViewer.setSubtreeChecked(child, true);
+		assertFalse(checkboxViewer.getGrayed(child));
+		checkboxViewer.setChecked(child.getFirstChild(), false);
+		assertTrue(checkboxViewer.getGrayed(child));
+		assertTrue(checkboxViewer.getChecked(child));
+		assertFalse(checkboxViewer.getGrayed(fRootElement.getLastChild()));
+	}
+
+	public void testElementCheckedAboveUncheckedSubtreeIsGrayed() {
+		TestElement child = fRootElement.getFirstChild();
+		TestElement grandChild = child.getFirstChild();
+		checkboxViewer.setSubtreeChecked(child, true);
+		checkboxViewer.setSubtreeChecked(grandChild, false);
+		checkboxViewer.setChecked(grandChild, true);
+		assertTrue(checkboxViewer.getChecked(grandChild));
+		assertFalse(checkboxViewer.getChecked(grandChild.getFirstChild()));
+		assertTrue(checkboxViewer.getGrayed(grandChild));
+		assertTrue(checkboxViewer.getGrayed(child));
+	}
+
+	public void testGrayedElementsMatchGrayedStates() {
+		TestElement child = fRootElement.getFirstChild();
+		TestElement grandChild = child.getFirstChild();
+		TestElement last = fRootElement.getLastChild();
+		checkboxViewer.setSubtreeChecked(child, true);
+		checkboxViewer.setChecked(grandChild.getFirstChild(), false);
+		checkboxViewer.setGrayed(last, true);
+		List<Object> grayed = Arrays.asList(checkboxViewer.getGrayedElements());
+		assertEquals(3, grayed.size());
+		assertTrue(grayed.contains(child));
+		assertTrue(grayed.contains(grandChild));
+		assertTrue(grayed.contains(last));
+		for (Object element : grayed) {
+			assertTrue(checkboxViewer.getGrayed(element));
+		}
+		assertFalse(checkboxViewer.getGrayed(grandChild.getFirstChild()));
+	}
+
+	public void testShownItemsReflectState() {
+		TestElement child = fRootElement.getFirstChild();
+		checkboxViewer.setSubtreeChecked(child, true);
+		checkboxViewer.expandToLevel(child, 1);
+		processEvents();
+		TreeItem item = (TreeItem) checkboxViewer.testFindItem(child.getFirstChild());
+		assertNotNull(item);
+		assertTrue(item.getChecked());
+	}
+
+	public void testCheckedElementsRoundTrip() {
+		TestElement[] elements = { fRootElement.getFirstChild(), fRootElement.getLastChild().getFirstChild() };
+		checkboxViewer.setCheckedElements(elements);
+		Object[] checked = checkboxViewer.getCheckedElements();
+		assertEquals(2, checked.length);
+		for (TestElement element : elements) {
+			assertTrue(checkboxViewer.getChecked(element));
+		}
+		assertFalse(checkboxViewer.getChecked(fRootElement.getFirstChild().getFirstChild()));
+	}
+
+	public void testAllCheckedElements() {
+		checkboxViewer.setAllChecked(true);
+		processEvents();
+		TestElement grandChild = fRootElement.getFirstChild().getFirstChild();
+		assertTrue(checkboxViewer.getChecked(grandChild));
+		assertFalse(checkboxViewer.getGrayed(fRootElement.getFirstChild()));
+		List<Object> checked = Arrays.asList(checkboxViewer.getCheckedElements());
+		for (TreeItem item : checkboxViewer.getTree().getItems()) {
+			if (item.getData() != null) {
+				assertTrue(checked.contains(item.getData()));
+			}
+		}
+
+		checkboxViewer.setChecked(grandChild, false);
+		assertTrue(checkboxViewer.getGrayed(fRootElement.getFirstChild()));
+		assertFalse(Arrays.asList(checkboxViewer.getCheckedElements()).contains(grandChild));
+	}
+
+	public void testRemovedElementsAreForgotten() {
+		TestElement child = fRootElement.getFirstChild();
+		TestElement grandChild = child.getFirstChild();
+		checkboxViewer.setChecked(grandChild, true);
+		checkboxViewer.remove(grandChild);
+		assertFalse(checkboxViewer.getChecked(grandChild));
+		assertFalse(checkboxViewer.getGrayed(child));
+		assertEquals(0, checkboxViewer.getCheckedElements().length);
+	}
+
+	public void testRefreshForgetsDeletedElements() {
+		TestElement child = fRootElement.getFirstChild();
+		TestElement grandChild = child.getFirstChild();
+		checkboxViewer.setChecked(grandChild, true);
+		assertTrue(checkboxViewer.getGrayed(child));
+		child.basicDeleteChild(grandChild);
+		checkboxViewer.refresh();
+		assertFalse(checkboxViewer.getChecked(grandChild));
+		assertFalse(checkboxViewer.getGrayed(child));
+		assertEquals(0, checkboxViewer.getCheckedElements().length);
+	}
+
+	public void testItemStatesByDefault() {
+		Tree tree = new Tree(fShell, SWT.CHECK | SWT.VIRTUAL);
+		CheckboxTreeViewer viewer = new CheckboxTreeViewer(tree);
+		viewer.setContentProvider(new TestModelContentProvider());
+		viewer.setInput(fRootElement);
+		TestElement grandChild = fRootElement.getFirstChild().getFirstChild();
+		assertTrue(viewer.setChecked(grandChild, true));
+		assertNotNull("the item was created", viewer.testFindItem(grandChild));
+		assertTrue(Arrays.asList(viewer.getCheckedElements()).contains(grandChild));
+		tree.dispose();
+	}
+}
@@ -0,0 +1,181 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.ui.tests.dialogs;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.jface.dialogs.DialogSettings;
+import org.eclipse.jface.dialogs.IDialogSettings;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.Table;
+import org.eclipse.swt.widgets.Text;
+import org.eclipse.ui.PlatformUI;
+import org.eclipse.ui.dialogs.FilteredItemsSelectionDialog;
+import org.eclipse.ui.tests.harness.util.DisplayHelper;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the matching of the items of a {@link FilteredItemsSelectionDialog}.
+ */
+public class UIFilteredItemsSelectionDialogAuto extends TestCase {
+
+	private static final int ITEM_COUNT = 10000;
+
+	/**
+	 * The number of items matched by "item1": item1, item10-19, item100-199
+	 * and item1000-1999.
+	 */
+	private static final int MATCH_COUNT = 1111;
+
+	/**
+	 * Checks if the parallel matching of a cached result finds the same items
+	 * in the same order as the sequential one.
+	 */
+	public void testParallelMatchingSameAsSequential() {
+		Set<String> threads = ConcurrentHashMap.newKeySet();
+		List<Object> sequential = filter(false, threads);
+		threads.clear();
+		List<Object> parallel = filter(true, threads);
+
+		assertEquals(MATCH_COUNT, sequential.size());
+		assertEquals(sequential, parallel);
+		boolean matchedInPool = false;
+		for (String thread : threads) {
+			matchedInPool |= thread.startsWith("Filtered Items Matcher");
+		}
+		assertTrue("The items were not matched in parallel", matchedInPool);
+	}
+
+	/**
+	 * Shows all the items, then narrows the pattern so that the cached result
+	 * is filtered, and returns the items shown.
+	 */
+	private static List<Object> filter(boolean parallelMatching, Set<String> threads) {
+		Shell parent = PlatformUI.getWorkbench().getActiveWorkbenchWindow().getShell();
+		StringsDialog dialog = new StringsDialog(parent, threads);
+		dialog.setParallelMatching(parallelMatching);
+		dialog.setInitialPattern("item");
+		dialog.setBlockOnOpen(false);
+		dialog.open();
+		try {
+			Table table = find(dialog.getShell(), Table.class);
+			assertTrue("The items are not shown", waitForItemCount(table, ITEM_COUNT));
+
+			find(dialog.getShell(), Text.class).setText("item1");
+			assertTrue("The matching items are not shown", waitForItemCount(table, MATCH_COUNT));
+
+			List<Object> shown = new ArrayList<>();
+			for (int i = 0; i < table.getItemCount(); i++) {
+				// the table is virtual, the text makes it ask for the item
+				table.getItem(i).getText();
+				shown.add(table.getItem(i).getData());
+			}
+			return shown;
+		} finally {
+			dialog.close();
+		}
+	}
+
+	private static boolean waitForItemCount(final Table table, final int count) {
+		return new DisplayHelper() {
+			@Override
+			protected boolean condition() {
+				return table.getItemCount() == count;
+			}
+		}.waitForCondition(table.getDisplay(), 10000);
+	}
+
+	private static <T extends Control> T find(Control control, Class<T> type) {
+		if (type.isInstance(control)) {
+			return type.cast(control);
+		}
+		if (control instanceof Composite) {
+			for (Control child : ((Composite) control).getChildren()) {
+				T found = find(child, type);
+				if (found != null) {
+					return found;
+				}
+			}
+		}
+		return null;
+	}
+
+	private static class StringsDialog extends FilteredItemsSelectionDialog {
+
+		private final Set<String> threads;
+
+		StringsDialog(Shell shell, Set<String> threads) {
+			super(shell);
+			this.threads = threads;
+		}
+
+		@Override
+		protected Control createExtendedContentArea(Composite parent) {
+			return null;
+		}
+
+		@Override
+		protected IDialogSettings getDialogSettings() {
+			return new DialogSettings("StringsDialog");
+		}
+
+		@Override
+		protected IStatus validateItem(Object item) {
+			return Status.OK_STATUS;
+		}
+
+		@Override
+		protected ItemsFilter createFilter() {
+			return new ItemsFilter() {
+				@Override
+				public boolean matchItem(Object item) {
+					threads.add(Thread.currentThread().getName());
+					return matches((String) item);
+				}
+
+				@Override
+				public boolean isConsistentItem(Object item) {
+					return true;
+				}
+			};
+		}
+
+		@Override
+		protected Comparator getItemsComparator() {
+			return Comparator.naturalOrder();
+		}
+
+		@Override
+		protected void fillContentProvider(AbstractContentProvider contentProvider, ItemsFilter itemsFilter,
+				IProgressMonitor progressMonitor) throws CoreException {
+			for (int i = 0; i < ITEM_COUNT; i++) {
+				contentProvider.add("item" + i, itemsFilter);
+			}
+		}
+
+		@Override
+		public String getElementName(Object item) {
+			return (String) item;
+		}
+	}
+}
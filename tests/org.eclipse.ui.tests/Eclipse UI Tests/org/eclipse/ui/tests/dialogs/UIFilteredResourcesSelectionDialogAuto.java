@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2007 IBM Corporation and others.
+ * Copyright (c) 2006, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,9 +11,16 @@
 
 package org.eclipse.ui.tests.dialogs;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
 import java.util.*;
 
 import org.eclipse.core.resources.*;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.swt.events.ShellAdapter;
 import org.eclipse.swt.events.ShellEvent;
 import org.eclipse.swt.graphics.Point;
@@ -21,6 +28,7 @@ import org.eclipse.swt.widgets.Shell;
 import org.eclipse.ui.IWorkbenchWindow;
 import org.eclipse.ui.PlatformUI;
 import org.eclipse.ui.dialogs.FilteredResourcesSelectionDialog;
+import org.eclipse.ui.tests.harness.util.DisplayHelper;
 
 public class UIFilteredResourcesSelectionDialogAuto extends
 		UIAbstractFilteredResourcesSelectionDialog {
@@ -48,6 +56,90 @@ public class UIFilteredResourcesSelectionDialogAuto extends
 		closeDialog(dialog);
 	}
 
+	/**
+	 * Checks if the index of the workspace resources follows the changes of
+	 * the workspace.
+	 *
+	 * @throws Exception
+	 */
+	public void testItemsIndex() throws Exception {
+
+		final MockedFilteredResourcesSelectionDialog dialog = createDialog();
+
+		final Set indexed = new HashSet();
+		indexed.addAll(Arrays.asList(historyResources));
+		indexed.addAll(Arrays.asList(nonHistoryResources));
+		assertTrue("The index does not hold the workspace resources", waitForIndex(dialog, indexed, true));
+
+		IFile added = project.getFile("addedFile.txt");
+		added.create(null, false, null);
+		assertTrue("The added file is not indexed", waitForIndex(dialog, Collections.singleton(added), true));
+
+		IFolder removed = (IFolder) nonHistoryResources[nonHistoryResources.length - 1].getParent();
+		Set removedMembers = new HashSet(Arrays.asList(removed.members()));
+		removedMembers.add(removed);
+		removed.delete(true, new NullProgressMonitor());
+		assertTrue("The removed folder is still indexed", waitForIndex(dialog, removedMembers, false));
+
+		closeDialog(dialog);
+	}
+
+	/**
+	 * Checks if a subclass that collects its own items does not use the index
+	 * of the workspace resources.
+	 */
+	public void testOverriddenContentSkipsIndex() {
+		final IWorkbenchWindow window = PlatformUI.getWorkbench().getActiveWorkbenchWindow();
+		MockedFilteredResourcesSelectionDialog dialog = new MockedFilteredResourcesSelectionDialog(
+				window.getShell(), true, ResourcesPlugin.getWorkspace().getRoot(), IResource.FILE) {
+			@Override
+			protected void fillContentProvider(AbstractContentProvider contentProvider, ItemsFilter itemsFilter,
+					IProgressMonitor progressMonitor) throws CoreException {
+				// no items
+			}
+		};
+		assertNull(dialog.getIndex());
+	}
+
+	/**
+	 * Checks if a loaded index keeps the changes made while it is loaded and
+	 * is stale until its items are collected again.
+	 *
+	 * @throws Exception
+	 */
+	public void testLoadItemsIndex() throws Exception {
+		File file = File.createTempFile("itemsIndex", ".bin");
+		try {
+			MockedFilteredResourcesSelectionDialog.saveNames(file, "a", "b", "c");
+			final boolean[] updated = new boolean[1];
+			Object[] items = MockedFilteredResourcesSelectionDialog.loadNames(file, "c", "d", () -> updated[0] = true);
+			assertEquals(new HashSet(Arrays.asList("a", "b", "d")), new HashSet(Arrays.asList(items)));
+			assertTrue("The update listener was not notified", updated[0]);
+		} finally {
+			file.delete();
+		}
+	}
+
+	private static boolean waitForIndex(final MockedFilteredResourcesSelectionDialog dialog, final Set resources,
+			final boolean contained) {
+		return new DisplayHelper() {
+			@Override
+			protected boolean condition() {
+				Object[] items = dialog.getIndexedItems();
+				if (items == null) {
+					return false;
+				}
+				Set itemsSet = new HashSet(Arrays.asList(items));
+				for (Object resource : resources) {
+					if (itemsSet.contains(resource) != contained) {
+						return false;
+					}
+				}
+				return true;
+			}
+		}.waitForCondition(PlatformUI.getWorkbench().getDisplay(), 10000);
+	}
+
 	private static MockedFilteredResourcesSelectionDialog createDialog() {
 		final IWorkbenchWindow window = PlatformUI.getWorkbench()
 				.getActiveWorkbenchWindow();
@@ -94,6 +186,66 @@ public class UIFilteredResourcesSelectionDialogAuto extends
 			return getSelectionHistory().getHistoryItems();
 		}
 
+		public Object[] getIndexedItems() {
+			ItemsIndex index = getItemsIndex();
+			return index.isReady() ? index.getItems() : null;
+		}
+
+		public Object getIndex() {
+			return getItemsIndex();
+		}
+
+		static void saveNames(File file, String... names) throws IOException {
+			NamesIndex index = new NamesIndex(null, null);
+			index.setItems(Arrays.asList(names));
+			index.save(file);
+		}
+
+		/**
+		 * Loads the names, removes and adds a name while loading, checks that
+		 * the loaded index is stale and then collects the items again.
+		 */
+		static Object[] loadNames(File file, String removed, String added, Runnable listener) throws IOException {
+			NamesIndex index = new NamesIndex(removed, added);
+			index.addUpdateListener(listener);
+			assertTrue(index.load(file));
+			assertTrue(index.isReady());
+			assertTrue("The loaded index is not stale", index.isStale());
+			Object[] items = index.getItems();
+			index.setItems(Arrays.asList(items));
+			assertFalse(index.isStale());
+			return items;
+		}
+
+		private static class NamesIndex extends ItemsIndex {
+
+			private String removed;
+
+			private String added;
+
+			NamesIndex(String removed, String added) {
+				this.removed = removed;
+				this.added = added;
+			}
+
+			@Override
+			protected Object restoreItem(DataInput in) throws IOException {
+				String name = in.readUTF();
+				if (removed != null) {
+					// the workspace changes while the index is loaded
+					remove(removed);
+					add(added);
+					removed = null;
+				}
+				return name;
+			}
+
+			@Override
+			protected void storeItem(Object item, DataOutput out) throws IOException {
+				out.writeUTF((String) item);
+			}
+		}
+
 	}
 
 }
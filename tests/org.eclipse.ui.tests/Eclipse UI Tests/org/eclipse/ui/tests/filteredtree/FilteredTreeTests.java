@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006 IBM Corporation and others.
+ * Copyright (c) 2006, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -16,14 +16,18 @@ import org.eclipse.jface.dialogs.Dialog;
 import org.eclipse.jface.tests.viewers.TestElement;
 import org.eclipse.jface.tests.viewers.TestModelContentProvider;
 import org.eclipse.jface.viewers.LabelProvider;
+import org.eclipse.jface.viewers.Viewer;
+import org.eclipse.jface.viewers.ViewerFilter;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.layout.GridData;
 import org.eclipse.swt.layout.GridLayout;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Control;
 import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.Tree;
 import org.eclipse.ui.dialogs.FilteredTree;
 import org.eclipse.ui.dialogs.PatternFilter;
+import org.eclipse.ui.tests.harness.util.DisplayHelper;
 import org.eclipse.ui.tests.harness.util.UITestCase;
 
 public class FilteredTreeTests extends UITestCase {
@@ -106,6 +110,112 @@ public class FilteredTreeTests extends UITestCase {
 		dialog.close();
 	}
 
+	/*
+	 * Tests that the filter text is matched in the background and only the
+	 * matching elements are shown.
+	 */
+	public void testAsyncFiltering() {
+		fRootElement = TestElement.createModel(DEPTH, NUM_ITEMS);
+		final int treeStyle = SWT.SINGLE | SWT.H_SCROLL | SWT.V_SCROLL | SWT.BORDER;
+
+		Dialog dialog = new FilteredTreeDialog((Shell) null, treeStyle) {
+			@Override
+			protected FilteredTree doCreateFilteredTree(Composite comp, int style) {
+				FilteredTree tree = createFilteredTree(comp, treeStyle);
+				tree.setAsyncFiltering(true);
+				return tree;
+			}
+		};
+
+		dialog.create();
+		assertTrue(fTreeViewer.isAsyncFiltering());
+		fTreeViewer.getFilterControl().setText("0-1-2");
+
+		final Tree tree = fTreeViewer.getViewer().getTree();
+		boolean filtered = new DisplayHelper() {
+			@Override
+			protected boolean condition() {
+				return tree.getItemCount() == 1;
+			}
+		}.waitForCondition(tree.getDisplay(), 5000);
+		assertTrue("tree item count " + tree.getItemCount() + " does not match expected: 1", filtered);
+		assertEquals("0-1", ((TestElement) tree.getItem(0).getData()).getID());
+		dialog.close();
+	}
+
+	/*
+	 * Tests that the elements hidden by the other filters of the viewer do not
+	 * make their ancestors match in the background.
+	 */
+	public void testAsyncFilteringWithOtherFilter() {
+		fRootElement = TestElement.createModel(DEPTH, NUM_ITEMS);
+		final int treeStyle = SWT.SINGLE | SWT.H_SCROLL | SWT.V_SCROLL | SWT.BORDER;
+
+		Dialog dialog = new FilteredTreeDialog((Shell) null, treeStyle) {
+			@Override
+			protected FilteredTree doCreateFilteredTree(Composite comp, int style) {
+				FilteredTree tree = createFilteredTree(comp, treeStyle);
+				tree.getViewer().addFilter(new ViewerFilter() {
+					@Override
+					public boolean select(Viewer viewer, Object parentElement, Object element) {
+						return !"0-1-2".equals(((TestElement) element).getID());
+					}
+				});
+				tree.setAsyncFiltering(true);
+				return tree;
+			}
+		};
+
+		dialog.create();
+		fTreeViewer.getFilterControl().setText("0-1-2");
+
+		final Tree tree = fTreeViewer.getViewer().getTree();
+		boolean filtered = new DisplayHelper() {
+			@Override
+			protected boolean condition() {
+				return tree.getItemCount() == 0;
+			}
+		}.waitForCondition(tree.getDisplay(), 5000);
+		assertTrue("tree item count " + tree.getItemCount() + " does not match expected: 0", filtered);
+		dialog.close();
+	}
+
+	/*
+	 * Tests that background matching can be requested before the tree is
+	 * created and is not used with pattern filters that need the viewer.
+	 */
+	public void testAsyncFilteringSupport() {
+		fRootElement = TestElement.createModel(DEPTH, NUM_ITEMS);
+		final int treeStyle = SWT.SINGLE | SWT.H_SCROLL | SWT.V_SCROLL | SWT.BORDER;
+
+		Dialog dialog = new FilteredTreeDialog((Shell) null, treeStyle) {
+			@Override
+			protected FilteredTree doCreateFilteredTree(Composite comp, int style) {
+				FilteredTree tree = new FilteredTree(comp, true) {
+					{
+						setAsyncFiltering(true);
+						init(treeStyle, new PatternFilter());
+					}
+				};
+				tree.getViewer().setContentProvider(new TestModelContentProvider());
+				tree.getViewer().setLabelProvider(new LabelProvider());
+				return tree;
+			}
+		};
+		dialog.create();
+		assertTrue(fTreeViewer.isAsyncFiltering());
+
+		FilteredTree other = new FilteredTree(fTreeViewer.getParent(), treeStyle, new PatternFilter() {
+			@Override
+			protected boolean isLeafMatch(Viewer viewer, Object element) {
+				return super.isLeafMatch(viewer, element);
+			}
+		}, true);
+		other.setAsyncFiltering(true);
+		assertFalse(other.isAsyncFiltering());
+		dialog.close();
+	}
+
 	private void runFilteredTreeTest(final int treeStyle){
 		fRootElement = TestElement.createModel(DEPTH, NUM_ITEMS);
 
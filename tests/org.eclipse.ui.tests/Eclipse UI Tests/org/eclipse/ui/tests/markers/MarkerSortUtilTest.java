@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2009 IBM Corporation and others.
+ * Copyright (c) 2008, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,6 +14,7 @@ package org.eclipse.ui.tests.markers;
 import java.util.Arrays;
 import java.util.Comparator;
 
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.ui.internal.views.markers.MarkerSortUtil;
 import org.eclipse.ui.internal.views.markers.MockMarkerEntry;
 import org.eclipse.ui.tests.harness.util.UITestCase;
@@ -44,6 +45,30 @@ public class MarkerSortUtilTest extends UITestCase {
 	public void testCompleteSort() {
 		sortToLimit(ARRAYSIZE,ARRAYSIZE);
 	}
+
+	public void testSelectTopK() {
+		MockMarkerEntry[] fArray1 = generateArray(ARRAYSIZE);
+		MockMarkerEntry[] fArray2 = fArray1.clone();
+		Comparator comparator = new Comparator() {
+			@Override
+			public int compare(Object o1, Object o2) {
+				return ((MockMarkerEntry) o1).name.compareTo(((MockMarkerEntry) o2).name);
+			}
+		};
+		int limit = 100;
+		MarkerSortUtil.selectTopK(fArray1, comparator, 0, fArray1.length - 1, limit, new NullProgressMonitor());
+		Arrays.sort(fArray2, comparator);
+
+		for (int i = 0; i < limit; i++) {
+			assertEquals("Incorrect sorting by MarkerSortUtil.selectTopK(...)", fArray2[i], fArray1[i]);
+		}
+		// the rest is still there
+		MockMarkerEntry[] rest = Arrays.copyOfRange(fArray1, limit, fArray1.length);
+		Arrays.sort(rest, comparator);
+		for (int i = 0; i < rest.length; i++) {
+			assertEquals(fArray2[limit + i], rest[i]);
+		}
+	}
 	/**
 	 *
 	 */
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2014 IBM Corporation and others.
+ * Copyright (c) 2007, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -50,6 +50,7 @@ import org.eclipse.ui.handlers.IHandlerActivation;
 import org.eclipse.ui.handlers.IHandlerService;
 import org.eclipse.ui.internal.WorkbenchWindow;
 import org.eclipse.ui.internal.handlers.HandlerPersistence;
+import org.eclipse.ui.internal.services.EvaluationService;
 import org.eclipse.ui.services.IEvaluationReference;
 import org.eclipse.ui.services.IEvaluationService;
 import org.eclipse.ui.services.ISourceProviderService;
@@ -451,6 +452,53 @@ public class EvaluationServiceTest extends UITestCase {
 		assertEquals(3, listener.count);
 	}
 
+	public void testDeferredEvaluation() throws Exception {
+		IWorkbenchWindow window = openTestWindow();
+		IEvaluationService service = window
+				.getService(IEvaluationService.class);
+		EvaluationService workbenchService = (EvaluationService) getWorkbench()
+				.getService(IEvaluationService.class);
+
+		MyEval listener = new MyEval();
+		UserExpression expression = new UserExpression("Paul");
+		service.addEvaluationListener(expression, listener,
+				IEvaluationService.RESULT);
+		assertFalse(listener.currentValue);
+		assertEquals(1, listener.count);
+
+		ISourceProviderService sps = window
+				.getService(ISourceProviderService.class);
+		ActiveUserSourceProvider userProvider = (ActiveUserSourceProvider) sps
+				.getSourceProvider("username");
+
+		int delay = workbenchService.getEvaluationDelay();
+		try {
+			// long enough to not elapse during the test
+			workbenchService.setEvaluationDelay(60000);
+			userProvider.setUsername("Paul");
+			userProvider.setUsername("John");
+			userProvider.setUsername("Paul");
+			assertFalse(listener.currentValue);
+			assertEquals(1, listener.count);
+
+			// only the latest state is evaluated
+			workbenchService.evaluatePendingChanges();
+			assertTrue(listener.currentValue);
+			assertEquals(2, listener.count);
+
+			workbenchService.setEvaluationDelay(0);
+			userProvider.setUsername("guest");
+			assertTrue(listener.currentValue);
+			assertEquals(2, listener.count);
+
+			processEvents();
+			assertFalse(listener.currentValue);
+			assertEquals(3, listener.count);
+		} finally {
+			workbenchService.setEvaluationDelay(delay);
+		}
+	}
+
 	public void testSourceProviderPriority() throws Exception {
 		IHandlerService hs = getWorkbench().getService(IHandlerService.class);
 
@@ -533,6 +581,41 @@ public class EvaluationServiceTest extends UITestCase {
 		assertEquals(2, listener.count);
 	}
 
+	public void testPropertyChangeOnlyEvaluatesDependents() throws Exception {
+		IWorkbenchWindow window = openTestWindow();
+		IEvaluationService service = window
+				.getService(IEvaluationService.class);
+		assertNotNull(service);
+		final int[] evaluations = new int[1];
+		Expression expr = new Expression() {
+			@Override
+			public void collectExpressionInfo(ExpressionInfo info) {
+				info.addAccessedPropertyName("org.eclipse.ui.tests.dependent");
+			}
+
+			@Override
+			public EvaluationResult evaluate(IEvaluationContext context) {
+				evaluations[0]++;
+				return EvaluationResult.TRUE;
+			}
+		};
+		MyEval listener = new MyEval();
+		IEvaluationReference ref = service.addEvaluationListener(expr,
+				listener, IEvaluationService.RESULT);
+		int initial = evaluations[0];
+
+		service.requestEvaluation("org.eclipse.ui.tests.unrelated");
+		assertEquals(initial, evaluations[0]);
+
+		service.requestEvaluation("org.eclipse.ui.tests.dependent");
+		assertEquals(initial + 1, evaluations[0]);
+
+		service.removeEvaluationListener(ref);
+		int removed = evaluations[0];
+		service.requestEvaluation("org.eclipse.ui.tests.dependent");
+		assertEquals(removed, evaluations[0]);
+	}
+
 	public void testPlatformProperty() throws Exception {
 		IEvaluationService evaluationService = PlatformUI
 				.getWorkbench().getService(IEvaluationService.class);